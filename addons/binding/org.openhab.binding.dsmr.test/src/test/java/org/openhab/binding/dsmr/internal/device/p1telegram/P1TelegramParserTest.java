@@ -16,6 +16,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -62,4 +63,19 @@ public class P1TelegramParserTest {
         assertEquals("Expected number of objects", numberOfCosemObjects,
             telegram.getCosemObjects().stream().mapToInt(o -> o.getCosemValues().size()).sum());
     }
+
+    @Test
+    public void testParsingByteByByte() {
+        AtomicReference<P1Telegram> p1Telegram = new AtomicReference<>();
+        byte[] data = TelegramReaderUtil.readRawTelegram(telegramName);
+        P1TelegramParser parser = new P1TelegramParser(p1Telegram::set);
+
+        for (int i = 0; i < data.length; i++) {
+            parser.parseData(data, i, 1);
+        }
+        P1Telegram telegram = p1Telegram.get();
+        assertEquals("Expected TelegramState should be as expected", TelegramState.OK, telegram.getTelegramState());
+        assertEquals("Expected number of objects", numberOfCosemObjects,
+            telegram.getCosemObjects().stream().mapToInt(o -> o.getCosemValues().size()).sum());
+    }
 }
@@ -22,7 +22,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Factory for constructing Cosem Objects from Strings
+ * Factory for constructing Cosem Objects from an OBIS Identifier and its values
  *
  * @author M. Volaart - Initial contribution
  */
@@ -77,26 +77,17 @@ public class CosemObjectFactory {
     }
 
     /**
-     * Return Cosem Object from specified string or null if string couldn't be
+     * Return Cosem Object for the specified OBIS Identifier or null if the values couldn't be
      * parsed correctly or no corresponding Cosem Object was found
      *
-     * @param obisIdString String containing the OBIS message identifier
-     * @param cosemStringValues String containing Cosem values
+     * @param obisId the OBIS message identifier
+     * @param cosemStringValues the Cosem values, without the surrounding parentheses
      * @return CosemObject or null if parsing failed
      */
-    public CosemObject getCosemObject(String obisIdString, String cosemStringValues) {
-        OBISIdentifier obisId;
-        OBISIdentifier reducedObisId;
+    public CosemObject getCosemObject(OBISIdentifier obisId, List<String> cosemStringValues) {
+        OBISIdentifier reducedObisId = obisId.getReducedOBISIdentifier();
 
-        try {
-            obisId = new OBISIdentifier(obisIdString);
-            reducedObisId = obisId.getReducedOBISIdentifier();
-        } catch (ParseException pe) {
-            logger.debug("Received invalid OBIS identifier: {}", obisIdString);
-            return null;
-        }
-
-        logger.trace("Received obisIdString {}, obisId: {}, values: {}", obisIdString, obisId, cosemStringValues);
+        logger.trace("Received obisId: {}, values: {}", obisId, cosemStringValues);
 
         CosemObject cosemObject = null;
 
@@ -137,7 +128,7 @@ public class CosemObjectFactory {
      * @return a CosemObject or null if parsing failed
      */
     private CosemObject getCosemObjectInternal(CosemObjectType cosemObjectType, OBISIdentifier obisIdentifier,
-        String cosemStringValues) {
+        List<String> cosemStringValues) {
         CosemObject obj = new CosemObject(cosemObjectType, obisIdentifier);
 
         try {
@@ -13,7 +13,6 @@
 package org.openhab.binding.dsmr.internal.device.cosem;
 
 import java.text.ParseException;
-import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -209,8 +208,13 @@ public class OBISIdentifier {
 
     @Override
     public int hashCode() {
-        return Objects.hash(groupA, ((groupB == null) ? 0 : groupB), groupC, groupD, groupE,
-                ((groupF == null) ? 0 : groupF));
+        // Same value as Objects.hash, without the boxing of the groups, as this is used for every received object
+        int hash = 31 + groupA;
+        hash = 31 * hash + ((groupB == null) ? 0 : groupB);
+        hash = 31 * hash + groupC;
+        hash = 31 * hash + groupD;
+        hash = 31 * hash + groupE;
+        return 31 * hash + ((groupF == null) ? 0 : groupF);
     }
 
     /**
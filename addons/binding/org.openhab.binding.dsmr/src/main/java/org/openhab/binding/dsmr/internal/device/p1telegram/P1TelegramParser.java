@@ -15,11 +15,12 @@ package org.openhab.binding.dsmr.internal.device.p1telegram;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.dsmr.internal.device.cosem.CosemObject;
 import org.openhab.binding.dsmr.internal.device.cosem.CosemObjectFactory;
+import org.openhab.binding.dsmr.internal.device.cosem.OBISIdentifier;
 import org.openhab.binding.dsmr.internal.device.p1telegram.P1Telegram.TelegramState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +31,9 @@ import org.slf4j.LoggerFactory;
  *
  * Data can be parsed in chunks. If a full P1 telegram is received, listeners are notified
  *
+ * The data is processed byte by byte: the OBIS identifiers and the CRC value are parsed while they are received and
+ * the values are split on the fly, so only the values themselves are materialized as Strings.
+ *
  * @author M. Volaart - Initial contribution
  * @author Hilbrand Bouwkamp - Removed asynchronous call and some clean up
  */
@@ -59,21 +63,61 @@ public class P1TelegramParser {
     private final Logger logger = LoggerFactory.getLogger(P1TelegramParser.class);
 
     /**
-     * Pattern for the CRC-code
+     * Maximum number of groups of an OBIS identifier (A-B:C.D.E*F)
+     */
+    private static final int OBIS_ID_GROUPS = 6;
+
+    /**
+     * Maximum value of a group of an OBIS identifier, the specification only uses values up to 255
      */
-    private static final String CRC_PATTERN = "[0-9A-Z]{4}";
+    private static final int OBIS_ID_GROUP_MAX_VALUE = 9999;
+
+    /**
+     * Number of hexadecimal digits of the CRC-code
+     */
+    private static final int CRC_DIGITS = 4;
 
     /* internal state variables */
 
     /**
-     * current obisId buffer.
+     * Values of the groups of the current OBIS identifier.
+     */
+    private final int[] obisIdGroups = new int[OBIS_ID_GROUPS];
+
+    /**
+     * Character following each group of the current OBIS identifier, 0 for the group that is currently parsed.
+     */
+    private final char[] obisIdSeparators = new char[OBIS_ID_GROUPS];
+
+    /**
+     * Number of groups of the current OBIS identifier seen so far.
+     */
+    private int obisIdGroupCount;
+
+    /**
+     * True if the last character of the current OBIS identifier was a digit.
+     */
+    private boolean obisIdGroupOpen;
+
+    /**
+     * False if the current OBIS identifier contains unexpected characters.
      */
-    private final StringBuilder obisId = new StringBuilder();
+    private boolean obisIdValid = true;
 
     /**
-     * Current cosem object values buffer.
+     * Current cosem value buffer, reused for all values.
      */
-    private final StringBuilder cosemObjectValuesString = new StringBuilder();
+    private final StringBuilder cosemValue = new StringBuilder();
+
+    /**
+     * True while a cosem value is received, i.e. after a '(' and before the matching ')'.
+     */
+    private boolean cosemValueOpen;
+
+    /**
+     * Values of the current cosem object.
+     */
+    private final List<String> cosemValues = new ArrayList<>();
 
     /**
      * In lenient mode store raw data and log when a complete message is received.
@@ -83,7 +127,17 @@ public class P1TelegramParser {
     /**
      * Current crc value read.
      */
-    private final StringBuilder crcValue = new StringBuilder();
+    private int crcValue;
+
+    /**
+     * Number of characters of the current crc value read.
+     */
+    private int crcLength;
+
+    /**
+     * False if the current crc value contains a character that is not a hexadecimal digit.
+     */
+    private boolean crcValueValid = true;
 
     /**
      * CRC calculation helper
@@ -236,18 +290,17 @@ public class P1TelegramParser {
                      * P1 telegram is correctly finished
                      */
                     if (c == '\r' || c == '/') {
-                        logger.trace("telegramState {}, crcValue to check 0x{}", telegramState, crcValue);
+                        logger.trace("telegramState {}, crc length to check {}", telegramState, crcLength);
                         // Only perform CRC check if telegram is still ok
-                        if (telegramState == TelegramState.OK && crcValue.length() > 0) {
-                            if (Pattern.matches(CRC_PATTERN, crcValue)) {
-                                int crcP1Telegram = Integer.parseInt(crcValue.toString(), 16);
+                        if (telegramState == TelegramState.OK && crcLength > 0) {
+                            if (crcValueValid && crcLength == CRC_DIGITS) {
                                 int calculatedCRC = crc.getCurrentCRCCode();
 
-                                if (logger.isDebugEnabled()) {
-                                    logger.trace("received CRC value: {}, calculated CRC value: 0x{}", crcValue,
-                                        String.format("%04X", calculatedCRC));
+                                if (logger.isTraceEnabled()) {
+                                    logger.trace("received CRC value: 0x{}, calculated CRC value: 0x{}",
+                                        String.format("%04X", crcValue), String.format("%04X", calculatedCRC));
                                 }
-                                if (crcP1Telegram != calculatedCRC) {
+                                if (crcValue != calculatedCRC) {
                                     logger.trace("CRC value does not match, p1 Telegram failed");
 
                                     telegramState = TelegramState.CRC_ERROR;
@@ -310,22 +363,35 @@ public class P1TelegramParser {
                 crc.processByte((byte) c);
                 break;
             case DATA_OBIS_ID:
-                obisId.append(c);
+                handleObisIdCharacter(c);
                 crc.processByte((byte) c);
                 break;
             case DATA_OBIS_VALUE:
-                cosemObjectValuesString.append(c);
+                if (c == '(') {
+                    // Start of a value, a value within a value replaces the outer value
+                    cosemValue.setLength(0);
+                    cosemValueOpen = true;
+                } else {
+                    cosemValue.append(c);
+                }
                 crc.processByte((byte) c);
                 break;
             case DATA_OBIS_VALUE_END:
-                cosemObjectValuesString.append(c);
+                if (c == ')' && cosemValueOpen) {
+                    cosemValues.add(cosemValue.toString());
+                    cosemValueOpen = false;
+                }
                 crc.processByte((byte) c);
                 break;
             case CRC_VALUE:
                 if (c == '!') {
                     crc.processByte((byte) c);
                 } else {
-                    crcValue.append(c);
+                    int digit = Character.digit(c, 16);
+
+                    crcValueValid &= digit >= 0;
+                    crcValue = (crcValue << 4) | (digit & 0xF);
+                    crcLength++;
                 }
                 // CRC data is not part of received data
                 break;
@@ -334,14 +400,89 @@ public class P1TelegramParser {
         }
     }
 
+    /**
+     * Stores a single character of an OBIS identifier. The identifier has the form A-B:C.D.E*F, where only the groups
+     * C and D are required.
+     *
+     * @param c the character to process
+     */
+    private void handleObisIdCharacter(char c) {
+        if (c >= '0' && c <= '9') {
+            if (!obisIdGroupOpen) {
+                if (obisIdGroupCount == OBIS_ID_GROUPS) {
+                    obisIdValid = false;
+                    return;
+                }
+                obisIdGroups[obisIdGroupCount] = 0;
+                obisIdSeparators[obisIdGroupCount] = 0;
+                obisIdGroupCount++;
+                obisIdGroupOpen = true;
+            }
+            int value = obisIdGroups[obisIdGroupCount - 1] * 10 + (c - '0');
+
+            if (value > OBIS_ID_GROUP_MAX_VALUE) {
+                obisIdValid = false;
+            } else {
+                obisIdGroups[obisIdGroupCount - 1] = value;
+            }
+        } else if (obisIdGroupOpen && (c == '-' || c == ':' || c == '.' || c == '*')) {
+            obisIdSeparators[obisIdGroupCount - 1] = c;
+            obisIdGroupOpen = false;
+        } else {
+            obisIdValid = false;
+        }
+    }
+
+    /**
+     * Returns the current OBIS identifier or null if it is not a valid OBIS identifier.
+     *
+     * @return the current OBIS identifier or null
+     */
+    private @Nullable OBISIdentifier getObisIdentifier() {
+        // An identifier must not end with a separator
+        if (!obisIdValid || !obisIdGroupOpen) {
+            return null;
+        }
+        int group = 0;
+        int groupA = 0;
+        Integer groupB = null;
+
+        if (obisIdSeparators[group] == '-') {
+            groupA = obisIdGroups[group++];
+        }
+        if (obisIdSeparators[group] == ':') {
+            groupB = obisIdGroups[group++];
+        }
+        if (obisIdGroupCount - group < 2 || obisIdSeparators[group] != '.') {
+            return null;
+        }
+        int groupC = obisIdGroups[group++];
+        int groupD = obisIdGroups[group++];
+        int groupE = 0;
+        Integer groupF = null;
+
+        if (obisIdGroupCount - group == 2 && obisIdSeparators[group - 1] == '.') {
+            groupE = obisIdGroups[group++];
+            groupF = obisIdGroups[group++];
+        } else if (obisIdGroupCount - group == 1) {
+            if (obisIdSeparators[group - 1] == '.') {
+                groupE = obisIdGroups[group++];
+            } else {
+                groupF = obisIdGroups[group++];
+            }
+        }
+        return group == obisIdGroupCount ? new OBISIdentifier(groupA, groupB, groupC, groupD, groupE, groupF) : null;
+    }
+
     /**
      * Clears all internal state
      */
     private void clearInternalData() {
-        obisId.setLength(0);
-        cosemObjectValuesString.setLength(0);
+        clearObisData();
         rawData.setLength(0);
-        crcValue.setLength(0);
+        crcValue = 0;
+        crcLength = 0;
+        crcValueValid = true;
         crc.initialize();
         cosemObjects.clear();
     }
@@ -353,18 +494,26 @@ public class P1TelegramParser {
      * - current OBIS data object
      */
     private void clearObisData() {
-        obisId.setLength(0);
-        cosemObjectValuesString.setLength(0);
+        obisIdGroupCount = 0;
+        obisIdGroupOpen = false;
+        obisIdValid = true;
+        cosemValue.setLength(0);
+        cosemValueOpen = false;
+        cosemValues.clear();
     }
 
     /**
      * Store the current CosemObject in the list of received cosem Objects
      */
     private void storeCurrentCosemObject() {
-        String obisIdString = obisId.toString();
+        if (obisIdGroupCount > 0 || !obisIdValid) {
+            OBISIdentifier obisIdentifier = getObisIdentifier();
 
-        if (!obisIdString.isEmpty()) {
-            CosemObject cosemObject = factory.getCosemObject(obisIdString, cosemObjectValuesString.toString());
+            if (obisIdentifier == null) {
+                logger.debug("Received invalid OBIS identifier, values: {}", cosemValues);
+                return;
+            }
+            CosemObject cosemObject = factory.getCosemObject(obisIdentifier, cosemValues);
 
             if (cosemObject != null) {
                 logger.trace("Adding {} to list of Cosem Objects", cosemObject);
@@ -13,7 +13,9 @@
 package org.openhab.binding.dsmr.internal.handler;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -61,6 +63,11 @@ public class DSMRMeterHandler extends BaseThingHandler implements P1TelegramList
      */
     private List<CosemObject> lastReceivedValues = Collections.emptyList();
 
+    /**
+     * States last sent to the channels. Values that didn't change since the last telegram are not sent again.
+     */
+    private final Map<String, State> channelStates = new HashMap<>();
+
     /**
      * Reference to the meter watchdog.
      */
@@ -81,6 +88,10 @@ public class DSMRMeterHandler extends BaseThingHandler implements P1TelegramList
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
         if (command == RefreshType.REFRESH) {
+            synchronized (this) {
+                // Send all values again with the next update
+                channelStates.clear();
+            }
             updateState();
         }
     }
@@ -124,22 +135,29 @@ public class DSMRMeterHandler extends BaseThingHandler implements P1TelegramList
     /**
      * Updates the state of all channels from the last received Cosem values from the meter. The lastReceivedValues are
      * cleared after processing here so when it does contain values the next time this method is called and it contains
-     * values those are new values.
+     * values those are new values. Only states that changed since the last update are sent.
      */
     private synchronized void updateState() {
         logger.trace("Update state for device: {}", getThing().getThingTypeUID().getId());
         if (!lastReceivedValues.isEmpty()) {
             for (CosemObject cosemObject : lastReceivedValues) {
-                String channel = cosemObject.getType().name().toLowerCase();
+                String cosemChannel = cosemObject.getType().name().toLowerCase();
 
                 for (Entry<String, ? extends State> entry : cosemObject.getCosemValues().entrySet()) {
+                    String channel = cosemChannel;
+
                     if (!entry.getKey().isEmpty()) {
                         /* CosemObject has a specific sub channel */
                         channel += "_" + entry.getKey();
                     }
                     State newState = entry.getValue();
-                    logger.debug("Updating state for channel {} to value {}", channel, newState);
-                    updateState(channel, newState);
+
+                    if (newState.equals(channelStates.put(channel, newState))) {
+                        logger.trace("State for channel {} is unchanged: {}", channel, newState);
+                    } else {
+                        logger.debug("Updating state for channel {} to value {}", channel, newState);
+                        updateState(channel, newState);
+                    }
                 }
             }
             if (getThing().getStatus() != ThingStatus.ONLINE) {
@@ -206,6 +224,9 @@ public class DSMRMeterHandler extends BaseThingHandler implements P1TelegramList
      */
     private void setDeviceOffline(ThingStatusDetail status, @Nullable String details) {
         updateStatus(ThingStatus.OFFLINE, status, details);
+        synchronized (this) {
+            channelStates.clear();
+        }
         getThing().getChannels().forEach(c -> updateState(c.getUID(), UnDefType.NULL));
     }
 }
@@ -12,8 +12,9 @@
  */
 package org.openhab.binding.dsmr.internal.meter;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -42,9 +43,9 @@ public class DSMRMeter {
     private final DSMRMeterDescriptor meterDescriptor;
 
     /**
-     * List of supported message identifiers for this meter
+     * Set of supported message identifiers for this meter
      */
-    private List<OBISIdentifier> supportedIdentifiers = new ArrayList<>();
+    private Set<OBISIdentifier> supportedIdentifiers = new HashSet<>();
 
     /**
      * Creates a new DSMRMeter
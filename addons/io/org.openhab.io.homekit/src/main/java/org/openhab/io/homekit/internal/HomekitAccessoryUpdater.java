@@ -12,9 +12,16 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.StateChangeListener;
@@ -30,13 +37,28 @@ import com.beowulfe.hap.HomekitCharacteristicChangeCallback;
  * Homekit library takes care of insuring only a single subscription exists for
  * each accessory.
  *
+ * Changes are not notified right away. All characteristics that changed within
+ * {@link #NOTIFICATION_DELAY_MS} are notified together, and a characteristic that
+ * changed several times in this time is notified only once with its latest state.
+ * This avoids a flood of events if dimmers or sensors update frequently, or if one
+ * physical change updates several items of a grouped accessory.
+ *
  * @author Andy Lintner - Initial contribution
  */
 public class HomekitAccessoryUpdater {
 
+    private static final long NOTIFICATION_DELAY_MS = 100;
+    private static final String THREADPOOL_NAME = "homekit";
+
     private Logger logger = LoggerFactory.getLogger(HomekitAccessoryUpdater.class);
     private final ConcurrentMap<ItemKey, Subscription> subscriptionsByName = new ConcurrentHashMap<>();
 
+    /*
+     * The characteristics that changed since the last notification, in the order of their first change
+     */
+    private final Map<ItemKey, HomekitCharacteristicChangeCallback> pendingNotifications = new LinkedHashMap<>();
+    private ScheduledFuture<?> notificationJob;
+
     public void subscribe(GenericItem item, HomekitCharacteristicChangeCallback callback) {
         subscribe(item, null, callback);
     }
@@ -51,10 +73,11 @@ public class HomekitAccessoryUpdater {
         }
         subscriptionsByName.compute(itemKey, (k, v) -> {
             if (v != null) {
-                logger.debug("Compute: received duplicate subscription on item {} for key {}. Will unsubscribe.", item.getName(), key);
-                unsubscribe(item, key);
+                logger.debug("Compute: received duplicate subscription on item {} for key {}. Will unsubscribe.",
+                        item.getName(), key);
+                item.removeStateChangeListener(v);
             }
-            Subscription subscription = (changedItem, oldState, newState) -> callback.changed();
+            Subscription subscription = (changedItem, oldState, newState) -> changed(itemKey, callback);
             item.addStateChangeListener(subscription);
             logger.debug("Successfully added subscription for item '{}' using key '{}'", item.getName(), key);
             return subscription;
@@ -69,10 +92,54 @@ public class HomekitAccessoryUpdater {
         if (item == null) {
             return;
         }
-        subscriptionsByName.computeIfPresent(new ItemKey(item, key), (k, v) -> {
+        ItemKey itemKey = new ItemKey(item, key);
+        subscriptionsByName.computeIfPresent(itemKey, (k, v) -> {
             item.removeStateChangeListener(v);
             return null;
         });
+        synchronized (pendingNotifications) {
+            pendingNotifications.remove(itemKey);
+        }
+    }
+
+    /**
+     * Drops all pending notifications.
+     */
+    public void stop() {
+        synchronized (pendingNotifications) {
+            pendingNotifications.clear();
+            if (notificationJob != null) {
+                notificationJob.cancel(false);
+                notificationJob = null;
+            }
+        }
+    }
+
+    private void changed(ItemKey itemKey, HomekitCharacteristicChangeCallback callback) {
+        synchronized (pendingNotifications) {
+            pendingNotifications.put(itemKey, callback);
+            if (notificationJob == null) {
+                notificationJob = ThreadPoolManager.getScheduledPool(THREADPOOL_NAME).schedule(this::notifyChanges,
+                        NOTIFICATION_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void notifyChanges() {
+        List<HomekitCharacteristicChangeCallback> callbacks;
+        synchronized (pendingNotifications) {
+            notificationJob = null;
+            callbacks = new ArrayList<>(pendingNotifications.values());
+            pendingNotifications.clear();
+        }
+        logger.trace("Notifying {} changed characteristics", callbacks.size());
+        for (HomekitCharacteristicChangeCallback callback : callbacks) {
+            try {
+                callback.changed();
+            } catch (RuntimeException e) {
+                logger.warn("Could not notify HomeKit clients of a changed characteristic: {}", e.getMessage(), e);
+            }
+        }
     }
 
     @FunctionalInterface
@@ -95,6 +95,7 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         if (this.itemRegistry != null) {
             this.itemRegistry.removeRegistryChangeListener(this);
         }
+        updater.stop();
     }
 
     private void createRootDevice(HomekitTaggedItem taggedItem) {
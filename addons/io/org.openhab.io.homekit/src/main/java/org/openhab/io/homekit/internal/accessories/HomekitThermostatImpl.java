@@ -190,7 +190,7 @@ class HomekitThermostatImpl extends AbstractTemperatureHomekitAccessoryImpl<Grou
 
     @Override
     public void subscribeCurrentMode(HomekitCharacteristicChangeCallback callback) {
-        getUpdater().subscribe(getGenericItem(heatingCoolingModeItemName), callback);
+        getUpdater().subscribe(getGenericItem(heatingCoolingModeItemName), "currentMode", callback);
     }
 
     @Override
@@ -200,7 +200,7 @@ class HomekitThermostatImpl extends AbstractTemperatureHomekitAccessoryImpl<Grou
 
     @Override
     public void subscribeTargetMode(HomekitCharacteristicChangeCallback callback) {
-        getUpdater().subscribe(getGenericItem(heatingCoolingModeItemName), callback);
+        getUpdater().subscribe(getGenericItem(heatingCoolingModeItemName), "targetMode", callback);
     }
 
     @Override
@@ -210,7 +210,7 @@ class HomekitThermostatImpl extends AbstractTemperatureHomekitAccessoryImpl<Grou
 
     @Override
     public void unsubscribeCurrentMode() {
-        getUpdater().unsubscribe(getGenericItem(heatingCoolingModeItemName));
+        getUpdater().unsubscribe(getGenericItem(heatingCoolingModeItemName), "currentMode");
     }
 
     @Override
@@ -220,7 +220,7 @@ class HomekitThermostatImpl extends AbstractTemperatureHomekitAccessoryImpl<Grou
 
     @Override
     public void unsubscribeTargetMode() {
-        getUpdater().unsubscribe(getGenericItem(heatingCoolingModeItemName));
+        getUpdater().unsubscribe(getGenericItem(heatingCoolingModeItemName), "targetMode");
     }
 
     @Override
@@ -201,6 +201,8 @@ public class HueEmulationServiceOSGiTest extends JavaOSGiTest {
         hueService.ds.lights.put(1, new HueDevice(item, "switch", DeviceType.SwitchType));
         hueService.ds.lights.put(2, new HueDevice(item, "color", DeviceType.ColorType));
         hueService.ds.lights.put(3, new HueDevice(item, "white", DeviceType.WhiteTemperatureType));
+        // The lights response of the first request is cached
+        hueService.ds.increaseVersion();
 
         // Full access test
         c = (HttpURLConnection) new URL(host + "/api/testuser/lights").openConnection();
@@ -21,6 +21,8 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -29,6 +31,7 @@ import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.items.GroupItem;
 import org.eclipse.smarthome.core.library.items.ColorItem;
 import org.eclipse.smarthome.core.library.items.SwitchItem;
+import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -187,4 +190,45 @@ public class HueRestAPITest {
         assertThat(((HueStateColorBulb) ds.lights.get(2).state).toHSBType().getSaturation().intValue(), is(88));
         assertThat(((HueStateColorBulb) ds.lights.get(2).state).toHSBType().getBrightness().intValue(), is(78));
     }
+
+    @Test
+    public void cachedLightsWithETag() throws IOException {
+        ds.config.whitelist.put("testuser", new HueUserAuth("testuser"));
+        List<String> etags = new ArrayList<>();
+
+        StringWriter out = new StringWriter();
+        int result = restAPI.handle(HttpMethod.GET, "", out, Paths.get("/api/testuser/lights"), false, null,
+                etags::add);
+        assertEquals(200, result);
+        assertThat(etags.size(), is(1));
+        assertThat(out.toString(), is(gson.toJson(ds.lights)));
+        String etag = etags.get(0);
+
+        // Unchanged data store -> Not modified
+        out = new StringWriter();
+        result = restAPI.handle(HttpMethod.GET, "", out, Paths.get("/api/testuser/lights/1"), false, etag,
+                etags::add);
+        assertEquals(304, result);
+        assertThat(etags.get(1), is(etag));
+
+        // Changed data store -> new ETag and the new state
+        ((SwitchItem) ds.lights.get(1).item).setState(OnOffType.ON);
+        ds.increaseVersion();
+        out = new StringWriter();
+        result = restAPI.handle(HttpMethod.GET, "", out, Paths.get("/api/testuser/lights/1"), false, etag,
+                etags::add);
+        assertEquals(200, result);
+        assertThat(etags.get(2), is(not(etag)));
+        assertThat(out.toString(), containsString("\"on\":true"));
+    }
+
+    @Test
+    public void dataStoreWithCachedLights() throws IOException {
+        ds.config.whitelist.put("testuser", new HueUserAuth("testuser"));
+
+        StringWriter out = new StringWriter();
+        int result = restAPI.handle(HttpMethod.GET, "", out, Paths.get("/api/testuser"), false);
+        assertEquals(200, result);
+        assertThat(out.toString(), is(gson.toJson(ds)));
+    }
 }
@@ -18,13 +18,16 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
 
 import org.eclipse.smarthome.core.items.GroupItem;
+import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.library.items.SwitchItem;
+import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.storage.Storage;
 import org.junit.Before;
 import org.junit.Test;
@@ -149,6 +152,9 @@ public class LightItemsTest {
         newitem.setLabel("labelNew");
         newitem.addTag("Switchable");
         lightItems.updated(item, newitem);
+        // The published device is replaced, not changed
+        assertThat(device.item, is(item));
+        assertThat(device.name, is("labelOld"));
         device = ds.lights.get(hueID);
         assertThat(device.item, is(newitem));
         assertThat(device.state, is(instanceOf(HueStatePlug.class)));
@@ -163,4 +169,49 @@ public class LightItemsTest {
         assertThat(device, nullValue());
         assertThat(lightItems.itemUIDtoHueID.get("switch1"), nullValue());
     }
+
+    @Test
+    public void stateChangeIncreasesVersion() throws IOException {
+        SwitchItem item = new SwitchItem("switch1");
+        item.setCategory("Light");
+        lightItems.added(item);
+        long version = ds.getVersion();
+
+        // State change listeners are notified asynchronously
+        item.setState(OnOffType.ON);
+        verify(lightItems, timeout(1000)).stateChanged(eq(item), any(), eq(OnOffType.ON));
+        assertThat(ds.getVersion(), is(not(version)));
+
+        // No notifications after the item has been removed
+        lightItems.removed(item);
+        version = ds.getVersion();
+        item.setState(OnOffType.OFF);
+        verify(lightItems, after(100).never()).stateChanged(eq(item), any(), eq(OnOffType.OFF));
+        assertThat(ds.getVersion(), is(version));
+    }
+
+    @Test
+    public void fetchItemsPublishesOnce() throws IOException {
+        SwitchItem item1 = new SwitchItem("switch1");
+        item1.addTag("Switchable");
+        SwitchItem item2 = new SwitchItem("switch2");
+        item2.addTag("Switchable");
+        when(itemRegistry.getItems()).thenReturn(Arrays.<Item> asList(item1, item2, new SwitchItem("other")));
+
+        TreeMap<Integer, HueDevice> oldLights = ds.lights;
+        long version = ds.getVersion();
+        lightItems.fetchItems();
+
+        assertThat(ds.getVersion(), is(version + 1));
+        assertThat(ds.lights.size(), is(2));
+        assertThat(ds.groups.get(0).lights.size(), is(2));
+
+        // Published maps are never modified
+        TreeMap<Integer, HueDevice> lights = ds.lights;
+        lightItems.removed(item1);
+        assertThat(oldLights.size(), is(0));
+        assertThat(lights.size(), is(2));
+        assertThat(ds.lights.size(), is(1));
+        assertThat(ds.groups.get(0).lights.size(), is(1));
+    }
 }
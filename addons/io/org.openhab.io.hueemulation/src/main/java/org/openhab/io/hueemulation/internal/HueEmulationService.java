@@ -176,8 +176,12 @@ public class HueEmulationService implements ReadyTracker {
 
                 int statuscode = 0;
                 try {
-                    statuscode = restAPI.handle(method, postBody, out, path, isDebug);
+                    statuscode = restAPI.handle(method, postBody, out, path, isDebug, req.getHeader("If-None-Match"),
+                            etag -> resp.setHeader("ETag", etag));
                     switch (statuscode) {
+                        case 304: // The client has the current version already
+                            resp.setStatus(statuscode);
+                            return;
                         case 10403: // Fake status code -> translate to real one
                             statuscode = 403;
                             apiServerError(req, out, HueResponse.LINK_BUTTON_NOT_PRESSED, "link button not pressed");
@@ -13,19 +13,24 @@
 package org.openhab.io.hueemulation.internal;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.common.registry.RegistryChangeListener;
+import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.GroupItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.items.StateChangeListener;
 import org.eclipse.smarthome.core.library.CoreItemFactory;
 import org.eclipse.smarthome.core.storage.Storage;
+import org.eclipse.smarthome.core.types.State;
 import org.openhab.io.hueemulation.internal.dto.HueDataStore;
 import org.openhab.io.hueemulation.internal.dto.HueDevice;
 import org.openhab.io.hueemulation.internal.dto.HueGroup;
@@ -56,21 +61,25 @@ import org.slf4j.LoggerFactory;
  * </p>
  *
  * <p>
+ * The lights and groups of the {@link HueDataStore} are copy-on-write maps. A registry change is applied to copies,
+ * which are then published at once. The REST API can read the lights and groups without locking.
+ * The version of the {@link HueDataStore} is increased on every change of an exposed item, including state changes.
+ * Cached API responses are only valid for one version.
  * </p>
  *
  * @author David Graeff - Initial contribution
  * @author Florian Schmidt - Removed base type restriction from Group items
  */
 @NonNullByDefault
-public class LightItems implements RegistryChangeListener<Item> {
+public class LightItems implements RegistryChangeListener<Item>, StateChangeListener {
     private final Logger logger = LoggerFactory.getLogger(LightItems.class);
     private static final String ITEM_TYPE_GROUP = "Group";
     private static final Set<String> ALLOWED_ITEM_TYPES = Stream
             .of(CoreItemFactory.COLOR, CoreItemFactory.DIMMER, CoreItemFactory.ROLLERSHUTTER, CoreItemFactory.SWITCH, ITEM_TYPE_GROUP)
             .collect(Collectors.toSet());
 
-    // deviceMap maps a unique Item id to a Hue numeric id
-    final TreeMap<String, Integer> itemUIDtoHueID = new TreeMap<>();
+    // deviceMap maps a unique Item id to a Hue numeric id. Also read by the group serializer of the REST API.
+    final Map<String, Integer> itemUIDtoHueID = new ConcurrentHashMap<>();
     private final HueDataStore dataStore;
     private Set<String> switchFilter = Collections.emptySet();
     private Set<String> colorFilter = Collections.emptySet();
@@ -79,6 +88,47 @@ public class LightItems implements RegistryChangeListener<Item> {
     private boolean initDone = false;
     private @NonNullByDefault({}) ItemRegistry itemRegistry;
 
+    /**
+     * Copies of the lights and groups of the data store. Changes are applied to the copies and published at once
+     * with {@link #publish()}.
+     */
+    private class Update {
+        final TreeMap<Integer, HueDevice> lights;
+        final TreeMap<Integer, HueGroup> groups;
+        boolean modified = false;
+        boolean associationCreated = false;
+
+        /**
+         * Start with the current lights and groups.
+         */
+        Update() {
+            this(new TreeMap<>(dataStore.lights), new TreeMap<>(dataStore.groups));
+        }
+
+        Update(TreeMap<Integer, HueDevice> lights, TreeMap<Integer, HueGroup> groups) {
+            this.lights = lights;
+            this.groups = groups;
+        }
+
+        int generateNextLightHueID() {
+            return lights.isEmpty() ? 1 : lights.lastKey() + 1;
+        }
+
+        /**
+         * Publish the lights and groups, if anything has been modified. The HUE API enforces a Group 0 that contains
+         * all lights, it is recreated here.
+         */
+        void publish() {
+            if (!modified) {
+                return;
+            }
+            HueGroup group0 = new HueGroup("All lights", null, Collections.emptyMap());
+            group0.lights = lights.keySet().stream().map(v -> String.valueOf(v)).collect(Collectors.toList());
+            groups.put(0, group0);
+            dataStore.setLightsAndGroups(lights, groups);
+        }
+    }
+
     public LightItems(HueDataStore ds) {
         dataStore = ds;
     }
@@ -154,20 +204,25 @@ public class LightItems implements RegistryChangeListener<Item> {
     public synchronized void fetchItems() {
         initDone = false;
 
-        dataStore.resetGroupsAndLights();
+        dataStore.lights.values().forEach(device -> unregisterStateListener(device.item));
 
         itemRegistry.removeRegistryChangeListener(this);
         itemRegistry.addRegistryChangeListener(this);
 
-        boolean changed = false;
+        // All items are published at once, the REST API sees the old lights until then
+        Update update = new Update(new TreeMap<>(), new TreeMap<>());
+        update.modified = true;
         for (Item item : itemRegistry.getItems()) {
-            changed |= addItem(item);
+            addItem(update, item);
         }
+        update.publish();
         initDone = true;
 
-        logger.debug("Added items: {}",
-                dataStore.lights.values().stream().map(l -> l.name).collect(Collectors.joining(", ")));
-        if (changed) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Added items: {}",
+                    dataStore.lights.values().stream().map(l -> l.name).collect(Collectors.joining(", ")));
+        }
+        if (update.associationCreated) {
             writeToFile();
         }
     }
@@ -191,9 +246,31 @@ public class LightItems implements RegistryChangeListener<Item> {
     /**
      * Unregisters from the {@link ItemRegistry}.
      */
-    public void close() {
+    public synchronized void close() {
         writeToFile();
         itemRegistry.removeRegistryChangeListener(this);
+        dataStore.lights.values().forEach(device -> unregisterStateListener(device.item));
+    }
+
+    private void registerStateListener(Item item) {
+        if (item instanceof GenericItem) {
+            ((GenericItem) item).addStateChangeListener(this);
+        }
+    }
+
+    private void unregisterStateListener(Item item) {
+        if (item instanceof GenericItem) {
+            ((GenericItem) item).removeStateChangeListener(this);
+        }
+    }
+
+    @Override
+    public void stateChanged(Item item, State oldState, State newState) {
+        dataStore.increaseVersion();
+    }
+
+    @Override
+    public void stateUpdated(Item item, State state) {
     }
 
     private @Nullable DeviceType determineTargetType(@Nullable String category, String type, Set<String> tags) {
@@ -247,7 +324,9 @@ public class LightItems implements RegistryChangeListener<Item> {
 
     @Override
     public synchronized void added(Item element) {
-        addItem(element);
+        Update update = new Update();
+        addItem(update, element);
+        update.publish();
     }
 
     String getType(Item element) {
@@ -258,53 +337,50 @@ public class LightItems implements RegistryChangeListener<Item> {
     }
 
     @SuppressWarnings({ "unused", "null" })
-    public boolean addItem(Item element) {
+    private void addItem(Update update, Item element) {
         // Only allowed types
         String type = getType(element);
 
         if (!ALLOWED_ITEM_TYPES.contains(type)) {
-            return false;
+            return;
         }
 
         DeviceType t = determineTargetType(element.getCategory(), type, element.getTags());
         if (t == null) {
-            return false;
+            return;
         }
 
         Integer hueID = itemUIDtoHueID.get(element.getUID());
 
         boolean itemAssociationCreated = false;
         if (hueID == null) {
-            hueID = dataStore.generateNextLightHueID();
+            hueID = update.generateNextLightHueID();
             itemAssociationCreated = true;
         }
 
         HueDevice device = new HueDevice(element, dataStore.config.uuid + "-" + hueID.toString(), t);
         device.item = element;
-        dataStore.lights.put(hueID, device);
+        HueDevice oldDevice = update.lights.put(hueID, device);
+        if (oldDevice != null) {
+            unregisterStateListener(oldDevice.item);
+        }
+        registerStateListener(element);
         if (element instanceof GroupItem) {
             GroupItem g = (GroupItem) element;
             g.getMembers();
             HueGroup group = new HueGroup(g.getName(), g, itemUIDtoHueID);
-            dataStore.groups.put(hueID, group);
+            update.groups.put(hueID, group);
         }
-        updateGroup0();
+        update.modified = true;
+        update.associationCreated |= itemAssociationCreated;
         itemUIDtoHueID.put(element.getUID(), hueID);
         if (initDone) {
             logger.debug("Add item {}", element.getUID());
-            if (itemAssociationCreated) {
-                writeToFile();
+            Storage<Integer> storage = this.storage;
+            if (itemAssociationCreated && storage != null) {
+                storage.put(element.getUID(), hueID);
             }
         }
-        return itemAssociationCreated;
-    }
-
-    /**
-     * The HUE API enforces a Group 0 that contains all lights.
-     */
-    private void updateGroup0() {
-        dataStore.groups.get(0).lights = dataStore.lights.keySet().stream().map(v -> String.valueOf(v))
-                .collect(Collectors.toList());
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -315,11 +391,19 @@ public class LightItems implements RegistryChangeListener<Item> {
             return;
         }
         logger.debug("Remove item {}", element.getUID());
-        dataStore.lights.remove(hueID);
-        dataStore.groups.remove(hueID);
-        updateGroup0();
+        Update update = new Update();
+        HueDevice device = update.lights.remove(hueID);
+        if (device != null) {
+            unregisterStateListener(device.item);
+        }
+        update.groups.remove(hueID);
+        update.modified = true;
+        update.publish();
         itemUIDtoHueID.remove(element.getUID());
-        writeToFile();
+        Storage<Integer> storage = this.storage;
+        if (storage != null) {
+            storage.remove(element.getUID());
+        }
     }
 
     /**
@@ -335,17 +419,24 @@ public class LightItems implements RegistryChangeListener<Item> {
             return;
         }
 
-        HueGroup hueGroup = dataStore.groups.get(hueID);
+        // The published lights and groups are read without locking. They are replaced by updated copies.
+        Update update = new Update();
+        HueGroup hueGroup = update.groups.get(hueID);
         if (hueGroup != null) {
             if (element instanceof GroupItem) {
-                hueGroup.updateItem((GroupItem) element);
+                HueGroup group = new HueGroup(hueGroup.name, (GroupItem) element, itemUIDtoHueID);
+                group.type = hueGroup.type;
+                group.action = hueGroup.action;
+                update.groups.put(hueID, group);
             } else {
-                dataStore.groups.remove(hueID);
+                update.groups.remove(hueID);
             }
+            update.modified = true;
         }
 
-        HueDevice hueDevice = dataStore.lights.get(hueID);
+        HueDevice hueDevice = update.lights.get(hueID);
         if (hueDevice == null) {
+            update.publish();
             // If the correct tags got added -> use the logic within added()
             added(element);
             return;
@@ -354,10 +445,19 @@ public class LightItems implements RegistryChangeListener<Item> {
         // Check if type can still be determined (tags and category is still sufficient)
         DeviceType t = determineTargetType(element.getCategory(), getType(element), element.getTags());
         if (t == null) {
+            update.publish();
             removed(element);
             return;
         }
 
-        hueDevice.updateItem(element);
+        HueDevice device = new HueDevice(element, hueDevice.uniqueid, hueDevice.deviceType);
+        if (element.getLabel() == null) {
+            device.name = hueDevice.name;
+        }
+        unregisterStateListener(hueDevice.item);
+        update.lights.put(hueID, device);
+        registerStateListener(element);
+        update.modified = true;
+        update.publish();
     }
 }
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -65,6 +66,7 @@ public class RESTApi {
     private final Gson gson;
     private final UserManagement userManagement;
     private final ConfigManagement configManagement;
+    private final ResponseCache responseCache;
     private @NonNullByDefault({}) EventPublisher eventPublisher;
 
     public static enum HttpMethod {
@@ -79,6 +81,7 @@ public class RESTApi {
         this.userManagement = userManagement;
         this.configManagement = configManagement;
         this.gson = gson;
+        this.responseCache = new ResponseCache(ds, gson);
     }
 
     public void setEventPublisher(@Nullable EventPublisher eventPublisher) {
@@ -101,9 +104,27 @@ public class RESTApi {
      *
      * @param isDebug
      */
-    @SuppressWarnings("null")
     public int handle(HttpMethod method, String body, Writer out, Path path, boolean isDebug)
             throws IOException, JsonParseException {
+        return handle(method, body, out, path, isDebug, null, etag -> {
+        });
+    }
+
+    /**
+     * Handles /api and forwards any deeper path.
+     *
+     * <p>
+     * GET requests of the lights and groups are answered from the {@link ResponseCache}. Their ETag is reported to the
+     * given consumer. If it matches the If-None-Match header of the request, the fake status code 304 is returned and
+     * the written response must not be sent.
+     * </p>
+     *
+     * @param ifNoneMatch The value of the If-None-Match header or null
+     * @param etag Receives the ETag of cacheable responses
+     */
+    @SuppressWarnings("null")
+    public int handle(HttpMethod method, String body, Writer out, Path path, boolean isDebug,
+            @Nullable String ifNoneMatch, Consumer<String> etag) throws IOException, JsonParseException {
         if (!"api".equals(path.getName(0).toString())) {
             return 404;
         }
@@ -140,7 +161,35 @@ public class RESTApi {
 
         Path userPath = remaining(path);
 
-        return handleUser(method, body, out, userPath.getName(0).toString(), remaining(userPath), path, isDebug);
+        // Take the ETag before handling the request. The response may be newer than the ETag, but never older.
+        String cachedETag = method == HttpMethod.GET && !isDebug && isCacheable(remaining(userPath))
+                ? responseCache.get().etag
+                : null;
+
+        int statuscode = handleUser(method, body, out, userPath.getName(0).toString(), remaining(userPath), path,
+                isDebug);
+        if (cachedETag != null && statuscode == 200) {
+            etag.accept(cachedETag);
+            if (cachedETag.equals(ifNoneMatch)) {
+                return 304;
+            }
+        }
+        return statuscode;
+    }
+
+    /**
+     * Return true for /lights, /lights/{id}, /groups and /groups/{id}. The responses of those paths only change with
+     * the version of the {@link HueDataStore}.
+     */
+    private boolean isCacheable(Path remainingPath) {
+        if (remainingPath.getNameCount() < 1 || remainingPath.getNameCount() > 2) {
+            return false;
+        }
+        String function = remainingPath.getName(0).toString();
+        if (remainingPath.getNameCount() == 2 && "new".equals(remainingPath.getName(1).toString())) {
+            return false;
+        }
+        return "lights".equals(function) || "groups".equals(function);
     }
 
     /**
@@ -168,7 +217,7 @@ public class RESTApi {
         if (remainingPath.getNameCount() == 0) { /** /api/{username} */
             switch (method) {
                 case GET:
-                    out.write(gson.toJson(ds));
+                    writeDataStore(out);
                     return 200;
                 default:
                     return 405;
@@ -274,8 +323,7 @@ public class RESTApi {
                             out.write("\n");
                         }
                     } else {
-                        ds.lights.values().forEach(v -> v.updateState());
-                        out.write(gson.toJson(ds.lights));
+                        out.write(responseCache.get().lights);
                     }
                     return 200;
                 case POST:
@@ -318,8 +366,11 @@ public class RESTApi {
 
         /** /api/{username}/lights/{id} */
         if (remainingPath.getNameCount() == 1) {
-            hueDevice.updateState();
-            out.write(gson.toJson(hueDevice));
+            String light = responseCache.get().light(hueID);
+            if (light == null) {
+                return 404;
+            }
+            out.write(light);
             return 200;
         }
 
@@ -341,7 +392,7 @@ public class RESTApi {
         if (remainingPath.getNameCount() == 0) {
             switch (method) {
                 case GET:
-                    out.write(gson.toJson(ds.groups));
+                    out.write(responseCache.get().groups);
                     return 200;
                 case POST:
                     int hueid = ds.generateNextGroupHueID();
@@ -424,6 +475,31 @@ public class RESTApi {
         return 200;
     }
 
+    /**
+     * Writes the whole data store like {@code gson.toJson(ds)} would, but uses the cached lights and groups. The config
+     * contains the current time and is serialized on every request.
+     */
+    private void writeDataStore(Writer out) throws IOException {
+        ResponseCache.Snapshot snapshot = responseCache.get();
+        out.write("{\"config\":");
+        out.write(gson.toJson(ds.config));
+        out.write(",\"lights\":");
+        out.write(snapshot.lights);
+        out.write(",\"groups\":");
+        out.write(snapshot.groups);
+        out.write(",\"scenes\":");
+        out.write(gson.toJson(ds.scenes));
+        out.write(",\"rules\":");
+        out.write(gson.toJson(ds.rules));
+        out.write(",\"sensors\":");
+        out.write(gson.toJson(ds.sensors));
+        out.write(",\"schedules\":");
+        out.write(gson.toJson(ds.schedules));
+        out.write(",\"resourcelinks\":");
+        out.write(gson.toJson(ds.resourcelinks));
+        out.write("}");
+    }
+
     /**
      * Update changing parameters of the data store like the time.
      */
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.hueemulation.internal.dto.HueDataStore;
+import org.openhab.io.hueemulation.internal.dto.HueDevice;
+
+import com.google.gson.Gson;
+
+/**
+ * Keeps the serialized JSON responses of /api/{username}/lights and /api/{username}/groups.
+ *
+ * <p>
+ * Hue clients like the Amazon Echo or the Harmony hub poll the lights several times per second. Instead of serializing
+ * the {@link HueDataStore} on every request, a {@link Snapshot} of the serialized lights and groups is kept until the
+ * version of the data store changes. See {@link HueDataStore#getVersion()}.
+ * </p>
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ResponseCache {
+    private final HueDataStore ds;
+    private final Gson gson;
+    // Makes the ETags of different runs distinguishable, the version starts at 0 on every start
+    private final String etagPrefix = Long.toHexString(System.currentTimeMillis());
+    private volatile @Nullable Snapshot snapshot;
+
+    /**
+     * The serialized lights and groups of one version of the data store.
+     */
+    public class Snapshot {
+        public final long version;
+        public final String etag;
+        public final String lights;
+        public final String groups;
+        private final Map<Integer, String> light = new ConcurrentHashMap<>();
+
+        Snapshot(long version, String lights, String groups) {
+            this.version = version;
+            this.etag = "\"" + etagPrefix + "-" + version + "\"";
+            this.lights = lights;
+            this.groups = groups;
+        }
+
+        /**
+         * Return the serialized light with the given hue ID or null if there is no such light.
+         */
+        public @Nullable String light(int hueID) {
+            return light.computeIfAbsent(hueID, id -> {
+                HueDevice hueDevice = ds.lights.get(id);
+                if (hueDevice == null) {
+                    return null;
+                }
+                hueDevice.updateState();
+                return gson.toJson(hueDevice);
+            });
+        }
+    }
+
+    public ResponseCache(HueDataStore ds, Gson gson) {
+        this.ds = ds;
+        this.gson = gson;
+    }
+
+    /**
+     * Return the snapshot of the current version of the data store. The snapshot is only created if the version
+     * changed since the last call.
+     */
+    public Snapshot get() {
+        Snapshot snapshot = this.snapshot;
+        if (snapshot != null && snapshot.version == ds.getVersion()) {
+            return snapshot;
+        }
+        synchronized (this) {
+            // The version is read before serializing. A change during the serialization results in a new snapshot on
+            // the next call.
+            long version = ds.getVersion();
+            snapshot = this.snapshot;
+            if (snapshot != null && snapshot.version == version) {
+                return snapshot;
+            }
+            TreeMap<Integer, HueDevice> lights = ds.lights;
+            lights.values().forEach(v -> v.updateState());
+            snapshot = new Snapshot(version, gson.toJson(lights), gson.toJson(ds.groups));
+            this.snapshot = snapshot;
+            return snapshot;
+        }
+    }
+}
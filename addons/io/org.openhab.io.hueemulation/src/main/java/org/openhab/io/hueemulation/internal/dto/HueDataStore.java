@@ -15,6 +15,7 @@ package org.openhab.io.hueemulation.internal.dto;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 
@@ -29,23 +30,55 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 @NonNullByDefault
 public class HueDataStore {
     public HueAuthorizedConfig config = new HueAuthorizedConfig();
-    public TreeMap<Integer, HueDevice> lights = new TreeMap<>();
-    public TreeMap<Integer, HueGroup> groups = new TreeMap<>();
+    /**
+     * Lights and groups are copy-on-write maps: They are replaced as a whole by
+     * {@link #setLightsAndGroups(TreeMap, TreeMap)} and never modified once published, so that they can be read
+     * without locking.
+     */
+    public volatile TreeMap<Integer, HueDevice> lights = new TreeMap<>();
+    public volatile TreeMap<Integer, HueGroup> groups = new TreeMap<>();
     public Map<Integer, Dummy> scenes = new TreeMap<>();
     public Map<Integer, Dummy> rules = new TreeMap<>();
     public Map<Integer, Dummy> sensors = new TreeMap<>();
     public Map<Integer, Dummy> schedules = new TreeMap<>();
     public Map<Integer, Dummy> resourcelinks = Collections.emptyMap();
 
+    /** Increased on every change of the lights or groups. Used to invalidate cached responses. */
+    private final transient AtomicLong version = new AtomicLong();
+
     public HueDataStore() {
         resetGroupsAndLights();
     }
 
     public void resetGroupsAndLights() {
-        groups.clear();
-        lights.clear();
+        TreeMap<Integer, HueGroup> groups = new TreeMap<>();
         // There must be a group 0 all the time!
         groups.put(0, new HueGroup("All lights", null, Collections.emptyMap()));
+        setLightsAndGroups(new TreeMap<>(), groups);
+    }
+
+    /**
+     * Replaces the lights and groups and increases the version. The given maps must not be modified afterwards.
+     */
+    public void setLightsAndGroups(TreeMap<Integer, HueDevice> lights, TreeMap<Integer, HueGroup> groups) {
+        this.lights = lights;
+        this.groups = groups;
+        increaseVersion();
+    }
+
+    /**
+     * Return the version of the lights and groups. The version changes whenever a light or group is added, removed or
+     * changed, including state changes of the associated items.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Marks the lights and groups as changed.
+     */
+    public void increaseVersion() {
+        version.incrementAndGet();
     }
 
     public int generateNextLightHueID() {
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests cases for {@link ItemUpdateCollector}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ItemUpdateCollectorTest {
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Mock
+    private ScheduledFuture<?> job;
+
+    private final List<String> sent = new ArrayList<>();
+    private boolean connected = true;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        doReturn(job).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    private boolean send(String itemName, String itemState) {
+        if (connected) {
+            sent.add(itemName + "=" + itemState);
+        }
+        return connected;
+    }
+
+    private Runnable scheduledJob() {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, atLeastOnce()).schedule(captor.capture(), eq(1000L), eq(TimeUnit.MILLISECONDS));
+        return captor.getValue();
+    }
+
+    @Test
+    public void latestStatePerItemIsSent() {
+        ItemUpdateCollector collector = new ItemUpdateCollector(1000, scheduler, this::send);
+        collector.add("Light", "ON");
+        collector.add("Temperature", "20.5");
+        collector.add("Light", "OFF");
+        collector.add("Temperature", "20.6");
+        collector.add("Light", "ON");
+
+        verify(scheduler, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        assertThat(sent.isEmpty(), is(true));
+        assertThat(collector.getPendingItemUpdates(), is(2));
+
+        scheduledJob().run();
+        assertThat(sent, is(Arrays.asList("Light=ON", "Temperature=20.6")));
+        assertThat(collector.getPendingItemUpdates(), is(0));
+        assertThat(collector.getSentItemUpdates(), is(2L));
+        assertThat(collector.getCoalescedItemUpdates(), is(3L));
+        assertThat(collector.getDroppedItemUpdates(), is(0L));
+
+        // The next update starts a new interval
+        collector.add("Light", "OFF");
+        verify(scheduler, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void updatesAreDroppedWithoutConnection() {
+        ItemUpdateCollector collector = new ItemUpdateCollector(1000, scheduler, this::send);
+        collector.add("Light", "ON");
+        collector.add("Switch", "ON");
+        connected = false;
+        scheduledJob().run();
+
+        assertThat(collector.getSentItemUpdates(), is(0L));
+        assertThat(collector.getDroppedItemUpdates(), is(2L));
+    }
+
+    @Test
+    public void clearDropsPendingUpdates() {
+        ItemUpdateCollector collector = new ItemUpdateCollector(1000, scheduler, this::send);
+        collector.add("Light", "ON");
+        collector.clear();
+
+        verify(job).cancel(false);
+        assertThat(collector.getPendingItemUpdates(), is(0));
+        assertThat(collector.getDroppedItemUpdates(), is(1L));
+    }
+
+    @Test
+    public void noIntervalSendsImmediately() {
+        ItemUpdateCollector collector = new ItemUpdateCollector(0, scheduler, this::send);
+        collector.add("Light", "ON");
+        collector.add("Light", "OFF");
+
+        verifyZeroInteractions(scheduler);
+        assertThat(sent, is(Arrays.asList("Light=ON", "Light=OFF")));
+        assertThat(collector.getSentItemUpdates(), is(2L));
+        assertThat(collector.getCoalescedItemUpdates(), is(0L));
+    }
+}
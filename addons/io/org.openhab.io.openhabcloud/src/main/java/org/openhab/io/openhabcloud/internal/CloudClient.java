@@ -20,18 +20,18 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Request.FailureListener;
 import org.eclipse.jetty.client.api.Response;
-import org.eclipse.jetty.client.api.Response.ContentListener;
+import org.eclipse.jetty.client.api.Response.AsyncContentListener;
 import org.eclipse.jetty.client.api.Response.HeadersListener;
 import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BytesContentProvider;
@@ -40,6 +40,7 @@ import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.json.JSONException;
@@ -83,6 +84,14 @@ public class CloudClient {
      */
     private static final int HTTP_CLIENT_TIMEOUT = 30000;
 
+    /*
+     * This constant defines the maximum number of requests of a single remote client which are relayed at the
+     * same time. Further requests are rejected until one of the running requests finished.
+     */
+    private static final int MAX_REQUESTS_PER_CLIENT = 50;
+
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+
     /*
      * This variable holds base URL for the openHAB Cloud connections
      */
@@ -109,9 +118,21 @@ public class CloudClient {
     private HttpClient jettyClient;
 
     /*
-     * This hashmap holds HTTP requests to local openHAB which are currently running
+     * This map holds HTTP requests to local openHAB which are currently running
+     */
+    private final Map<Integer, Request> runningRequests = new ConcurrentHashMap<>();
+
+    /*
+     * This map holds the number of running requests per remote client of the current connection. A new map is used
+     * for every connection, requests of a previous connection finish in the map they were started in.
+     */
+    private volatile Map<String, Integer> runningRequestsPerClient = new ConcurrentHashMap<>();
+
+    /*
+     * This variable holds the flow control of the connection to the openHAB Cloud, which pauses relayed responses
+     * if the connection is too slow
      */
-    private HashMap<Integer, Request> runningRequests;
+    private final SocketFlowControl flowControl = new SocketFlowControl();
 
     /*
      * This variable indicates if connection to the openHAB Cloud is currently in an established state
@@ -142,6 +163,11 @@ public class CloudClient {
     private boolean remoteAccessEnabled;
     private Set<String> exposedItems;
 
+    /*
+     * This variable holds the item updates which are waiting to be sent. Only the latest state of an item is sent.
+     */
+    private final ItemUpdateCollector itemUpdates;
+
     /**
      * Constructor of CloudClient
      *
@@ -149,17 +175,20 @@ public class CloudClient {
      * @param secret openHAB's Secret to connect to the openHAB Cloud
      * @param remoteAccessEnabled Allow the openHAB Cloud to be used as a remote proxy
      * @param exposedItems Items that are made available to apps connected to the openHAB Cloud
+     * @param itemUpdateInterval Time in milliseconds to collect item updates before they are sent, 0 to send them
+     *            immediately
      *
      */
     public CloudClient(String uuid, String secret, String baseURL, String localBaseUrl, boolean remoteAccessEnabled,
-            Set<String> exposedItems) {
+            Set<String> exposedItems, int itemUpdateInterval) {
         this.uuid = uuid;
         this.secret = secret;
         this.baseURL = baseURL;
         this.localBaseUrl = localBaseUrl;
         this.remoteAccessEnabled = remoteAccessEnabled;
         this.exposedItems = exposedItems;
-        runningRequests = new HashMap<Integer, Request>();
+        this.itemUpdates = new ItemUpdateCollector(itemUpdateInterval,
+                ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD), this::emitItemUpdate);
         jettyClient = new HttpClient();
         jettyClient.setMaxConnectionsPerDestination(HTTP_CLIENT_MAX_CONNECTIONS_PER_DEST);
         jettyClient.setConnectTimeout(HTTP_CLIENT_TIMEOUT);
@@ -171,7 +200,9 @@ public class CloudClient {
 
     public void connect() {
         try {
-            socket = IO.socket(baseURL);
+            IO.Options options = new IO.Options();
+            options.webSocketFactory = flowControl;
+            socket = IO.socket(baseURL, options);
             URL parsed = new URL(baseURL);
             protocol = parsed.getProtocol();
         } catch (URISyntaxException e) {
@@ -272,9 +303,9 @@ public class CloudClient {
             }
         }
         // And clean up the list of running requests
-        if (runningRequests != null) {
-            runningRequests.clear();
-        }
+        runningRequests.clear();
+        runningRequestsPerClient = new ConcurrentHashMap<>();
+        flowControl.resumeAll();
     }
 
     /**
@@ -364,8 +395,16 @@ public class CloudClient {
                 logger.error("Unsupported request method {}", requestMethod);
                 return;
             }
-            ResponseListener listener = new ResponseListener(requestId);
-            request.onResponseHeaders(listener).onResponseContent(listener).onRequestFailure(listener).send(listener);
+            String client = getClient(requestHeadersJson);
+            Map<String, Integer> clientRequests = runningRequestsPerClient;
+            if (!startClientRequest(clientRequests, client)) {
+                logger.debug("Too many concurrent requests of client '{}', rejecting request {}", client, requestId);
+                sendResponseError(requestId, "Too many concurrent requests");
+                return;
+            }
+            ResponseListener listener = new ResponseListener(requestId, clientRequests, client);
+            request.onResponseHeaders(listener).onResponseContentAsync(listener).onRequestFailure(listener)
+                    .send(listener);
             // If successfully submitted request to http client, add it to the list of currently
             // running requests to be able to cancel it if needed
             runningRequests.put(requestId, request);
@@ -378,6 +417,48 @@ public class CloudClient {
         }
     }
 
+    /**
+     * Returns the remote client of a request. The openHAB Cloud forwards the address of the client in the
+     * X-Forwarded-For header. All requests without this header belong to the same client.
+     */
+    private String getClient(JSONObject requestHeadersJson) {
+        @SuppressWarnings("unchecked")
+        Iterator<String> headersIterator = requestHeadersJson.keys();
+        while (headersIterator.hasNext()) {
+            String headerName = headersIterator.next();
+            if ("X-Forwarded-For".equalsIgnoreCase(headerName)) {
+                String value = requestHeadersJson.optString(headerName, "");
+                int comma = value.indexOf(',');
+                return (comma < 0 ? value : value.substring(0, comma)).trim();
+            }
+        }
+        return "";
+    }
+
+    private boolean startClientRequest(Map<String, Integer> clientRequests, String client) {
+        int running = clientRequests.merge(client, 1, Integer::sum);
+        if (running > MAX_REQUESTS_PER_CLIENT) {
+            finishClientRequest(clientRequests, client);
+            return false;
+        }
+        return true;
+    }
+
+    private void finishClientRequest(Map<String, Integer> clientRequests, String client) {
+        clientRequests.computeIfPresent(client, (c, running) -> running > 1 ? running - 1 : null);
+    }
+
+    private void sendResponseError(int requestId, String statusText) {
+        JSONObject responseJson = new JSONObject();
+        try {
+            responseJson.put("id", requestId);
+            responseJson.put("responseStatusText", statusText);
+            socket.emit("responseError", responseJson);
+        } catch (JSONException e) {
+            logger.error("{}", e.getMessage());
+        }
+    }
+
     private void setRequestHeaders(Request request, JSONObject requestHeadersJson) {
         @SuppressWarnings("unchecked")
         Iterator<String> headersIterator = requestHeadersJson.keys();
@@ -503,13 +584,18 @@ public class CloudClient {
     }
 
     /**
-     * Send item update to openHAB Cloud
+     * Send item update to openHAB Cloud. The update is sent after the item update interval together with the other
+     * collected updates. If the item changes again within the interval, only the latest state is sent.
      *
      * @param itemName the name of the item
      * @param itemState updated item state
      *
      */
     public void sendItemUpdate(String itemName, String itemState) {
+        itemUpdates.add(itemName, itemState);
+    }
+
+    private boolean emitItemUpdate(String itemName, String itemState) {
         if (isConnected()) {
             logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
             JSONObject itemUpdateMessage = new JSONObject();
@@ -517,12 +603,14 @@ public class CloudClient {
                 itemUpdateMessage.put("itemName", itemName);
                 itemUpdateMessage.put("itemStatus", itemState);
                 socket.emit("itemupdate", itemUpdateMessage);
+                return true;
             } catch (JSONException e) {
                 logger.error("{}", e.getMessage());
             }
         } else {
             logger.debug("No connection, Item update is not sent");
         }
+        return false;
     }
 
     /**
@@ -537,6 +625,9 @@ public class CloudClient {
      */
     public void shutdown() {
         logger.info("Shutting down openHAB Cloud service connection");
+        itemUpdates.clear();
+        logger.debug("Item updates {}", itemUpdates);
+        flowControl.resumeAll();
         try {
             jettyClient.stop();
         } catch (Exception e) {
@@ -561,14 +652,17 @@ public class CloudClient {
      * An internal class which forwards response headers and data back to the openHAB Cloud
      */
     private class ResponseListener
-            implements Response.CompleteListener, HeadersListener, ContentListener, FailureListener {
+            implements Response.CompleteListener, HeadersListener, AsyncContentListener, FailureListener {
 
-        private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
         private int mRequestId;
+        private Map<String, Integer> mClientRequests;
+        private String mClient;
         private boolean mHeadersSent = false;
 
-        public ResponseListener(int requestId) {
+        public ResponseListener(int requestId, Map<String, Integer> clientRequests, String client) {
             mRequestId = requestId;
+            mClientRequests = clientRequests;
+            mClient = client;
         }
 
         private JSONObject getJSONHeaders(HttpFields httpFields) {
@@ -587,6 +681,7 @@ public class CloudClient {
         public void onComplete(Result result) {
             // Remove this request from list of running requests
             runningRequests.remove(mRequestId);
+            finishClientRequest(mClientRequests, mClient);
             if ((result != null && result.isFailed())
                     && (result.getResponse() != null && result.getResponse().getStatus() != HttpStatus.OK_200)) {
                 if (result.getFailure() != null) {
@@ -620,18 +715,15 @@ public class CloudClient {
         @Override
         public synchronized void onFailure(Request request, Throwable failure) {
             logger.error("{}", failure.getMessage());
-            JSONObject responseJson = new JSONObject();
-            try {
-                responseJson.put("id", mRequestId);
-                responseJson.put("responseStatusText", "openHAB connection error: " + failure.getMessage());
-                socket.emit("responseError", responseJson);
-            } catch (JSONException e) {
-                logger.error("{}", e.getMessage());
-            }
+            sendResponseError(mRequestId, "openHAB connection error: " + failure.getMessage());
         }
 
+        /**
+         * Relays every chunk of the response content as soon as it arrives. The next chunk is only requested from
+         * the local openHAB once the connection to the openHAB Cloud can take it.
+         */
         @Override
-        public void onContent(Response response, ByteBuffer content) {
+        public void onContent(Response response, ByteBuffer content, Callback callback) {
             logger.debug("Jetty received response content of size {}", String.valueOf(content.remaining()));
             JSONObject responseJson = new JSONObject();
             try {
@@ -642,6 +734,7 @@ public class CloudClient {
             } catch (JSONException e) {
                 logger.error("{}", e.getMessage());
             }
+            flowControl.afterEmit(callback::succeeded);
         }
 
         @Override
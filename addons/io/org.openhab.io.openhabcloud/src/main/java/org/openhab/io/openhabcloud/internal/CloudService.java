@@ -78,6 +78,8 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     private static final String CFG_EXPOSE = "expose";
     private static final String CFG_BASE_URL = "baseURL";
     private static final String CFG_MODE = "mode";
+    private static final String CFG_ITEM_UPDATE_INTERVAL = "itemUpdateInterval";
+    private static final int DEFAULT_ITEM_UPDATE_INTERVAL = 1000;
     private static final String SECRET_FILE_NAME = "openhabcloud" + File.separator + "secret";
     private static final String DEFAULT_URL = "https://myopenhab.org/";
 
@@ -186,6 +188,18 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
             cloudBaseUrl = DEFAULT_URL;
         }
 
+        int itemUpdateInterval = DEFAULT_ITEM_UPDATE_INTERVAL;
+        Object intervalCfg = config.get(CFG_ITEM_UPDATE_INTERVAL);
+        if (intervalCfg instanceof Number) {
+            itemUpdateInterval = ((Number) intervalCfg).intValue();
+        } else if (intervalCfg != null) {
+            try {
+                itemUpdateInterval = Integer.parseInt(intervalCfg.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid item update interval '{}', using {} ms", intervalCfg, itemUpdateInterval);
+            }
+        }
+
         exposedItems = new HashSet<>();
         Object expCfg = config.get(CFG_EXPOSE);
         if (expCfg instanceof String) {
@@ -213,7 +227,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
 
         String localBaseUrl = "http://localhost:" + localPort;
         cloudClient = new CloudClient(InstanceUUID.get(), getSecret(), cloudBaseUrl, localBaseUrl, remoteAccessEnabled,
-                exposedItems);
+                exposedItems, itemUpdateInterval);
         cloudClient.setOpenHABVersion(OpenHAB.getVersion());
         cloudClient.connect();
         cloudClient.setListener(this);
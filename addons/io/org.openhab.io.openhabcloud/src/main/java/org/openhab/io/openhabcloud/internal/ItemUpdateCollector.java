@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class collects item updates for the openHAB Cloud for a fixed interval. When the interval ends, the latest
+ * state of every updated item is sent. States that were replaced by a newer state of the same item within the interval
+ * are not sent at all.
+ *
+ * The number of sent, coalesced and dropped updates is logged with every collected batch.
+ *
+ * @author agent - Initial contribution
+ */
+class ItemUpdateCollector {
+    private final Logger logger = LoggerFactory.getLogger(ItemUpdateCollector.class);
+
+    private final int interval;
+    private final ScheduledExecutorService scheduler;
+    private final BiPredicate<String, String> sender;
+
+    /*
+     * This map holds the item updates which are waiting to be sent, the latest state per item name
+     */
+    private final Map<String, String> pendingItemUpdates = new LinkedHashMap<>();
+
+    /*
+     * This variable holds the scheduled job which sends the pending item updates
+     */
+    private ScheduledFuture<?> job;
+
+    /*
+     * Counters of the item updates that have been sent, replaced by a newer state before they were sent, or not sent
+     * because there was no connection
+     */
+    private long sentItemUpdates;
+    private long coalescedItemUpdates;
+    private long droppedItemUpdates;
+
+    /**
+     * Constructor of ItemUpdateCollector
+     *
+     * @param interval Time in milliseconds to collect item updates before they are sent, 0 to send them immediately
+     * @param scheduler The scheduler for sending the collected item updates
+     * @param sender Sends an item update, returns false if the update could not be sent
+     */
+    ItemUpdateCollector(int interval, ScheduledExecutorService scheduler, BiPredicate<String, String> sender) {
+        this.interval = interval;
+        this.scheduler = scheduler;
+        this.sender = sender;
+    }
+
+    /**
+     * Adds an item update. If the item already has a pending update, it is replaced.
+     *
+     * @param itemName the name of the item
+     * @param itemState updated item state
+     */
+    void add(String itemName, String itemState) {
+        if (interval <= 0) {
+            boolean sent = sender.test(itemName, itemState);
+            synchronized (this) {
+                count(sent);
+            }
+            return;
+        }
+        synchronized (this) {
+            if (pendingItemUpdates.put(itemName, itemState) != null) {
+                coalescedItemUpdates++;
+            }
+            if (job == null) {
+                job = scheduler.schedule(this::sendPendingItemUpdates, interval, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void sendPendingItemUpdates() {
+        Map<String, String> itemUpdates;
+        synchronized (this) {
+            itemUpdates = new LinkedHashMap<>(pendingItemUpdates);
+            pendingItemUpdates.clear();
+            job = null;
+        }
+        int sent = 0;
+        for (Map.Entry<String, String> itemUpdate : itemUpdates.entrySet()) {
+            if (sender.test(itemUpdate.getKey(), itemUpdate.getValue())) {
+                sent++;
+            }
+        }
+        synchronized (this) {
+            sentItemUpdates += sent;
+            droppedItemUpdates += itemUpdates.size() - sent;
+            logger.debug("Sent {} of {} collected item updates. Total item updates {}", sent, itemUpdates.size(),
+                    this);
+        }
+    }
+
+    private void count(boolean sent) {
+        if (sent) {
+            sentItemUpdates++;
+        } else {
+            droppedItemUpdates++;
+        }
+    }
+
+    /**
+     * Drops all pending item updates and stops collecting
+     */
+    synchronized void clear() {
+        if (job != null) {
+            job.cancel(false);
+            job = null;
+        }
+        droppedItemUpdates += pendingItemUpdates.size();
+        pendingItemUpdates.clear();
+    }
+
+    /**
+     * Returns the number of item updates waiting to be sent
+     */
+    synchronized int getPendingItemUpdates() {
+        return pendingItemUpdates.size();
+    }
+
+    /**
+     * Returns the number of item updates sent to the openHAB Cloud
+     */
+    synchronized long getSentItemUpdates() {
+        return sentItemUpdates;
+    }
+
+    /**
+     * Returns the number of item updates that have been replaced by a newer state of the same item before they were
+     * sent
+     */
+    synchronized long getCoalescedItemUpdates() {
+        return coalescedItemUpdates;
+    }
+
+    /**
+     * Returns the number of item updates that have not been sent, because there was no connection
+     */
+    synchronized long getDroppedItemUpdates() {
+        return droppedItemUpdates;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "sent: " + sentItemUpdates + ", coalesced: " + coalescedItemUpdates + ", dropped: " + droppedItemUpdates
+                + ", pending: " + pendingItemUpdates.size();
+    }
+}
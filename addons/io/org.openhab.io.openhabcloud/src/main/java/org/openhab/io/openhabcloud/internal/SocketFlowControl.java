@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+
+/**
+ * This class limits the amount of data that is queued for the web socket connection to the openHAB Cloud.
+ * It is used as web socket factory for the Socket.IO client, which gives access to the queue of the web socket.
+ *
+ * Relayed response content is only read from the local openHAB as fast as the web socket can send it. If more than
+ * {@link #HIGH_WATER_MARK} bytes are queued, the relay is paused until the queue went down to {@link #LOW_WATER_MARK}.
+ * Without this, large responses on a slow uplink would fill the heap and the web socket would be closed as soon as its
+ * queue exceeds 16 MiB.
+ *
+ * @author agent - Initial contribution
+ */
+public class SocketFlowControl implements WebSocket.Factory {
+    private static final long HIGH_WATER_MARK = 1024 * 1024;
+    private static final long LOW_WATER_MARK = 256 * 1024;
+    private static final long DRAIN_CHECK_INTERVAL = 50;
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+
+    private static final OkHttpClient OK_HTTP_CLIENT = new OkHttpClient();
+
+    private final Logger logger = LoggerFactory.getLogger(SocketFlowControl.class);
+
+    /*
+     * The web socket which is currently used by the Socket.IO client. Null until the Socket.IO client upgraded its
+     * connection to a web socket.
+     */
+    private volatile WebSocket webSocket;
+
+    /*
+     * The senders which wait for the queue to drain
+     */
+    private final List<Runnable> pausedSenders = new ArrayList<>();
+    private ScheduledFuture<?> drainCheckJob;
+
+    @Override
+    public WebSocket newWebSocket(Request request, WebSocketListener listener) {
+        WebSocket webSocket = OK_HTTP_CLIENT.newWebSocket(request, listener);
+        this.webSocket = webSocket;
+        return webSocket;
+    }
+
+    /**
+     * Returns the number of bytes that are queued for the web socket connection
+     */
+    public long getQueuedBytes() {
+        WebSocket webSocket = this.webSocket;
+        return webSocket == null ? 0 : webSocket.queueSize();
+    }
+
+    /**
+     * Must be called after data has been emitted. The sender is resumed right away if the queue is small enough,
+     * otherwise as soon as the queue has drained.
+     *
+     * @param resume resumes the sender, for example by requesting more content
+     */
+    public void afterEmit(Runnable resume) {
+        if (getQueuedBytes() < HIGH_WATER_MARK) {
+            resume.run();
+            return;
+        }
+        synchronized (this) {
+            logger.trace("Web socket queue is full, pausing sender");
+            pausedSenders.add(resume);
+            if (drainCheckJob == null) {
+                drainCheckJob = ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD)
+                        .scheduleWithFixedDelay(this::checkDrained, DRAIN_CHECK_INTERVAL, DRAIN_CHECK_INTERVAL,
+                                TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void checkDrained() {
+        if (getQueuedBytes() <= LOW_WATER_MARK) {
+            resumeAll();
+        }
+    }
+
+    /**
+     * Resumes all paused senders, no matter how much data is queued. Used if the connection is closed.
+     */
+    public void resumeAll() {
+        List<Runnable> senders;
+        synchronized (this) {
+            if (drainCheckJob != null) {
+                drainCheckJob.cancel(false);
+                drainCheckJob = null;
+            }
+            senders = new ArrayList<>(pausedSenders);
+            pausedSenders.clear();
+        }
+        senders.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ScheduledFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusEndpointQueue;
+import org.openhab.io.transport.modbus.internal.ModbusEndpointQueue.Priority;
+
+public class ModbusEndpointQueueTest {
+
+    private final Queue<Runnable> executorTasks = new LinkedList<>();
+    private final List<String> executed = new ArrayList<>();
+    private ModbusEndpointQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new ModbusEndpointQueue(new ModbusTCPSlaveEndpoint("127.0.0.1", 502), executorTasks::add);
+    }
+
+    private void runAll() {
+        Runnable task;
+        while ((task = executorTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    @Test
+    public void testWritesAreExecutedBeforePolls() {
+        queue.submitRegularPoll("poll1", Long.MAX_VALUE, () -> {
+            executed.add("poll1");
+            return null;
+        });
+        queue.submit(Priority.ONE_OFF_POLL, "refresh", () -> {
+            executed.add("refresh");
+            return null;
+        });
+        queue.submitRegularPoll("poll2", Long.MAX_VALUE, () -> {
+            executed.add("poll2");
+            return null;
+        });
+        queue.submit(Priority.WRITE, "write", () -> {
+            executed.add("write");
+            return null;
+        });
+        assertThat(queue.getQueueSize(), is(equalTo(4)));
+
+        runAll();
+        assertThat(executed, is(equalTo(Arrays.asList("write", "refresh", "poll1", "poll2"))));
+        assertThat(queue.getExecutedOperations(), is(equalTo(4L)));
+        assertThat(queue.getQueueSize(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testRegularPollIsQueuedOnlyOnce() {
+        assertTrue(queue.submitRegularPoll("poll", Long.MAX_VALUE, () -> {
+            executed.add("poll");
+            return null;
+        }));
+        assertFalse(queue.submitRegularPoll("poll", Long.MAX_VALUE, () -> {
+            executed.add("poll");
+            return null;
+        }));
+        runAll();
+        assertThat(executed, is(equalTo(Arrays.asList("poll"))));
+        assertThat(queue.getSkippedPolls(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testStalePollIsDroppedButNotTwiceInRow() {
+        queue.submitRegularPoll("poll", 1, () -> {
+            executed.add("poll");
+            return null;
+        });
+        runAll();
+        assertThat(executed.size(), is(equalTo(0)));
+        assertThat(queue.getDroppedPolls(), is(equalTo(1L)));
+
+        queue.submitRegularPoll("poll", 1, () -> {
+            executed.add("poll");
+            return null;
+        });
+        runAll();
+        assertThat(executed, is(equalTo(Arrays.asList("poll"))));
+        assertThat(queue.getDroppedPolls(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testCancelledOperationIsNotExecuted() {
+        ScheduledFuture<?> future = queue.submit(Priority.WRITE, "write", () -> {
+            executed.add("write");
+            return null;
+        });
+        future.cancel(false);
+        runAll();
+        assertThat(executed.size(), is(equalTo(0)));
+        assertTrue(future.isCancelled());
+    }
+}
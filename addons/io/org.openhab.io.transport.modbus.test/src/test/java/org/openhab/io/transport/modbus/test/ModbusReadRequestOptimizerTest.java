@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.CoalescedPollTask;
+import org.openhab.io.transport.modbus.internal.ModbusReadRequestOptimizer;
+
+public class ModbusReadRequestOptimizerTest {
+
+    private static class RecordingCallback implements ModbusReadCallback {
+
+        private final List<Object> received = new ArrayList<>();
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            List<Integer> values = new ArrayList<>();
+            registers.forEach(register -> values.add(register.getValue()));
+            received.add(values);
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+            received.add(bits.toBinaryString());
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            received.add(error);
+        }
+    }
+
+    private final ModbusSlaveEndpoint endpoint = new ModbusTCPSlaveEndpoint("127.0.0.1", 502);
+
+    private PollTask task(ModbusReadFunctionCode functionCode, int start, int length, ModbusReadCallback callback) {
+        return new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(1, functionCode, start, length, 1),
+                callback);
+    }
+
+    @Test
+    public void testAdjacentAndOverlappingRequestsAreMerged() {
+        RecordingCallback callback1 = new RecordingCallback();
+        RecordingCallback callback2 = new RecordingCallback();
+        RecordingCallback callback3 = new RecordingCallback();
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 5, 3, callback1);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 5, callback2);
+        PollTask task3 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 6, 4, callback3);
+
+        List<PollTask> optimized = ModbusReadRequestOptimizer.optimize(Arrays.asList(task1, task2, task3));
+        assertThat(optimized.size(), is(equalTo(1)));
+        assertThat(optimized.get(0), is(instanceOf(CoalescedPollTask.class)));
+        ModbusReadRequestBlueprint request = optimized.get(0).getRequest();
+        assertThat(request.getReference(), is(equalTo(0)));
+        assertThat(request.getDataLength(), is(equalTo(10)));
+
+        optimized.get(0).getCallback().onRegisters(request,
+                new BasicModbusRegisterArray(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        assertThat(callback1.received, is(equalTo(Arrays.asList(Arrays.asList(5, 6, 7)))));
+        assertThat(callback2.received, is(equalTo(Arrays.asList(Arrays.asList(0, 1, 2, 3, 4)))));
+        assertThat(callback3.received, is(equalTo(Arrays.asList(Arrays.asList(6, 7, 8, 9)))));
+    }
+
+    @Test
+    public void testRequestsWithGapAreNotMerged() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_INPUT_REGISTERS, 0, 2, null);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_INPUT_REGISTERS, 3, 2, null);
+
+        List<PollTask> optimized = ModbusReadRequestOptimizer.optimize(Arrays.asList(task1, task2));
+        assertThat(optimized, is(equalTo(Arrays.asList(task1, task2))));
+    }
+
+    @Test
+    public void testDifferentFunctionCodesAreNotMerged() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_INPUT_REGISTERS, 0, 2, null);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 2, null);
+
+        List<PollTask> optimized = ModbusReadRequestOptimizer.optimize(Arrays.asList(task1, task2));
+        assertThat(optimized, is(equalTo(Arrays.asList(task1, task2))));
+    }
+
+    @Test
+    public void testMaxPduSizeIsRespected() {
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 100, null);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 100, 25, null);
+        PollTask task3 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 125, 1, null);
+
+        List<PollTask> optimized = ModbusReadRequestOptimizer.optimize(Arrays.asList(task1, task2, task3));
+        assertThat(optimized.size(), is(equalTo(2)));
+        assertThat(optimized.get(0).getRequest().getReference(), is(equalTo(0)));
+        assertThat(optimized.get(0).getRequest().getDataLength(), is(equalTo(125)));
+        assertThat(optimized.get(1), is(equalTo(task3)));
+    }
+
+    @Test
+    public void testBitsAndErrorsAreFannedOut() {
+        RecordingCallback callback1 = new RecordingCallback();
+        RecordingCallback callback2 = new RecordingCallback();
+        PollTask task1 = task(ModbusReadFunctionCode.READ_COILS, 0, 2, callback1);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_COILS, 2, 3, callback2);
+
+        List<PollTask> optimized = ModbusReadRequestOptimizer.optimize(Arrays.asList(task1, task2));
+        assertThat(optimized.size(), is(equalTo(1)));
+        PollTask merged = optimized.get(0);
+        merged.getCallback().onBits(merged.getRequest(), new BasicBitArray(true, false, false, true, true));
+        assertThat(callback1.received, is(equalTo(Arrays.asList("10"))));
+        assertThat(callback2.received, is(equalTo(Arrays.asList("011"))));
+
+        Exception error = new Exception("error");
+        merged.getCallback().onError(merged.getRequest(), error);
+        assertThat(callback1.received.get(1), is(equalTo(error)));
+        assertThat(callback2.received.get(1), is(equalTo(error)));
+    }
+
+    @Test
+    public void testRemovedTasksAreNotCalledBack() {
+        RecordingCallback callback1 = new RecordingCallback();
+        RecordingCallback callback2 = new RecordingCallback();
+        PollTask task1 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 2, callback1);
+        PollTask task2 = task(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 2, 2, callback2);
+        List<PollTask> registered = new CopyOnWriteArrayList<>(Arrays.asList(task1, task2));
+
+        List<PollTask> optimized = ModbusReadRequestOptimizer.optimize(registered, registered::contains);
+        assertThat(optimized.size(), is(equalTo(1)));
+        PollTask merged = optimized.get(0);
+
+        // task is removed while the merged request is in flight
+        registered.remove(task2);
+        merged.getCallback().onRegisters(merged.getRequest(), new BasicModbusRegisterArray(0, 1, 2, 3));
+        merged.getCallback().onError(merged.getRequest(), new Exception("error"));
+        assertThat(callback1.received.size(), is(equalTo(2)));
+        assertThat(callback2.received.isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Poll task that reads the data of several poll tasks with a single request
+ *
+ * The task acts as the callback of the combined request, and hands out the matching part of the response to the
+ * callbacks of the original tasks. Errors are passed to all the original callbacks. Tasks that were removed while the
+ * request was queued or executed are not called back.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class CoalescedPollTask implements PollTask, ModbusReadCallback {
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(CoalescedPollTask.class);
+
+    private ModbusSlaveEndpoint endpoint;
+    private ModbusReadRequestBlueprint request;
+    private List<PollTask> tasks;
+    private Predicate<PollTask> isActive;
+
+    /**
+     * Construct task
+     *
+     * @param endpoint endpoint of all the tasks
+     * @param request request covering the data of all the tasks
+     * @param tasks original tasks, their requests need to be within the range of <code>request</code>
+     */
+    public CoalescedPollTask(ModbusSlaveEndpoint endpoint, ModbusReadRequestBlueprint request, List<PollTask> tasks) {
+        this(endpoint, request, tasks, task -> true);
+    }
+
+    /**
+     * Construct task
+     *
+     * @param endpoint endpoint of all the tasks
+     * @param request request covering the data of all the tasks
+     * @param tasks original tasks, their requests need to be within the range of <code>request</code>
+     * @param isActive tells whether an original task is still registered, evaluated when the response arrives
+     */
+    public CoalescedPollTask(ModbusSlaveEndpoint endpoint, ModbusReadRequestBlueprint request, List<PollTask> tasks,
+            Predicate<PollTask> isActive) {
+        this.endpoint = endpoint;
+        this.request = request;
+        this.tasks = Collections.unmodifiableList(tasks);
+        this.isActive = isActive;
+    }
+
+    /**
+     * Get the original tasks read by this task
+     */
+    public List<PollTask> getTasks() {
+        return tasks;
+    }
+
+    @Override
+    public ModbusReadRequestBlueprint getRequest() {
+        return request;
+    }
+
+    @Override
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public ModbusReadCallback getCallback() {
+        return this;
+    }
+
+    @Override
+    public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+        for (PollTask task : tasks) {
+            ModbusReadCallback callback = task.getCallback();
+            if (callback == null || !isActive(task)) {
+                continue;
+            }
+            ModbusReadRequestBlueprint taskRequest = task.getRequest();
+            int offset = taskRequest.getReference() - request.getReference();
+            int length = Math.min(taskRequest.getDataLength(), Math.max(0, registers.size() - offset));
+            try {
+                callback.onRegisters(taskRequest, new ModbusRegisterArraySlice(registers, offset, length));
+            } catch (RuntimeException e) {
+                logger.warn("Callback {} for request {} failed: {} {}", callback, taskRequest, e.getClass().getName(),
+                        e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+        for (PollTask task : tasks) {
+            ModbusReadCallback callback = task.getCallback();
+            if (callback == null || !isActive(task)) {
+                continue;
+            }
+            ModbusReadRequestBlueprint taskRequest = task.getRequest();
+            int offset = taskRequest.getReference() - request.getReference();
+            int length = Math.min(taskRequest.getDataLength(), Math.max(0, bits.size() - offset));
+            try {
+                callback.onBits(taskRequest, new BitArraySlice(bits, offset, length));
+            } catch (RuntimeException e) {
+                logger.warn("Callback {} for request {} failed: {} {}", callback, taskRequest, e.getClass().getName(),
+                        e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void onError(ModbusReadRequestBlueprint request, Exception error) {
+        for (PollTask task : tasks) {
+            ModbusReadCallback callback = task.getCallback();
+            if (callback == null || !isActive(task)) {
+                continue;
+            }
+            try {
+                callback.onError(task.getRequest(), error);
+            } catch (RuntimeException e) {
+                logger.warn("Callback {} for request {} failed: {} {}", callback, task.getRequest(),
+                        e.getClass().getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean isActive(PollTask task) {
+        if (isActive.test(task)) {
+            return true;
+        }
+        logger.trace("Poll task {} was unregistered, not calling back {}", task, task.getCallback());
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(71, 7).append(request).append(endpoint).append(tasks).toHashCode();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("request", request).append("endpoint", endpoint)
+                .append("tasks", tasks.size()).toString();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (obj == this) {
+            return true;
+        }
+        if (obj.getClass() != getClass()) {
+            return false;
+        }
+        CoalescedPollTask rhs = (CoalescedPollTask) obj;
+        return new EqualsBuilder().append(request, rhs.request).append(endpoint, rhs.endpoint)
+                .append(tasks, rhs.tasks).isEquals();
+    }
+}
@@ -0,0 +1,327 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Work queue of a single endpoint
+ *
+ * Operations are executed one at a time, ordered by priority and then by submission order. Writes are executed before
+ * polls, so that a long queue of polls does not delay user commands. After each operation, the queue re-submits itself
+ * to the shared executor, so that a slow endpoint occupies at most one thread and cannot starve other endpoints.
+ *
+ * Regular polls are queued at most once. A regular poll which has not been started before its deadline (usually the
+ * time of the next poll of the same task) is dropped to shed load from an endpoint that cannot keep up with the poll
+ * periods. A poll is never dropped twice in a row, so every poll is still executed at least every other period.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusEndpointQueue {
+
+    /**
+     * Priority of a queued operation, in order of execution
+     */
+    public enum Priority {
+        WRITE,
+        ONE_OFF_POLL,
+        REGULAR_POLL
+    }
+
+    /**
+     * Operation waiting in the queue
+     *
+     * Represents the operation to the submitter as well, i.e. cancelling it removes the operation from the queue.
+     */
+    public class QueuedOperation extends FutureTask<@Nullable AggregateStopWatch>
+            implements ScheduledFuture<@Nullable AggregateStopWatch> {
+
+        private final Priority priority;
+        private final long sequence;
+        private final Object task;
+        private final long queuedMillis;
+        private final long deadlineMillis;
+
+        QueuedOperation(Priority priority, Object task, long deadlineMillis,
+                Supplier<@Nullable AggregateStopWatch> operation) {
+            super(operation::get);
+            this.priority = priority;
+            this.sequence = sequenceCounter.incrementAndGet();
+            this.task = task;
+            this.queuedMillis = System.currentTimeMillis();
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        @Override
+        public long getDelay(@Nullable TimeUnit unit) {
+            return 0;
+        }
+
+        @Override
+        public int compareTo(@Nullable Delayed other) {
+            if (other == null) {
+                return 1;
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("QueuedOperation(priority=%s, task=%s)", priority, task);
+        }
+    }
+
+    private static final Comparator<QueuedOperation> EXECUTION_ORDER = Comparator
+            .comparing((QueuedOperation operation) -> operation.priority)
+            .thenComparingLong(operation -> operation.sequence);
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusEndpointQueue.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final Executor executor;
+    private final PriorityBlockingQueue<QueuedOperation> queue = new PriorityBlockingQueue<>(11, EXECUTION_ORDER);
+    private final Set<Object> queuedRegularPolls = ConcurrentHashMap.newKeySet();
+    private final Set<Object> droppedRegularPolls = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong sequenceCounter = new AtomicLong();
+
+    private final AtomicLong maxQueueSize = new AtomicLong();
+    private final AtomicLong executedOperations = new AtomicLong();
+    private final AtomicLong skippedPolls = new AtomicLong();
+    private final AtomicLong droppedPolls = new AtomicLong();
+    private final AtomicLong totalWaitMillis = new AtomicLong();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+    private final AtomicLong totalTransactionMillis = new AtomicLong();
+    private final AtomicLong maxTransactionMillis = new AtomicLong();
+    private final AtomicLong totalOperationMillis = new AtomicLong();
+
+    public ModbusEndpointQueue(ModbusSlaveEndpoint endpoint, Executor executor) {
+        this.endpoint = endpoint;
+        this.executor = executor;
+    }
+
+    /**
+     * Queue a one-off operation
+     *
+     * @param priority priority of the operation
+     * @param task task executed by the operation
+     * @param operation the operation, returning the timing info of the execution
+     * @return the queued operation
+     */
+    public QueuedOperation submit(Priority priority, Object task, Supplier<@Nullable AggregateStopWatch> operation) {
+        QueuedOperation queuedOperation = new QueuedOperation(priority, task, 0, operation);
+        add(queuedOperation);
+        return queuedOperation;
+    }
+
+    /**
+     * Queue an execution of a regular poll
+     *
+     * @param task the poll task, used for identifying the poll if it is still in the queue
+     * @param deadlineMillis time in milliepoch after which the poll is dropped if not started yet
+     * @param operation the operation, returning the timing info of the execution
+     * @return whether the poll was queued, i.e. false if the previous execution of the poll is still in the queue
+     */
+    public boolean submitRegularPoll(Object task, long deadlineMillis,
+            Supplier<@Nullable AggregateStopWatch> operation) {
+        if (!queuedRegularPolls.add(task)) {
+            skippedPolls.incrementAndGet();
+            logger.debug("Poll task {} is still waiting in the queue of endpoint {}, not queuing it again", task,
+                    endpoint);
+            return false;
+        }
+        add(new QueuedOperation(Priority.REGULAR_POLL, task, deadlineMillis, operation));
+        return true;
+    }
+
+    private void add(QueuedOperation queuedOperation) {
+        queue.add(queuedOperation);
+        maxQueueSize.accumulateAndGet(queue.size(), Math::max);
+        scheduleNext();
+    }
+
+    /**
+     * Cancel all queued operations
+     */
+    public void clear() {
+        QueuedOperation operation;
+        while ((operation = queue.poll()) != null) {
+            operation.cancel(false);
+        }
+        queuedRegularPolls.clear();
+        droppedRegularPolls.clear();
+    }
+
+    private void scheduleNext() {
+        if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::executeNext);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                logger.warn("Could not execute queued operations of endpoint {}: {}", endpoint, e.getMessage());
+            }
+        }
+    }
+
+    private void executeNext() {
+        try {
+            QueuedOperation operation = queue.poll();
+            if (operation == null) {
+                return;
+            }
+            if (operation.priority == Priority.REGULAR_POLL) {
+                queuedRegularPolls.remove(operation.task);
+            }
+            if (operation.isCancelled()) {
+                return;
+            }
+            long started = System.currentTimeMillis();
+            if (operation.deadlineMillis > 0 && started > operation.deadlineMillis
+                    && droppedRegularPolls.add(operation.task)) {
+                droppedPolls.incrementAndGet();
+                operation.cancel(false);
+                logger.debug("Dropping stale poll {} of endpoint {}, waited in queue for {} ms", operation.task,
+                        endpoint, started - operation.queuedMillis);
+                return;
+            }
+            droppedRegularPolls.remove(operation.task);
+            long waited = started - operation.queuedMillis;
+            totalWaitMillis.addAndGet(waited);
+            maxWaitMillis.accumulateAndGet(waited, Math::max);
+            operation.run();
+            executedOperations.incrementAndGet();
+            AggregateStopWatch timer = operation.isCancelled() ? null : getQuietly(operation);
+            if (timer != null) {
+                long transactionMillis = timer.transaction.getTotalTimeMillis();
+                totalTransactionMillis.addAndGet(transactionMillis);
+                maxTransactionMillis.accumulateAndGet(transactionMillis, Math::max);
+                totalOperationMillis.addAndGet(timer.total.getTotalTimeMillis());
+            }
+        } finally {
+            scheduled.set(false);
+            // continue in a new executor task to give other endpoints a chance to run
+            scheduleNext();
+        }
+    }
+
+    private @Nullable AggregateStopWatch getQuietly(QueuedOperation operation) {
+        try {
+            return operation.get();
+        } catch (Exception e) {
+            logger.warn("Queued operation {} of endpoint {} failed: {} {}", operation, endpoint,
+                    e.getClass().getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Number of operations waiting in the queue
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Maximum number of operations waiting in the queue at the same time
+     */
+    public long getMaxQueueSize() {
+        return maxQueueSize.get();
+    }
+
+    /**
+     * Number of executed operations
+     */
+    public long getExecutedOperations() {
+        return executedOperations.get();
+    }
+
+    /**
+     * Number of regular polls not queued since the previous poll of the same task was still waiting
+     */
+    public long getSkippedPolls() {
+        return skippedPolls.get();
+    }
+
+    /**
+     * Number of regular polls dropped since they waited in the queue past their deadline
+     */
+    public long getDroppedPolls() {
+        return droppedPolls.get();
+    }
+
+    /**
+     * Average time operations waited in the queue, in milliseconds
+     */
+    public long getAverageWaitMillis() {
+        long executed = executedOperations.get();
+        return executed == 0 ? 0 : totalWaitMillis.get() / executed;
+    }
+
+    /**
+     * Maximum time an operation waited in the queue, in milliseconds
+     */
+    public long getMaxWaitMillis() {
+        return maxWaitMillis.get();
+    }
+
+    /**
+     * Average time of the transactions with the slave, in milliseconds
+     */
+    public long getAverageTransactionMillis() {
+        long executed = executedOperations.get();
+        return executed == 0 ? 0 : totalTransactionMillis.get() / executed;
+    }
+
+    /**
+     * Maximum time of a transaction with the slave, in milliseconds
+     */
+    public long getMaxTransactionMillis() {
+        return maxTransactionMillis.get();
+    }
+
+    /**
+     * Average total time of the operations (connection, transaction and callback), in milliseconds
+     */
+    public long getAverageOperationMillis() {
+        long executed = executedOperations.get();
+        return executed == 0 ? 0 : totalOperationMillis.get() / executed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "{endpoint: %s, queue size: %d (max %d), executed: %d, skipped polls: %d, dropped polls: %d, wait: %d ms (max %d), transaction: %d ms (max %d), operation: %d ms}",
+                endpoint, getQueueSize(), getMaxQueueSize(), getExecutedOperations(), getSkippedPolls(),
+                getDroppedPolls(), getAverageWaitMillis(), getMaxWaitMillis(), getAverageTransactionMillis(),
+                getMaxTransactionMillis(), getAverageOperationMillis());
+    }
+}
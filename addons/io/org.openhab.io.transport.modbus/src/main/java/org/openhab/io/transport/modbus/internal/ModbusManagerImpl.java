@@ -14,11 +14,15 @@ package org.openhab.io.transport.modbus.internal;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -28,6 +32,8 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import javax.imageio.IIOException;
 
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
 import org.apache.commons.pool2.KeyedObjectPool;
 import org.apache.commons.pool2.SwallowedExceptionListener;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
@@ -40,6 +46,7 @@ import org.openhab.io.transport.modbus.ModbusConnectionException;
 import org.openhab.io.transport.modbus.ModbusManager;
 import org.openhab.io.transport.modbus.ModbusManagerListener;
 import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
 import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
 import org.openhab.io.transport.modbus.ModbusRequestBlueprint;
 import org.openhab.io.transport.modbus.ModbusUnexpectedTransactionIdException;
@@ -54,6 +61,7 @@ import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpointVisitor;
 import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
 import org.openhab.io.transport.modbus.endpoint.ModbusUDPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.ModbusEndpointQueue.Priority;
 import org.openhab.io.transport.modbus.internal.pooling.ModbusSlaveConnectionFactoryImpl;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -91,6 +99,89 @@ public class ModbusManagerImpl implements ModbusManager {
         private static final long serialVersionUID = 6939730579178506885L;
     }
 
+    /**
+     * Key for grouping regular polls with the same endpoint, unit id, function code and poll period
+     *
+     * The polls of a group are executed by a single scheduled job, so that polls of overlapping or adjacent data can be
+     * merged into a single request by {@link ModbusReadRequestOptimizer}.
+     *
+     * @author agent - Initial contribution
+     *
+     */
+    private static class PollGroupKey {
+        private ModbusSlaveEndpoint endpoint;
+        private int unitId;
+        private ModbusReadFunctionCode functionCode;
+        private long pollPeriodMillis;
+
+        public PollGroupKey(PollTask task, long pollPeriodMillis) {
+            this.endpoint = task.getEndpoint();
+            this.unitId = task.getRequest().getUnitID();
+            this.functionCode = task.getRequest().getFunctionCode();
+            this.pollPeriodMillis = pollPeriodMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder(17, 31).append(endpoint).append(unitId).append(functionCode)
+                    .append(pollPeriodMillis).toHashCode();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (obj == null) {
+                return false;
+            }
+            if (obj == this) {
+                return true;
+            }
+            if (obj.getClass() != getClass()) {
+                return false;
+            }
+            PollGroupKey rhs = (PollGroupKey) obj;
+            return new EqualsBuilder().append(endpoint, rhs.endpoint).append(unitId, rhs.unitId)
+                    .append(functionCode, rhs.functionCode).append(pollPeriodMillis, rhs.pollPeriodMillis).isEquals();
+        }
+    }
+
+    /**
+     * Regular polls sharing the same {@link PollGroupKey}, executed by a single scheduled job
+     *
+     * @author agent - Initial contribution
+     *
+     */
+    private class PollGroup {
+        private final PollGroupKey key;
+        private final List<PollTask> tasks = new CopyOnWriteArrayList<>();
+        private volatile List<PollTask> optimizedTasks = Collections.emptyList();
+        @Nullable
+        private volatile ScheduledFuture<?> future;
+
+        public PollGroup(PollGroupKey key) {
+            this.key = key;
+        }
+
+        public void add(PollTask task) {
+            tasks.add(task);
+            optimizedTasks = ModbusReadRequestOptimizer.optimize(tasks, tasks::contains);
+        }
+
+        public boolean remove(PollTask task) {
+            tasks.remove(task);
+            optimizedTasks = ModbusReadRequestOptimizer.optimize(tasks, tasks::contains);
+            return tasks.isEmpty();
+        }
+
+        public void poll() {
+            List<PollTask> optimizedTasks = this.optimizedTasks;
+            logger.debug("Queuing scheduled ({}ms) poll group of {} tasks using {} requests. Current millis: {}",
+                    key.pollPeriodMillis, tasks.size(), optimizedTasks.size(), System.currentTimeMillis());
+            for (PollTask task : optimizedTasks) {
+                submitRegularPoll(task, key.pollPeriodMillis);
+            }
+        }
+    }
+
     @FunctionalInterface
     private interface ModbusOperation<T> {
 
@@ -247,6 +338,12 @@ public class ModbusManagerImpl implements ModbusManager {
      * Presumably slow callbacks can increase queue size with callbackThreadPool
      */
     private static final long WARN_QUEUE_SIZE = 500;
+
+    /**
+     * Configuration parameter for enabling the merging of regular polls reading overlapping or adjacent data
+     */
+    public static final String CONFIG_COALESCE_POLLS = "coalescePolls";
+
     private static final long MONITOR_QUEUE_INTERVAL_MILLIS = 10000;
 
     private final PollOperation pollOperation = new PollOperation();
@@ -268,6 +365,20 @@ public class ModbusManagerImpl implements ModbusManager {
     @Nullable
     private volatile ModbusSlaveConnectionFactoryImpl connectionFactory;
     private volatile Map<PollTask, ScheduledFuture<?>> scheduledPollTasks = new ConcurrentHashMap<>();
+    /**
+     * Groups of regular polls executed together. Guarded by this.
+     */
+    private final Map<PollGroupKey, PollGroup> pollGroups = new HashMap<>();
+    private final Map<PollTask, PollGroup> pollGroupOfTask = new HashMap<>();
+    /**
+     * Polls waiting for their initial delay before joining a running poll group. Guarded by this.
+     */
+    private final Map<PollTask, PollGroupJoin> pollGroupJoins = new HashMap<>();
+    /**
+     * Work queues of the endpoints
+     */
+    private final Map<ModbusSlaveEndpoint, ModbusEndpointQueue> endpointQueues = new ConcurrentHashMap<>();
+    private volatile boolean coalescePolls;
     /**
      * Executor for requests
      */
@@ -467,7 +578,25 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    private boolean isRegistered(PollTask task) {
+        try {
+            verifyTaskIsRegistered(task);
+            return true;
+        } catch (PollTaskUnregistered e) {
+            return false;
+        }
+    }
+
     private void verifyTaskIsRegistered(PollTask task) throws PollTaskUnregistered {
+        if (task instanceof CoalescedPollTask) {
+            // merged task is alive as long as any of the merged polls is registered
+            if (((CoalescedPollTask) task).getTasks().stream().noneMatch(this.scheduledPollTasks::containsKey)) {
+                String msg = String.format("All poll tasks of %s are unregistered", task);
+                logger.debug(msg);
+                throw new PollTaskUnregistered(msg);
+            }
+            return;
+        }
         if (!this.scheduledPollTasks.containsKey(task)) {
             String msg = String.format("Poll task %s is unregistered", task);
             logger.debug(msg);
@@ -489,9 +618,16 @@ public class ModbusManagerImpl implements ModbusManager {
      * @param oneOffTask
      * @param operation
      */
-    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> void executeOperation(
+    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> AggregateStopWatch executeOperation(
             @NonNull T task, boolean oneOffTask, ModbusOperation<T> operation) {
         AggregateStopWatch timer = new AggregateStopWatch();
+        executeOperation(timer, task, oneOffTask, operation);
+        timer.suspendAllRunning();
+        return timer;
+    }
+
+    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> void executeOperation(
+            AggregateStopWatch timer, @NonNull T task, boolean oneOffTask, ModbusOperation<T> operation) {
         timer.total.resume();
         String operationId = timer.operationId;
 
@@ -692,17 +828,55 @@ public class ModbusManagerImpl implements ModbusManager {
 
     @Override
     public ScheduledFuture<?> submitOneTimePoll(PollTask task) {
+        long scheduleTime = System.currentTimeMillis();
+        logger.debug("Queuing one-off poll task {}", task);
+        return getEndpointQueue(task.getEndpoint()).submit(Priority.ONE_OFF_POLL, task, () -> {
+            long millisInQueue = System.currentTimeMillis() - scheduleTime;
+            logger.debug("Will now execute one-off poll task {}, waited in queue for {}", task, millisInQueue);
+            return executeOperation(task, true, pollOperation);
+        });
+    }
+
+    /**
+     * Queue an execution of a regular poll
+     *
+     * @param task the poll task
+     * @param pollPeriodMillis poll period of the task. The execution is dropped if it is still waiting in the queue
+     *            after this time, since the next execution is due already.
+     */
+    private void submitRegularPoll(PollTask task, long pollPeriodMillis) {
+        long scheduleTime = System.currentTimeMillis();
+        getEndpointQueue(task.getEndpoint()).submitRegularPoll(task, scheduleTime + pollPeriodMillis, () -> {
+            if (!isRegistered(task)) {
+                logger.debug("Poll task {} was unregistered while waiting in the queue -- not executing", task);
+                return null;
+            }
+            long started = System.currentTimeMillis();
+            logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}, waited in queue for {}",
+                    pollPeriodMillis, task, started, started - scheduleTime);
+            AggregateStopWatch timer = executeOperation(task, false, pollOperation);
+            long finished = System.currentTimeMillis();
+            logger.debug(
+                    "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
+                    pollPeriodMillis, task, finished, started, finished - started);
+            return timer;
+        });
+    }
+
+    /**
+     * Get the work queue of the endpoint, creating it if necessary
+     */
+    private ModbusEndpointQueue getEndpointQueue(ModbusSlaveEndpoint endpoint) {
         ScheduledExecutorService executor = scheduledThreadPoolExecutor;
         Objects.requireNonNull(executor, "Not activated!");
-        long scheduleTime = System.currentTimeMillis();
-        logger.debug("Scheduling one-off poll task {}", task);
-        ScheduledFuture<?> future = executor.schedule(() -> {
-            long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-            logger.debug("Will now execute one-off poll task {}, waited in thread pool for {}", task,
-                    millisInThreadPoolWaiting);
-            executeOperation(task, true, pollOperation);
-        }, 0L, TimeUnit.MILLISECONDS);
-        return future;
+        return endpointQueues.computeIfAbsent(endpoint, e -> new ModbusEndpointQueue(e, executor));
+    }
+
+    /**
+     * Get the work queues of all endpoints, including statistics of the queued operations
+     */
+    public Collection<ModbusEndpointQueue> getEndpointQueues() {
+        return Collections.unmodifiableCollection(endpointQueues.values());
     }
 
     @Override
@@ -716,16 +890,21 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.trace("Unregistering previous poll task (possibly with different period)");
                 unregisterRegularPoll(task);
             }
-            ScheduledFuture<?> future = executor.scheduleWithFixedDelay(() -> {
-                long started = System.currentTimeMillis();
-                logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
-                        started);
-                executeOperation(task, false, pollOperation);
-                long finished = System.currentTimeMillis();
-                logger.debug(
-                        "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
-                        pollPeriodMillis, task, finished, started, finished - started);
-            }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
+            if (coalescePolls) {
+                if (initialDelayMillis > 0 && pollGroups.containsKey(new PollGroupKey(task, pollPeriodMillis))) {
+                    // the group is already polling, join it once the initial delay has passed
+                    PollGroupJoin join = new PollGroupJoin(task, pollPeriodMillis);
+                    pollGroupJoins.put(task, join);
+                    scheduledPollTasks.put(task, executor.schedule(join, initialDelayMillis, TimeUnit.MILLISECONDS));
+                    logger.trace("Poll task {} with period {} joins its poll group after initial delay {}", task,
+                            pollPeriodMillis, initialDelayMillis);
+                    return;
+                }
+                addToPollGroup(executor, task, pollPeriodMillis, initialDelayMillis);
+                return;
+            }
+            ScheduledFuture<?> future = executor.scheduleWithFixedDelay(() -> submitRegularPoll(task, pollPeriodMillis),
+                    initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
 
             scheduledPollTasks.put(task, future);
             logger.trace("Registered poll task {} with period {} using initial delay {}", task, pollPeriodMillis,
@@ -733,6 +912,60 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    /**
+     * Add the task to the poll group of its endpoint and period, creating the group if necessary
+     *
+     * @param initialDelayMillis initial delay of a new group
+     */
+    private void addToPollGroup(ScheduledExecutorService executor, PollTask task, long pollPeriodMillis,
+            long initialDelayMillis) {
+        PollGroupKey key = new PollGroupKey(task, pollPeriodMillis);
+        PollGroup group = pollGroups.get(key);
+        if (group == null) {
+            // first poll of the group, start polling with its initial delay
+            PollGroup newGroup = group = new PollGroup(key);
+            newGroup.add(task);
+            newGroup.future = executor.scheduleWithFixedDelay(newGroup::poll, initialDelayMillis, pollPeriodMillis,
+                    TimeUnit.MILLISECONDS);
+            pollGroups.put(key, newGroup);
+        } else {
+            group.add(task);
+        }
+        pollGroupOfTask.put(task, group);
+        ScheduledFuture<?> future = group.future;
+        Objects.requireNonNull(future);
+        scheduledPollTasks.put(task, future);
+        logger.trace("Registered poll task {} with period {} to poll group of {} tasks", task, pollPeriodMillis,
+                group.tasks.size());
+    }
+
+    /**
+     * Adds a poll task to its poll group after the initial delay of the task
+     */
+    private class PollGroupJoin implements Runnable {
+        private final PollTask task;
+        private final long pollPeriodMillis;
+
+        public PollGroupJoin(PollTask task, long pollPeriodMillis) {
+            this.task = task;
+            this.pollPeriodMillis = pollPeriodMillis;
+        }
+
+        @Override
+        public void run() {
+            synchronized (ModbusManagerImpl.this) {
+                ScheduledExecutorService executor = scheduledThreadPoolExecutor;
+                // the task might have been unregistered or registered again in the meantime
+                if (executor == null || pollGroupJoins.get(task) != this) {
+                    return;
+                }
+                pollGroupJoins.remove(task);
+                // the group might have been stopped in the meantime, a new one starts polling right away
+                addToPollGroup(executor, task, pollPeriodMillis, 0);
+            }
+        }
+    }
+
     @SuppressWarnings({ "null", "unused" })
     @Override
     public boolean unregisterRegularPoll(PollTask task) {
@@ -750,6 +983,22 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.warn("Caller tried to unregister nonexisting poll task {}", task);
                 return false;
             }
+            if (pollGroupJoins.remove(task) != null) {
+                // The task did not join its poll group yet
+                future.cancel(false);
+                logger.info("Unregistered regular poll task {} before it joined its poll group", task);
+                return true;
+            }
+            PollGroup group = pollGroupOfTask.remove(task);
+            if (group != null && !group.remove(task)) {
+                // Other polls of the group are still registered, keep the group running
+                logger.info("Unregistered regular poll task {} from poll group of {} tasks", task,
+                        group.tasks.size());
+                return true;
+            }
+            if (group != null) {
+                pollGroups.remove(group.key);
+            }
             logger.info("Unregistering regular poll task {} (interrupting if necessary)", task);
 
             // Make sure connections to this endpoint are closed when they are returned to pool (which
@@ -777,17 +1026,14 @@ public class ModbusManagerImpl implements ModbusManager {
 
     @Override
     public ScheduledFuture<?> submitOneTimeWrite(WriteTask task) {
-        ScheduledExecutorService scheduledThreadPoolExecutor = this.scheduledThreadPoolExecutor;
-        Objects.requireNonNull(scheduledThreadPoolExecutor, "Not activated!");
         long scheduleTime = System.currentTimeMillis();
-        logger.debug("Scheduling one-off write task {}", task);
-        ScheduledFuture<?> future = scheduledThreadPoolExecutor.schedule(() -> {
-            long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-            logger.debug("Will now execute one-off write task {}, waited in thread pool for {}", task,
-                    millisInThreadPoolWaiting);
-            executeOperation(task, true, writeOperation);
-        }, 0L, TimeUnit.MILLISECONDS);
-        return future;
+        logger.debug("Queuing one-off write task {}", task);
+        // writes are executed before any queued polls of the endpoint
+        return getEndpointQueue(task.getEndpoint()).submit(Priority.WRITE, task, () -> {
+            long millisInQueue = System.currentTimeMillis() - scheduleTime;
+            logger.debug("Will now execute one-off write task {}, waited in queue for {}", task, millisInQueue);
+            return executeOperation(task, true, writeOperation);
+        });
     }
 
     @Override
@@ -825,6 +1071,8 @@ public class ModbusManagerImpl implements ModbusManager {
     protected void activate(Map<String, Object> configProperties) {
         synchronized (this) {
             logger.info("Modbus manager activated");
+            Object coalescePollsConfig = configProperties.get(CONFIG_COALESCE_POLLS);
+            coalescePolls = coalescePollsConfig != null && Boolean.parseBoolean(coalescePollsConfig.toString());
             if (connectionPool == null) {
                 constructConnectionPool();
             }
@@ -860,6 +1108,11 @@ public class ModbusManagerImpl implements ModbusManager {
                 monitorFuture.cancel(true);
                 monitorFuture = null;
             }
+            for (ModbusEndpointQueue queue : endpointQueues.values()) {
+                logger.debug("Statistics of endpoint queue: {}", queue);
+                queue.clear();
+            }
+            endpointQueues.clear();
             // Note that it is not allowed to shutdown the executor, since they will be reused when
             // when pool is received from ThreadPoolManager is called
             scheduledThreadPoolExecutor = null;
@@ -899,6 +1152,15 @@ public class ModbusManagerImpl implements ModbusManager {
                 }
             }
 
+            for (ModbusEndpointQueue queue : endpointQueues.values()) {
+                pollMonitorLogger.trace("POLL MONITOR: endpoint queue {}", queue);
+                if (queue.getQueueSize() >= WARN_QUEUE_SIZE) {
+                    pollMonitorLogger.warn(
+                            "Many ({}) operations queued for endpoint! The endpoint might be too slow for the configured poll periods: {}",
+                            queue.getQueueSize(), queue);
+                }
+            }
+
             pollMonitorLogger.trace("</POLL MONITOR>");
         }
     }
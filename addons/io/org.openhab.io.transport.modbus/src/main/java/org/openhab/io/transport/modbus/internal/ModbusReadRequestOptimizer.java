@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Merges poll tasks reading overlapping or adjacent data into single requests
+ *
+ * Only tasks with the same endpoint, unit id and function code are merged. Requests are never extended over data that
+ * none of the tasks reads, since reading unknown addresses might result in an error response from the slave. The size
+ * of the merged requests is limited by the maximum PDU size of modbus.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusReadRequestOptimizer {
+
+    /**
+     * Maximum number of registers in a single read request (function codes 3 and 4)
+     */
+    public static final int MAX_REGISTERS_PER_READ = 125;
+
+    /**
+     * Maximum number of coils or discrete inputs in a single read request (function codes 1 and 2)
+     */
+    public static final int MAX_BITS_PER_READ = 2000;
+
+    private static class MergeKey {
+        private ModbusSlaveEndpoint endpoint;
+        private int unitId;
+        private ModbusReadFunctionCode functionCode;
+
+        public MergeKey(PollTask task) {
+            this.endpoint = task.getEndpoint();
+            this.unitId = task.getRequest().getUnitID();
+            this.functionCode = task.getRequest().getFunctionCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder(13, 37).append(endpoint).append(unitId).append(functionCode).toHashCode();
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (obj == null) {
+                return false;
+            }
+            if (obj == this) {
+                return true;
+            }
+            if (obj.getClass() != getClass()) {
+                return false;
+            }
+            MergeKey rhs = (MergeKey) obj;
+            return new EqualsBuilder().append(endpoint, rhs.endpoint).append(unitId, rhs.unitId)
+                    .append(functionCode, rhs.functionCode).isEquals();
+        }
+    }
+
+    /**
+     * Get the maximum number of registers or bits that can be read with the given function code
+     */
+    public static int getMaxDataLength(ModbusReadFunctionCode functionCode) {
+        switch (functionCode) {
+            case READ_COILS:
+            case READ_INPUT_DISCRETES:
+                return MAX_BITS_PER_READ;
+            default:
+                return MAX_REGISTERS_PER_READ;
+        }
+    }
+
+    /**
+     * Merge the given tasks
+     *
+     * Tasks that cannot be merged with any other task are returned as is. Merged tasks are returned as
+     * {@link CoalescedPollTask}.
+     *
+     * @param tasks tasks to merge
+     * @return tasks to execute for reading the data of all given tasks
+     */
+    public static List<PollTask> optimize(Collection<PollTask> tasks) {
+        return optimize(tasks, task -> true);
+    }
+
+    /**
+     * Merge the given tasks
+     *
+     * Tasks that cannot be merged with any other task are returned as is. Merged tasks are returned as
+     * {@link CoalescedPollTask}, which only call back the tasks that are still active when the response arrives.
+     *
+     * @param tasks tasks to merge
+     * @param isActive tells whether a task is still registered
+     * @return tasks to execute for reading the data of all given tasks
+     */
+    public static List<PollTask> optimize(Collection<PollTask> tasks, Predicate<PollTask> isActive) {
+        Map<MergeKey, List<PollTask>> groups = new LinkedHashMap<>();
+        for (PollTask task : tasks) {
+            groups.computeIfAbsent(new MergeKey(task), key -> new ArrayList<>()).add(task);
+        }
+
+        List<PollTask> result = new ArrayList<>(tasks.size());
+        for (List<PollTask> group : groups.values()) {
+            if (group.size() == 1) {
+                result.add(group.get(0));
+                continue;
+            }
+            group.sort(Comparator.comparingInt((PollTask task) -> task.getRequest().getReference())
+                    .thenComparingInt(task -> task.getRequest().getDataLength()));
+            int maxLength = getMaxDataLength(group.get(0).getRequest().getFunctionCode());
+
+            List<PollTask> run = new ArrayList<>();
+            int runStart = 0;
+            int runEnd = 0;
+            for (PollTask task : group) {
+                ModbusReadRequestBlueprint request = task.getRequest();
+                int start = request.getReference();
+                int end = start + request.getDataLength();
+                if (!run.isEmpty() && start <= runEnd && Math.max(end, runEnd) - runStart <= maxLength) {
+                    run.add(task);
+                    runEnd = Math.max(end, runEnd);
+                    continue;
+                }
+                if (!run.isEmpty()) {
+                    result.add(merge(run, runStart, runEnd, isActive));
+                }
+                run = new ArrayList<>();
+                run.add(task);
+                runStart = start;
+                runEnd = end;
+            }
+            result.add(merge(run, runStart, runEnd, isActive));
+        }
+        return result;
+    }
+
+    private static PollTask merge(List<PollTask> run, int start, int end, Predicate<PollTask> isActive) {
+        if (run.size() == 1) {
+            return run.get(0);
+        }
+        PollTask first = run.get(0);
+        int maxTries = run.stream().mapToInt(task -> task.getRequest().getMaxTries()).max().orElse(1);
+        BasicModbusReadRequestBlueprint request = new BasicModbusReadRequestBlueprint(first.getRequest().getUnitID(),
+                first.getRequest().getFunctionCode(), start, end - start, maxTries);
+        return new CoalescedPollTask(first.getEndpoint(), request, run, isActive);
+    }
+}
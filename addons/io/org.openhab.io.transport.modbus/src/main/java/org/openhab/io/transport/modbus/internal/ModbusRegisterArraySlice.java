@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.ModbusRegister;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * View to a contiguous part of another {@link ModbusRegisterArray}
+ *
+ * Used to hand out the registers of a coalesced read to the original requests without copying.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusRegisterArraySlice implements ModbusRegisterArray {
+
+    private ModbusRegisterArray wrapped;
+    private int offset;
+    private int length;
+
+    /**
+     * Construct slice of the given array
+     *
+     * @param wrapped wrapped data
+     * @param offset index of the first register of the slice in the wrapped data
+     * @param length number of registers in the slice
+     * @throws IndexOutOfBoundsException if the slice is not within the wrapped data
+     */
+    public ModbusRegisterArraySlice(ModbusRegisterArray wrapped, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > wrapped.size()) {
+            throw new IndexOutOfBoundsException(String.format("Slice (offset=%d, length=%d) out of bounds (size=%d)",
+                    offset, length, wrapped.size()));
+        }
+        this.wrapped = wrapped;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public ModbusRegister getRegister(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return wrapped.getRegister(offset + index);
+    }
+
+    @Override
+    public int size() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        if (length == 0) {
+            return "ModbusRegisterArraySlice(<empty>)";
+        }
+        StringBuffer buffer = new StringBuffer(length * 2).append("ModbusRegisterArraySlice(");
+        return appendHexString(buffer).append(')').toString();
+    }
+}
@@ -13,13 +13,17 @@
 package org.openhab.transform.javascript.internal;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.script.Bindings;
 import javax.script.Compilable;
 import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
@@ -27,13 +31,18 @@ import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Simple cache for compiled JavaScript files.
+ * Cache for compiled JavaScript files.
+ *
+ * Script engines are not thread-safe, so each script is compiled on a pool of engines. A transformation borrows a
+ * compiled script from the pool and returns it afterwards, which allows concurrent transformations of the same script
+ * to run in parallel.
  *
  * @author Thomas Kordelle - pre compiled scripts
  *
@@ -42,41 +51,114 @@ import org.slf4j.LoggerFactory;
 @Component(service = JavaScriptEngineManager.class)
 public class JavaScriptEngineManager {
 
+    /** the maximum number of idle engines kept per script */
+    private static final int MAX_IDLE_ENGINES_PER_SCRIPT = 4;
+
     private final Logger logger = LoggerFactory.getLogger(JavaScriptEngineManager.class);
     private final ScriptEngineManager manager = new ScriptEngineManager();
-    /* keep memory foot print low. max 2 concurrent threads are estimated */
-    private final Map<String, CompiledScript> compiledScriptMap = new ConcurrentHashMap<>(4, 0.5f, 2);
+    private final Map<String, ScriptPool> scriptPools = new ConcurrentHashMap<>();
 
     /**
-     * Get a pre compiled script {@link CompiledScript} from cache. If it is not in the cache, then load it from
-     * storage and put a pre compiled version into the cache.
-     *
-     * @param filename name of the JavaScript file to load
-     * @return a pre compiled script {@link CompiledScript}
-     * @throws TransformationException if compile of JavaScript failed
+     * A compiled script of one engine of the pool.
      */
-    protected CompiledScript getScript(final String filename) throws TransformationException {
-        synchronized (compiledScriptMap) {
-            if (compiledScriptMap.containsKey(filename)) {
-                logger.debug("Loading JavaScript {} from cache.", filename);
-                return compiledScriptMap.get(filename);
+    public static class PooledScript {
+        private final ScriptPool pool;
+        private final CompiledScript script;
+
+        PooledScript(ScriptPool pool, CompiledScript script) {
+            this.pool = pool;
+            this.script = script;
+        }
+
+        /**
+         * Evaluates the script with the given input. Each evaluation gets fresh bindings, so globals set by one
+         * transformation are not visible to the next one.
+         */
+        public @Nullable Object eval(String input) throws ScriptException {
+            final Bindings bindings = script.getEngine().createBindings();
+            bindings.put("input", input);
+            return script.eval(bindings);
+        }
+    }
+
+    /**
+     * The engines of one script file.
+     */
+    private class ScriptPool {
+        private final String filename;
+        private final String source;
+        private final Queue<PooledScript> idle = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger idleCount = new AtomicInteger();
+        private final ScriptStatistics statistics = new ScriptStatistics();
+
+        ScriptPool(String filename, String source) {
+            this.filename = filename;
+            this.source = source;
+        }
+
+        PooledScript borrow() throws TransformationException {
+            PooledScript script = idle.poll();
+            if (script != null) {
+                idleCount.decrementAndGet();
+                return script;
+            }
+            logger.debug("Compiling JavaScript {} on a new engine.", filename);
+            try {
+                final ScriptEngine engine = manager.getEngineByName("javascript");
+                return new PooledScript(this, ((Compilable) engine).compile(source));
+            } catch (ScriptException e) {
+                throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(), e);
+            }
+        }
+
+        void release(PooledScript script) {
+            if (idleCount.incrementAndGet() <= MAX_IDLE_ENGINES_PER_SCRIPT) {
+                idle.offer(script);
             } else {
-                final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + filename;
-                logger.debug("Loading script {} from storage ", path);
-                try (final Reader reader = new InputStreamReader(new FileInputStream(path))) {
-                    final ScriptEngine engine = manager.getEngineByName("javascript");
-                    final CompiledScript cScript = ((Compilable) engine).compile(reader);
-                    logger.debug("Putting compiled JavaScript {} to cache.", cScript);
-                    compiledScriptMap.put(filename, cScript);
-                    return cScript;
-                } catch (IOException | ScriptException e) {
-                    throw new TransformationException("An error occurred while loading JavaScript. " + e.getMessage(),
-                            e);
-                }
+                idleCount.decrementAndGet();
             }
         }
     }
 
+    /**
+     * Borrow a pre compiled script from the pool of the given file. If the file is not in the cache, then load it from
+     * storage. The script has to be returned by {@link #releaseScript(String, PooledScript)} after use.
+     *
+     * @param filename name of the JavaScript file to load
+     * @return a pre compiled script
+     * @throws TransformationException if loading or compiling of the JavaScript failed
+     */
+    protected PooledScript borrowScript(final String filename) throws TransformationException {
+        return getPool(filename).borrow();
+    }
+
+    /**
+     * Return a script borrowed by {@link #borrowScript(String)} to its pool and record the execution. If the file was
+     * reloaded in the meantime, the script is dropped, so that only the new code is run from now on.
+     *
+     * @param filename name of the JavaScript file
+     * @param script the borrowed script
+     * @param durationNanos the execution time of the script
+     * @param failed whether the execution failed
+     */
+    protected void releaseScript(final String filename, PooledScript script, long durationNanos, boolean failed) {
+        ScriptPool pool = script.pool;
+        pool.statistics.record(durationNanos, failed);
+        if (scriptPools.get(filename) == pool) {
+            pool.release(script);
+        }
+    }
+
+    /**
+     * Returns the statistics of the given script, or null if it is not in the cache.
+     *
+     * @param filename name of the JavaScript file
+     */
+    public @Nullable ScriptStatistics getStatistics(final String filename) {
+        ScriptPool pool = scriptPools.get(filename);
+        return pool != null ? pool.statistics : null;
+    }
+
     /**
      * remove a pre compiled script from cache.
      *
@@ -84,6 +166,42 @@ public class JavaScriptEngineManager {
      */
     protected void removeFromCache(String fileName) {
         logger.debug("Removing JavaScript {} from cache.", fileName);
-        compiledScriptMap.remove(fileName);
+        ScriptPool pool = scriptPools.remove(fileName);
+        if (pool != null) {
+            logger.debug("Statistics of JavaScript {}: {}", fileName, pool.statistics);
+        }
+    }
+
+    private ScriptPool getPool(final String filename) throws TransformationException {
+        ScriptPool pool = scriptPools.get(filename);
+        if (pool != null) {
+            return pool;
+        }
+        try {
+            return scriptPools.computeIfAbsent(filename, name -> {
+                final String path = TransformationScriptWatcher.TRANSFORM_FOLDER + File.separator + name;
+                logger.debug("Loading script {} from storage ", path);
+                try {
+                    return new ScriptPool(name,
+                            new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new LoadException(e);
+                }
+            });
+        } catch (LoadException e) {
+            throw new TransformationException(
+                    "An error occurred while loading JavaScript. " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Carries an {@link IOException} out of the mapping function of {@link Map#computeIfAbsent}.
+     */
+    private static class LoadException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        LoadException(IOException cause) {
+            super(cause);
+        }
     }
 }
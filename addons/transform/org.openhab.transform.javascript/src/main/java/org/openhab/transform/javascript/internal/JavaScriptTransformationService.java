@@ -12,14 +12,13 @@
  */
 package org.openhab.transform.javascript.internal;
 
-import javax.script.Bindings;
-import javax.script.CompiledScript;
 import javax.script.ScriptException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
+import org.openhab.transform.javascript.internal.JavaScriptEngineManager.PooledScript;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
@@ -65,22 +64,23 @@ public class JavaScriptTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
-        final long startTime = System.currentTimeMillis();
         logger.debug("about to transform '{}' by the JavaScript '{}'", source, filename);
 
         String result = "";
 
+        final PooledScript script = manager.borrowScript(filename);
+        final long startTime = System.nanoTime();
+        boolean failed = true;
         try {
-            final CompiledScript cScript = manager.getScript(filename);
-            final Bindings bindings = cScript.getEngine().createBindings();
-            bindings.put("input", source);
-            result = String.valueOf(cScript.eval(bindings));
+            result = String.valueOf(script.eval(source));
+            failed = false;
             return result;
         } catch (ScriptException e) {
             throw new TransformationException("An error occurred while executing script. " + e.getMessage(), e);
         } finally {
-            logger.trace("JavaScript execution elapsed {} ms. Result: {}", System.currentTimeMillis() - startTime,
-                    result);
+            final long elapsed = System.nanoTime() - startTime;
+            manager.releaseScript(filename, script, elapsed, failed);
+            logger.trace("JavaScript execution elapsed {} µs. Result: {}", elapsed / 1000, result);
         }
     }
 }
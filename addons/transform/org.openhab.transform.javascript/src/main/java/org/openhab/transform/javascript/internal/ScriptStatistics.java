@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.javascript.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Invocation counts and a latency histogram of a transformation script.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ScriptStatistics {
+
+    /** upper bounds (exclusive) of the histogram buckets in milliseconds, the last bucket takes all slower calls */
+    private static final long[] BUCKET_LIMITS_MS = { 1, 5, 10, 50, 100, 500 };
+
+    private final AtomicLong invocations = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKET_LIMITS_MS.length + 1);
+
+    void record(long durationNanos, boolean failed) {
+        invocations.incrementAndGet();
+        if (failed) {
+            failures.incrementAndGet();
+        }
+        totalNanos.addAndGet(durationNanos);
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        int bucket = 0;
+        while (bucket < BUCKET_LIMITS_MS.length && durationMs >= BUCKET_LIMITS_MS[bucket]) {
+            bucket++;
+        }
+        histogram.incrementAndGet(bucket);
+    }
+
+    public long getInvocations() {
+        return invocations.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Returns the average execution time in microseconds.
+     */
+    public long getAverageMicros() {
+        long count = invocations.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.get() / count);
+    }
+
+    /**
+     * Returns the number of invocations per latency bucket. The buckets are limited by 1, 5, 10, 50, 100 and 500 ms,
+     * the last bucket contains all invocations which took 500 ms or longer.
+     */
+    public long[] getHistogram() {
+        long[] result = new long[histogram.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = histogram.get(i);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("invocations: ").append(getInvocations()).append(", failures: ").append(getFailures())
+                .append(", avg: ").append(getAverageMicros()).append(" µs, histogram:");
+        for (int i = 0; i < histogram.length(); i++) {
+            sb.append(i < BUCKET_LIMITS_MS.length ? " <" + BUCKET_LIMITS_MS[i] : " >=" + BUCKET_LIMITS_MS[i - 1])
+                    .append("ms=").append(histogram.get(i));
+        }
+        return sb.toString();
+    }
+}
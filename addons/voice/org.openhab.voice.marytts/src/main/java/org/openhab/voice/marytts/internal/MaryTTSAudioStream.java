@@ -54,10 +54,22 @@ class MaryTTSAudioStream extends FixedLengthAudioStream {
      * @throws IOException
      */
     public MaryTTSAudioStream(AudioInputStream inputStream, AudioFormat audioFormat) throws IOException {
-        rawAudio = IOUtils.toByteArray(inputStream);
+        this(IOUtils.toByteArray(inputStream), audioFormat);
+    }
+
+    /**
+     * Constructs an instance for audio that has already been synthesized
+     *
+     * @param rawAudio The audio data of this instance, without WAV header
+     * @param audioFormat The AudioFormat of this instance
+     * @throws IOException
+     */
+    MaryTTSAudioStream(byte[] rawAudio, AudioFormat audioFormat) throws IOException {
+        this.rawAudio = rawAudio;
         this.length = rawAudio.length + 36;
-        this.inputStream = new SequenceInputStream(getWavHeaderInputStream(length), new ByteArrayInputStream(rawAudio));
+        // The format has to be set before the header is created, it contains the sample rate
         this.audioFormat = audioFormat;
+        this.inputStream = new SequenceInputStream(getWavHeaderInputStream(length), new ByteArrayInputStream(rawAudio));
     }
 
     @Override
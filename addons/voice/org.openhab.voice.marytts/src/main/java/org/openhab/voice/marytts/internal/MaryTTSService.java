@@ -15,15 +15,29 @@ package org.openhab.voice.marytts.internal;
 import static javax.sound.sampled.AudioSystem.NOT_SPECIFIED;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 
+import org.apache.commons.io.IOUtils;
+import org.eclipse.smarthome.config.core.ConfigurableService;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,13 +53,40 @@ import marytts.modules.synthesis.Voice;
  * @author Kelly Davis - Initial contribution and API
  * @author Kai Kreuzer - Refactored to updated APIs and moved to openHAB
  */
-@Component
+@Component(configurationPid = MaryTTSService.SERVICE_PID, property = {
+        Constants.SERVICE_PID + "=" + MaryTTSService.SERVICE_PID,
+        ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=voice:marytts",
+        ConfigurableService.SERVICE_PROPERTY_LABEL + "=Mary Text-to-Speech",
+        ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=voice" })
 public class MaryTTSService implements TTSService {
 
+    static final String SERVICE_PID = "org.openhab.voice.marytts";
+
+    private static final String CONFIG_WORKERS = "workers";
+    private static final String CONFIG_PHRASES = "phrases";
+    private static final int DEFAULT_WORKERS = 2;
+
+    /**
+     * Text that is synthesized with every voice on start, it is understood by all languages of MaryTTS
+     */
+    private static final String WARM_UP_TEXT = "Test";
+
     private final Logger logger = LoggerFactory.getLogger(MaryTTSService.class);
 
     private MaryInterface marytts;
 
+    /**
+     * Idle MaryTTS interfaces, each of them synthesizes one text at a time
+     */
+    private volatile BlockingQueue<MaryInterface> workers = new LinkedBlockingQueue<>();
+
+    /**
+     * Audio of the configured phrases, by voice label and text
+     */
+    private volatile Map<String, byte[]> renderedPhrases = new ConcurrentHashMap<>();
+
+    private Future<?> preRenderJob;
+
     /**
      * Set of supported voices
      */
@@ -56,13 +97,96 @@ public class MaryTTSService implements TTSService {
      */
     private Set<AudioFormat> audioFormats;
 
-    protected void activate() {
+    @Activate
+    protected void activate(Map<String, Object> config) {
         try {
             marytts = new LocalMaryInterface();
             voices = initVoices();
             audioFormats = initAudioFormats();
         } catch (MaryConfigurationException e) {
             logger.error("Failed to initialize MaryTTS: {}", e.getMessage(), e);
+            return;
+        }
+        modified(config);
+    }
+
+    @Modified
+    protected synchronized void modified(Map<String, Object> config) {
+        if (marytts == null) {
+            return;
+        }
+        if (preRenderJob != null) {
+            preRenderJob.cancel(true);
+        }
+
+        // Workers that are busy return to the previous queue and are dropped with it
+        BlockingQueue<MaryInterface> workers = new LinkedBlockingQueue<>();
+        int workerCount = getWorkerCount(config);
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                workers.add(new LocalMaryInterface());
+            }
+        } catch (MaryConfigurationException e) {
+            logger.error("Failed to initialize MaryTTS workers: {}", e.getMessage(), e);
+            if (workers.isEmpty()) {
+                // Synthesize with the interface that is already initialized, one text at a time
+                workers.add(marytts);
+            }
+        }
+        Map<String, byte[]> renderedPhrases = new ConcurrentHashMap<>();
+        this.workers = workers;
+        this.renderedPhrases = renderedPhrases;
+        logger.debug("Using {} MaryTTS workers", workers.size());
+
+        List<String> phrases = getPhrases(config);
+        preRenderJob = ThreadPoolManager.getPool(getId())
+                .submit(() -> preRender(workers, renderedPhrases, phrases));
+    }
+
+    @Deactivate
+    protected synchronized void deactivate() {
+        if (preRenderJob != null) {
+            preRenderJob.cancel(true);
+            preRenderJob = null;
+        }
+        renderedPhrases.clear();
+    }
+
+    /**
+     * Synthesizes a text with every voice, so the first announcement is not delayed by loading the voice data, and
+     * renders the configured phrases. Each phrase has the form "&lt;voice&gt;:&lt;text&gt;", e.g.
+     * "cmu-slt-hsmm:Someone is at the door".
+     */
+    private void preRender(BlockingQueue<MaryInterface> workers, Map<String, byte[]> renderedPhrases,
+            List<String> phrases) {
+        try {
+            for (org.eclipse.smarthome.core.voice.Voice voice : voices) {
+                generateAudio(workers, WARM_UP_TEXT, voice);
+            }
+            logger.debug("Warmed up {} MaryTTS voices", voices.size());
+        } catch (TTSException e) {
+            logger.warn("Could not warm up MaryTTS: {}", e.getMessage());
+        }
+
+        for (String phrase : phrases) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            int separator = phrase.indexOf(':');
+            String voiceLabel = separator < 0 ? "" : phrase.substring(0, separator).trim();
+            String text = phrase.substring(separator + 1).trim();
+            org.eclipse.smarthome.core.voice.Voice voice = voices.stream()
+                    .filter(v -> v.getLabel().equalsIgnoreCase(voiceLabel)).findAny().orElse(null);
+            if (voice == null || text.isEmpty()) {
+                logger.warn("Ignoring phrase '{}', it must have the form '<voice>:<text>'", phrase);
+                continue;
+            }
+            try {
+                renderedPhrases.put(getPhraseKey(voice, text), generateAudio(workers, text, voice));
+                logger.debug("Pre-rendered phrase '{}'", phrase);
+            } catch (TTSException e) {
+                logger.warn("Could not pre-render phrase '{}': {}", phrase, e.getMessage());
+            }
         }
     }
 
@@ -114,18 +238,81 @@ public class MaryTTSService implements TTSService {
         Voice maryTTSVoice = Voice.getVoice(voice.getLabel());
         AudioFormat maryTTSVoiceAudioFormat = getAudioFormat(maryTTSVoice.dbAudioFormat());
 
-        // Synchronize on marytts
-        synchronized (marytts) {
+        // Each voice produces audio in its own format only, whatever format is requested. Pre-rendered phrases
+        // are therefore kept by voice and text, independent of the format the voice manager negotiated.
+        byte[] rawAudio = renderedPhrases.get(getPhraseKey(voice, text));
+        if (rawAudio != null) {
+            logger.trace("Using pre-rendered audio of '{}'", text);
+        } else {
+            rawAudio = generateAudio(workers, text, voice);
+        }
+        try {
+            return new MaryTTSAudioStream(rawAudio, maryTTSVoiceAudioFormat);
+        } catch (IOException e) {
+            throw new TTSException("Error generating an AudioStream", e);
+        }
+    }
+
+    /**
+     * Synthesizes a text with the next idle worker, waits if all workers are busy
+     *
+     * @return The audio data, without WAV header
+     */
+    private byte[] generateAudio(BlockingQueue<MaryInterface> workers, String text,
+            org.eclipse.smarthome.core.voice.Voice voice) throws TTSException {
+        MaryInterface worker;
+        try {
+            worker = workers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TTSException("Interrupted while waiting for MaryTTS");
+        }
+        try {
             // Set voice (Each voice supports only a single AudioFormat)
-            marytts.setLocale(voice.getLocale());
-            marytts.setVoice(voice.getLabel());
+            worker.setLocale(voice.getLocale());
+            worker.setVoice(voice.getLabel());
+            return IOUtils.toByteArray(worker.generateAudio(text));
+        } catch (SynthesisException | IOException e) {
+            throw new TTSException("Error generating an AudioStream", e);
+        } finally {
+            workers.add(worker);
+        }
+    }
 
-            try {
-                return new MaryTTSAudioStream(marytts.generateAudio(text), maryTTSVoiceAudioFormat);
-            } catch (SynthesisException | IOException e) {
-                throw new TTSException("Error generating an AudioStream", e);
+    private static String getPhraseKey(org.eclipse.smarthome.core.voice.Voice voice, String text) {
+        return voice.getLabel() + "\n" + text;
+    }
+
+    private static int getWorkerCount(Map<String, Object> config) {
+        Object value = config.get(CONFIG_WORKERS);
+        try {
+            if (value instanceof Number) {
+                return Math.max(1, ((Number) value).intValue());
+            } else if (value instanceof String) {
+                return Math.max(1, Integer.parseInt(((String) value).trim()));
+            }
+        } catch (NumberFormatException e) {
+            // use the default
+        }
+        return DEFAULT_WORKERS;
+    }
+
+    private static List<String> getPhrases(Map<String, Object> config) {
+        List<String> phrases = new ArrayList<>();
+        Object value = config.get(CONFIG_PHRASES);
+        if (value instanceof String) {
+            // Phrases may contain commas, so only line breaks separate them
+            for (String phrase : ((String) value).split("\\R")) {
+                if (!phrase.trim().isEmpty()) {
+                    phrases.add(phrase.trim());
+                }
+            }
+        } else if (value instanceof Iterable) {
+            for (Object phrase : (Iterable<?>) value) {
+                phrases.add(phrase.toString().trim());
             }
         }
+        return phrases;
     }
 
     /**
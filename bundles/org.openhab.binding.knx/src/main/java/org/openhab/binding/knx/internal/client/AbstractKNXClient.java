@@ -12,12 +12,10 @@
  */
 package org.openhab.binding.knx.internal.client;
 
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -33,6 +31,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import tuwien.auto.calimero.CloseEvent;
+import tuwien.auto.calimero.DataUnitBuilder;
 import tuwien.auto.calimero.DetachEvent;
 import tuwien.auto.calimero.FrameEvent;
 import tuwien.auto.calimero.GroupAddress;
@@ -64,6 +63,8 @@ import tuwien.auto.calimero.process.ProcessListener;
 public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClient {
 
     private static final int MAX_SEND_ATTEMPTS = 2;
+    private static final int STATISTICS_INTERVAL = 60;
+    private static final int GROUP_READ = 0x00;
 
     private final Logger logger = LoggerFactory.getLogger(AbstractKNXClient.class);
     private final KNXTypeMapper typeHelper = new KNXCoreTypeMapper();
@@ -72,7 +73,6 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private final int responseTimeout;
     private final int readingPause;
     private final int autoReconnectPeriod;
-    private final int readRetriesLimit;
     private final StatusUpdateCallback statusUpdateCallback;
     private final ScheduledExecutorService knxScheduler;
 
@@ -84,9 +84,15 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     private @Nullable DeviceInfoClient deviceInfoClient;
     private @Nullable ScheduledFuture<?> busJob;
     private @Nullable ScheduledFuture<?> connectJob;
+    private @Nullable ScheduledFuture<?> statisticsJob;
 
-    private final Set<GroupAddressListener> groupAddressListeners = new CopyOnWriteArraySet<>();
-    private final LinkedBlockingQueue<ReadDatapoint> readDatapoints = new LinkedBlockingQueue<>();
+    private final GroupAddressListenerIndex groupAddressListeners = new GroupAddressListenerIndex();
+    private final ReadScheduler readScheduler;
+
+    private final AtomicLong receivedTelegrams = new AtomicLong();
+    private final AtomicLong dispatchedTelegrams = new AtomicLong();
+    private final AtomicLong dispatchLatency = new AtomicLong();
+    private final AtomicLong maxDispatchLatency = new AtomicLong();
 
     @FunctionalInterface
     private interface ListenerNotification {
@@ -103,6 +109,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
         @Override
         public void groupWrite(ProcessEvent e) {
+            readScheduler.onTelegram(e.getDestination(), false);
             processEvent("Group Write", e, (listener, source, destination, asdu) -> {
                 listener.onGroupWrite(AbstractKNXClient.this, source, destination, asdu);
             });
@@ -110,6 +117,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
         @Override
         public void groupReadRequest(ProcessEvent e) {
+            readScheduler.onTelegram(e.getDestination(), false);
             processEvent("Group Read Request", e, (listener, source, destination, asdu) -> {
                 listener.onGroupRead(AbstractKNXClient.this, source, destination, asdu);
             });
@@ -117,6 +125,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
         @Override
         public void groupReadResponse(ProcessEvent e) {
+            readScheduler.onTelegram(e.getDestination(), true);
             processEvent("Group Read Response", e, (listener, source, destination, asdu) -> {
                 listener.onGroupReadResponse(AbstractKNXClient.this, source, destination, asdu);
             });
@@ -129,7 +138,7 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         this.thingUID = thingUID;
         this.responseTimeout = responseTimeout;
         this.readingPause = readingPause;
-        this.readRetriesLimit = readRetriesLimit;
+        this.readScheduler = new ReadScheduler(responseTimeout, readRetriesLimit);
         this.knxScheduler = knxScheduler;
         this.statusUpdateCallback = statusUpdateCallback;
     }
@@ -198,6 +207,10 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
             busJob = knxScheduler.scheduleWithFixedDelay(() -> readNextQueuedDatapoint(), 0, readingPause,
                     TimeUnit.MILLISECONDS);
+            if (logger.isDebugEnabled()) {
+                statisticsJob = knxScheduler.scheduleWithFixedDelay(() -> logStatistics(), STATISTICS_INTERVAL,
+                        STATISTICS_INTERVAL, TimeUnit.SECONDS);
+            }
 
             statusUpdateCallback.updateStatus(ThingStatus.ONLINE);
             cancelReconnectJob(false);
@@ -221,8 +234,9 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
 
     private void releaseConnection() {
         logger.debug("Bridge {} is disconnecting from the KNX bus", thingUID);
-        readDatapoints.clear();
+        readScheduler.clear();
         busJob = nullify(busJob, j -> j.cancel(true));
+        statisticsJob = nullify(statisticsJob, j -> j.cancel(false));
         deviceInfoClient = null;
         managementProcedures = nullify(managementProcedures, mp -> mp.detach());
         managementClient = nullify(managementClient, mc -> mc.detach());
@@ -245,15 +259,42 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     }
 
     private void processEvent(String task, ProcessEvent event, ListenerNotification action) {
+        long received = System.nanoTime();
         GroupAddress destination = event.getDestination();
         IndividualAddress source = event.getSourceAddr();
         byte[] asdu = event.getASDU();
         logger.trace("Received a {} telegram from '{}' to '{}' with value '{}'", task, source, destination, asdu);
-        for (GroupAddressListener listener : groupAddressListeners) {
-            if (listener.listensTo(destination)) {
-                knxScheduler.schedule(() -> action.apply(listener, source, destination, asdu), 0, TimeUnit.SECONDS);
-            }
+        receivedTelegrams.incrementAndGet();
+        GroupAddressListener[] listeners = groupAddressListeners.get(destination);
+        if (listeners.length == 0) {
+            return;
         }
+        // One task per telegram, the listeners are notified one after the other
+        knxScheduler.execute(() -> {
+            for (GroupAddressListener listener : listeners) {
+                try {
+                    action.apply(listener, source, destination, asdu);
+                } catch (RuntimeException e) {
+                    logger.warn("Error processing a {} telegram to '{}': {}", task, destination, e.getMessage(), e);
+                }
+            }
+            long latency = System.nanoTime() - received;
+            dispatchedTelegrams.incrementAndGet();
+            dispatchLatency.addAndGet(latency);
+            maxDispatchLatency.accumulateAndGet(latency, Math::max);
+        });
+    }
+
+    private void logStatistics() {
+        long received = receivedTelegrams.getAndSet(0);
+        long dispatched = dispatchedTelegrams.getAndSet(0);
+        long latency = dispatchLatency.getAndSet(0);
+        long maxLatency = maxDispatchLatency.getAndSet(0);
+        logger.debug("Bridge {} received {} telegrams/s, dispatched {} with an average latency of {} ms (max {} ms)",
+                thingUID, String.format("%.1f", (double) received / STATISTICS_INTERVAL), dispatched,
+                dispatched == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(latency / dispatched),
+                TimeUnit.NANOSECONDS.toMillis(maxLatency));
+        readScheduler.logStatistics(thingUID.toString());
     }
 
     /**
@@ -272,30 +313,13 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
         if (!connectIfNotAutomatic()) {
             return;
         }
-        ProcessCommunicator processCommunicator = this.processCommunicator;
-        if (processCommunicator == null) {
+        KNXNetworkLink link = this.link;
+        if (link == null) {
             return;
         }
-        ReadDatapoint datapoint = readDatapoints.poll();
-        if (datapoint != null) {
-            datapoint.incrementRetries();
-            try {
-                logger.trace("Sending a Group Read Request telegram for {}", datapoint.getDatapoint().getMainAddress());
-                processCommunicator.read(datapoint.getDatapoint());
-            } catch (KNXException e) {
-                if (datapoint.getRetries() < datapoint.getLimit()) {
-                    readDatapoints.add(datapoint);
-                    logger.debug("Could not read value for datapoint {}: {}. Going to retry.",
-                            datapoint.getDatapoint().getMainAddress(), e.getMessage());
-                } else {
-                    logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.",
-                            datapoint.getDatapoint().getMainAddress(), datapoint.getLimit());
-                }
-            } catch (InterruptedException e) {
-                logger.debug("Interrupted sending KNX read request");
-                return;
-            }
-        }
+        // The response is received by the process listener, it is not awaited here
+        readScheduler.sendNext(datapoint -> link.sendRequest(datapoint.getMainAddress(), datapoint.getPriority(),
+                DataUnitBuilder.createLengthOptimizedAPDU(GROUP_READ, null)));
     }
 
     public void dispose() {
@@ -363,23 +387,18 @@ public abstract class AbstractKNXClient implements NetworkLinkListener, KNXClien
     }
 
     @Override
-    public void readDatapoint(Datapoint datapoint) {
-        synchronized (this) {
-            ReadDatapoint retryDatapoint = new ReadDatapoint(datapoint, readRetriesLimit);
-            if (!readDatapoints.contains(retryDatapoint)) {
-                readDatapoints.add(retryDatapoint);
-            }
-        }
+    public void readDatapoint(Datapoint datapoint, ReadPriority priority) {
+        readScheduler.add(datapoint, priority);
     }
 
     @Override
     public final boolean registerGroupAddressListener(GroupAddressListener listener) {
-        return groupAddressListeners.add(listener);
+        return groupAddressListeners.register(listener);
     }
 
     @Override
     public final boolean unregisterGroupAddressListener(GroupAddressListener listener) {
-        return groupAddressListeners.remove(listener);
+        return groupAddressListeners.unregister(listener);
     }
 
     @Override
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Index of the {@link GroupAddressListener}s by the group addresses they listen to, so the listeners of a received
+ * telegram are found without asking every listener.
+ *
+ * The group addresses of a listener are read when it is registered, a listener has to be registered again when its
+ * group addresses change. Lookups don't lock and don't allocate, they use a sorted array of the 16-bit raw addresses
+ * which is rebuilt on every change.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+class GroupAddressListenerIndex {
+
+    private static final GroupAddressListener[] NO_LISTENERS = new GroupAddressListener[0];
+
+    /**
+     * The raw group addresses of every registered listener
+     */
+    private final Map<GroupAddressListener, int[]> registrations = new LinkedHashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(new int[0], new GroupAddressListener[0][]);
+
+    /**
+     * Sorted raw group addresses, listeners[i] contains the listeners of addresses[i]
+     */
+    private static class Snapshot {
+        private final int[] addresses;
+        private final GroupAddressListener[][] listeners;
+
+        private Snapshot(int[] addresses, GroupAddressListener[][] listeners) {
+            this.addresses = addresses;
+            this.listeners = listeners;
+        }
+    }
+
+    /**
+     * Registers the listener for its current group addresses.
+     *
+     * @param listener the listener to register
+     * @return true if the listener was not registered before
+     */
+    synchronized boolean register(GroupAddressListener listener) {
+        int[] rawAddresses = listener.getGroupAddresses().stream().mapToInt(GroupAddress::getRawAddress).distinct()
+                .toArray();
+        boolean added = registrations.put(listener, rawAddresses) == null;
+        rebuild();
+        return added;
+    }
+
+    /**
+     * Unregisters the listener.
+     *
+     * @param listener the listener to unregister
+     * @return true if the listener was registered
+     */
+    synchronized boolean unregister(GroupAddressListener listener) {
+        if (registrations.remove(listener) == null) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+
+    /**
+     * Returns the listeners of the given group address. The returned array must not be modified.
+     *
+     * @param destination the group address of a telegram
+     * @return the listeners, an empty array if there are none
+     */
+    GroupAddressListener[] get(GroupAddress destination) {
+        Snapshot snapshot = this.snapshot;
+        int index = Arrays.binarySearch(snapshot.addresses, destination.getRawAddress());
+        return index < 0 ? NO_LISTENERS : snapshot.listeners[index];
+    }
+
+    private void rebuild() {
+        TreeMap<Integer, List<GroupAddressListener>> index = new TreeMap<>();
+        registrations.forEach((listener, rawAddresses) -> {
+            for (int rawAddress : rawAddresses) {
+                index.computeIfAbsent(rawAddress, a -> new ArrayList<>()).add(listener);
+            }
+        });
+        int[] addresses = new int[index.size()];
+        GroupAddressListener[][] listeners = new GroupAddressListener[index.size()][];
+        int i = 0;
+        for (Map.Entry<Integer, List<GroupAddressListener>> entry : index.entrySet()) {
+            addresses[i] = entry.getKey();
+            listeners[i] = entry.getValue().toArray(NO_LISTENERS);
+            i++;
+        }
+        snapshot = new Snapshot(addresses, listeners);
+    }
+}
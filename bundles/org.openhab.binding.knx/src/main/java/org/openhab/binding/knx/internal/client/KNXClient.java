@@ -61,7 +61,8 @@ public interface KNXClient {
     void restartNetworkDevice(@Nullable IndividualAddress address);
 
     /**
-     * Register the given listener to be informed on KNX bus traffic.
+     * Register the given listener to be informed on KNX bus traffic to its group addresses. A listener has to be
+     * registered again when its group addresses change.
      *
      * @param listener the listener
      * @return {@code true} if it wasn't registered before
@@ -77,11 +78,13 @@ public interface KNXClient {
     boolean unregisterGroupAddressListener(GroupAddressListener listener);
 
     /**
-     * Schedule the given data point for asynchronous reading.
+     * Schedule the given data point for asynchronous reading. A data point which is already scheduled is read only
+     * once, with the higher of both priorities.
      *
      * @param datapoint the datapoint
+     * @param priority the priority of the read request
      */
-    void readDatapoint(Datapoint datapoint);
+    void readDatapoint(Datapoint datapoint, ReadPriority priority);
 
     /**
      * Write a command to the KNX bus.
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+/**
+ * The priority of a read request, queued read requests with a higher priority are sent to the KNX bus first.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public enum ReadPriority {
+    /**
+     * The state was requested explicitly, e.g. by a REFRESH command
+     */
+    HIGH,
+    /**
+     * The initial state of a linked channel
+     */
+    NORMAL,
+    /**
+     * A periodic read of a state which is already known
+     */
+    LOW
+}
@@ -0,0 +1,319 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ * Schedules the read requests of a KNX client.
+ *
+ * Read requests are queued by {@link ReadPriority} and sent one per call of {@link #sendNext(ReadRequestSender)},
+ * without waiting for the response of the previous one. A group address is only queued once, no matter how many
+ * things read it, and it is not read again while a response is still expected.
+ *
+ * The number of parallel requests adapts to the bus: it grows while the responses arrive within
+ * {@link #TARGET_LATENCY}, it shrinks when they take longer or a request can't be sent. No requests are sent while
+ * other traffic on the bus exceeds {@link #MAX_BUS_LOAD}.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+class ReadScheduler {
+
+    /** Telegrams per second, a KNX TP1 line carries about 50 */
+    static final double MAX_BUS_LOAD = 20;
+    static final int MAX_PARALLEL_REQUESTS = 8;
+    static final long TARGET_LATENCY = TimeUnit.MILLISECONDS.toNanos(500);
+    /**
+     * Read requests without a response for longer than this don't count as parallel requests anymore, their group
+     * address might just not be readable
+     */
+    static final long ACTIVE_TIME = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long BUS_LOAD_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final double SMOOTHING = 0.25;
+
+    @FunctionalInterface
+    interface ReadRequestSender {
+        void send(Datapoint datapoint) throws KNXException;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ReadScheduler.class);
+
+    private final long responseTimeout;
+    private final int readRetriesLimit;
+    private final LongSupplier clock;
+
+    private final Map<ReadPriority, Deque<ReadDatapoint>> queues = new EnumMap<>(ReadPriority.class);
+    private final Map<GroupAddress, ReadDatapoint> queued = new HashMap<>();
+    // In the order the requests were sent
+    private final Map<GroupAddress, ReadDatapoint> pending = new LinkedHashMap<>();
+
+    private double parallelRequests = 1;
+    private double latency;
+    private double busLoad;
+    private int telegrams;
+    private long busLoadStart;
+
+    private long batchStart;
+    private int batchRead;
+    private int batchFailed;
+    private int read;
+    private int failed;
+    private long totalLatency;
+
+    /**
+     * @param responseTimeout the time in seconds to wait for a response
+     * @param readRetriesLimit the number of read requests sent for a datapoint before giving up
+     */
+    ReadScheduler(int responseTimeout, int readRetriesLimit) {
+        this(responseTimeout, readRetriesLimit, System::nanoTime);
+    }
+
+    ReadScheduler(int responseTimeout, int readRetriesLimit, LongSupplier clock) {
+        this.responseTimeout = TimeUnit.SECONDS.toNanos(responseTimeout);
+        this.readRetriesLimit = readRetriesLimit;
+        this.clock = clock;
+        busLoadStart = clock.getAsLong();
+    }
+
+    /**
+     * Queues a read request, or raises the priority of the queued request for the same group address.
+     *
+     * @param datapoint the datapoint to read
+     * @param priority the priority of the request
+     */
+    synchronized void add(Datapoint datapoint, ReadPriority priority) {
+        GroupAddress groupAddress = datapoint.getMainAddress();
+        if (pending.containsKey(groupAddress)) {
+            return;
+        }
+        ReadDatapoint readDatapoint = queued.get(groupAddress);
+        if (readDatapoint == null) {
+            if (queued.isEmpty() && pending.isEmpty()) {
+                batchStart = clock.getAsLong();
+            }
+            readDatapoint = new ReadDatapoint(datapoint, readRetriesLimit, priority);
+            queued.put(groupAddress, readDatapoint);
+            getQueue(priority).add(readDatapoint);
+        } else if (priority.compareTo(readDatapoint.getPriority()) < 0) {
+            getQueue(readDatapoint.getPriority()).remove(readDatapoint);
+            readDatapoint.setPriority(priority);
+            getQueue(priority).add(readDatapoint);
+        }
+    }
+
+    /**
+     * Sends the next queued read request if the number of parallel requests and the bus load allow it.
+     *
+     * @param sender sends the read request to the bus
+     */
+    void sendNext(ReadRequestSender sender) {
+        ReadDatapoint readDatapoint;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            updateBusLoad(now);
+            expirePending(now);
+            if (busLoad > MAX_BUS_LOAD || getActiveRequests(now) >= (int) parallelRequests) {
+                return;
+            }
+            readDatapoint = poll();
+            if (readDatapoint == null) {
+                return;
+            }
+            readDatapoint.incrementRetries();
+            readDatapoint.setSentTime(now);
+            pending.put(readDatapoint.getDatapoint().getMainAddress(), readDatapoint);
+        }
+        try {
+            logger.trace("Sending a Group Read Request telegram for {}", readDatapoint.getDatapoint().getMainAddress());
+            sender.send(readDatapoint.getDatapoint());
+        } catch (KNXException e) {
+            synchronized (this) {
+                pending.remove(readDatapoint.getDatapoint().getMainAddress());
+                parallelRequests = 1;
+                retry(readDatapoint, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Notifies the scheduler about a telegram received from the bus.
+     *
+     * @param destination the destination of the telegram
+     * @param response true if the telegram is a group read response
+     */
+    synchronized void onTelegram(GroupAddress destination, boolean response) {
+        if (response) {
+            ReadDatapoint readDatapoint = pending.remove(destination);
+            if (readDatapoint != null) {
+                long now = clock.getAsLong();
+                long responseLatency = now - readDatapoint.getSentTime();
+                latency = latency == 0 ? responseLatency : latency + SMOOTHING * (responseLatency - latency);
+                totalLatency += responseLatency;
+                if (latency < TARGET_LATENCY) {
+                    parallelRequests = Math.min(MAX_PARALLEL_REQUESTS, parallelRequests + 1 / parallelRequests);
+                } else {
+                    parallelRequests = Math.max(1, parallelRequests - 1);
+                }
+                completed(false);
+                return;
+            }
+            // Someone else already read the value
+            readDatapoint = queued.remove(destination);
+            if (readDatapoint != null) {
+                getQueue(readDatapoint.getPriority()).remove(readDatapoint);
+                completed(false);
+                return;
+            }
+        }
+        telegrams++;
+    }
+
+    /**
+     * Drops all queued and pending read requests.
+     */
+    synchronized void clear() {
+        queues.values().forEach(Deque::clear);
+        queued.clear();
+        pending.clear();
+        parallelRequests = 1;
+        batchRead = 0;
+        batchFailed = 0;
+    }
+
+    synchronized int getQueued() {
+        return queued.size();
+    }
+
+    synchronized int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * Logs the progress since the last call.
+     *
+     * @param name the name of the client
+     */
+    synchronized void logStatistics(String name) {
+        logger.debug("Bridge {} read {} datapoints ({} failed, {} queued, {} pending) with an average latency of {} ms",
+                name, read, failed, queued.size(), pending.size(),
+                read == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatency / read));
+        logger.debug("Bridge {} sends up to {} parallel read requests at a bus load of {} telegrams/s", name,
+                (int) parallelRequests, String.format("%.1f", busLoad));
+        read = 0;
+        failed = 0;
+        totalLatency = 0;
+    }
+
+    private Deque<ReadDatapoint> getQueue(ReadPriority priority) {
+        Deque<ReadDatapoint> queue = queues.get(priority);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            queues.put(priority, queue);
+        }
+        return queue;
+    }
+
+    private @Nullable ReadDatapoint poll() {
+        for (Deque<ReadDatapoint> queue : queues.values()) {
+            ReadDatapoint readDatapoint = queue.poll();
+            if (readDatapoint != null) {
+                queued.remove(readDatapoint.getDatapoint().getMainAddress());
+                return readDatapoint;
+            }
+        }
+        return null;
+    }
+
+    private void updateBusLoad(long now) {
+        long interval = now - busLoadStart;
+        if (interval >= BUS_LOAD_INTERVAL) {
+            double telegramsPerSecond = telegrams * (double) TimeUnit.SECONDS.toNanos(1) / interval;
+            busLoad += SMOOTHING * (telegramsPerSecond - busLoad);
+            telegrams = 0;
+            busLoadStart = now;
+        }
+    }
+
+    private void expirePending(long now) {
+        Iterator<ReadDatapoint> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            ReadDatapoint readDatapoint = iterator.next();
+            if (now - readDatapoint.getSentTime() < responseTimeout) {
+                break;
+            }
+            iterator.remove();
+            retry(readDatapoint, "no response");
+        }
+    }
+
+    private int getActiveRequests(long now) {
+        int active = 0;
+        for (ReadDatapoint readDatapoint : pending.values()) {
+            if (now - readDatapoint.getSentTime() < ACTIVE_TIME) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    private void retry(ReadDatapoint readDatapoint, @Nullable String reason) {
+        GroupAddress groupAddress = readDatapoint.getDatapoint().getMainAddress();
+        if (readDatapoint.getRetries() < readDatapoint.getLimit()) {
+            logger.debug("Could not read value for datapoint {}: {}. Going to retry.", groupAddress, reason);
+            if (!queued.containsKey(groupAddress)) {
+                queued.put(groupAddress, readDatapoint);
+                getQueue(readDatapoint.getPriority()).add(readDatapoint);
+            }
+        } else {
+            logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.",
+                    groupAddress, readDatapoint.getLimit());
+            completed(true);
+        }
+    }
+
+    private void completed(boolean failure) {
+        if (failure) {
+            failed++;
+            batchFailed++;
+        } else {
+            read++;
+            batchRead++;
+        }
+        if (queued.isEmpty() && pending.isEmpty()) {
+            logger.debug("Read {} datapoints in {} ms, {} failed", batchRead + batchFailed,
+                    TimeUnit.NANOSECONDS.toMillis(clock.getAsLong() - batchStart), batchFailed);
+            batchRead = 0;
+            batchFailed = 0;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.dpt;
+
+import java.math.BigDecimal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StopMoveType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.Type;
+
+import tuwien.auto.calimero.KNXIllegalArgumentException;
+import tuwien.auto.calimero.dptxlator.DPT;
+import tuwien.auto.calimero.dptxlator.DPTXlator;
+import tuwien.auto.calimero.dptxlator.DPTXlator8BitUnsigned;
+
+/**
+ * The conversions of a single KNX datapoint type, created once per datapoint type id by the
+ * {@link KNXCoreTypeMapper}.
+ *
+ * It keeps the main and sub number and the calimero {@link DPT} of the id. For the common datapoint types (1.x, 5.x,
+ * 9.x and 14.x) it also converts the ASDU directly into an openHAB type, without creating a {@link DPTXlator} and
+ * formatting its value as a string first. The results are the same as the ones of the translators.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+class DPTCodec {
+
+    @FunctionalInterface
+    private interface Decoder {
+        Type decode(byte[] data);
+    }
+
+    @FunctionalInterface
+    private interface NumericDecoder {
+        double decode(byte[] data);
+    }
+
+    private final DPT dpt;
+    private final int mainNumber;
+    private final int subNumber;
+    private final int size;
+    private final @Nullable Decoder decoder;
+
+    /**
+     * @param dpt the datapoint type
+     * @param mainNumber the main number of the datapoint type id
+     * @param subNumber the sub number of the datapoint type id
+     * @param typeClass the openHAB type class the datapoint type is mapped to, {@code null} if there is none
+     */
+    DPTCodec(DPT dpt, int mainNumber, int subNumber, @Nullable Class<? extends Type> typeClass) {
+        this.dpt = dpt;
+        this.mainNumber = mainNumber;
+        this.subNumber = subNumber;
+        switch (mainNumber) {
+            case 1:
+                size = 1;
+                decoder = createBooleanDecoder(subNumber);
+                break;
+            case 5:
+                size = 1;
+                decoder = createNumericDecoder(typeClass, createUnsigned8BitDecoder(dpt));
+                break;
+            case 9:
+                size = 2;
+                decoder = createNumericDecoder(typeClass, data -> from2ByteFloat(data[0], data[1]));
+                break;
+            case 14:
+                size = 4;
+                decoder = createNumericDecoder(typeClass, data -> from4ByteFloat(data[0], data[1], data[2], data[3]));
+                break;
+            default:
+                size = 0;
+                decoder = null;
+                break;
+        }
+    }
+
+    DPT getDPT() {
+        return dpt;
+    }
+
+    int getMainNumber() {
+        return mainNumber;
+    }
+
+    int getSubNumber() {
+        return subNumber;
+    }
+
+    /**
+     * @return true if {@link #decode(byte[])} supports this datapoint type
+     */
+    boolean canDecode() {
+        return decoder != null;
+    }
+
+    /**
+     * Converts the ASDU of a telegram into an openHAB type.
+     *
+     * @param data the ASDU
+     * @return the openHAB type
+     * @throws KNXIllegalArgumentException if the ASDU is too short for this datapoint type
+     * @throws IllegalStateException if the datapoint type is not supported, see {@link #canDecode()}
+     */
+    Type decode(byte[] data) {
+        Decoder decoder = this.decoder;
+        if (decoder == null) {
+            throw new IllegalStateException("Datapoint type " + dpt.getID() + " can't be decoded directly");
+        }
+        if (data.length < size) {
+            throw new KNXIllegalArgumentException("data length " + data.length + " < KNX data type width " + size);
+        }
+        return decoder.decode(data);
+    }
+
+    private static Decoder createBooleanDecoder(int subNumber) {
+        // the types for a value of 0 and 1
+        Type[] types;
+        switch (subNumber) {
+            case 8:
+                types = new Type[] { UpDownType.UP, UpDownType.DOWN };
+                break;
+            case 9:
+            case 19:
+                types = new Type[] { OpenClosedType.CLOSED, OpenClosedType.OPEN };
+                break;
+            case 10:
+                types = new Type[] { StopMoveType.STOP, StopMoveType.MOVE };
+                break;
+            case 22:
+                types = new Type[] { DecimalType.valueOf("0"), DecimalType.valueOf("1") };
+                break;
+            default:
+                types = new Type[] { OnOffType.OFF, OnOffType.ON };
+                break;
+        }
+        return data -> types[data[0] & 0x01];
+    }
+
+    private static @Nullable Decoder createNumericDecoder(@Nullable Class<? extends Type> typeClass,
+            NumericDecoder numericDecoder) {
+        if (PercentType.class.equals(typeClass)) {
+            return data -> new PercentType(BigDecimal.valueOf(Math.round(numericDecoder.decode(data))));
+        } else if (DecimalType.class.equals(typeClass)) {
+            return data -> new DecimalType(numericDecoder.decode(data));
+        }
+        return null;
+    }
+
+    /**
+     * Same as DPTXlator8BitUnsigned.getNumericValue()
+     */
+    private static NumericDecoder createUnsigned8BitDecoder(DPT dpt) {
+        if (DPTXlator8BitUnsigned.DPT_SCALING.getID().equals(dpt.getID())) {
+            return data -> (data[0] & 0xff) * 100.0 / 255;
+        } else if (DPTXlator8BitUnsigned.DPT_ANGLE.getID().equals(dpt.getID())) {
+            return data -> (data[0] & 0xff) * 360.0 / 255;
+        }
+        return data -> data[0] & 0xff;
+    }
+
+    /**
+     * Same as DPTXlator2ByteFloat.getNumericValue(): 0.01 * mantissa * 2^exponent
+     */
+    private static double from2ByteFloat(byte b0, byte b1) {
+        // sign bit and the upper 3 bits of the 12 bit mantissa are in the first byte, shifted to extend the sign
+        int mantissa = ((b0 & 0x80) << 24 | (b0 & 0x07) << 28 | (b1 & 0xff) << 20) >> 20;
+        int exponent = (b0 & 0x78) >> 3;
+        return ((1 << exponent) * mantissa) * 0.01;
+    }
+
+    /**
+     * Same as DPTXlator4ByteFloat.getNumericValue(): an IEEE 754 single precision value
+     */
+    private static double from4ByteFloat(byte b0, byte b1, byte b2, byte b3) {
+        return Float.intBitsToFloat((b0 & 0xff) << 24 | (b1 & 0xff) << 16 | (b2 & 0xff) << 8 | (b3 & 0xff));
+    }
+}
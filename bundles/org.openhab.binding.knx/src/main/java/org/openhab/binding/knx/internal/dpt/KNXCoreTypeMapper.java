@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -107,6 +108,9 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     /** stores the default KNX DPT to use for each openHAB type */
     private final Map<Class<? extends Type>, String> defaultDptMap;
 
+    /** stores the conversions of all datapoint type ids used so far */
+    private final Map<String, DPTCodec> codecs = new ConcurrentHashMap<>();
+
     public KNXCoreTypeMapper() {
 
         @SuppressWarnings("unused")
@@ -574,24 +578,14 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     @Override
     public String toDPTValue(Type type, String dptID) {
 
-        DPT dpt;
-        int mainNumber = getMainNumber(dptID);
-        if (mainNumber == -1) {
-            logger.error("toDPTValue couldn't identify mainnumber in dptID: {}", dptID);
-            return null;
-        }
-        int subNumber = getSubNumber(dptID);
-        if (subNumber == -1) {
-            logger.debug("toType: couldn't identify sub number in dptID: {}.", dptID);
-            return null;
-        }
-
-        try {
-            DPTXlator translator = TranslatorTypes.createTranslator(mainNumber, dptID);
-            dpt = translator.getType();
-        } catch (KNXException e) {
+        DPTCodec codec = getCodec(dptID);
+        if (codec == null) {
+            logger.debug("toDPTValue: couldn't identify datapoint type of dptID: {}.", dptID);
             return null;
         }
+        DPT dpt = codec.getDPT();
+        int mainNumber = codec.getMainNumber();
+        int subNumber = codec.getSubNumber();
 
         try {
             // check for HSBType first, because it extends PercentType as well
@@ -675,6 +669,11 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
         try {
+            DPTCodec codec = datapoint.getDPT() != null ? getCodec(datapoint.getDPT()) : null;
+            if (codec != null && codec.canDecode()) {
+                return codec.decode(data);
+            }
+
             DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
             translator.setData(data);
             String value = translator.getValue();
@@ -891,6 +890,34 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         return defaultDptMap.get(typeClass);
     }
 
+    /**
+     * Returns the conversions of a datapoint type id, they are created on the first use.
+     *
+     * @param dptID String with DPT ID
+     * @return the conversions or {@code null} if the datapoint type id is not supported
+     */
+    private DPTCodec getCodec(String dptID) {
+        if (dptID == null) {
+            throw new IllegalArgumentException("Parameter dptID cannot be null");
+        }
+        DPTCodec codec = codecs.get(dptID);
+        if (codec == null) {
+            int mainNumber = getMainNumber(dptID);
+            int subNumber = getSubNumber(dptID);
+            if (mainNumber == -1 || subNumber == -1) {
+                return null;
+            }
+            try {
+                DPT dpt = TranslatorTypes.createTranslator(mainNumber, dptID).getType();
+                codec = new DPTCodec(dpt, mainNumber, subNumber, toTypeClass(dpt.getID()));
+            } catch (KNXException e) {
+                return null;
+            }
+            codecs.put(dptID, codec);
+        }
+        return codec;
+    }
+
     /**
      * Formats the given <code>value</code> according to the datapoint type
      * <code>dpt</code> to a String which can be processed by {@link DateTimeType}.
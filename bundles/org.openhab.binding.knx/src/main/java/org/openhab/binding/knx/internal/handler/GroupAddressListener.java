@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.knx.internal.handler;
 
+import java.util.Set;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.binding.knx.internal.client.BusMessageListener;
 
@@ -28,10 +30,11 @@ import tuwien.auto.calimero.GroupAddress;
 public interface GroupAddressListener extends BusMessageListener {
 
     /**
-     * Called to verify if the GroupAddressListener has an interest in the given GroupAddress
+     * Returns the GroupAddresses the GroupAddressListener has an interest in. They are read when the listener is
+     * registered, so it has to be registered again if they change.
      *
-     * @param destination
+     * @return the GroupAddresses of this listener
      */
-    public boolean listensTo(GroupAddress destination);
+    public Set<GroupAddress> getGroupAddresses();
 
 }
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class GroupAddressListenerIndexTest {
+
+    private static final GroupAddress GA_1 = new GroupAddress(1, 2, 3);
+    private static final GroupAddress GA_2 = new GroupAddress(1, 2, 4);
+    private static final GroupAddress GA_3 = new GroupAddress(31, 7, 255);
+
+    private GroupAddressListenerIndex index;
+
+    @Before
+    public void setup() {
+        index = new GroupAddressListenerIndex();
+    }
+
+    private GroupAddressListener listener(GroupAddress... groupAddresses) {
+        GroupAddressListener listener = mock(GroupAddressListener.class);
+        when(listener.getGroupAddresses()).thenReturn(new HashSet<>(Arrays.asList(groupAddresses)));
+        return listener;
+    }
+
+    @Test
+    public void testGet() {
+        GroupAddressListener listener1 = listener(GA_1, GA_2);
+        GroupAddressListener listener2 = listener(GA_2, GA_3);
+
+        assertTrue(index.register(listener1));
+        assertTrue(index.register(listener2));
+
+        assertArrayEquals(new GroupAddressListener[] { listener1 }, index.get(GA_1));
+        assertEquals(new HashSet<>(Arrays.asList(listener1, listener2)),
+                new HashSet<>(Arrays.asList(index.get(GA_2))));
+        assertArrayEquals(new GroupAddressListener[] { listener2 }, index.get(new GroupAddress(31, 7, 255)));
+        assertEquals(0, index.get(new GroupAddress(0, 0, 1)).length);
+    }
+
+    @Test
+    public void testRegisterAgain() {
+        GroupAddressListener listener = listener(GA_1);
+        assertTrue(index.register(listener));
+
+        when(listener.getGroupAddresses()).thenReturn(new HashSet<>(Arrays.asList(GA_2)));
+        assertFalse(index.register(listener));
+
+        assertEquals(0, index.get(GA_1).length);
+        assertArrayEquals(new GroupAddressListener[] { listener }, index.get(GA_2));
+    }
+
+    @Test
+    public void testUnregister() {
+        GroupAddressListener listener1 = listener(GA_1);
+        GroupAddressListener listener2 = listener(GA_1);
+        index.register(listener1);
+        index.register(listener2);
+
+        assertTrue(index.unregister(listener1));
+        assertFalse(index.unregister(listener1));
+
+        assertArrayEquals(new GroupAddressListener[] { listener2 }, index.get(GA_1));
+    }
+}
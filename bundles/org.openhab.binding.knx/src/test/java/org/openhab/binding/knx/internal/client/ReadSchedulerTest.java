@@ -0,0 +1,176 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXTimeoutException;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+public class ReadSchedulerTest {
+
+    private static final GroupAddress GA_1 = new GroupAddress(1, 1, 1);
+    private static final GroupAddress GA_2 = new GroupAddress(1, 1, 2);
+    private static final GroupAddress GA_3 = new GroupAddress(1, 1, 3);
+
+    private long time;
+    private ReadScheduler scheduler;
+    private final List<GroupAddress> sent = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        scheduler = new ReadScheduler(10, 2, () -> time);
+    }
+
+    private Datapoint datapoint(GroupAddress groupAddress) {
+        return new CommandDP(groupAddress, "test", 0, "1.001");
+    }
+
+    private void sendNext() {
+        scheduler.sendNext(datapoint -> sent.add(datapoint.getMainAddress()));
+    }
+
+    private void advance(long millis) {
+        time += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    public void testPriorities() {
+        scheduler.add(datapoint(GA_1), ReadPriority.LOW);
+        scheduler.add(datapoint(GA_2), ReadPriority.NORMAL);
+        scheduler.add(datapoint(GA_3), ReadPriority.HIGH);
+
+        for (int i = 0; i < 3; i++) {
+            sendNext();
+            advance(50);
+            scheduler.onTelegram(sent.get(i), true);
+        }
+
+        assertEquals(Arrays.asList(GA_3, GA_2, GA_1), sent);
+        assertEquals(0, scheduler.getQueued());
+        assertEquals(0, scheduler.getPending());
+    }
+
+    @Test
+    public void testDuplicatesAreReadOnce() {
+        scheduler.add(datapoint(GA_1), ReadPriority.LOW);
+        scheduler.add(datapoint(GA_2), ReadPriority.NORMAL);
+        scheduler.add(datapoint(GA_1), ReadPriority.HIGH);
+        assertEquals(2, scheduler.getQueued());
+
+        sendNext();
+        assertEquals(Arrays.asList(GA_1), sent);
+
+        // a response is expected already
+        scheduler.add(datapoint(GA_1), ReadPriority.HIGH);
+        assertEquals(1, scheduler.getQueued());
+    }
+
+    @Test
+    public void testResponseToQueuedRead() {
+        scheduler.add(datapoint(GA_1), ReadPriority.NORMAL);
+        scheduler.onTelegram(GA_1, true);
+
+        sendNext();
+        assertTrue(sent.isEmpty());
+        assertEquals(0, scheduler.getQueued());
+    }
+
+    @Test
+    public void testParallelRequests() {
+        for (int i = 0; i < 20; i++) {
+            scheduler.add(datapoint(new GroupAddress(2, 0, i)), ReadPriority.NORMAL);
+        }
+        sendNext();
+        sendNext();
+        assertEquals(1, sent.size());
+
+        // fast responses allow more parallel requests
+        for (int i = 0; i < 10; i++) {
+            advance(50);
+            scheduler.onTelegram(sent.get(sent.size() - 1), true);
+            sendNext();
+        }
+        int sentBefore = sent.size();
+        sendNext();
+        sendNext();
+        assertEquals(sentBefore + 2, sent.size());
+    }
+
+    @Test
+    public void testRetryAndGiveUp() {
+        scheduler.add(datapoint(GA_1), ReadPriority.NORMAL);
+        sendNext();
+        advance(5000);
+        sendNext();
+        assertEquals(1, sent.size());
+        assertEquals(1, scheduler.getPending());
+
+        advance(5000);
+        sendNext();
+        assertEquals(Arrays.asList(GA_1, GA_1), sent);
+
+        advance(10000);
+        sendNext();
+        assertEquals(2, sent.size());
+        assertEquals(0, scheduler.getQueued());
+        assertEquals(0, scheduler.getPending());
+    }
+
+    @Test
+    public void testSendFailure() {
+        scheduler.add(datapoint(GA_1), ReadPriority.NORMAL);
+        scheduler.sendNext(datapoint -> {
+            throw new KNXTimeoutException("test");
+        });
+        assertEquals(1, scheduler.getQueued());
+        assertEquals(0, scheduler.getPending());
+
+        sendNext();
+        assertEquals(Arrays.asList(GA_1), sent);
+    }
+
+    @Test
+    public void testBusLoad() {
+        scheduler.add(datapoint(GA_1), ReadPriority.NORMAL);
+        for (int second = 0; second < 10; second++) {
+            for (int i = 0; i < 100; i++) {
+                scheduler.onTelegram(GA_2, false);
+            }
+            advance(1000);
+            sendNext();
+        }
+        assertTrue(sent.isEmpty());
+
+        for (int second = 0; second < 10; second++) {
+            advance(1000);
+            sendNext();
+        }
+        assertEquals(Arrays.asList(GA_1), sent);
+    }
+}
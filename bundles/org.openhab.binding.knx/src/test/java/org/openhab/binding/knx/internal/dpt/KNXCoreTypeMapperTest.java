@@ -12,11 +12,18 @@
  */
 package org.openhab.binding.knx.internal.dpt;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.Type;
 import org.junit.Test;
 
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+
 /**
  *
  * @author Simon Kaufmann - initial contribution and API
@@ -30,4 +37,44 @@ public class KNXCoreTypeMapperTest {
         assertEquals("3", new KNXCoreTypeMapper().toDPTValue(new DecimalType("3.0"), "17.001"));
     }
 
+    @Test
+    public void testToType_boolean() {
+        assertEquals(OnOffType.ON, toType("1.001", 0x01));
+        assertEquals(OnOffType.OFF, toType("1.001", 0x00));
+        assertEquals(UpDownType.DOWN, toType("1.008", 0x01));
+        assertEquals(UpDownType.UP, toType("1.008", 0x00));
+    }
+
+    @Test
+    public void testToType_8BitUnsigned() {
+        assertEquals(new PercentType(50), toType("5.001", 0x80));
+        assertEquals(new PercentType(100), toType("5.001", 0xFF));
+        assertEquals(128, ((DecimalType) toType("5.010", 0x80)).intValue());
+    }
+
+    @Test
+    public void testToType_2ByteFloat() {
+        assertEquals(21.0, ((DecimalType) toType("9.001", 0x0C, 0x1A)).doubleValue(), 0.0001);
+        assertEquals(-0.5, ((DecimalType) toType("9.001", 0x87, 0xCE)).doubleValue(), 0.0001);
+    }
+
+    @Test
+    public void testToType_4ByteFloat() {
+        assertEquals(10.0, ((DecimalType) toType("14.019", 0x41, 0x20, 0x00, 0x00)).doubleValue(), 0.0001);
+    }
+
+    @Test
+    public void testToType_dataTooShort() {
+        assertNull(toType("9.001", 0x0C));
+        assertNull(toType("14.019", 0x41, 0x20));
+    }
+
+    private Type toType(String dpt, int... data) {
+        byte[] asdu = new byte[data.length];
+        for (int i = 0; i < data.length; i++) {
+            asdu[i] = (byte) data[i];
+        }
+        return new KNXCoreTypeMapper().toType(new CommandDP(new GroupAddress(1, 1, 1), "test", 0, dpt), asdu);
+    }
+
 }
@@ -12,6 +12,7 @@
  */
 package org.openhab.binding.mqtt;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -32,6 +33,7 @@ import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.openhab.binding.mqtt.handler.AbstractBrokerHandler;
+import org.openhab.binding.mqtt.tools.DelayedBatchProcessing;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -58,15 +60,40 @@ import org.slf4j.LoggerFactory;
  * While setting up your {@link ChannelState} you would set the callback to your thing handler,
  * because this base class implements {@link ChannelStateUpdateListener}.
  *
+ * <p>
+ * Channel state updates are collected for {@link #STATE_UPDATE_DELAY} milliseconds or up to
+ * {@link #STATE_UPDATE_BATCH_SIZE} updates and then passed on to the framework at once, in the order they were
+ * received. Pending updates are passed on before a command is posted or a channel is triggered, so that the
+ * framework sees them in the order of the MQTT messages.
+ *
  * @author David Graeff - Initial contribution
  */
 @NonNullByDefault
 public abstract class AbstractMQTTThingHandler extends BaseThingHandler implements ChannelStateUpdateListener {
+    // Delay in milliseconds and maximum size of a batch of channel state updates
+    public static final int STATE_UPDATE_DELAY = 50;
+    public static final int STATE_UPDATE_BATCH_SIZE = 100;
+
     private final Logger logger = LoggerFactory.getLogger(AbstractMQTTThingHandler.class);
     // Timeout for the entire tree parsing and subscription
     private final int subscribeTimeout;
 
     protected @Nullable MqttBrokerConnection connection;
+    // Created on initialize, channel state updates are reported directly before that
+    protected volatile @Nullable DelayedBatchProcessing<StateUpdate> stateUpdates;
+
+    /**
+     * A channel state update, waiting to be passed on to the framework.
+     */
+    protected static class StateUpdate {
+        final ChannelUID channelUID;
+        final State value;
+
+        StateUpdate(ChannelUID channelUID, State value) {
+            this.channelUID = channelUID;
+            this.value = value;
+        }
+    }
 
     public AbstractMQTTThingHandler(Thing thing, int subscribeTimeout) {
         super(thing);
@@ -194,6 +221,8 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler implemen
 
     @Override
     public void initialize() {
+        stateUpdates = new DelayedBatchProcessing<>(STATE_UPDATE_DELAY, STATE_UPDATE_BATCH_SIZE,
+                this::updateChannelStates, scheduler);
         bridgeStatusChanged(getBridgeStatus());
     }
 
@@ -205,6 +234,14 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler implemen
 
     @Override
     public void dispose() {
+        final DelayedBatchProcessing<StateUpdate> stateUpdates = this.stateUpdates;
+        if (stateUpdates != null) {
+            this.stateUpdates = null;
+            stateUpdates.forceProcessNow();
+            logger.debug("Thing {} reported {} channel state updates in {} batches, {} of them full",
+                    getThing().getUID(), stateUpdates.getItemCount(), stateUpdates.getBatchCount(),
+                    stateUpdates.getFullBatchCount());
+        }
         MqttBrokerConnection connection = this.connection;
         if (connection != null) {
             connection.unsubscribeAll();
@@ -214,16 +251,43 @@ public abstract class AbstractMQTTThingHandler extends BaseThingHandler implemen
 
     @Override
     public void updateChannelState(ChannelUID channelUID, State value) {
-        super.updateState(channelUID, value);
+        final DelayedBatchProcessing<StateUpdate> stateUpdates = this.stateUpdates;
+        if (stateUpdates != null) {
+            stateUpdates.accept(new StateUpdate(channelUID, value));
+        } else {
+            super.updateState(channelUID, value);
+        }
+    }
+
+    /**
+     * Callback of {@link DelayedBatchProcessing}.
+     * Report every state update of the batch to the framework.
+     */
+    protected void updateChannelStates(List<StateUpdate> updates) {
+        for (StateUpdate update : updates) {
+            super.updateState(update.channelUID, update.value);
+        }
+    }
+
+    /**
+     * Report the pending channel state updates to the framework now.
+     */
+    private void flushChannelStates() {
+        final DelayedBatchProcessing<StateUpdate> stateUpdates = this.stateUpdates;
+        if (stateUpdates != null) {
+            stateUpdates.forceProcessNow();
+        }
     }
 
     @Override
     public void triggerChannel(ChannelUID channelUID, String event) {
+        flushChannelStates();
         super.triggerChannel(channelUID, event);
     }
 
     @Override
     public void postChannelCommand(ChannelUID channelUID, Command command) {
+        flushChannelStates();
         postCommand(channelUID, command);
     }
 
@@ -14,6 +14,7 @@ package org.openhab.binding.mqtt;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Formatter;
 import java.util.IllegalFormatException;
 import java.util.List;
@@ -27,6 +28,7 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.TypeParser;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
@@ -61,6 +63,10 @@ public class ChannelState implements MqttMessageSubscriber {
     protected boolean hasSubscribed = false;
     private @Nullable ScheduledFuture<?> scheduledFuture;
     private CompletableFuture<@Nullable Void> future = new CompletableFuture<>();
+    // The last payload and the state it resulted in, as long as receiving the payload again results in the same state.
+    // Not used with incoming transformations, their result may change for the same payload.
+    private byte @Nullable [] lastPayload;
+    private @Nullable State lastState;
 
     /**
      * Creates a new channel state.
@@ -92,6 +98,7 @@ public class ChannelState implements MqttMessageSubscriber {
      */
     public void addTransformation(ChannelStateTransformation transformation) {
         transformationsIn.add(transformation);
+        lastPayload = null;
     }
 
     /**
@@ -110,6 +117,7 @@ public class ChannelState implements MqttMessageSubscriber {
     public void clearTransformations() {
         transformationsIn.clear();
         transformationsOut.clear();
+        lastPayload = null;
     }
 
     /**
@@ -145,32 +153,50 @@ public class ChannelState implements MqttMessageSubscriber {
             return;
         }
 
-        if (cachedValue.isBinary()) {
-            cachedValue.update(payload);
-            channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
+        // Same payload as last time and nobody changed the value since: Skip parsing and updating the value
+        final byte[] lastPayload = this.lastPayload;
+        if (lastPayload != null && cachedValue.getChannelState() == lastState && Arrays.equals(payload, lastPayload)) {
+            if (config.postCommand && !cachedValue.isBinary()) {
+                channelStateUpdateListener.postChannelCommand(channelUID, (Command) cachedValue.getChannelState());
+            } else {
+                channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
+            }
             receivedOrTimeout();
             return;
         }
+        this.lastPayload = null;
 
-        // String value: Apply transformations
-        String strvalue = new String(payload, StandardCharsets.UTF_8);
-        for (ChannelStateTransformation t : transformationsIn) {
-            strvalue = t.processValue(strvalue);
-        }
-
-        // Is trigger?: Special handling
-        if (config.trigger) {
-            channelStateUpdateListener.triggerChannel(channelUID, strvalue);
+        if (cachedValue.isBinary()) {
+            cachedValue.update(payload);
+            rememberPayload(payload);
+            channelStateUpdateListener.updateChannelState(channelUID, cachedValue.getChannelState());
             receivedOrTimeout();
             return;
         }
 
-        Command command = TypeParser.parseCommand(cachedValue.getSupportedCommandTypes(), strvalue);
+        // Decode the payload directly if possible, before falling back to parsing it as a string
+        Command command = config.trigger || !transformationsIn.isEmpty() ? null : cachedValue.decodeCommand(payload);
         if (command == null) {
-            logger.warn("Incoming payload '{}' not supported by type '{}'", strvalue,
-                    cachedValue.getClass().getSimpleName());
-            receivedOrTimeout();
-            return;
+            // String value: Apply transformations
+            String strvalue = new String(payload, StandardCharsets.UTF_8);
+            for (ChannelStateTransformation t : transformationsIn) {
+                strvalue = t.processValue(strvalue);
+            }
+
+            // Is trigger?: Special handling
+            if (config.trigger) {
+                channelStateUpdateListener.triggerChannel(channelUID, strvalue);
+                receivedOrTimeout();
+                return;
+            }
+
+            command = TypeParser.parseCommand(cachedValue.getSupportedCommandTypes(), strvalue);
+            if (command == null) {
+                logger.warn("Incoming payload '{}' not supported by type '{}'", strvalue,
+                        cachedValue.getClass().getSimpleName());
+                receivedOrTimeout();
+                return;
+            }
         }
 
         Command postOnlyCommand = cachedValue.isPostOnly(command);
@@ -184,12 +210,17 @@ public class ChannelState implements MqttMessageSubscriber {
         try {
             cachedValue.update(command);
         } catch (IllegalArgumentException | IllegalStateException e) {
-            logger.warn("Command '{}' not supported by type '{}': {}", strvalue, cachedValue.getClass().getSimpleName(),
+            logger.warn("Command '{}' not supported by type '{}': {}", command, cachedValue.getClass().getSimpleName(),
                     e.getMessage());
             receivedOrTimeout();
             return;
         }
 
+        // Relative commands like INCREASE change the value every time, only absolute ones can be skipped next time
+        if (transformationsIn.isEmpty() && command.equals(cachedValue.getChannelState())) {
+            rememberPayload(payload);
+        }
+
         if (config.postCommand) {
             channelStateUpdateListener.postChannelCommand(channelUID, (Command) cachedValue.getChannelState());
         } else {
@@ -198,6 +229,11 @@ public class ChannelState implements MqttMessageSubscriber {
         receivedOrTimeout();
     }
 
+    private void rememberPayload(byte[] payload) {
+        lastPayload = payload.clone();
+        lastState = cachedValue.getChannelState();
+    }
+
     /**
      * Returns the state topic. Might be an empty string if this is a stateless channel (TRIGGER kind channel).
      */
@@ -246,6 +282,7 @@ public class ChannelState implements MqttMessageSubscriber {
         this.connection = null;
         this.channelStateUpdateListener = null;
         hasSubscribed = false;
+        lastPayload = null;
         cachedValue.resetState();
     }
 
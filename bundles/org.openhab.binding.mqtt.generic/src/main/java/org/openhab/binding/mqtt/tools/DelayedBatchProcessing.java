@@ -13,20 +13,31 @@
 package org.openhab.binding.mqtt.tools;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
- * Collects objects over time until a specified delay passed by.
+ * Collects objects over time until a specified delay passed by or a maximum batch size is reached.
  * Then call the user back with a list of accumulated objects and start over again.
  *
+ * <p>
+ * Any number of threads may add objects without taking a lock. Batches are delivered one after
+ * the other, never concurrently. If a batch is full, the thread that added the last object delivers
+ * it right away. Fast producers are therefore slowed down to the pace of the consumer instead of
+ * letting the queue grow.
+ * </p>
+ *
  * @author David Graeff - Initial contribution
  *
  * @param <T> Any object
@@ -34,38 +45,67 @@ import org.eclipse.jdt.annotation.Nullable;
 @NonNullByDefault
 public class DelayedBatchProcessing<T> implements Consumer<T> {
     private final int delay;
+    private final int maxBatchSize;
     private final Consumer<List<T>> consumer;
-    private final List<T> queue = Collections.synchronizedList(new ArrayList<>());
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean armed = new AtomicBoolean();
+    private final Object deliveryLock = new Object();
     private final ScheduledExecutorService executor;
     protected @Nullable ScheduledFuture<?> future;
 
+    private final AtomicLong itemCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong fullBatchCount = new AtomicLong();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+
     /**
-     * Creates a {@link DelayedBatchProcessing}.
+     * Creates a {@link DelayedBatchProcessing} without a limit for the batch size.
      *
      * @param delay A delay in milliseconds
      * @param consumer A consumer of the list of collected objects
      * @param executor A scheduled executor service
      */
     public DelayedBatchProcessing(int delay, Consumer<List<T>> consumer, ScheduledExecutorService executor) {
+        this(delay, Integer.MAX_VALUE, consumer, executor);
+    }
+
+    /**
+     * Creates a {@link DelayedBatchProcessing}.
+     *
+     * @param delay A delay in milliseconds
+     * @param maxBatchSize The maximum number of objects in a batch. A full batch is delivered without waiting
+     *            for the delay.
+     * @param consumer A consumer of the list of collected objects
+     * @param executor A scheduled executor service
+     */
+    public DelayedBatchProcessing(int delay, int maxBatchSize, Consumer<List<T>> consumer,
+            ScheduledExecutorService executor) {
         this.delay = delay;
+        this.maxBatchSize = maxBatchSize;
         this.consumer = consumer;
         this.executor = executor;
         if (delay <= 0) {
             throw new IllegalArgumentException("Delay need to be greater than 0!");
         }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Maximum batch size need to be greater than 0!");
+        }
     }
 
     /**
      * Add new object to the batch process list. If the list was empty, the delay timer
      * is armed and all successive objects are accumulated from here on.
+     * If the batch is full, it is delivered by the calling thread.
      *
      * @param t An object
      */
     @Override
     public void accept(T t) {
-        queue.add(t);
-        final ScheduledFuture<?> scheduledFuture = this.future;
-        if (scheduledFuture == null || scheduledFuture.isDone()) {
+        queue.offer(t);
+        if (queued.incrementAndGet() >= maxBatchSize) {
+            process(true);
+        } else if (armed.compareAndSet(false, true)) {
             this.future = executor.schedule(this::run, delay, TimeUnit.MILLISECONDS);
         }
     }
@@ -76,14 +116,14 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
      * @return A list of accumulated objects
      */
     public List<T> join() {
-        ScheduledFuture<?> scheduledFuture = this.future;
-        if (scheduledFuture != null && !scheduledFuture.isDone()) {
-            scheduledFuture.cancel(false);
-        }
+        cancel();
         List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
+        synchronized (deliveryLock) {
+            T t;
+            while ((t = queue.poll()) != null) {
+                lqueue.add(t);
+            }
+            queued.addAndGet(-lqueue.size());
         }
         return lqueue;
     }
@@ -92,30 +132,92 @@ public class DelayedBatchProcessing<T> implements Consumer<T> {
      * Return true if there is a delayed processing going on.
      */
     public boolean isArmed() {
-        ScheduledFuture<?> scheduledFuture = this.future;
-        return scheduledFuture != null && !scheduledFuture.isDone();
+        return armed.get();
     }
 
     /**
      * Deliver queued items now to the target consumer.
      */
     public void forceProcessNow() {
+        cancel();
+        process(false);
+    }
+
+    /**
+     * Return the number of objects that are waiting for delivery.
+     */
+    public int getQueuedCount() {
+        return Math.max(0, queued.get());
+    }
+
+    /**
+     * Return the number of objects delivered so far.
+     */
+    public long getItemCount() {
+        return itemCount.get();
+    }
+
+    /**
+     * Return the number of batches delivered so far.
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Return the number of batches that were delivered because they were full, before the delay passed by.
+     */
+    public long getFullBatchCount() {
+        return fullBatchCount.get();
+    }
+
+    /**
+     * Return the size of the largest batch delivered so far.
+     */
+    public int getLargestBatch() {
+        return largestBatch.get();
+    }
+
+    private void cancel() {
         ScheduledFuture<?> scheduledFuture = this.future;
         if (scheduledFuture != null && !scheduledFuture.isDone()) {
             scheduledFuture.cancel(false);
         }
-        run();
+        armed.set(false);
     }
 
     private void run() {
-        List<T> lqueue = new ArrayList<>();
-        synchronized (queue) {
-            lqueue.addAll(queue);
-            queue.clear();
-        }
+        // Disarm before draining: Objects added from now on arm a new timer
+        armed.set(false);
+        process(false);
+    }
+
+    /**
+     * Deliver the queued objects in batches of at most {@link #maxBatchSize} objects.
+     *
+     * @param onlyFullBatches Only deliver full batches and leave the remaining objects queued.
+     */
+    private void process(boolean onlyFullBatches) {
+        synchronized (deliveryLock) {
+            while (onlyFullBatches ? queued.get() >= maxBatchSize : queued.get() > 0) {
+                List<T> batch = new ArrayList<>();
+                T t;
+                while (batch.size() < maxBatchSize && (t = queue.poll()) != null) {
+                    batch.add(t);
+                }
+                queued.addAndGet(-batch.size());
+                if (batch.isEmpty()) {
+                    return;
+                }
 
-        if (!lqueue.isEmpty()) {
-            consumer.accept(lqueue);
+                itemCount.addAndGet(batch.size());
+                batchCount.incrementAndGet();
+                if (batch.size() == maxBatchSize) {
+                    fullBatchCount.incrementAndGet();
+                }
+                largestBatch.accumulateAndGet(batch.size(), Math::max);
+                consumer.accept(batch);
+            }
         }
     }
 }
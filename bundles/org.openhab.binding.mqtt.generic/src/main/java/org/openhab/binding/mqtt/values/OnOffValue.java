@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.mqtt.values;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -29,10 +31,15 @@ import org.eclipse.smarthome.core.types.Command;
  */
 @NonNullByDefault
 public class OnOffValue extends Value {
+    private static final byte[] ON = OnOffType.ON.name().getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OFF = OnOffType.OFF.name().getBytes(StandardCharsets.UTF_8);
+
     private final String onState;
     private final String offState;
     private final String onCommand;
     private final String offCommand;
+    private final byte[] onStateBytes;
+    private final byte[] offStateBytes;
 
     /**
      * Creates a switch On/Off type, that accepts "ON", "1" for on and "OFF","0" for off.
@@ -68,6 +75,8 @@ public class OnOffValue extends Value {
         this.offState = offState == null ? OnOffType.OFF.name() : offState;
         this.onCommand = onCommand == null ? OnOffType.ON.name() : onCommand;
         this.offCommand = offCommand == null ? OnOffType.OFF.name() : offCommand;
+        this.onStateBytes = this.onState.getBytes(StandardCharsets.UTF_8);
+        this.offStateBytes = this.offState.getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
@@ -86,6 +95,21 @@ public class OnOffValue extends Value {
         }
     }
 
+    @Override
+    public @Nullable Command decodeCommand(byte[] payload) {
+        // Same order as parsing the payload into an OnOffType first and into a StringType otherwise
+        if (Arrays.equals(payload, ON)) {
+            return OnOffType.ON;
+        } else if (Arrays.equals(payload, OFF)) {
+            return OnOffType.OFF;
+        } else if (Arrays.equals(payload, onStateBytes)) {
+            return OnOffType.ON;
+        } else if (Arrays.equals(payload, offStateBytes)) {
+            return OnOffType.OFF;
+        }
+        return null;
+    }
+
     @Override
     public String getMQTTpublishValue() {
         return (state == OnOffType.ON) ? onCommand : offCommand;
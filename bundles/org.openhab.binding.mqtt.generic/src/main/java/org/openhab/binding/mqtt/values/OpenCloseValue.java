@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.mqtt.values;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -29,8 +31,13 @@ import org.eclipse.smarthome.core.types.Command;
  */
 @NonNullByDefault
 public class OpenCloseValue extends Value {
+    private static final byte[] OPEN = OpenClosedType.OPEN.name().getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CLOSED = OpenClosedType.CLOSED.name().getBytes(StandardCharsets.UTF_8);
+
     private final String openString;
     private final String closeString;
+    private final byte[] openBytes;
+    private final byte[] closeBytes;
 
     /**
      * Creates a contact Open/Close type.
@@ -39,6 +46,8 @@ public class OpenCloseValue extends Value {
         super(CoreItemFactory.CONTACT, Stream.of(OpenClosedType.class, StringType.class).collect(Collectors.toList()));
         this.openString = OpenClosedType.OPEN.name();
         this.closeString = OpenClosedType.CLOSED.name();
+        this.openBytes = OPEN;
+        this.closeBytes = CLOSED;
     }
 
     /**
@@ -51,6 +60,8 @@ public class OpenCloseValue extends Value {
         super(CoreItemFactory.CONTACT, Stream.of(OpenClosedType.class, StringType.class).collect(Collectors.toList()));
         this.openString = openValue == null ? OpenClosedType.OPEN.name() : openValue;
         this.closeString = closeValue == null ? OpenClosedType.CLOSED.name() : closeValue;
+        this.openBytes = openString.getBytes(StandardCharsets.UTF_8);
+        this.closeBytes = closeString.getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
@@ -69,6 +80,21 @@ public class OpenCloseValue extends Value {
         }
     }
 
+    @Override
+    public @Nullable Command decodeCommand(byte[] payload) {
+        // Same order as parsing the payload into an OpenClosedType first and into a StringType otherwise
+        if (Arrays.equals(payload, OPEN)) {
+            return OpenClosedType.OPEN;
+        } else if (Arrays.equals(payload, CLOSED)) {
+            return OpenClosedType.CLOSED;
+        } else if (Arrays.equals(payload, openBytes)) {
+            return OpenClosedType.OPEN;
+        } else if (Arrays.equals(payload, closeBytes)) {
+            return OpenClosedType.CLOSED;
+        }
+        return null;
+    }
+
     @Override
     public String getMQTTpublishValue() {
         return (state == OpenClosedType.OPEN) ? openString : closeString;
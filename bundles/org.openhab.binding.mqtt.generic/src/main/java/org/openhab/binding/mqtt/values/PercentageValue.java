@@ -120,6 +120,11 @@ public class PercentageValue extends Value {
         }
     }
 
+    @Override
+    public @Nullable Command decodeCommand(byte[] payload) {
+        return decodeDecimal(payload);
+    }
+
     @Override
     public String getMQTTpublishValue() {
         if (state == UnDefType.UNDEF) {
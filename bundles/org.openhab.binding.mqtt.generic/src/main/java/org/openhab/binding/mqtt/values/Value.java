@@ -14,6 +14,7 @@ package org.openhab.binding.mqtt.values;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.net.URLConnection;
 import java.util.Collections;
 import java.util.List;
@@ -27,6 +28,7 @@ import org.eclipse.smarthome.core.library.types.RawType;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.StateDescription;
+import org.eclipse.smarthome.core.types.TypeParser;
 import org.eclipse.smarthome.core.types.UnDefType;
 
 /**
@@ -133,6 +135,57 @@ public abstract class Value {
         return null;
     }
 
+    /**
+     * Decodes an UTF-8 encoded MQTT payload directly into a command, without creating a string and parsing it
+     * against all {@link #getSupportedCommandTypes()} first. The result must be the same as
+     * {@link TypeParser#parseCommand(List, String)} would return, or a command that {@link #update(Command)} handles
+     * the same way.
+     *
+     * @param payload The MQTT payload
+     * @return The decoded command or null if the payload needs to be parsed as a string.
+     */
+    public @Nullable Command decodeCommand(byte[] payload) {
+        return null;
+    }
+
+    /**
+     * Decodes a plain decimal number like "-12.50", as {@link DecimalType#valueOf(String)} would.
+     *
+     * @param payload The MQTT payload
+     * @return The number or null if the payload is not a plain decimal number with up to 18 digits.
+     */
+    protected static @Nullable DecimalType decodeDecimal(byte[] payload) {
+        int i = 0;
+        boolean negative = false;
+        if (payload.length > 0 && (payload[0] == '-' || payload[0] == '+')) {
+            negative = payload[0] == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < payload.length; i++) {
+            final byte b = payload[i];
+            if (b >= '0' && b <= '9') {
+                if (++digits > 18) {
+                    return null;
+                }
+                unscaled = unscaled * 10 + (b - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (b == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return null;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        return new DecimalType(BigDecimal.valueOf(negative ? -unscaled : unscaled, Math.max(scale, 0)));
+    }
+
     /**
      * Updates the internal value state with the given binary payload.
      *
@@ -31,6 +31,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.HSBType;
 import org.eclipse.smarthome.core.library.types.RawType;
 import org.eclipse.smarthome.core.library.types.StringType;
@@ -173,6 +174,29 @@ public class ChannelStateTests {
         verify(channelStateUpdateListener, times(3)).updateChannelState(eq(channelUID), any());
     }
 
+    @Test
+    public void receiveSamePayloadTest() throws InterruptedException, ExecutionException, TimeoutException {
+        NumberValue value = new NumberValue(null, null, new BigDecimal(10));
+        ChannelState c = spy(new ChannelState(config, channelUID, value, channelStateUpdateListener));
+        c.start(connection, mock(ScheduledExecutorService.class), 100);
+
+        c.processMessage("state", "15".getBytes());
+        c.processMessage("state", "15".getBytes());
+        assertThat(value.getChannelState().toString(), is("15"));
+
+        // The value changed in between
+        c.publishValue(new DecimalType(3)).get();
+        c.processMessage("state", "15".getBytes());
+        assertThat(value.getChannelState().toString(), is("15"));
+
+        // Relative commands are applied every time
+        c.processMessage("state", "INCREASE".getBytes());
+        c.processMessage("state", "INCREASE".getBytes());
+        assertThat(value.getChannelState().toString(), is("35"));
+
+        verify(channelStateUpdateListener, times(5)).updateChannelState(eq(channelUID), any());
+    }
+
     @Test
     public void receiveDecimalFractionalTest() throws InterruptedException, ExecutionException, TimeoutException {
         NumberValue value = new NumberValue(null, null, new BigDecimal(10.5));
@@ -129,7 +129,27 @@ public class ChannelStateTransformationTests {
         // Test process message
         channelConfig.processMessage(channelConfig.getStateTopic(), payload);
 
-        verify(callback).stateUpdated(eq(textChannelUID), argThat(arg -> "23.2".equals(arg.toString())));
+        // State updates are reported in batches
+        verify(callback, timeout(500)).stateUpdated(eq(textChannelUID),
+                argThat(arg -> "23.2".equals(arg.toString())));
         assertThat(channelConfig.getCache().getChannelState().toString(), is("23.2"));
     }
+
+    @SuppressWarnings("null")
+    @Test
+    public void samePayloadIsTransformedAgain() throws Exception {
+        // The transformation changed in between, i.e. an edited MAP file
+        when(jsonPathService.transform(jsonPathPattern, jsonPathJSON)).thenReturn("23.2", "24.0");
+
+        thingHandler.initialize();
+        ChannelState channelConfig = thingHandler.getChannelState(textChannelUID);
+        channelConfig.setChannelStateUpdateListener(thingHandler);
+
+        byte payload[] = jsonPathJSON.getBytes();
+        channelConfig.processMessage(channelConfig.getStateTopic(), payload);
+        channelConfig.processMessage(channelConfig.getStateTopic(), payload);
+
+        verify(jsonPathService, times(2)).transform(jsonPathPattern, jsonPathJSON);
+        assertThat(channelConfig.getCache().getChannelState().toString(), is("24.0"));
+    }
 }
@@ -33,6 +33,7 @@ import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.openhab.binding.mqtt.ChannelConfig;
@@ -189,7 +190,27 @@ public class GenericThingHandlerTests {
 
         verify(callback).statusUpdated(eq(thing), argThat(arg -> arg.getStatus().equals(ThingStatus.ONLINE)));
 
-        verify(callback).stateUpdated(eq(textChannelUID), argThat(arg -> "UPDATE".equals(arg.toString())));
+        // State updates are reported in batches
+        verify(callback, timeout(500)).stateUpdated(eq(textChannelUID),
+                argThat(arg -> "UPDATE".equals(arg.toString())));
         assertThat(textValue.getChannelState().toString(), is("UPDATE"));
     }
+
+    @Test
+    public void stateUpdatesAreReportedInOrder() {
+        thingHandler.initialize();
+        thingHandler.updateChannelState(textChannelUID, new StringType("ONE"));
+        thingHandler.updateChannelState(textChannelUID, new StringType("TWO"));
+        thingHandler.postChannelCommand(textChannelUID, new StringType("COMMAND"));
+        thingHandler.updateChannelState(textChannelUID, new StringType("THREE"));
+        thingHandler.triggerChannel(textChannelUID, "EVENT");
+
+        // Every update is reported, pending updates before commands and triggers
+        InOrder inOrder = inOrder(callback);
+        inOrder.verify(callback).stateUpdated(textChannelUID, new StringType("ONE"));
+        inOrder.verify(callback).stateUpdated(textChannelUID, new StringType("TWO"));
+        inOrder.verify(callback).postCommand(textChannelUID, new StringType("COMMAND"));
+        inOrder.verify(callback).stateUpdated(textChannelUID, new StringType("THREE"));
+        inOrder.verify(callback).channelTriggered(thing, textChannelUID, "EVENT");
+    }
 }
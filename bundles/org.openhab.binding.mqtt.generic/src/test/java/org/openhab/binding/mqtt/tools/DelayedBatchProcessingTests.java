@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.tools;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests the {@link DelayedBatchProcessing} class.
+ *
+ * @author agent - Initial contribution
+ */
+public class DelayedBatchProcessingTests {
+    @Mock
+    private ScheduledExecutorService executor;
+
+    @Mock
+    private ScheduledFuture<?> scheduledFuture;
+
+    private final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        doReturn(scheduledFuture).when(executor).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    private Runnable scheduledRun() {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, atLeastOnce()).schedule(captor.capture(), anyLong(), any(TimeUnit.class));
+        return captor.getValue();
+    }
+
+    @Test
+    public void deliverAfterDelay() {
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(100, batches::add, executor);
+        processing.accept(1);
+        processing.accept(2);
+        verify(executor, times(1)).schedule(any(Runnable.class), eq(100L), eq(TimeUnit.MILLISECONDS));
+        assertTrue(processing.isArmed());
+        assertThat(processing.getQueuedCount(), is(2));
+
+        scheduledRun().run();
+        assertFalse(processing.isArmed());
+        assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2))));
+
+        // A new object arms the timer again
+        processing.accept(3);
+        verify(executor, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        scheduledRun().run();
+        assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3))));
+        assertThat(processing.getItemCount(), is(3L));
+        assertThat(processing.getBatchCount(), is(2L));
+        assertThat(processing.getFullBatchCount(), is(0L));
+        assertThat(processing.getLargestBatch(), is(2));
+    }
+
+    @Test
+    public void deliverFullBatch() {
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(100, 3, batches::add, executor);
+        for (int i = 1; i <= 7; i++) {
+            processing.accept(i);
+        }
+        // Full batches are delivered by the caller without waiting for the delay
+        assertThat(batches, is(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6))));
+        assertThat(processing.getQueuedCount(), is(1));
+
+        scheduledRun().run();
+        assertThat(batches.get(2), is(Arrays.asList(7)));
+        assertThat(processing.getFullBatchCount(), is(2L));
+        assertThat(processing.getLargestBatch(), is(3));
+    }
+
+    @Test
+    public void joinAndForceProcessNow() {
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(100, batches::add, executor);
+        processing.accept(1);
+        assertThat(processing.join(), is(Arrays.asList(1)));
+        verify(scheduledFuture).cancel(false);
+        assertFalse(processing.isArmed());
+
+        processing.accept(2);
+        processing.forceProcessNow();
+        assertThat(batches, is(Arrays.asList(Arrays.asList(2))));
+        assertThat(processing.getItemCount(), is(1L));
+    }
+
+    @Test
+    public void concurrentProducers() throws InterruptedException {
+        DelayedBatchProcessing<Integer> processing = new DelayedBatchProcessing<>(100, 10, batches::add, executor);
+        final int threads = 4;
+        final int perThread = 1000;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * perThread;
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    processing.accept(offset + i);
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        processing.forceProcessNow();
+
+        List<Integer> received = new ArrayList<>();
+        for (List<Integer> batch : batches) {
+            assertTrue(batch.size() <= 10);
+            received.addAll(batch);
+        }
+        Collections.sort(received);
+        assertThat(received.size(), is(threads * perThread));
+        for (int i = 0; i < received.size(); i++) {
+            assertThat(received.get(i), is(i));
+        }
+        assertThat(processing.getItemCount(), is((long) threads * perThread));
+    }
+}
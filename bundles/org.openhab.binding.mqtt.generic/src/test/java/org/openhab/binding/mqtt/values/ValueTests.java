@@ -223,4 +223,33 @@ public class ValueTests {
                 null);
         v.update(new DecimalType(9.0));
     }
+
+    @Test
+    public void decodeNumber() {
+        NumberValue v = new NumberValue(null, null, null);
+        for (String str : new String[] { "0", "-0", "+7", "15", "-12.50", ".5", "5.", "123456789012345678" }) {
+            Command command = v.decodeCommand(str.getBytes());
+            assertThat(command, is(p(v, str)));
+            assertThat(String.valueOf(command), is(p(v, str).toString()));
+        }
+        // Parsed as string
+        for (String str : new String[] { "", "-", ".", "1e3", " 1", "1.2.3", "1234567890123456789", "INCREASE" }) {
+            assertNull(v.decodeCommand(str.getBytes()));
+        }
+    }
+
+    @Test
+    public void decodeOnOff() {
+        OnOffValue v = new OnOffValue("fancyON", "fancyOff");
+        assertThat(v.decodeCommand("ON".getBytes()), is(OnOffType.ON));
+        assertThat(v.decodeCommand("OFF".getBytes()), is(OnOffType.OFF));
+        assertThat(v.decodeCommand("fancyON".getBytes()), is(OnOffType.ON));
+        assertThat(v.decodeCommand("fancyOff".getBytes()), is(OnOffType.OFF));
+        assertNull(v.decodeCommand("on".getBytes()));
+
+        OpenCloseValue o = new OpenCloseValue("fancyON", "fancyOff");
+        assertThat(o.decodeCommand("OPEN".getBytes()), is(OpenClosedType.OPEN));
+        assertThat(o.decodeCommand("fancyOff".getBytes()), is(OpenClosedType.CLOSED));
+        assertNull(o.decodeCommand("open".getBytes()));
+    }
 }
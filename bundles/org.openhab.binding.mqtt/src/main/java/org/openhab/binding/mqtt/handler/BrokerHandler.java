@@ -28,6 +28,7 @@ import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
 import org.eclipse.smarthome.io.transport.mqtt.MqttService;
 import org.eclipse.smarthome.io.transport.mqtt.MqttWillAndTestament;
 import org.eclipse.smarthome.io.transport.mqtt.reconnect.PeriodicReconnectStrategy;
+import org.openhab.binding.mqtt.internal.SharedSubscriptionBrokerConnection;
 import org.openhab.binding.mqtt.internal.ssl.Pin;
 import org.openhab.binding.mqtt.internal.ssl.PinMessageDigest;
 import org.openhab.binding.mqtt.internal.ssl.PinTrustManager;
@@ -183,8 +184,8 @@ public class BrokerHandler extends AbstractBrokerHandler implements PinnedCallba
             throw new IllegalArgumentException("Host is empty!");
         }
 
-        final MqttBrokerConnection connection = new MqttBrokerConnection(host, config.port, config.secure,
-                config.clientID);
+        final MqttBrokerConnection connection = new SharedSubscriptionBrokerConnection(host, config.port,
+                config.secure, config.clientID);
 
         final String username = config.username;
         final String password = config.password;
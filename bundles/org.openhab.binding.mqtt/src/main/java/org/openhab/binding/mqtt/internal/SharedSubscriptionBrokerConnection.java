@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A broker connection that shares subscriptions between all of its subscribers.
+ *
+ * <p>
+ * Subscribers are stored in a {@link TopicTrie}. Only topic filters that are not covered by another
+ * subscribed topic filter are subscribed at the broker, for example "homie/#" makes "homie/device/$state"
+ * unnecessary. Each received message is dispatched to all matching subscribers with one lookup in the trie,
+ * instead of matching the topic against every subscription.
+ * </p>
+ *
+ * <p>
+ * A topic filter that is covered by an existing subscription is still subscribed at the broker for a moment,
+ * so that its subscriber receives the retained messages of the topic.
+ * </p>
+ *
+ * <p>
+ * A broker subscription is only replaced after its replacement succeeded. If subscribing at the broker fails,
+ * the previous broker subscriptions stay in place.
+ * </p>
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SharedSubscriptionBrokerConnection extends MqttBrokerConnection {
+    private final Logger logger = LoggerFactory.getLogger(SharedSubscriptionBrokerConnection.class);
+
+    private final TopicTrie<MqttMessageSubscriber> subscribers = new TopicTrie<>();
+    // The broker subscription of each topic filter
+    private final Map<String, String> rootOf = new HashMap<>();
+    // The topic filters that are subscribed at the broker. None of them covers another one.
+    private final Map<String, RootSubscriber> roots = new HashMap<>();
+
+    /**
+     * A subscription at the broker. Dispatches received messages to the subscribers of all topic filters it covers.
+     */
+    private class RootSubscriber implements MqttMessageSubscriber {
+        final String filter;
+
+        RootSubscriber(String filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public void processMessage(String topic, byte[] payload) {
+            final List<MqttMessageSubscriber> matches = new ArrayList<>();
+            synchronized (subscribers) {
+                subscribers.match(topic, (matchingFilter, values) -> {
+                    // Overlapping broker subscriptions receive the same message
+                    if (filter.equals(rootOf.get(matchingFilter))) {
+                        matches.addAll(values);
+                    }
+                });
+            }
+            matches.forEach(subscriber -> subscriber.processMessage(topic, payload));
+        }
+    }
+
+    public SharedSubscriptionBrokerConnection(String host, @Nullable Integer port, boolean secure,
+            @Nullable String clientId) {
+        super(host, port, secure, clientId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> subscribe(String topic, MqttMessageSubscriber subscriber) {
+        final RootSubscriber root;
+        final List<RootSubscriber> coveredRoots = new ArrayList<>();
+        synchronized (subscribers) {
+            if (!subscribers.add(topic, subscriber)) {
+                root = null;
+            } else {
+                final String coveringRoot = findRoot(topic);
+                if (coveringRoot != null) {
+                    rootOf.put(topic, coveringRoot);
+                    root = null;
+                } else {
+                    root = new RootSubscriber(topic);
+                    // The new broker subscription replaces the ones it covers
+                    for (Iterator<RootSubscriber> it = roots.values().iterator(); it.hasNext();) {
+                        final RootSubscriber coveredRoot = it.next();
+                        if (TopicTrie.covers(topic, coveredRoot.filter)) {
+                            coveredRoots.add(coveredRoot);
+                            it.remove();
+                        }
+                    }
+                    rootOf.put(topic, topic);
+                    roots.put(topic, root);
+                }
+            }
+        }
+
+        if (root == null) {
+            logger.trace("Topic {} is covered by an existing subscription", topic);
+            return receiveRetained(topic);
+        }
+        return brokerSubscribe(topic, root).handle((success, e) -> {
+            if (e != null) {
+                logger.debug("Failed to subscribe {}, keeping the covered subscriptions", topic);
+                final List<RootSubscriber> unusedRoots = new ArrayList<>();
+                final List<RootSubscriber> newRoots;
+                synchronized (subscribers) {
+                    if (subscribers.remove(topic, subscriber)) {
+                        rootOf.remove(topic);
+                    }
+                    roots.remove(topic, root);
+                    // The covered broker subscriptions might have lost all their topic filters in the meantime
+                    for (RootSubscriber coveredRoot : coveredRoots) {
+                        if (rootOf.containsValue(coveredRoot.filter)) {
+                            roots.put(coveredRoot.filter, coveredRoot);
+                        } else {
+                            unusedRoots.add(coveredRoot);
+                        }
+                    }
+                    // Topic filters added meanwhile and not covered by a restored broker subscription
+                    newRoots = promoteOrphans(topic);
+                }
+                reassign(topic);
+                for (RootSubscriber newRoot : newRoots) {
+                    brokerSubscribe(newRoot.filter, newRoot).whenComplete((subscribed, error) -> {
+                        if (error != null) {
+                            logger.warn("Failed to subscribe {}: {}", newRoot.filter, error.getMessage());
+                        }
+                    });
+                }
+                unusedRoots.forEach(unusedRoot -> brokerUnsubscribe(unusedRoot.filter, unusedRoot));
+                brokerUnsubscribe(topic, root);
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }
+            // The covered broker subscriptions dispatch the messages until the new one is in place
+            coveredRoots.forEach(r -> {
+                reassign(r.filter);
+                brokerUnsubscribe(r.filter, r);
+            });
+            return success;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> unsubscribe(String topic, MqttMessageSubscriber subscriber) {
+        final RootSubscriber removedRoot;
+        final List<RootSubscriber> newRoots = new ArrayList<>();
+        synchronized (subscribers) {
+            if (!subscribers.remove(topic, subscriber)) {
+                return CompletableFuture.completedFuture(true);
+            }
+            rootOf.remove(topic);
+            removedRoot = roots.remove(topic);
+            if (removedRoot != null) {
+                // The topic filters covered by the removed broker subscription might need a new one
+                newRoots.addAll(promoteOrphans(topic));
+            }
+        }
+
+        if (removedRoot == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        // The removed broker subscription dispatches the messages until the new ones are in place
+        final CompletableFuture<?>[] futures = newRoots.stream().map(root -> brokerSubscribe(root.filter, root))
+                .toArray(CompletableFuture<?>[]::new);
+        return CompletableFuture.allOf(futures).handle((v, e) -> {
+            if (e == null) {
+                return true;
+            }
+            // Keep the removed broker subscription for the covered topic filters and drop all replacements,
+            // none of the broker subscriptions may cover another one.
+            logger.debug("Failed to replace the subscription of {}, keeping it", topic);
+            synchronized (subscribers) {
+                newRoots.forEach(root -> roots.remove(root.filter, root));
+                if (findRoot(topic) == null) {
+                    roots.put(topic, removedRoot);
+                }
+            }
+            newRoots.forEach(root -> brokerUnsubscribe(root.filter, root));
+            return false;
+        }).thenCompose(replaced -> {
+            synchronized (subscribers) {
+                if (!replaced && roots.get(topic) == removedRoot) {
+                    // Still in use by the covered topic filters
+                    return CompletableFuture.completedFuture(true);
+                }
+            }
+            reassign(topic);
+            return brokerUnsubscribe(topic, removedRoot);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> unsubscribeAll() {
+        synchronized (subscribers) {
+            subscribers.clear();
+            rootOf.clear();
+            roots.clear();
+        }
+        return super.unsubscribeAll();
+    }
+
+    /**
+     * Subscribes the topic filter at the broker until the subscription is confirmed, the broker sends the
+     * retained messages of the topic right after that. They are dispatched by the existing broker subscription.
+     */
+    private CompletableFuture<Boolean> receiveRetained(String topic) {
+        final MqttMessageSubscriber ignore = (t, payload) -> {
+        };
+        return brokerSubscribe(topic, ignore).whenComplete((success, e) -> brokerUnsubscribe(topic, ignore));
+    }
+
+    /**
+     * Subscribes the topic filter at the broker.
+     */
+    CompletableFuture<Boolean> brokerSubscribe(String topic, MqttMessageSubscriber subscriber) {
+        return super.subscribe(topic, subscriber);
+    }
+
+    /**
+     * Unsubscribes the topic filter at the broker.
+     */
+    CompletableFuture<Boolean> brokerUnsubscribe(String topic, MqttMessageSubscriber subscriber) {
+        return super.unsubscribe(topic, subscriber);
+    }
+
+    /**
+     * Assigns the topic filters of a removed broker subscription to the broker subscriptions covering them now.
+     */
+    private void reassign(String oldRoot) {
+        synchronized (subscribers) {
+            for (Entry<String, String> entry : rootOf.entrySet()) {
+                if (oldRoot.equals(entry.getValue())) {
+                    final String root = findRoot(entry.getKey());
+                    if (root != null) {
+                        entry.setValue(root);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates broker subscriptions for the topic filters of a removed broker subscription that are not covered by any
+     * other broker subscription. The caller has to hold the lock and to subscribe the returned ones at the broker.
+     */
+    private List<RootSubscriber> promoteOrphans(String oldRoot) {
+        final List<String> orphans = new ArrayList<>();
+        rootOf.forEach((filter, root) -> {
+            if (oldRoot.equals(root)) {
+                orphans.add(filter);
+            }
+        });
+        final List<RootSubscriber> newRoots = new ArrayList<>();
+        for (String orphan : orphans) {
+            if (findRoot(orphan) == null
+                    && orphans.stream().noneMatch(o -> !o.equals(orphan) && TopicTrie.covers(o, orphan))) {
+                final RootSubscriber root = new RootSubscriber(orphan);
+                roots.put(orphan, root);
+                newRoots.add(root);
+            }
+        }
+        return newRoots;
+    }
+
+    private @Nullable String findRoot(String topic) {
+        for (String root : roots.keySet()) {
+            if (TopicTrie.covers(root, topic)) {
+                return root;
+            }
+        }
+        return null;
+    }
+}
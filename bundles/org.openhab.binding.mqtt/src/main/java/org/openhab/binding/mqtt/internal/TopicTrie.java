@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Stores values by MQTT topic filter, one level of the topic per node. All filters matching a topic,
+ * including the ones with the wildcards "+" and "#", are found with a single walk through the trie.
+ *
+ * <p>
+ * As in the MQTT specification, wildcards on the first level don't match topics starting with "$".
+ * </p>
+ *
+ * This class is not thread-safe.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TopicTrie<T> {
+    private static class Node<T> {
+        final Map<String, Node<T>> children = new HashMap<>();
+        final Set<T> values = new LinkedHashSet<>();
+        @Nullable
+        String filter;
+    }
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * Adds a value for the given topic filter.
+     *
+     * @param filter A topic filter, can contain wildcards
+     * @param value The value
+     * @return Returns true if the topic filter had no values before.
+     */
+    public boolean add(String filter, T value) {
+        Node<T> node = root;
+        for (String level : filter.split("/", -1)) {
+            Node<T> child = node.children.get(level);
+            if (child == null) {
+                child = new Node<>();
+                node.children.put(level, child);
+            }
+            node = child;
+        }
+        node.filter = filter;
+        final boolean isNew = node.values.isEmpty();
+        node.values.add(value);
+        return isNew;
+    }
+
+    /**
+     * Removes a value of the given topic filter.
+     *
+     * @param filter A topic filter, can contain wildcards
+     * @param value The value
+     * @return Returns true if the value was the last one of the topic filter.
+     */
+    public boolean remove(String filter, T value) {
+        final Deque<Node<T>> path = new ArrayDeque<>();
+        final String[] levels = filter.split("/", -1);
+        Node<T> node = root;
+        for (String level : levels) {
+            path.push(node);
+            node = node.children.get(level);
+            if (node == null) {
+                return false;
+            }
+        }
+        if (!node.values.remove(value) || !node.values.isEmpty()) {
+            return false;
+        }
+        node.filter = null;
+        // Remove the nodes that are not needed anymore
+        for (int i = levels.length - 1; i >= 0 && node.values.isEmpty() && node.children.isEmpty(); i--) {
+            final Node<T> parent = path.pop();
+            parent.children.remove(levels[i]);
+            node = parent;
+        }
+        return true;
+    }
+
+    /**
+     * Removes all topic filters.
+     */
+    public void clear() {
+        root.children.clear();
+        root.values.clear();
+        root.filter = null;
+    }
+
+    /**
+     * Finds all topic filters matching the given topic.
+     *
+     * @param topic A topic without wildcards
+     * @param consumer Called with each matching topic filter and its values
+     */
+    public void match(String topic, BiConsumer<String, Set<T>> consumer) {
+        match(root, topic.split("/", -1), 0, consumer);
+    }
+
+    private void match(Node<T> node, String[] levels, int index, BiConsumer<String, Set<T>> consumer) {
+        final boolean wildcards = index > 0 || !levels[0].startsWith("$");
+        // "#" also matches the parent level: "sport/#" matches "sport"
+        final Node<T> multiLevel = node.children.get("#");
+        if (multiLevel != null && wildcards) {
+            accept(multiLevel, consumer);
+        }
+        if (index == levels.length) {
+            accept(node, consumer);
+            return;
+        }
+        final Node<T> exact = node.children.get(levels[index]);
+        if (exact != null) {
+            match(exact, levels, index + 1, consumer);
+        }
+        final Node<T> singleLevel = node.children.get("+");
+        if (singleLevel != null && wildcards) {
+            match(singleLevel, levels, index + 1, consumer);
+        }
+    }
+
+    private void accept(Node<T> node, BiConsumer<String, Set<T>> consumer) {
+        final String filter = node.filter;
+        if (filter != null) {
+            consumer.accept(filter, node.values);
+        }
+    }
+
+    /**
+     * Returns true if the first topic filter matches all topics the second one matches.
+     *
+     * @param filter A topic filter, can contain wildcards
+     * @param other Another topic filter, can contain wildcards
+     */
+    public static boolean covers(String filter, String other) {
+        final String[] levels = filter.split("/", -1);
+        final String[] otherLevels = other.split("/", -1);
+        if (otherLevels[0].startsWith("$") && isWildcard(levels[0])) {
+            return false;
+        }
+        for (int i = 0; i < levels.length; i++) {
+            if ("#".equals(levels[i])) {
+                return true;
+            }
+            if (i >= otherLevels.length || "#".equals(otherLevels[i])) {
+                return false;
+            }
+            if (!"+".equals(levels[i]) && !levels[i].equals(otherLevels[i])) {
+                return false;
+            }
+        }
+        return levels.length == otherLevels.length;
+    }
+
+    private static boolean isWildcard(String level) {
+        return "+".equals(level) || "#".equals(level);
+    }
+}
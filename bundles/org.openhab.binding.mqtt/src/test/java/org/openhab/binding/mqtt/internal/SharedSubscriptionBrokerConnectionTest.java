@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests the {@link SharedSubscriptionBrokerConnection} class. The broker side of the connection is replaced by a
+ * list of broker subscriptions, messages are dispatched to all broker subscriptions matching their topic.
+ *
+ * @author agent - Initial contribution
+ */
+public class SharedSubscriptionBrokerConnectionTest {
+    @Mock
+    private MqttMessageSubscriber first;
+
+    @Mock
+    private MqttMessageSubscriber second;
+
+    @Mock
+    private MqttMessageSubscriber third;
+
+    // The calls of the broker connection, e.g. "subscribe a/#"
+    private final List<String> calls = new ArrayList<>();
+    private final List<Entry<String, MqttMessageSubscriber>> brokerSubscriptions = new ArrayList<>();
+    // Futures for broker subscriptions that do not succeed right away
+    private final Map<String, CompletableFuture<Boolean>> subscribeResults = new HashMap<>();
+
+    private SharedSubscriptionBrokerConnection connection;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        connection = new SharedSubscriptionBrokerConnection("10.10.0.10", 80, false, "SharedSubscriptionTest") {
+            @Override
+            CompletableFuture<Boolean> brokerSubscribe(String topic, MqttMessageSubscriber subscriber) {
+                calls.add("subscribe " + topic);
+                CompletableFuture<Boolean> result = subscribeResults.remove(topic);
+                if (result == null) {
+                    result = CompletableFuture.completedFuture(true);
+                }
+                if (!result.isCompletedExceptionally()) {
+                    brokerSubscriptions.add(new SimpleEntry<>(topic, subscriber));
+                }
+                return result;
+            }
+
+            @Override
+            CompletableFuture<Boolean> brokerUnsubscribe(String topic, MqttMessageSubscriber subscriber) {
+                calls.add("unsubscribe " + topic);
+                brokerSubscriptions.remove(new SimpleEntry<>(topic, subscriber));
+                return CompletableFuture.completedFuture(true);
+            }
+        };
+    }
+
+    private void publish(String topic) {
+        for (Entry<String, MqttMessageSubscriber> subscription : new ArrayList<>(brokerSubscriptions)) {
+            if (TopicTrie.covers(subscription.getKey(), topic)) {
+                subscription.getValue().processMessage(topic, topic.getBytes());
+            }
+        }
+    }
+
+    // Covered topic filters are handled in no particular order
+    private static Set<String> unordered(String... calls) {
+        return new HashSet<>(Arrays.asList(calls));
+    }
+
+    private static CompletableFuture<Boolean> failure() {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        future.completeExceptionally(new Exception("Subscription denied"));
+        return future;
+    }
+
+    @Test
+    public void coveredFilterIsNotSubscribedAtBroker() throws Exception {
+        assertTrue(connection.subscribe("homie/#", first).get());
+        assertTrue(connection.subscribe("homie/device/$state", second).get());
+
+        // The covered topic filter is only subscribed to receive its retained messages
+        assertThat(calls, is(Arrays.asList("subscribe homie/#", "subscribe homie/device/$state",
+                "unsubscribe homie/device/$state")));
+
+        publish("homie/device/$state");
+        verify(first).processMessage(eq("homie/device/$state"), any());
+        verify(second).processMessage(eq("homie/device/$state"), any());
+
+        publish("homie/other/$state");
+        verify(first).processMessage(eq("homie/other/$state"), any());
+        verify(second, never()).processMessage(eq("homie/other/$state"), any());
+    }
+
+    @Test
+    public void coveringFilterIsPromoted() throws Exception {
+        connection.subscribe("a/b", first).get();
+        connection.subscribe("a/c", second).get();
+        connection.subscribe("a/#", third).get();
+
+        assertThat(calls.subList(0, 3), is(Arrays.asList("subscribe a/b", "subscribe a/c", "subscribe a/#")));
+        assertThat(new HashSet<>(calls.subList(3, 5)), is(unordered("unsubscribe a/b", "unsubscribe a/c")));
+
+        publish("a/b");
+        verify(first, times(1)).processMessage(eq("a/b"), any());
+        verify(second, never()).processMessage(any(), any());
+        verify(third, times(1)).processMessage(eq("a/b"), any());
+    }
+
+    @Test
+    public void unsubscribeReassignsCoveredFilters() throws Exception {
+        connection.subscribe("a/#", first).get();
+        connection.subscribe("a/b", second).get();
+        connection.subscribe("a/+/c", third).get();
+        calls.clear();
+
+        assertTrue(connection.unsubscribe("a/#", first).get());
+        assertThat(new HashSet<>(calls.subList(0, 2)), is(unordered("subscribe a/b", "subscribe a/+/c")));
+        assertThat(calls.get(2), is("unsubscribe a/#"));
+        assertThat(calls.size(), is(3));
+
+        publish("a/b");
+        publish("a/x/c");
+        verify(first, never()).processMessage(any(), any());
+        verify(second, times(1)).processMessage(eq("a/b"), any());
+        verify(third, times(1)).processMessage(eq("a/x/c"), any());
+
+        // A filter without subscribers is unsubscribed at the broker
+        calls.clear();
+        connection.unsubscribe("a/b", second).get();
+        assertThat(calls, is(Arrays.asList("unsubscribe a/b")));
+    }
+
+    @Test
+    public void retainedMessageOfCoveredFilter() throws Exception {
+        connection.subscribe("a/#", first).get();
+        CompletableFuture<Boolean> confirmation = new CompletableFuture<>();
+        subscribeResults.put("a/b", confirmation);
+
+        CompletableFuture<Boolean> result = connection.subscribe("a/b", second);
+        // The broker sends the retained message right after the subscription
+        publish("a/b");
+        confirmation.complete(true);
+
+        assertTrue(result.get());
+        verify(second, times(1)).processMessage(eq("a/b"), any());
+        assertThat(brokerSubscriptions.size(), is(1));
+        assertThat(brokerSubscriptions.get(0).getKey(), is("a/#"));
+    }
+
+    @Test
+    public void failedSubscribeKeepsCoveredSubscriptions() throws Exception {
+        connection.subscribe("a/b", first).get();
+        subscribeResults.put("a/#", failure());
+
+        assertTrue(connection.subscribe("a/#", second).isCompletedExceptionally());
+        assertThat(calls, is(Arrays.asList("subscribe a/b", "subscribe a/#", "unsubscribe a/#")));
+
+        publish("a/b");
+        verify(first, times(1)).processMessage(eq("a/b"), any());
+        verify(second, never()).processMessage(any(), any());
+
+        // Subscribing again replaces the covered subscription
+        calls.clear();
+        assertTrue(connection.subscribe("a/#", second).get());
+        assertThat(calls, is(Arrays.asList("subscribe a/#", "unsubscribe a/b")));
+    }
+
+    @Test
+    public void failedReplacementKeepsSubscription() throws Exception {
+        connection.subscribe("a/#", first).get();
+        connection.subscribe("a/b", second).get();
+        connection.subscribe("a/c", third).get();
+        subscribeResults.put("a/c", failure());
+        calls.clear();
+
+        assertTrue(connection.unsubscribe("a/#", first).get());
+        // All replacements are dropped again, the old broker subscription stays
+        assertThat(new HashSet<>(calls),
+                is(unordered("subscribe a/b", "subscribe a/c", "unsubscribe a/b", "unsubscribe a/c")));
+        assertThat(calls.size(), is(4));
+
+        publish("a/b");
+        publish("a/c");
+        verify(first, never()).processMessage(any(), any());
+        verify(second, times(1)).processMessage(eq("a/b"), any());
+        verify(third, times(1)).processMessage(eq("a/c"), any());
+    }
+
+    @Test
+    public void failedSubscribePromotesFiltersAddedMeanwhile() throws Exception {
+        connection.subscribe("a/b", first).get();
+        CompletableFuture<Boolean> confirmation = new CompletableFuture<>();
+        subscribeResults.put("a/#", confirmation);
+        CompletableFuture<Boolean> result = connection.subscribe("a/#", second);
+        // Covered by the pending broker subscription
+        assertTrue(connection.subscribe("a/c", third).get());
+        calls.clear();
+
+        confirmation.completeExceptionally(new Exception("Subscription denied"));
+        assertTrue(result.isCompletedExceptionally());
+        assertThat(calls, is(Arrays.asList("subscribe a/c", "unsubscribe a/#")));
+
+        publish("a/b");
+        publish("a/c");
+        verify(first, times(1)).processMessage(eq("a/b"), any());
+        verify(second, never()).processMessage(any(), any());
+        verify(third, times(1)).processMessage(eq("a/c"), any());
+    }
+
+    @Test
+    public void failedSubscribeDropsUnusedCoveredSubscriptions() throws Exception {
+        connection.subscribe("a/b", first).get();
+        CompletableFuture<Boolean> confirmation = new CompletableFuture<>();
+        subscribeResults.put("a/#", confirmation);
+        CompletableFuture<Boolean> result = connection.subscribe("a/#", second);
+        assertTrue(connection.unsubscribe("a/b", first).get());
+        calls.clear();
+
+        confirmation.completeExceptionally(new Exception("Subscription denied"));
+        assertTrue(result.isCompletedExceptionally());
+        assertThat(calls, is(Arrays.asList("unsubscribe a/b", "unsubscribe a/#")));
+        assertTrue(brokerSubscriptions.isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests the {@link TopicTrie} class.
+ *
+ * @author agent - Initial contribution
+ */
+public class TopicTrieTest {
+    private final TopicTrie<String> trie = new TopicTrie<>();
+
+    private List<String> match(String topic) {
+        List<String> result = new ArrayList<>();
+        trie.match(topic, (filter, values) -> result.addAll(values));
+        Collections.sort(result);
+        return result;
+    }
+
+    @Test
+    public void matchWildcards() {
+        for (String filter : new String[] { "#", "homie/#", "homie/+/$state", "homie/device/$state",
+                "homie/device/+/+", "other/topic" }) {
+            trie.add(filter, filter);
+        }
+
+        assertThat(match("homie/device/$state"), is(Arrays.asList("#", "homie/#", "homie/+/$state",
+                "homie/device/$state")));
+        assertThat(match("homie/device/node/property"), is(Arrays.asList("#", "homie/#", "homie/device/+/+")));
+        assertThat(match("homie"), is(Arrays.asList("#", "homie/#")));
+        assertThat(match("other/topic"), is(Arrays.asList("#", "other/topic")));
+        assertThat(match("other/topic/sub"), is(Arrays.asList("#")));
+        // Wildcards on the first level don't match system topics
+        assertThat(match("$SYS/broker/uptime"), is(Collections.emptyList()));
+    }
+
+    @Test
+    public void addAndRemove() {
+        assertTrue(trie.add("a/+/c", "first"));
+        assertFalse(trie.add("a/+/c", "second"));
+        assertTrue(trie.add("a/b", "third"));
+        assertThat(match("a/b/c"), is(Arrays.asList("first", "second")));
+
+        assertFalse(trie.remove("a/+/c", "first"));
+        assertFalse(trie.remove("a/+/c", "unknown"));
+        assertFalse(trie.remove("a/+/x", "second"));
+        assertTrue(trie.remove("a/+/c", "second"));
+        assertThat(match("a/b/c"), is(Collections.emptyList()));
+        assertThat(match("a/b"), is(Arrays.asList("third")));
+
+        trie.clear();
+        assertThat(match("a/b"), is(Collections.emptyList()));
+    }
+
+    @Test
+    public void covers() {
+        assertTrue(TopicTrie.covers("#", "homie/device/$state"));
+        assertTrue(TopicTrie.covers("homie/#", "homie"));
+        assertTrue(TopicTrie.covers("homie/#", "homie/+/$state"));
+        assertTrue(TopicTrie.covers("homie/+/$state", "homie/device/$state"));
+        assertTrue(TopicTrie.covers("homie/device", "homie/device"));
+
+        assertFalse(TopicTrie.covers("homie/+/$state", "homie/#"));
+        assertFalse(TopicTrie.covers("homie/+", "homie/device/$state"));
+        assertFalse(TopicTrie.covers("homie/device/$state", "homie/+/$state"));
+        assertFalse(TopicTrie.covers("a/+/c", "a/b/+"));
+        assertFalse(TopicTrie.covers("#", "$SYS/broker"));
+    }
+}
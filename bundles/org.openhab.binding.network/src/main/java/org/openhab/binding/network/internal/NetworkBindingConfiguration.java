@@ -31,12 +31,19 @@ public class NetworkBindingConfiguration {
     public BigDecimal cacheDeviceStateTimeInMS = BigDecimal.valueOf(2000);
     public String arpPingToolPath = "arping";
     public @NonNullByDefault({}) ArpPingUtilEnum arpPingUtilMethod;
+    // Discovery only
+    public Boolean discoverySweep = false;
+    public BigDecimal sweepMaxConcurrentConnects = BigDecimal.valueOf(256);
+    public BigDecimal sweepMaxConnectsPerSecond = BigDecimal.valueOf(1000);
 
     public void update(NetworkBindingConfiguration newConfiguration) {
         this.allowSystemPings = newConfiguration.allowSystemPings;
         this.allowDHCPlisten = newConfiguration.allowDHCPlisten;
         this.cacheDeviceStateTimeInMS = newConfiguration.cacheDeviceStateTimeInMS;
         this.arpPingToolPath = newConfiguration.arpPingToolPath;
+        this.discoverySweep = newConfiguration.discoverySweep;
+        this.sweepMaxConcurrentConnects = newConfiguration.sweepMaxConcurrentConnects;
+        this.sweepMaxConnectsPerSecond = newConfiguration.sweepMaxConnectsPerSecond;
 
         NetworkUtils networkUtils = new NetworkUtils();
         this.arpPingUtilMethod = networkUtils.determineNativeARPpingMethod(arpPingToolPath);
@@ -23,11 +23,14 @@ import org.eclipse.smarthome.core.thing.binding.BaseThingHandlerFactory;
 import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.thing.binding.ThingHandlerFactory;
 import org.openhab.binding.network.internal.handler.NetworkHandler;
+import org.openhab.binding.network.internal.utils.ProbeEngine;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The handler factory retrieves the binding configuration and is responsible for creating
@@ -38,6 +41,7 @@ import org.osgi.service.component.annotations.Modified;
 @NonNullByDefault
 @Component(service = ThingHandlerFactory.class, configurationPid = "binding.network")
 public class NetworkHandlerFactory extends BaseThingHandlerFactory {
+    private final Logger logger = LoggerFactory.getLogger(NetworkHandlerFactory.class);
     final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
 
     @Override
@@ -55,6 +59,7 @@ public class NetworkHandlerFactory extends BaseThingHandlerFactory {
     @Override
     @Deactivate
     protected void deactivate(ComponentContext componentContext) {
+        logger.debug("Presence detection probe statistics: {}", ProbeEngine.getInstance());
         super.deactivate(componentContext);
     }
 
@@ -12,18 +12,21 @@
  */
 package org.openhab.binding.network.internal;
 
-import java.io.IOException;
 import java.net.Inet4Address;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -35,6 +38,7 @@ import org.openhab.binding.network.internal.toberemoved.cache.ExpiringCacheAsync
 import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
 import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.openhab.binding.network.internal.utils.ProbeEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +55,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     public static final int DESTINATION_TTL = 300 * 1000; // in ms, 300 s
 
     NetworkUtils networkUtils = new NetworkUtils();
+    ProbeEngine probeEngine = ProbeEngine.getInstance();
     private final Logger logger = LoggerFactory.getLogger(PresenceDetection.class);
 
     /// Configuration variables
@@ -75,11 +80,47 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     ExpiringCacheAsync<PresenceDetectionValue> cache;
     private final PresenceDetectionListener updateListener;
     private @Nullable ScheduledFuture<?> refreshJob;
-    protected @Nullable ExecutorService executorService;
+    protected @Nullable CompletableFuture<Void> detectionFuture;
+    private @Nullable DetectionProgress detectionProgress;
     private String dhcpState = "off";
-    Integer currentCheck = 0;
     int detectionChecks;
 
+    /**
+     * Keeps track of the blocking probes of a detection process. Those probes may wait for a free thread of the
+     * {@link ProbeEngine}, so the timeout of a detection starts when its last probe started and not when it was
+     * submitted.
+     */
+    static class DetectionProgress {
+        final long startInMS = System.currentTimeMillis();
+        private int queuedProbes;
+        private long lastProbeStart = System.nanoTime();
+
+        synchronized void probeQueued() {
+            queuedProbes++;
+        }
+
+        synchronized void probeStarted() {
+            queuedProbes--;
+            lastProbeStart = System.nanoTime();
+        }
+
+        synchronized boolean hasQueuedProbes() {
+            return queuedProbes > 0;
+        }
+
+        /**
+         * Return the time in ms to wait for the running probes, or the full timeout if probes are still queued.
+         *
+         * @param timeoutInMS The timeout of a single probe
+         */
+        synchronized long getRemainingTime(long timeoutInMS) {
+            if (queuedProbes > 0) {
+                return timeoutInMS;
+            }
+            return timeoutInMS - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastProbeStart);
+        }
+    }
+
     public PresenceDetection(final PresenceDetectionListener updateListener, int cacheDeviceStateTimeInMS)
             throws IllegalArgumentException {
         this.updateListener = updateListener;
@@ -271,14 +312,10 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         cache.getValue(callback);
     }
 
-    public ExecutorService getThreadsFor(int threadCount) {
-        return Executors.newFixedThreadPool(threadCount);
-    }
-
     /**
      * Perform a presence detection with ICMP-, ARP ping and
-     * TCP connection attempts simultaneously. A fixed thread pool will be created with as many
-     * thread as necessary to perform all tests at once.
+     * TCP connection attempts simultaneously. All checks are submitted to the binding-wide
+     * {@link ProbeEngine}, no threads are created for a single presence detection.
      *
      * This is a NO-OP, if there is already an ongoing detection or if the cached value
      * is not expired yet.
@@ -292,7 +329,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * @return Return true if a presence detection is performed and false otherwise.
      */
     public boolean performPresenceDetection(boolean waitForDetectionToFinish) {
-        if (executorService != null) {
+        if (detectionFuture != null) {
             logger.debug(
                     "There is already an ongoing presence discovery for {} and a new one was issued by the scheduler! TCP Port {}",
                     hostname, tcpPorts);
@@ -303,64 +340,45 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return false;
         }
 
-        Set<String> interfaceNames = null;
-
-        currentCheck = 0;
-        detectionChecks = tcpPorts.size();
-        if (pingMethod != null) {
-            detectionChecks += 1;
-        }
-        if (arpPingMethod != ArpPingUtilEnum.UNKNOWN_TOOL) {
-            interfaceNames = networkUtils.getInterfaceNames();
-            detectionChecks += interfaceNames.size();
-        }
-
-        if (detectionChecks == 0) {
-            return false;
+        final DetectionProgress progress = new DetectionProgress();
+        synchronized (this) {
+            detectionProgress = progress;
         }
-
-        final ExecutorService executorService = getThreadsFor(detectionChecks);
-        this.executorService = executorService;
+        final List<CompletableFuture<?>> checks = new ArrayList<>();
 
         for (Integer tcpPort : tcpPorts) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionTCP_" + hostname + " " + String.valueOf(tcpPort));
-                performServicePing(tcpPort);
-                checkIfFinished();
-            });
+            checks.add(performServicePing(tcpPort));
         }
 
-        // ARP ping for IPv4 addresses. Use single executor for Windows tool and 
-        // each own executor for each network interface for other tools
+        // ARP ping for IPv4 addresses. Use a single probe for the Windows tool and
+        // one probe for each network interface for other tools
         if (arpPingMethod == ArpPingUtilEnum.ELI_FULKERSON_ARP_PING_FOR_WINDOWS) {
-            executorService.execute(() -> {
-               Thread.currentThread().setName("presenceDetectionARP_" + hostname + " ");
-               // arp-ping.exe tool capable of handling multiple interfaces by itself
-               performARPping("");
-               checkIfFinished();
-            });
-        } else if (interfaceNames != null) {                        
-            for (final String interfaceName : interfaceNames) {
-                executorService.execute(() -> {
-                   Thread.currentThread().setName("presenceDetectionARP_" + hostname + " " + interfaceName);
-                   performARPping(interfaceName);
-                   checkIfFinished();
-               });               
+            // arp-ping.exe tool capable of handling multiple interfaces by itself
+            checks.add(performARPping(""));
+        } else if (arpPingMethod != ArpPingUtilEnum.UNKNOWN_TOOL) {
+            for (final String interfaceName : networkUtils.getInterfaceNames()) {
+                checks.add(performARPping(interfaceName));
             }
         }
 
         // ICMP ping
         if (pingMethod != null) {
-            executorService.execute(() -> {
-                if (pingMethod != IpPingMethodEnum.JAVA_PING) {
-                    Thread.currentThread().setName("presenceDetectionICMP_" + hostname);
-                    performSystemPing();
-                } else {
-                    performJavaPing();
-                }
-                checkIfFinished();
-            });
+            checks.add(pingMethod != IpPingMethodEnum.JAVA_PING ? performSystemPing() : performJavaPing());
+        }
+
+        if (checks.isEmpty()) {
+            synchronized (this) {
+                detectionProgress = null;
+            }
+            return false;
+        }
+
+        final CompletableFuture<Void> future = CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[0]));
+        synchronized (this) {
+            detectionChecks = checks.size();
+            detectionFuture = future;
         }
+        future.whenComplete((result, exception) -> submitFinalResult(future));
 
         if (waitForDetectionToFinish) {
             waitForPresenceDetection();
@@ -372,25 +390,29 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     /**
      * Calls updateListener.finalDetectionResult() with a final result value.
      * Safe to be called from different threads. After a call to this method,
-     * the presence detection process is finished and all threads are forcefully
-     * shut down.
+     * the presence detection process is finished. Results of checks that are still
+     * running are not reported anymore.
+     *
+     * @param detection The detection process to finish. Nothing happens, if this is not the current process.
      */
-    private synchronized void submitFinalResult() {
-        // Do nothing if we are not in a detection process
-        ExecutorService service = executorService;
-        if (service == null) {
+    private synchronized void submitFinalResult(CompletableFuture<Void> detection) {
+        // Do nothing if we are not in this detection process
+        if (detectionFuture != detection) {
             return;
         }
         // Finish the detection process
-        service.shutdownNow();
-        executorService = null;
+        DetectionProgress progress = detectionProgress;
+        long startInMS = progress != null ? progress.startInMS : System.currentTimeMillis();
+        detectionFuture = null;
+        detectionProgress = null;
         detectionChecks = 0;
 
         PresenceDetectionValue v;
 
         // The cache will be expired by now if cache_time < timeoutInMS. But the device might be actually reachable.
         // Therefore use lastSeenInMS here and not cache.isExpired() to determine if we got a ping response.
-        if (lastSeenInMS + timeoutInMS + 100 < System.currentTimeMillis()) {
+        // Probes may have waited for a thread, so relate to the start of the detection and not to the current time.
+        if (lastSeenInMS + timeoutInMS + 100 < startInMS) {
             // We haven't seen the device in the detection process
             v = new PresenceDetectionValue(hostname, -1);
         } else {
@@ -407,37 +429,46 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     }
 
     /**
-     * This method is called after each individual check and increases a check counter.
-     * If the counter equals the total checks,the final result is submitted. This will
-     * happen way before the "timeoutInMS", if all checks were successful.
-     * Thread safe.
-     */
-    private synchronized void checkIfFinished() {
-        currentCheck += 1;
-        if (currentCheck < detectionChecks) {
-            return;
-        }
-        submitFinalResult();
-    }
-
-    /**
-     * Waits for the presence detection threads to finish. Returns immediately
+     * Waits for the presence detection checks to finish. Returns immediately
      * if no presence detection is performed right now.
+     *
+     * The checks get the configured timeout starting from the moment the last of them actually started running.
+     * The detection is never finished while checks are still waiting for a thread.
      */
     public void waitForPresenceDetection() {
-        ExecutorService service = executorService;
-        if (service == null) {
+        CompletableFuture<Void> future;
+        DetectionProgress progress;
+        synchronized (this) {
+            future = detectionFuture;
+            progress = detectionProgress;
+        }
+        if (future == null || progress == null) {
             return;
         }
         try {
-            // We may get interrupted here by cancelRefreshJob().
-            service.awaitTermination(timeoutInMS + 100, TimeUnit.MILLISECONDS);
-            submitFinalResult();
+            long remaining;
+            while ((remaining = progress.getRemainingTime(timeoutInMS + 100)) > 0 || progress.hasQueuedProbes()) {
+                try {
+                    // We may get interrupted here by cancelRefreshJob().
+                    future.get(Math.max(remaining, 1), TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    // Checks may have started in the meantime, calculate the remaining time again
+                }
+            }
+        } catch (ExecutionException e) {
+            // Submit what we have got so far
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Reset interrupt flag
-            service.shutdownNow();
-            executorService = null;
+            synchronized (this) {
+                if (detectionFuture == future) {
+                    detectionFuture = null;
+                    detectionProgress = null;
+                }
+            }
+            return;
         }
+        submitFinalResult(future);
     }
 
     /**
@@ -465,22 +496,37 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return v;
     }
 
-    protected void performServicePing(int tcpPort) {
+    protected CompletableFuture<?> performServicePing(int tcpPort) {
         logger.trace("Perform TCP presence detection for {} on port: {}", hostname, tcpPort);
-        try {
-            double pingTime = System.nanoTime();
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress != null
-                    && networkUtils.servicePing(destinationAddress.getHostAddress(), tcpPort, timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
-                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION, latency);
-                v.addReachableTcpService(tcpPort);
-                updateListener.partialDetectionResult(v);
-            }
-        } catch (IOException e) {
-            // This should not happen and might be a user configuration issue, we log a warning message therefore.
-            logger.warn("Could not create a socket connection", e);
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return CompletableFuture.completedFuture(null);
         }
+        final DetectionProgress progress = detectionProgress;
+        return probeEngine.tcpPing(new InetSocketAddress(destinationAddress, tcpPort), timeoutInMS)
+                .thenAccept(latency -> {
+                    if (latency >= 0 && isCurrentDetection(progress)) {
+                        PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION, latency);
+                        v.addReachableTcpService(tcpPort);
+                        updateListener.partialDetectionResult(v);
+                    }
+                });
+    }
+
+    /**
+     * Submits a blocking probe of the current detection process to the {@link ProbeEngine}
+     * and reports a successful result as partial result.
+     */
+    private CompletableFuture<?> blockingProbe(PresenceDetectionType type, String key,
+            ProbeEngine.BlockingProbe probe) {
+        final DetectionProgress progress = detectionProgress;
+        if (progress == null) {
+            return probeEngine.blockingProbe(type, key, probe)
+                    .thenAccept(latency -> reportLatency(null, type, latency));
+        }
+        progress.probeQueued();
+        return probeEngine.blockingProbe(type, key, probe, progress::probeStarted)
+                .thenAccept(latency -> reportLatency(progress, type, latency));
     }
 
     /**
@@ -491,29 +537,24 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * @param interfaceName The interface name. You can request a list of interface names
      *            from {@see NetworkUtils.getInterfaceNames()} for example.
      */
-    protected void performARPping(String interfaceName) {
-        try {
-            logger.trace("Perform ARP ping presence detection for {} on interface: {}", hostname, interfaceName);
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress == null) {
-                return;
-            }
-            if (iosDevice) {
+    protected CompletableFuture<?> performARPping(String interfaceName) {
+        logger.trace("Perform ARP ping presence detection for {} on interface: {}", hostname, interfaceName);
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final String ipAddress = destinationAddress.getHostAddress();
+        final boolean wakeUpIOS = iosDevice;
+        return blockingProbe(PresenceDetectionType.ARP_PING, interfaceName + " " + ipAddress, () -> {
+            if (wakeUpIOS) {
                 networkUtils.wakeUpIOS(destinationAddress);
                 Thread.sleep(50);
             }
-            double pingTime = System.nanoTime();
-            if (networkUtils.nativeARPPing(arpPingMethod, arpPingUtilPath, interfaceName,
-                    destinationAddress.getHostAddress(), timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
-                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ARP_PING, latency);
-                updateListener.partialDetectionResult(v);
-            }
-        } catch (IOException e) {
-            logger.trace("Failed to execute an arp ping for ip {}", hostname, e);
-        } catch (InterruptedException ignored) {
-            // This can be ignored, the thread will end anyway
-        }
+            long pingTime = System.nanoTime();
+            return networkUtils.nativeARPPing(arpPingMethod, arpPingUtilPath, interfaceName, ipAddress, timeoutInMS)
+                    ? ProbeEngine.latencySince(pingTime)
+                    : ProbeEngine.NOT_REACHABLE;
+        });
     }
 
     /**
@@ -522,41 +563,50 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * the TCP echo service on port 7 which barely no device or server supports nowadays.
      * (http://docs.oracle.com/javase/7/docs/api/java/net/InetAddress.html#isReachable%28int%29)
      */
-    protected void performJavaPing() {
-        try {
-            logger.trace("Perform java ping presence detection for {}", hostname);
-            double pingTime = System.nanoTime();
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress == null) {
-                return;
-            }
-            if (destinationAddress.isReachable(timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
-                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ICMP_PING, latency);
-                updateListener.partialDetectionResult(v);
-            }
-        } catch (IOException e) {
-            logger.trace("Failed to execute a java ping for ip {}", hostname, e);
+    protected CompletableFuture<?> performJavaPing() {
+        logger.trace("Perform java ping presence detection for {}", hostname);
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return CompletableFuture.completedFuture(null);
         }
+        return blockingProbe(PresenceDetectionType.ICMP_PING, "java " + destinationAddress.getHostAddress(), () -> {
+            long pingTime = System.nanoTime();
+            return destinationAddress.isReachable(timeoutInMS) ? ProbeEngine.latencySince(pingTime)
+                    : ProbeEngine.NOT_REACHABLE;
+        });
     }
 
-    protected void performSystemPing() {
-        try {
-            logger.trace("Perform native ping presence detection for {}", hostname);
-            double pingTime = System.nanoTime();
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress == null) {
-                return;
-            }
-            if (networkUtils.nativePing(pingMethod, destinationAddress.getHostAddress(), timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
-                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.ICMP_PING, latency);
-                updateListener.partialDetectionResult(v);
-            }
-        } catch (IOException e) {
-            logger.trace("Failed to execute a native ping for ip {}", hostname, e);
-        } catch (InterruptedException e) {
-            // This can be ignored, the thread will end anyway
+    protected CompletableFuture<?> performSystemPing() {
+        logger.trace("Perform native ping presence detection for {}", hostname);
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final String ipAddress = destinationAddress.getHostAddress();
+        final IpPingMethodEnum method = pingMethod;
+        return blockingProbe(PresenceDetectionType.ICMP_PING, method + " " + ipAddress, () -> {
+            long pingTime = System.nanoTime();
+            return networkUtils.nativePing(method, ipAddress, timeoutInMS) ? ProbeEngine.latencySince(pingTime)
+                    : ProbeEngine.NOT_REACHABLE;
+        });
+    }
+
+    /**
+     * Return true if the given detection process is still running. Results of a finished detection process would
+     * arrive after its final result and are dropped.
+     */
+    private synchronized boolean isCurrentDetection(@Nullable DetectionProgress progress) {
+        if (progress != null && progress != detectionProgress) {
+            logger.trace("Dropping a late probe result for {}", hostname);
+            return false;
+        }
+        return true;
+    }
+
+    private void reportLatency(@Nullable DetectionProgress progress, PresenceDetectionType type, double latency) {
+        if (latency >= 0 && isCurrentDetection(progress)) {
+            PresenceDetectionValue v = updateReachableValue(type, latency);
+            updateListener.partialDetectionResult(v);
         }
     }
 
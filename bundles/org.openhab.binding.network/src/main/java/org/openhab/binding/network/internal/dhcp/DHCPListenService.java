@@ -13,8 +13,11 @@
 package org.openhab.binding.network.internal.dhcp;
 
 import java.net.SocketException;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -28,14 +31,24 @@ import org.slf4j.LoggerFactory;
  * after the receive socket is closed.
  * IPRequestReceivedCallback will be called for the address that is registered and matches the
  * DHO_DHCP_REQUESTED_ADDRESS address field.
+ * The addresses of the last {@link #MAXIMUM_REMEMBERED_REQUESTS} DHCP requests are remembered for the discovery.
  *
  * @author David Graeff - Initial contribution
  */
 @NonNullByDefault
 public class DHCPListenService {
+    static final int MAXIMUM_REMEMBERED_REQUESTS = 256;
     static @Nullable DHCPPacketListenerServer instance;
     static Map<String, IPRequestReceivedCallback> registeredListeners = new TreeMap<>();
     static Logger logger = LoggerFactory.getLogger(DHCPListenService.class);
+    static Map<String, Long> recentRequests = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAXIMUM_REMEMBERED_REQUESTS;
+        }
+    };
 
     @SuppressWarnings({ "null", "unused" })
     public static synchronized DHCPPacketListenerServer register(String hostAddress,
@@ -43,6 +56,9 @@ public class DHCPListenService {
         DHCPPacketListenerServer instance = DHCPListenService.instance;
         if (instance == null) {
             instance = new DHCPPacketListenerServer((String ipAddress) -> {
+                synchronized (recentRequests) {
+                    recentRequests.put(ipAddress, System.currentTimeMillis());
+                }
                 IPRequestReceivedCallback listener = registeredListeners.get(ipAddress);
                 if (listener != null) {
                     listener.dhcpRequestReceived(ipAddress);
@@ -73,4 +89,17 @@ public class DHCPListenService {
         }
         DHCPListenService.instance = null;
     }
+
+    /**
+     * Return the addresses of the DHCP requests received since the given time. DHCP requests are only received while
+     * at least one listener is registered.
+     *
+     * @param sinceInMS A time in milliseconds based on {@link System#currentTimeMillis()}
+     */
+    public static Set<String> getRequestedAddresses(long sinceInMS) {
+        synchronized (recentRequests) {
+            return recentRequests.entrySet().stream().filter(e -> e.getValue() >= sinceInMS).map(e -> e.getKey())
+                    .collect(Collectors.toSet());
+        }
+    }
 }
@@ -14,13 +14,14 @@ package org.openhab.binding.network.internal.discovery;
 
 import static org.openhab.binding.network.internal.NetworkBindingConstants.*;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -36,7 +37,12 @@ import org.openhab.binding.network.internal.NetworkBindingConfiguration;
 import org.openhab.binding.network.internal.PresenceDetection;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
+import org.openhab.binding.network.internal.dhcp.DHCPListenService;
 import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.ProbeEngine;
+import org.openhab.binding.network.internal.utils.SubnetSweeper;
+import org.openhab.binding.network.internal.utils.SubnetSweeper.Sweep;
+import org.openhab.binding.network.internal.utils.SubnetSweeper.SweepListener;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
@@ -48,6 +54,12 @@ import org.slf4j.LoggerFactory;
  * The {@link NetworkDiscoveryService} is responsible for discovering devices on
  * the current Network. It uses every Network Interface which is connected to a network.
  * It tries common TCP ports to connect to, ICMP pings and ARP pings.
+ * The probes are executed by the binding-wide probe engine, at most {@link #MAXIMUM_CONCURRENT_DETECTIONS}
+ * addresses are probed at the same time.
+ *
+ * In sweep mode, only non-blocking TCP connection attempts are made to all addresses, rate limited and in a single
+ * selector loop. A host is found if it accepts or refuses a connection, if it answered the ARP requests the sweep
+ * caused, or if a DHCP request for its address was received.
  *
  * @author Marc Mettke - Initial contribution
  * @author David Graeff - Rewritten
@@ -57,6 +69,8 @@ import org.slf4j.LoggerFactory;
 public class NetworkDiscoveryService extends AbstractDiscoveryService implements PresenceDetectionListener {
     static final int PING_TIMEOUT_IN_MS = 500;
     static final int MAXIMUM_IPS_PER_INTERFACE = 255;
+    static final int MAXIMUM_CONCURRENT_DETECTIONS = 32;
+    static final int MAXIMUM_IPS_PER_INTERFACE_SWEEP = 4095;
     private static final long DISCOVERY_RESULT_TTL = TimeUnit.MINUTES.toSeconds(10);
     private final Logger logger = LoggerFactory.getLogger(NetworkDiscoveryService.class);
 
@@ -65,8 +79,11 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     // TCP port 1025 (Xbox / MS-RPC)
     private Set<Integer> tcpServicePorts = Collections
             .unmodifiableSet(Stream.of(80, 548, 554, 1025).collect(Collectors.toSet()));
-    private Integer scannedIPcount = 0;
-    private @Nullable ExecutorService executorService = null;
+    private int scannedIPcount = 0;
+    private int networkIPcount = 0;
+    private final Queue<String> pendingIPs = new ArrayDeque<>();
+    private final Set<String> detectingIPs = new HashSet<>();
+    private @Nullable Sweep sweep;
     private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
     private final NetworkUtils networkUtils = new NetworkUtils();
 
@@ -96,8 +113,10 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     @Override
     @Deactivate
     protected void deactivate() {
-        if (executorService != null) {
-            executorService.shutdown();
+        synchronized (this) {
+            pendingIPs.clear();
+            detectingIPs.clear();
+            cancelSweep();
         }
         super.deactivate();
     }
@@ -117,67 +136,153 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
 
     @Override
     public void finalDetectionResult(PresenceDetectionValue value) {
+        synchronized (this) {
+            if (!detectingIPs.remove(value.getHostAddress())) {
+                return;
+            }
+        }
+        ipScanned();
     }
 
     /**
-     * Starts the DiscoveryThread for each IP on each interface on the network
+     * Starts the presence detection for each IP on each interface on the network
      */
     @Override
     protected void startScan() {
-        if (executorService == null) {
-            executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
-        }
-        final ExecutorService service = executorService;
-        if (service == null) {
+        removeOlderResults(getTimestampOfLastScan(), null);
+        if (configuration.discoverySweep) {
+            startSweep();
             return;
         }
-        removeOlderResults(getTimestampOfLastScan(), null);
         logger.trace("Starting Network Device Discovery");
 
         final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE);
-        scannedIPcount = 0;
-
-        for (String ip : networkIPs) {
-            final PresenceDetection s = new PresenceDetection(this, 2000);
-            s.setHostname(ip);
-            s.setIOSDevice(true);
-            s.setUseDhcpSniffing(false);
-            s.setTimeout(PING_TIMEOUT_IN_MS);
-            // Ping devices
-            s.setUseIcmpPing(true);
-            s.setUseArpPing(true, configuration.arpPingToolPath, configuration.arpPingUtilMethod);
-            // TCP devices
-            s.setServicePorts(tcpServicePorts);
-
-            service.execute(() -> {
-                Thread.currentThread().setName("Discovery thread " + ip);
-                s.performPresenceDetection(true);
-                synchronized (scannedIPcount) {
-                    scannedIPcount += 1;
-                    if (scannedIPcount == networkIPs.size()) {
-                        logger.trace("Scan of {} IPs successful", scannedIPcount);
-                        stopScan();
-                    }
+        synchronized (this) {
+            pendingIPs.clear();
+            pendingIPs.addAll(networkIPs);
+            detectingIPs.clear();
+            networkIPcount = networkIPs.size();
+            scannedIPcount = 0;
+        }
+
+        for (int i = 0; i < MAXIMUM_CONCURRENT_DETECTIONS; i++) {
+            scanNextIP();
+        }
+    }
+
+    /**
+     * Starts the presence detection for the next pending IP. The detection runs asynchronously, its
+     * final result is reported to {@link #finalDetectionResult(PresenceDetectionValue)}.
+     */
+    private void scanNextIP() {
+        final String ip;
+        synchronized (this) {
+            ip = pendingIPs.poll();
+            if (ip == null) {
+                return;
+            }
+            detectingIPs.add(ip);
+        }
+
+        final PresenceDetection s = new PresenceDetection(this, 2000);
+        s.setHostname(ip);
+        s.setIOSDevice(true);
+        s.setUseDhcpSniffing(false);
+        s.setTimeout(PING_TIMEOUT_IN_MS);
+        // Ping devices
+        s.setUseIcmpPing(true);
+        s.setUseArpPing(true, configuration.arpPingToolPath, configuration.arpPingUtilMethod);
+        // TCP devices
+        s.setServicePorts(tcpServicePorts);
+
+        if (!s.performPresenceDetection(false)) {
+            synchronized (this) {
+                detectingIPs.remove(ip);
+            }
+            ipScanned();
+        }
+    }
+
+    private void ipScanned() {
+        synchronized (this) {
+            scannedIPcount += 1;
+            if (scannedIPcount >= networkIPcount) {
+                logger.trace("Scan of {} IPs successful", scannedIPcount);
+                stopScan();
+                return;
+            }
+        }
+        scanNextIP();
+    }
+
+    /**
+     * Sweeps all IPs on each interface on the network with non-blocking TCP connection attempts
+     * and reports the hosts found in the ARP cache and by DHCP requests afterwards.
+     */
+    private void startSweep() {
+        final long startTime = System.currentTimeMillis();
+        final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE_SWEEP);
+        logger.trace("Starting Network Device Discovery sweep of {} IPs", networkIPs.size());
+
+        final Set<String> aliveIPs = Collections.synchronizedSet(new HashSet<>());
+        SubnetSweeper sweeper = new SubnetSweeper(ProbeEngine.getInstance().getTcpProber(), scheduler,
+                configuration.sweepMaxConcurrentConnects.intValue(),
+                configuration.sweepMaxConnectsPerSecond.intValue(), PING_TIMEOUT_IN_MS);
+        final Sweep sweep = sweeper.sweep(networkIPs, tcpServicePorts, new SweepListener() {
+            @Override
+            public void hostAlive(String ipAddress) {
+                if (aliveIPs.add(ipAddress)) {
+                    // Do not block the selector thread of the sweep
+                    scheduler.execute(() -> newPingDevice(ipAddress));
                 }
-            });
+            }
+
+            @Override
+            public void serviceReachable(String ipAddress, int port) {
+                scheduler.execute(() -> newServiceDevice(ipAddress, port));
+            }
+        });
+        synchronized (this) {
+            cancelSweep();
+            this.sweep = sweep;
+        }
+
+        sweep.getCompletion().thenRunAsync(() -> {
+            synchronized (this) {
+                if (this.sweep != sweep) {
+                    // cancelled
+                    return;
+                }
+                this.sweep = null;
+            }
+            Set<String> arpCacheIPs = networkUtils.getArpCacheIPs();
+            Set<String> dhcpIPs = DHCPListenService
+                    .getRequestedAddresses(startTime - TimeUnit.SECONDS.toMillis(DISCOVERY_RESULT_TTL));
+            for (String ip : networkIPs) {
+                if ((arpCacheIPs.contains(ip) || dhcpIPs.contains(ip)) && aliveIPs.add(ip)) {
+                    newPingDevice(ip);
+                }
+            }
+            logger.debug("Sweep of {} IPs with {} connection attempts found {} devices in {} ms", networkIPs.size(),
+                    sweep.getAttempts(), aliveIPs.size(), System.currentTimeMillis() - startTime);
+            stopScan();
+        }, scheduler);
+    }
+
+    private synchronized void cancelSweep() {
+        Sweep sweep = this.sweep;
+        if (sweep != null) {
+            this.sweep = null;
+            sweep.cancel();
         }
     }
 
     @Override
     protected synchronized void stopScan() {
         super.stopScan();
-        final ExecutorService service = executorService;
-        if (service == null) {
-            return;
-        }
-
-        try {
-            service.awaitTermination(PING_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Reset interrupt flag
-        }
-        service.shutdown();
-        executorService = null;
+        pendingIPs.clear();
+        detectingIPs.clear();
+        cancelSweep();
     }
 
     public static ThingUID createServiceUID(String ip, int tcpPort) {
@@ -28,6 +28,10 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -326,6 +330,40 @@ public class NetworkUtils {
         return proc.waitFor() == 0;
     }
 
+    /**
+     * Return the IPv4 addresses of the complete entries of the ARP cache of the operating system.
+     * The ARP cache can only be read on Linux, an empty set is returned on all other operating systems.
+     */
+    public Set<String> getArpCacheIPs() {
+        return getArpCacheIPs(Paths.get("/proc/net/arp"));
+    }
+
+    /**
+     * Return the IPv4 addresses of the complete entries of the given ARP table.
+     *
+     * @param arpTable A file in the format of /proc/net/arp
+     */
+    Set<String> getArpCacheIPs(Path arpTable) {
+        Set<String> result = new LinkedHashSet<>();
+        if (!Files.isReadable(arpTable)) {
+            return result;
+        }
+        try (BufferedReader r = Files.newBufferedReader(arpTable, StandardCharsets.US_ASCII)) {
+            // Skip the header line: IP address, HW type, Flags, HW address, Mask, Device
+            String line = r.readLine();
+            while ((line = r.readLine()) != null) {
+                String[] columns = line.trim().split("\\s+");
+                // Flags 0x0 marks an incomplete entry, no host answered the ARP request
+                if (columns.length >= 4 && !"0x0".equals(columns[2]) && !"00:00:00:00:00:00".equals(columns[3])) {
+                    result.add(columns[0]);
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Could not read the ARP cache {}: {}", arpTable, e.getMessage());
+        }
+        return result;
+    }
+
     /**
      * iOS devices are in a deep sleep mode, where they only listen to UDP traffic on port 5353 (Bonjour service
      * discovery). A packet on port 5353 will wake up the network stack to respond to ARP pings at least.
@@ -0,0 +1,251 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.openhab.binding.network.internal.PresenceDetectionType;
+import org.openhab.binding.network.internal.utils.TcpConnectProber.ConnectResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The binding-wide engine all presence detections submit their probes to.
+ *
+ * TCP connection attempts are non-blocking and handled by a single selector thread, see {@link TcpConnectProber}.
+ * Probes that need to wait for an external process (ICMP and ARP pings) or for a blocking Java call are executed on
+ * the shared, bounded "network" thread pool. If the same process probe is requested again while it is still running,
+ * for example by a thing and the discovery, the running probe is shared instead of starting another process.
+ * Because blocking probes may wait for a free thread, callers can be notified when their probe actually starts.
+ *
+ * Latencies and counters are collected per {@link PresenceDetectionType}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ProbeEngine {
+    public static final String THREAD_POOL_NAME = "network";
+    public static final double NOT_REACHABLE = -1;
+
+    private static @Nullable ProbeEngine instance;
+
+    private final Logger logger = LoggerFactory.getLogger(ProbeEngine.class);
+
+    private final Executor processExecutor;
+    private final TcpConnectProber tcpProber;
+    private final Map<String, RunningProbe> runningProbes = new ConcurrentHashMap<>();
+    private final Map<PresenceDetectionType, ProbeStatistics> statistics = new EnumMap<>(PresenceDetectionType.class);
+    private final AtomicLong sharedProbes = new AtomicLong();
+
+    /**
+     * A probe that blocks until the target responded or the timeout expired.
+     */
+    @FunctionalInterface
+    public interface BlockingProbe {
+        /**
+         * @return Return the latency in ms, see {@link ProbeEngine#latencySince(long)}, or {@link #NOT_REACHABLE} if
+         *         the target did not respond
+         */
+        double probe() throws IOException, InterruptedException;
+    }
+
+    /**
+     * A blocking probe that was submitted to the thread pool.
+     */
+    private static class RunningProbe {
+        final CompletableFuture<Void> started = new CompletableFuture<>();
+        final CompletableFuture<Double> result = new CompletableFuture<>();
+    }
+
+    /**
+     * Return the binding-wide probe engine.
+     */
+    public static synchronized ProbeEngine getInstance() {
+        ProbeEngine engine = instance;
+        if (engine == null) {
+            engine = new ProbeEngine(ThreadPoolManager.getPool(THREAD_POOL_NAME), new TcpConnectProber());
+            instance = engine;
+        }
+        return engine;
+    }
+
+    /**
+     * Creates a probe engine. Use {@link #getInstance()} instead, this constructor is meant for tests.
+     *
+     * @param processExecutor The executor for blocking probes
+     * @param tcpProber The prober for TCP connection attempts
+     */
+    public ProbeEngine(Executor processExecutor, TcpConnectProber tcpProber) {
+        this.processExecutor = processExecutor;
+        this.tcpProber = tcpProber;
+        for (PresenceDetectionType type : PresenceDetectionType.values()) {
+            statistics.put(type, new ProbeStatistics());
+        }
+    }
+
+    /**
+     * Try to establish a tcp connection to the given address without blocking a thread.
+     *
+     * @param address The destination address and port
+     * @param timeoutInMS Timeout in ms
+     * @return A future with the latency in ms or {@link #NOT_REACHABLE} if a timeout occurred or the connection was
+     *         denied.
+     */
+    public CompletableFuture<Double> tcpPing(InetSocketAddress address, int timeoutInMS) {
+        final long start = System.nanoTime();
+        return tcpProber.connect(address, timeoutInMS)
+                .thenApply(result -> record(PresenceDetectionType.TCP_CONNECTION,
+                        result == ConnectResult.CONNECTED ? latencySince(start) : NOT_REACHABLE));
+    }
+
+    /**
+     * Execute a blocking probe on the shared thread pool. If a probe with the same type and key is already running,
+     * its result is returned instead.
+     *
+     * @param type The presence detection type, used for the statistics
+     * @param key Identifies the probe, for example the command line of the ping process
+     * @param probe The probe
+     * @return A future with the latency in ms or {@link #NOT_REACHABLE} if the target did not respond
+     */
+    public CompletableFuture<Double> blockingProbe(PresenceDetectionType type, String key, BlockingProbe probe) {
+        return blockingProbe(type, key, probe, () -> {
+        });
+    }
+
+    /**
+     * Execute a blocking probe on the shared thread pool. If a probe with the same type and key is already running,
+     * its result is returned instead.
+     *
+     * @param type The presence detection type, used for the statistics
+     * @param key Identifies the probe, for example the command line of the ping process
+     * @param probe The probe
+     * @param onStart Called as soon as the probe got a thread and starts running, or the probe it shares started.
+     *            Also called if the probe could not be submitted at all.
+     * @return A future with the latency in ms or {@link #NOT_REACHABLE} if the target did not respond
+     */
+    public CompletableFuture<Double> blockingProbe(PresenceDetectionType type, String key, BlockingProbe probe,
+            Runnable onStart) {
+        final String probeKey = type + " " + key;
+        final RunningProbe runningProbe = new RunningProbe();
+        RunningProbe running = runningProbes.putIfAbsent(probeKey, runningProbe);
+        if (running != null) {
+            sharedProbes.incrementAndGet();
+            running.started.thenRun(onStart);
+            // Do not hand out the shared future itself, callers must not be able to complete it
+            return running.result.thenApply(Function.identity());
+        }
+
+        runningProbe.started.thenRun(onStart);
+        final CompletableFuture<Double> future = runningProbe.result;
+        try {
+            processExecutor.execute(() -> {
+                runningProbe.started.complete(null);
+                double latency = NOT_REACHABLE;
+                try {
+                    latency = probe.probe();
+                } catch (IOException e) {
+                    logger.trace("Failed to execute {}", probeKey, e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt(); // Reset interrupt flag
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to execute {}", probeKey, e);
+                } finally {
+                    runningProbes.remove(probeKey, runningProbe);
+                    future.complete(record(type, latency));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Could not execute {}: {}", probeKey, e.getMessage());
+            runningProbes.remove(probeKey, runningProbe);
+            runningProbe.started.complete(null);
+            future.complete(NOT_REACHABLE);
+        }
+        return future.thenApply(Function.identity());
+    }
+
+    /**
+     * Return the time passed since the given {@link System#nanoTime()} value, rounded to ms.
+     */
+    public static double latencySince(long startNanos) {
+        return Math.round((System.nanoTime() - startNanos) / 1000000.0f);
+    }
+
+    private double record(PresenceDetectionType type, double latency) {
+        getStatistics(type).record(latency);
+        return latency;
+    }
+
+    /**
+     * Return the statistics of the probes of the given type.
+     */
+    public ProbeStatistics getStatistics(PresenceDetectionType type) {
+        ProbeStatistics result = statistics.get(type);
+        if (result == null) {
+            throw new IllegalArgumentException("Unknown presence detection type " + type);
+        }
+        return result;
+    }
+
+    /**
+     * Return the number of probe requests that were answered by an already running probe.
+     */
+    public long getSharedProbeCount() {
+        return sharedProbes.get();
+    }
+
+    /**
+     * Return the number of running blocking probes.
+     */
+    public int getRunningProbeCount() {
+        return runningProbes.size();
+    }
+
+    /**
+     * Return the prober for TCP connection attempts, to be used for sweeps.
+     */
+    public TcpConnectProber getTcpProber() {
+        return tcpProber;
+    }
+
+    /**
+     * Return the number of TCP connection attempts in progress.
+     */
+    public int getPendingConnectCount() {
+        return tcpProber.getPendingConnects();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<PresenceDetectionType, ProbeStatistics> entry : statistics.entrySet()) {
+            if (entry.getKey() == PresenceDetectionType.DHCP_REQUEST) {
+                continue;
+            }
+            builder.append(entry.getKey()).append(": ").append(entry.getValue()).append("; ");
+        }
+        builder.append("shared probes: ").append(getSharedProbeCount());
+        return builder.toString();
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Counters and latencies of the probes of one presence detection type, collected by the {@link ProbeEngine}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ProbeStatistics {
+    private final AtomicLong probes = new AtomicLong();
+    private final AtomicLong reachable = new AtomicLong();
+    private final AtomicLong totalLatencyMicros = new AtomicLong();
+    private final AtomicLong maxLatencyMicros = new AtomicLong();
+
+    /**
+     * Records a finished probe.
+     *
+     * @param latency The latency in ms or a negative value if the target did not respond
+     */
+    void record(double latency) {
+        probes.incrementAndGet();
+        if (latency >= 0) {
+            long micros = Math.round(latency * 1000);
+            reachable.incrementAndGet();
+            totalLatencyMicros.addAndGet(micros);
+            maxLatencyMicros.accumulateAndGet(micros, Math::max);
+        }
+    }
+
+    /**
+     * Return the number of finished probes.
+     */
+    public long getProbeCount() {
+        return probes.get();
+    }
+
+    /**
+     * Return the number of probes the target responded to.
+     */
+    public long getReachableCount() {
+        return reachable.get();
+    }
+
+    /**
+     * Return the average latency of the successful probes in ms.
+     */
+    public double getAverageLatency() {
+        long count = reachable.get();
+        return count == 0 ? 0 : totalLatencyMicros.get() / 1000.0 / count;
+    }
+
+    /**
+     * Return the maximum latency of the successful probes in ms.
+     */
+    public double getMaxLatency() {
+        return maxLatencyMicros.get() / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("probes: %d, reachable: %d, avg latency: %.1f ms, max latency: %.1f ms",
+                getProbeCount(), getReachableCount(), getAverageLatency(), getMaxLatency());
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.network.internal.utils.TcpConnectProber.ConnectResult;
+
+/**
+ * Sweeps a whole address range with non-blocking TCP connection attempts. All connection attempts are handled by the
+ * selector thread of a {@link TcpConnectProber}, the number of attempts in progress and the number of attempts
+ * started per second are limited.
+ *
+ * A host is alive if it accepts or actively refuses a connection on any of the swept ports. As a side effect, the
+ * connection attempts fill the ARP cache of the operating system for all hosts of the local networks that are
+ * online, even if they silently drop TCP packets.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SubnetSweeper {
+    private final TcpConnectProber prober;
+    private final ScheduledExecutorService scheduler;
+    private final int maxConcurrentConnects;
+    private final int maxConnectsPerSecond;
+    private final int timeoutInMS;
+
+    /**
+     * Implement this interface to be notified of the sweep results. The methods are called from the selector thread
+     * and must not block.
+     */
+    public interface SweepListener {
+        /**
+         * The host accepted or refused a connection on one of the swept ports.
+         */
+        void hostAlive(String ipAddress);
+
+        /**
+         * The host accepted a connection on the given port.
+         */
+        void serviceReachable(String ipAddress, int port);
+    }
+
+    /**
+     * A running sweep.
+     */
+    public class Sweep {
+        private final Iterator<String> addresses;
+        private final List<Integer> ports;
+        private final SweepListener listener;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private @Nullable String currentAddress;
+        private int nextPort;
+        private int inProgress;
+        private long nextStartNanos = System.nanoTime();
+        private boolean feedScheduled;
+        private int attempts;
+
+        private Sweep(Collection<String> addresses, Collection<Integer> ports, SweepListener listener) {
+            this.addresses = new ArrayList<>(addresses).iterator();
+            this.ports = new ArrayList<>(ports);
+            this.listener = listener;
+            this.nextPort = this.ports.size();
+        }
+
+        /**
+         * Return a future that completes when all connection attempts are finished or the sweep was cancelled.
+         */
+        public CompletableFuture<Void> getCompletion() {
+            return done;
+        }
+
+        /**
+         * Return the number of started connection attempts.
+         */
+        public synchronized int getAttempts() {
+            return attempts;
+        }
+
+        /**
+         * Stops the sweep. Connection attempts in progress are not reported anymore.
+         */
+        public void cancel() {
+            done.complete(null);
+        }
+
+        private synchronized void feed() {
+            feedScheduled = false;
+            while (!done.isDone() && inProgress < maxConcurrentConnects) {
+                if (nextPort >= ports.size()) {
+                    if (!addresses.hasNext()) {
+                        if (inProgress == 0) {
+                            done.complete(null);
+                        }
+                        return;
+                    }
+                    currentAddress = addresses.next();
+                    nextPort = 0;
+                }
+
+                long now = System.nanoTime();
+                if (maxConnectsPerSecond > 0) {
+                    if (nextStartNanos - now > 0) {
+                        if (!feedScheduled) {
+                            feedScheduled = true;
+                            scheduler.schedule(this::feed, nextStartNanos - now, TimeUnit.NANOSECONDS);
+                        }
+                        return;
+                    }
+                    nextStartNanos = Math.max(nextStartNanos, now - TimeUnit.SECONDS.toNanos(1))
+                            + TimeUnit.SECONDS.toNanos(1) / maxConnectsPerSecond;
+                }
+
+                final String address = currentAddress;
+                final int port = ports.get(nextPort++);
+                if (address == null) {
+                    continue;
+                }
+                inProgress++;
+                attempts++;
+                prober.connect(new InetSocketAddress(address, port), timeoutInMS)
+                        .thenAccept(result -> finished(address, port, result));
+            }
+        }
+
+        private void finished(String address, int port, ConnectResult result) {
+            synchronized (this) {
+                inProgress--;
+            }
+            if (!done.isDone()) {
+                if (result == ConnectResult.CONNECTED) {
+                    listener.serviceReachable(address, port);
+                    listener.hostAlive(address);
+                } else if (result == ConnectResult.REFUSED) {
+                    listener.hostAlive(address);
+                }
+            }
+            feed();
+        }
+    }
+
+    /**
+     * @param prober The prober that performs the connection attempts
+     * @param scheduler A scheduler, used to delay connection attempts if the rate limit is reached
+     * @param maxConcurrentConnects The maximum number of connection attempts in progress
+     * @param maxConnectsPerSecond The maximum number of connection attempts started per second, 0 for no limit
+     * @param timeoutInMS The timeout of a single connection attempt in ms
+     */
+    public SubnetSweeper(TcpConnectProber prober, ScheduledExecutorService scheduler, int maxConcurrentConnects,
+            int maxConnectsPerSecond, int timeoutInMS) {
+        if (maxConcurrentConnects <= 0) {
+            throw new IllegalArgumentException("The maximum number of concurrent connects must be positive");
+        }
+        this.prober = prober;
+        this.scheduler = scheduler;
+        this.maxConcurrentConnects = maxConcurrentConnects;
+        this.maxConnectsPerSecond = maxConnectsPerSecond;
+        this.timeoutInMS = timeoutInMS;
+    }
+
+    /**
+     * Starts a sweep of the given ports on all given addresses.
+     *
+     * @param addresses The IPv4 addresses to sweep
+     * @param ports The TCP ports to try on every address
+     * @param listener Receives the reachable hosts and services
+     * @return The running sweep
+     */
+    public Sweep sweep(Collection<String> addresses, Collection<Integer> ports, SweepListener listener) {
+        Sweep sweep = new Sweep(addresses, ports, listener);
+        if (ports.isEmpty()) {
+            sweep.done.complete(null);
+        } else {
+            sweep.feed();
+        }
+        return sweep;
+    }
+}
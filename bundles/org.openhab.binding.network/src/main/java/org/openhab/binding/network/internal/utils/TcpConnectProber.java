@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Performs TCP connection attempts with non-blocking sockets. All pending connection attempts are handled by a single
+ * selector thread, which is started on demand and stops again after it has been idle for {@link #IDLE_TIMEOUT_IN_MS}.
+ *
+ * A connection attempt is successful if the TCP handshake completes. The connection is closed right away. If the
+ * destination refuses the connection, the host is reachable even though the port is not.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TcpConnectProber {
+    static final long IDLE_TIMEOUT_IN_MS = 30000;
+
+    private final Logger logger = LoggerFactory.getLogger(TcpConnectProber.class);
+
+    private final Queue<PendingConnect> newConnects = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingConnects = new AtomicInteger();
+    private volatile @Nullable Selector selector;
+    private @Nullable Thread thread;
+
+    /**
+     * The result of a connection attempt.
+     */
+    public enum ConnectResult {
+        /** The connection was established */
+        CONNECTED,
+        /** The host actively refused the connection */
+        REFUSED,
+        /** The host was not reachable or did not respond in time */
+        UNREACHABLE
+    }
+
+    private static class PendingConnect {
+        final InetSocketAddress address;
+        final long deadline;
+        final CompletableFuture<ConnectResult> future = new CompletableFuture<>();
+        @Nullable
+        SocketChannel channel;
+
+        PendingConnect(InetSocketAddress address, long deadline) {
+            this.address = address;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Starts a connection attempt to the given address.
+     *
+     * @param address The destination address and port
+     * @param timeoutInMS Timeout in ms
+     * @return A future that completes with the result of the connection attempt
+     */
+    public CompletableFuture<ConnectResult> connect(InetSocketAddress address, int timeoutInMS) {
+        PendingConnect connect = new PendingConnect(address,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMS));
+        pendingConnects.incrementAndGet();
+        newConnects.add(connect);
+        synchronized (this) {
+            if (thread == null) {
+                Thread newThread = new Thread(this::run, "OH-binding-network-tcpProber");
+                newThread.setDaemon(true);
+                thread = newThread;
+                newThread.start();
+                return connect.future;
+            }
+        }
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        return connect.future;
+    }
+
+    /**
+     * Return the number of connection attempts in progress.
+     */
+    public int getPendingConnects() {
+        return pendingConnects.get();
+    }
+
+    private void run() {
+        try (Selector selector = Selector.open()) {
+            this.selector = selector;
+            long idleSince = System.nanoTime();
+            while (true) {
+                registerNewConnects(selector);
+                long now = System.nanoTime();
+                if (selector.keys().isEmpty()) {
+                    if (now - idleSince > TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT_IN_MS)) {
+                        synchronized (this) {
+                            if (newConnects.isEmpty()) {
+                                thread = null;
+                                this.selector = null;
+                                return;
+                            }
+                        }
+                        continue;
+                    }
+                    selector.select(IDLE_TIMEOUT_IN_MS);
+                } else {
+                    selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(nextDeadline(selector) - now)));
+                    idleSince = System.nanoTime();
+                }
+                finishConnects(selector);
+                expireConnects(selector);
+            }
+        } catch (IOException e) {
+            logger.warn("Non-blocking TCP connection attempts failed: {}", e.getMessage());
+            synchronized (this) {
+                // Fail the queued connection attempts and reset the thread at once. Attempts started afterwards
+                // start a new thread and must not be failed here.
+                if (thread == Thread.currentThread()) {
+                    PendingConnect connect;
+                    while ((connect = newConnects.poll()) != null) {
+                        complete(connect, ConnectResult.UNREACHABLE);
+                    }
+                    thread = null;
+                    this.selector = null;
+                }
+            }
+        } finally {
+            synchronized (this) {
+                if (thread == Thread.currentThread()) {
+                    thread = null;
+                    this.selector = null;
+                }
+            }
+        }
+    }
+
+    private void registerNewConnects(Selector selector) {
+        PendingConnect connect;
+        while ((connect = newConnects.poll()) != null) {
+            try {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                connect.channel = channel;
+                if (channel.connect(connect.address)) {
+                    complete(connect, ConnectResult.CONNECTED);
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, connect);
+                }
+            } catch (ConnectException e) {
+                complete(connect, ConnectResult.REFUSED);
+            } catch (IOException | RuntimeException e) {
+                // Unresolved or unreachable address, no route to host etc.
+                logger.trace("Connection attempt to {} failed: {}", connect.address, e.getMessage());
+                complete(connect, ConnectResult.UNREACHABLE);
+            }
+        }
+    }
+
+    private void finishConnects(Selector selector) {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+            PendingConnect connect = (PendingConnect) key.attachment();
+            try {
+                if (((SocketChannel) key.channel()).finishConnect()) {
+                    complete(connect, ConnectResult.CONNECTED);
+                }
+            } catch (ConnectException e) {
+                complete(connect, ConnectResult.REFUSED);
+            } catch (IOException e) {
+                // NoRouteToHostException etc.
+                complete(connect, ConnectResult.UNREACHABLE);
+            }
+        }
+    }
+
+    private void expireConnects(Selector selector) {
+        long now = System.nanoTime();
+        for (SelectionKey key : selector.keys()) {
+            PendingConnect connect = (PendingConnect) key.attachment();
+            if (key.isValid() && connect.deadline - now <= 0) {
+                complete(connect, ConnectResult.UNREACHABLE);
+            }
+        }
+    }
+
+    private long nextDeadline(Selector selector) {
+        long deadline = Long.MAX_VALUE;
+        boolean first = true;
+        for (SelectionKey key : selector.keys()) {
+            PendingConnect connect = (PendingConnect) key.attachment();
+            if (first || connect.deadline - deadline < 0) {
+                deadline = connect.deadline;
+                first = false;
+            }
+        }
+        return deadline;
+    }
+
+    private void complete(PendingConnect connect, ConnectResult result) {
+        SocketChannel channel = connect.channel;
+        if (channel != null) {
+            try {
+                // Also cancels the selection key
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+        if (connect.future.complete(result)) {
+            pendingConnects.decrementAndGet();
+        }
+    }
+}
@@ -20,7 +20,8 @@ import static org.mockito.Mockito.*;
 import java.io.IOException;
 import java.net.UnknownHostException;
 import java.util.Collections;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -35,6 +36,9 @@ import org.openhab.binding.network.internal.toberemoved.cache.ExpiringCacheHelpe
 import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
 import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.openhab.binding.network.internal.utils.ProbeEngine;
+import org.openhab.binding.network.internal.utils.TcpConnectProber;
+import org.openhab.binding.network.internal.utils.TcpConnectProber.ConnectResult;
 
 /**
  * Tests cases for {@see PresenceDetectionValue}
@@ -50,7 +54,10 @@ public class PresenceDetectionTest {
     PresenceDetectionListener listener;
 
     @Mock
-    ExecutorService executorService;
+    TcpConnectProber tcpProber;
+
+    @Mock
+    Executor executor;
 
     @Mock
     Consumer<PresenceDetectionValue> callback;
@@ -68,6 +75,8 @@ public class PresenceDetectionTest {
 
         subject = spy(new PresenceDetection(listener, (int) CACHETIME));
         subject.networkUtils = networkUtils;
+        // Execute blocking probes directly
+        subject.probeEngine = new ProbeEngine(Runnable::run, tcpProber);
         subject.cache = spy(new ExpiringCacheAsync<PresenceDetectionValue>(CACHETIME, () -> {
             subject.performPresenceDetection(false);
         }));
@@ -89,26 +98,29 @@ public class PresenceDetectionTest {
         subject.waitForPresenceDetection();
     }
 
-    // Depending on the amount of test methods an according amount of threads is spawned.
-    // We will check if they spawn and return in time.
+    // Depending on the amount of test methods an according amount of checks is submitted.
+    // We will check if they are submitted and the detection finishes with the last one.
     @Test
-    public void threadCountTest() {
-        assertNull(subject.executorService);
+    public void checkCountTest() {
+        assertNull(subject.detectionFuture);
 
-        doNothing().when(subject).performARPping(any());
-        doNothing().when(subject).performJavaPing();
-        doNothing().when(subject).performSystemPing();
-        doNothing().when(subject).performServicePing(anyInt());
+        CompletableFuture<?> check = new CompletableFuture<>();
+        doReturn(check).when(subject).performARPping(any());
+        doReturn(check).when(subject).performJavaPing();
+        doReturn(check).when(subject).performSystemPing();
+        doReturn(check).when(subject).performServicePing(anyInt());
 
         subject.performPresenceDetection(false);
 
-        // Thread count: ARP + ICMP + 1*TCP
+        // Check count: ARP + ICMP + 1*TCP
         assertThat(subject.detectionChecks, is(3));
-        assertNotNull(subject.executorService);
+        assertNotNull(subject.detectionFuture);
+        verify(listener, times(0)).finalDetectionResult(any());
 
-        subject.waitForPresenceDetection();
+        check.complete(null);
         assertThat(subject.detectionChecks, is(0));
-        assertNull(subject.executorService);
+        assertNull(subject.detectionFuture);
+        verify(listener, times(1)).finalDetectionResult(any());
     }
 
     @Test
@@ -116,7 +128,8 @@ public class PresenceDetectionTest {
         doReturn(true).when(networkUtils).nativePing(eq(IpPingMethodEnum.WINDOWS_PING), anyString(), anyInt());
         doReturn(true).when(networkUtils).nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(),
                 any(), anyInt());
-        doReturn(true).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
+        when(tcpProber.connect(any(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(ConnectResult.CONNECTED));
 
         assertTrue(subject.performPresenceDetection(false));
         subject.waitForPresenceDetection();
@@ -138,25 +151,26 @@ public class PresenceDetectionTest {
         doReturn(true).when(networkUtils).nativePing(eq(IpPingMethodEnum.WINDOWS_PING), anyString(), anyInt());
         doReturn(true).when(networkUtils).nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(),
                 any(), anyInt());
-        doReturn(true).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
-
-        doReturn(executorService).when(subject).getThreadsFor(anyInt());
+        CompletableFuture<ConnectResult> tcpConnect = new CompletableFuture<>();
+        when(tcpProber.connect(any(), anyInt())).thenReturn(tcpConnect);
+        subject.probeEngine = new ProbeEngine(executor, tcpProber);
 
         // We expect no valid value
         assertTrue(subject.cache.isExpired());
         // Get value will issue a PresenceDetection internally.
         subject.getValue(callback);
         verify(subject).performPresenceDetection(eq(false));
-        assertNotNull(subject.executorService);
+        assertNotNull(subject.detectionFuture);
         // There should be no straight callback yet
         verify(callback, times(0)).accept(any());
 
-        // Perform the different presence detection threads now
+        // Perform the different presence detection probes now: ARP + ICMP on the executor, TCP non-blocking
         ArgumentCaptor<Runnable> capture = ArgumentCaptor.forClass(Runnable.class);
-        verify(executorService, times(3)).execute(capture.capture());
+        verify(executor, times(2)).execute(capture.capture());
         for (Runnable r : capture.getAllValues()) {
             r.run();
         }
+        tcpConnect.complete(ConnectResult.CONNECTED);
         // "Wait" for the presence detection to finish
         subject.waitForPresenceDetection();
 
@@ -174,6 +188,38 @@ public class PresenceDetectionTest {
         verify(callback, times(2)).accept(any());
     }
 
+    @Test
+    public void queuedProbesDelayTheFinalResult() throws InterruptedException, IOException {
+        doReturn(true).when(networkUtils).nativePing(eq(IpPingMethodEnum.WINDOWS_PING), anyString(), anyInt());
+        doReturn(false).when(networkUtils).nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(),
+                any(), anyInt());
+        when(tcpProber.connect(any(), anyInt())).thenReturn(CompletableFuture.completedFuture(ConnectResult.REFUSED));
+        subject.probeEngine = new ProbeEngine(executor, tcpProber);
+        subject.setTimeout(50);
+
+        assertTrue(subject.performPresenceDetection(false));
+        Thread waiting = new Thread(subject::waitForPresenceDetection);
+        waiting.start();
+
+        // The thread pool is busy, the probes are still queued after the timeout passed by
+        waiting.join(500);
+        assertTrue(waiting.isAlive());
+        verify(listener, times(0)).finalDetectionResult(any());
+
+        ArgumentCaptor<Runnable> capture = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(2)).execute(capture.capture());
+        for (Runnable r : capture.getAllValues()) {
+            r.run();
+        }
+        waiting.join(5000);
+        assertFalse(waiting.isAlive());
+
+        ArgumentCaptor<PresenceDetectionValue> value = ArgumentCaptor.forClass(PresenceDetectionValue.class);
+        verify(listener, times(1)).finalDetectionResult(value.capture());
+        assertTrue(value.getValue().isReachable());
+        assertThat(value.getValue().getSuccessfulDetectionTypes(), is("ICMP_PING"));
+    }
+
     @Test
     public void reuseValueTests() throws InterruptedException, IOException {
         final long START_TIME = 1000L;
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openhab.binding.network.internal.PresenceDetectionType;
+
+/**
+ * Tests cases for {@link ProbeEngine}.
+ *
+ * @author agent - Initial contribution
+ */
+public class ProbeEngineTest {
+    @Mock
+    Executor executor;
+
+    ProbeEngine subject;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        subject = new ProbeEngine(executor, new TcpConnectProber());
+    }
+
+    @Test
+    public void tcpPingReachable() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            double latency = subject
+                    .tcpPing(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()), 2000)
+                    .get(5, TimeUnit.SECONDS);
+            assertTrue(latency >= 0);
+        }
+        ProbeStatistics statistics = subject.getStatistics(PresenceDetectionType.TCP_CONNECTION);
+        assertThat(statistics.getProbeCount(), is(1L));
+        assertThat(statistics.getReachableCount(), is(1L));
+    }
+
+    @Test
+    public void tcpPingRefused() throws Exception {
+        int port;
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = server.getLocalPort();
+        }
+        double latency = subject.tcpPing(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 2000)
+                .get(5, TimeUnit.SECONDS);
+        assertThat(latency, is(ProbeEngine.NOT_REACHABLE));
+        ProbeStatistics statistics = subject.getStatistics(PresenceDetectionType.TCP_CONNECTION);
+        assertThat(statistics.getProbeCount(), is(1L));
+        assertThat(statistics.getReachableCount(), is(0L));
+    }
+
+    @Test
+    public void runningBlockingProbeIsShared() throws Exception {
+        CompletableFuture<Double> first = subject.blockingProbe(PresenceDetectionType.ICMP_PING, "ping 10.0.0.1",
+                () -> 12);
+        CompletableFuture<Double> second = subject.blockingProbe(PresenceDetectionType.ICMP_PING, "ping 10.0.0.1",
+                () -> 34);
+        CompletableFuture<Double> other = subject.blockingProbe(PresenceDetectionType.ICMP_PING, "ping 10.0.0.2",
+                () -> ProbeEngine.NOT_REACHABLE);
+
+        ArgumentCaptor<Runnable> capture = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(2)).execute(capture.capture());
+        assertThat(subject.getRunningProbeCount(), is(2));
+        assertThat(subject.getSharedProbeCount(), is(1L));
+
+        for (Runnable r : capture.getAllValues()) {
+            r.run();
+        }
+        assertThat(first.get(), is(12.0));
+        assertThat(second.get(), is(12.0));
+        assertThat(other.get(), is(ProbeEngine.NOT_REACHABLE));
+        assertThat(subject.getRunningProbeCount(), is(0));
+
+        ProbeStatistics statistics = subject.getStatistics(PresenceDetectionType.ICMP_PING);
+        assertThat(statistics.getProbeCount(), is(2L));
+        assertThat(statistics.getReachableCount(), is(1L));
+        assertThat(statistics.getAverageLatency(), is(12.0));
+    }
+
+    @Test
+    public void startOfQueuedProbeIsReported() throws Exception {
+        Runnable firstStarted = mock(Runnable.class);
+        Runnable secondStarted = mock(Runnable.class);
+        subject.blockingProbe(PresenceDetectionType.ICMP_PING, "ping 10.0.0.1", () -> 12, firstStarted);
+        subject.blockingProbe(PresenceDetectionType.ICMP_PING, "ping 10.0.0.1", () -> 34, secondStarted);
+
+        // Both wait for the shared probe, which has no thread yet
+        ArgumentCaptor<Runnable> capture = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(capture.capture());
+        verify(firstStarted, never()).run();
+        verify(secondStarted, never()).run();
+
+        capture.getValue().run();
+        verify(firstStarted).run();
+        verify(secondStarted).run();
+    }
+
+    @Test
+    public void failingBlockingProbeIsNotReachable() throws Exception {
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any());
+
+        CompletableFuture<Double> result = subject.blockingProbe(PresenceDetectionType.ARP_PING, "eth0 10.0.0.1", () -> {
+            throw new IOException("arping not found");
+        });
+        assertThat(result.get(), is(ProbeEngine.NOT_REACHABLE));
+        assertThat(subject.getStatistics(PresenceDetectionType.ARP_PING).getProbeCount(), is(1L));
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.openhab.binding.network.internal.utils.SubnetSweeper.Sweep;
+import org.openhab.binding.network.internal.utils.SubnetSweeper.SweepListener;
+import org.openhab.binding.network.internal.utils.TcpConnectProber.ConnectResult;
+
+/**
+ * Tests cases for {@link SubnetSweeper}.
+ *
+ * @author agent - Initial contribution
+ */
+public class SubnetSweeperTest {
+    @Mock
+    TcpConnectProber prober;
+
+    @Mock
+    ScheduledExecutorService scheduler;
+
+    @Mock
+    SweepListener listener;
+
+    Map<String, CompletableFuture<ConnectResult>> connects = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(prober.connect(any(), anyInt())).thenAnswer(invocation -> {
+            InetSocketAddress address = invocation.getArgument(0);
+            CompletableFuture<ConnectResult> future = new CompletableFuture<>();
+            connects.put(address.getHostString() + ":" + address.getPort(), future);
+            return future;
+        });
+    }
+
+    @Test
+    public void reportsAliveHostsAndServices() {
+        SubnetSweeper subject = new SubnetSweeper(prober, scheduler, 100, 0, 500);
+        Sweep sweep = subject.sweep(Arrays.asList("10.0.0.1", "10.0.0.2", "10.0.0.3"), Arrays.asList(80, 554),
+                listener);
+
+        assertThat(sweep.getAttempts(), is(6));
+        connects.get("10.0.0.1:80").complete(ConnectResult.UNREACHABLE);
+        connects.get("10.0.0.1:554").complete(ConnectResult.UNREACHABLE);
+        connects.get("10.0.0.2:80").complete(ConnectResult.REFUSED);
+        connects.get("10.0.0.2:554").complete(ConnectResult.REFUSED);
+        connects.get("10.0.0.3:80").complete(ConnectResult.CONNECTED);
+        assertFalse(sweep.getCompletion().isDone());
+        connects.get("10.0.0.3:554").complete(ConnectResult.UNREACHABLE);
+        assertTrue(sweep.getCompletion().isDone());
+
+        verify(listener, never()).hostAlive("10.0.0.1");
+        verify(listener, times(2)).hostAlive("10.0.0.2");
+        verify(listener).hostAlive("10.0.0.3");
+        verify(listener).serviceReachable("10.0.0.3", 80);
+        verify(listener, times(1)).serviceReachable(anyString(), anyInt());
+    }
+
+    @Test
+    public void limitsConcurrentConnects() {
+        SubnetSweeper subject = new SubnetSweeper(prober, scheduler, 2, 0, 500);
+        Sweep sweep = subject.sweep(Arrays.asList("10.0.0.1", "10.0.0.2", "10.0.0.3"), Collections.singleton(80),
+                listener);
+
+        assertThat(sweep.getAttempts(), is(2));
+        connects.get("10.0.0.1:80").complete(ConnectResult.UNREACHABLE);
+        assertThat(sweep.getAttempts(), is(3));
+        connects.get("10.0.0.2:80").complete(ConnectResult.UNREACHABLE);
+        connects.get("10.0.0.3:80").complete(ConnectResult.UNREACHABLE);
+        assertTrue(sweep.getCompletion().isDone());
+    }
+
+    @Test
+    public void limitsConnectRate() {
+        SubnetSweeper subject = new SubnetSweeper(prober, scheduler, 100, 1, 500);
+        Sweep sweep = subject.sweep(Arrays.asList("10.0.0.1", "10.0.0.2"), Collections.singleton(80), listener);
+
+        // The first connect is started right away, the next one is delayed
+        assertThat(sweep.getAttempts(), is(1));
+        verify(scheduler).schedule(any(Runnable.class), longThat(delay -> delay > 0), eq(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void cancelledSweepIsNotReported() {
+        SubnetSweeper subject = new SubnetSweeper(prober, scheduler, 100, 0, 500);
+        Sweep sweep = subject.sweep(Collections.singleton("10.0.0.1"), Collections.singleton(80), listener);
+
+        sweep.cancel();
+        assertTrue(sweep.getCompletion().isDone());
+        connects.get("10.0.0.1:80").complete(ConnectResult.CONNECTED);
+        verifyZeroInteractions(listener);
+    }
+}
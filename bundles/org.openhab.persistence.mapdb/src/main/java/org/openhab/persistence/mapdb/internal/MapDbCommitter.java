@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.mapdb.DB;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces the commits of many writes into a single {@link DB#commit()}.
+ *
+ * The first write after a commit schedules the next commit after the configured interval, so at most the writes of
+ * one interval are lost on a crash. If too many writes are pending, the commit is executed right away. At most one
+ * commit is scheduled at any time.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbCommitter {
+
+    private final Logger logger = LoggerFactory.getLogger(MapDbCommitter.class);
+
+    private final DB db;
+    private final ScheduledExecutorService scheduler;
+    private final long intervalMillis;
+    private final int maxPendingWrites;
+
+    private final Object scheduleLock = new Object();
+    private @Nullable ScheduledFuture<?> scheduledCommit;
+    private boolean scheduledImmediately;
+    private volatile boolean closed;
+
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final AtomicLong commitCount = new AtomicLong();
+    private final AtomicLong committedWrites = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+    private final AtomicLong maxCommitNanos = new AtomicLong();
+
+    /**
+     * @param db the database to commit
+     * @param scheduler the scheduler the commits are executed on
+     * @param intervalMillis the maximum time a write stays uncommitted, 0 to commit every write
+     * @param maxPendingWrites the number of pending writes that triggers an immediate commit
+     */
+    public MapDbCommitter(DB db, ScheduledExecutorService scheduler, long intervalMillis, int maxPendingWrites) {
+        this.db = db;
+        this.scheduler = scheduler;
+        this.intervalMillis = intervalMillis;
+        this.maxPendingWrites = maxPendingWrites;
+    }
+
+    /**
+     * Notifies the committer about a write to the database.
+     */
+    public void written() {
+        int pending = pendingWrites.incrementAndGet();
+        boolean immediately = intervalMillis <= 0 || pending >= maxPendingWrites;
+        synchronized (scheduleLock) {
+            if (closed) {
+                return;
+            }
+            ScheduledFuture<?> future = scheduledCommit;
+            if (future != null) {
+                // the scheduled commit also covers this write, unless it has to be brought forward
+                if (!immediately || scheduledImmediately || !future.cancel(false)) {
+                    return;
+                }
+            }
+            scheduledImmediately = immediately;
+            scheduledCommit = scheduler.schedule(this::scheduledCommit, immediately ? 0 : intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Commits the pending writes and stops scheduling commits. Waits for a running commit, so the database can be
+     * closed afterwards.
+     */
+    public void close() {
+        ScheduledFuture<?> future;
+        synchronized (scheduleLock) {
+            closed = true;
+            future = scheduledCommit;
+            scheduledCommit = null;
+        }
+        if (future != null) {
+            future.cancel(false);
+        }
+        commit();
+    }
+
+    private synchronized void scheduledCommit() {
+        if (!closed) {
+            commit();
+        }
+    }
+
+    /**
+     * Commits all pending writes.
+     */
+    public synchronized void commit() {
+        synchronized (scheduleLock) {
+            // writes from now on schedule the next commit
+            scheduledCommit = null;
+        }
+        int pending = pendingWrites.getAndSet(0);
+        if (pending == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            db.commit();
+        } catch (RuntimeException | IllegalAccessError e) {
+            // MapDB throws an IllegalAccessError if the database is already closed
+            logger.warn("Failed to commit {} writes to MapDB: {}", pending, e.getMessage());
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        commitCount.incrementAndGet();
+        committedWrites.addAndGet(pending);
+        totalCommitNanos.addAndGet(duration);
+        maxCommitNanos.accumulateAndGet(duration, Math::max);
+        logger.trace("Committed {} writes in {} µs", pending, TimeUnit.NANOSECONDS.toMicros(duration));
+    }
+
+    /**
+     * Returns the number of writes not yet committed.
+     */
+    public int getPendingWrites() {
+        return pendingWrites.get();
+    }
+
+    /**
+     * Returns the number of executed commits.
+     */
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+
+    /**
+     * Returns the number of writes covered by the executed commits.
+     */
+    public long getCommittedWrites() {
+        return committedWrites.get();
+    }
+
+    /**
+     * Returns the average duration of a commit in microseconds.
+     */
+    public long getAverageCommitMicros() {
+        long count = commitCount.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalCommitNanos.get() / count);
+    }
+
+    /**
+     * Returns the maximum duration of a commit in microseconds.
+     */
+    public long getMaxCommitMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxCommitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "pending writes: " + getPendingWrites() + ", commits: " + getCommitCount() + ", committed writes: "
+                + getCommittedWrites() + ", avg commit: " + getAverageCommitMicros() + " µs, max commit: "
+                + getMaxCommitMicros() + " µs";
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Operator;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.types.State;
+import org.mapdb.BTreeKeySerializer;
+import org.mapdb.BTreeMap;
+import org.mapdb.DB;
+import org.mapdb.Fun;
+import org.mapdb.Fun.Tuple2;
+import org.mapdb.Serializer;
+
+/**
+ * Time series store for item states. Entries are kept in a single B-tree keyed by (item name, timestamp), so all
+ * values of one item are stored next to each other and a time range can be read with a single range scan.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbHistory {
+
+    private static final String HISTORY_MAP_NAME = "itemHistory";
+
+    private final BTreeMap<Tuple2<String, Long>, byte[]> history;
+
+    private final long downsampleMillis;
+
+    /**
+     * Creates (or opens) the history map in the given database.
+     *
+     * @param db the database to store the history in
+     * @param downsampleMillis if greater than zero, only the last value within each interval of this length is kept
+     */
+    public MapDbHistory(DB db, long downsampleMillis) {
+        this.history = db.createTreeMap(HISTORY_MAP_NAME).keySerializer(BTreeKeySerializer.TUPLE2)
+                .valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        this.downsampleMillis = downsampleMillis;
+    }
+
+    public void store(String name, State state, Date timestamp) {
+        long time = timestamp.getTime();
+        if (downsampleMillis > 0) {
+            // keep only the latest value of the current interval
+            long intervalStart = time - (time % downsampleMillis);
+            range(name, intervalStart, Long.MAX_VALUE).clear();
+        }
+        byte[] value = StateCodec.encode(state);
+        if (value != null) {
+            history.put(Fun.t2(name, time), value);
+        }
+    }
+
+    /**
+     * Returns the entries of the given item matching the time range, state, ordering and paging of the filter.
+     */
+    public List<HistoricItem> query(String name, FilterCriteria filter) {
+        long begin = filter.getBeginDate() != null ? filter.getBeginDate().getTime() : Long.MIN_VALUE;
+        long end = filter.getEndDate() != null ? filter.getEndDate().getTime() : Long.MAX_VALUE;
+        if (begin > end) {
+            return Collections.emptyList();
+        }
+
+        NavigableMap<Tuple2<String, Long>, byte[]> range = range(name, begin, end);
+        if (filter.getOrdering() == Ordering.DESCENDING) {
+            range = range.descendingMap();
+        }
+
+        long skip = (long) filter.getPageNumber() * filter.getPageSize();
+        int pageSize = filter.getPageSize();
+        List<HistoricItem> result = new ArrayList<>(Math.min(pageSize, 64));
+        for (Entry<Tuple2<String, Long>, byte[]> entry : range.entrySet()) {
+            if (result.size() >= pageSize) {
+                break;
+            }
+            State state = StateCodec.decode(entry.getValue());
+            if (state == null || !matches(state, filter)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            MapDbItem item = new MapDbItem();
+            item.setName(name);
+            item.setState(state);
+            item.setTimestamp(new Date(entry.getKey().b));
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if there is at least one entry of the given item.
+     */
+    public boolean contains(String name) {
+        @Nullable
+        Tuple2<String, Long> key = history.ceilingKey(Fun.t2(name, Long.MIN_VALUE));
+        return key != null && key.a.equals(name);
+    }
+
+    /**
+     * Removes all entries of the given item that are older than the given timestamp. The newest entry of the item is
+     * always kept, so its last state can still be restored.
+     *
+     * @return the number of removed entries
+     */
+    public int purge(String name, long olderThan) {
+        @Nullable
+        Tuple2<String, Long> newest = history.floorKey(Fun.t2(name, Long.MAX_VALUE));
+        if (newest == null || !newest.a.equals(name)) {
+            return 0;
+        }
+        NavigableMap<Tuple2<String, Long>, byte[]> range = history.subMap(Fun.t2(name, Long.MIN_VALUE), true,
+                Fun.t2(name, Math.min(olderThan, newest.b)), false);
+        int count = range.size();
+        range.clear();
+        return count;
+    }
+
+    /**
+     * Removes the entries of all items that are older than the given timestamp, except the newest entry of each item.
+     *
+     * @return the number of removed entries
+     */
+    public int purge(long olderThan) {
+        int count = 0;
+        @Nullable
+        Tuple2<String, Long> key = history.isEmpty() ? null : history.firstKey();
+        while (key != null) {
+            String name = key.a;
+            count += purge(name, olderThan);
+            // continue with the first entry of the next item
+            key = history.higherKey(Fun.t2(name, Long.MAX_VALUE));
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if the state matches the state and operator of the filter.
+     */
+    private static boolean matches(State state, FilterCriteria filter) {
+        State filterState = filter.getState();
+        if (filterState == null) {
+            return true;
+        }
+        Operator operator = filter.getOperator();
+        Integer comparison = compare(state, filterState);
+        switch (operator) {
+            case EQ:
+                return comparison != null ? comparison == 0 : state.equals(filterState);
+            case NEQ:
+                return comparison != null ? comparison != 0 : !state.equals(filterState);
+            case GT:
+                return comparison != null && comparison > 0;
+            case GTE:
+                return comparison != null && comparison >= 0;
+            case LT:
+                return comparison != null && comparison < 0;
+            case LTE:
+                return comparison != null && comparison <= 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Compares numeric states by value, quantities are converted to the unit of the stored state.
+     *
+     * @return the result of the comparison, or null if the states can't be compared
+     */
+    private static @Nullable Integer compare(State state, State filterState) {
+        if (state instanceof DecimalType && filterState instanceof DecimalType) {
+            return ((DecimalType) state).toBigDecimal().compareTo(((DecimalType) filterState).toBigDecimal());
+        }
+        if (state instanceof QuantityType && filterState instanceof QuantityType) {
+            QuantityType<?> quantity = (QuantityType<?>) state;
+            QuantityType<?> converted = ((QuantityType<?>) filterState).toUnit(quantity.getUnit());
+            if (converted != null) {
+                return quantity.toBigDecimal().compareTo(converted.toBigDecimal());
+            }
+        }
+        return null;
+    }
+
+    private NavigableMap<Tuple2<String, Long>, byte[]> range(String name, long begin, long end) {
+        return history.subMap(Fun.t2(name, begin), true, Fun.t2(name, end), true);
+    }
+}
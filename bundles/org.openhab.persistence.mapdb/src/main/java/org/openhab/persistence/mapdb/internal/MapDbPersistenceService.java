@@ -17,9 +17,12 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -37,6 +40,7 @@ import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.mapdb.Serializer;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,7 +57,8 @@ import com.google.gson.GsonBuilder;
  * @author Martin Kühl - Port to Eclipse SmartHome
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
+@Component(service = { PersistenceService.class,
+        QueryablePersistenceService.class }, configurationPid = "org.openhab.mapdb")
 public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String SERVICE_NAME = "mapdb";
@@ -62,25 +67,55 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     private static final String DB_FILE_NAME = "storage.mapdb";
 
+    /** the map of the last values, serialized with {@link StateCodec} */
+    private static final String ITEM_MAP_NAME = "items";
+
+    /** the map of the last values used by earlier versions, serialized as JSON */
+    private static final String LEGACY_ITEM_MAP_NAME = "itemStore";
+
+    private static final String CONFIG_COMMIT_INTERVAL = "commitInterval";
+    private static final String CONFIG_COMMIT_MAX_PENDING = "commitMaxPending";
+
+    private static final String CONFIG_HISTORY_ENABLED = "historyEnabled";
+    private static final String CONFIG_HISTORY_RETENTION_DAYS = "historyRetentionDays";
+    private static final String CONFIG_HISTORY_DOWNSAMPLE_SECONDS = "historyDownsampleSeconds";
+
+    private static final int DEFAULT_COMMIT_INTERVAL = 1000;
+    private static final int DEFAULT_COMMIT_MAX_PENDING = 1000;
+    private static final int DEFAULT_HISTORY_RETENTION_DAYS = 7;
+
+    private static final long PURGE_INTERVAL_MINUTES = 60;
+
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
     @NonNullByDefault({})
-    private ExecutorService threadPool;
+    private ScheduledExecutorService scheduler;
 
     /** holds the local instance of the MapDB database */
     @NonNullByDefault({})
     private DB db;
     @NonNullByDefault({})
-    private Map<String, String> map;
+    private Map<String, byte[]> map;
+
+    @NonNullByDefault({})
+    private MapDbCommitter committer;
+
+    /** only set if the history mode is enabled */
+    private @Nullable MapDbHistory history;
+
+    private int historyRetentionDays = DEFAULT_HISTORY_RETENTION_DAYS;
+
+    private @Nullable ScheduledFuture<?> purgeJob;
 
+    /** only used to read values written by earlier versions */
     private transient Gson mapper = new GsonBuilder()
             .registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
             .create();
 
-    public void activate() {
+    public void activate(Map<String, Object> config) {
         logger.debug("MapDB persistence service is being activated");
 
-        threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
+        scheduler = ThreadPoolManager.getScheduledPool(getClass().getSimpleName());
 
         File folder = new File(DB_FOLDER_NAME);
         if (!folder.exists()) {
@@ -93,16 +128,42 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
         File dbFile = new File(DB_FOLDER_NAME, DB_FILE_NAME);
         db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
-        map = db.createTreeMap("itemStore").makeOrGet();
+        map = db.createTreeMap(ITEM_MAP_NAME).valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        migrateLegacyItems();
+
+        committer = new MapDbCommitter(db, scheduler, getInt(config, CONFIG_COMMIT_INTERVAL, DEFAULT_COMMIT_INTERVAL),
+                getInt(config, CONFIG_COMMIT_MAX_PENDING, DEFAULT_COMMIT_MAX_PENDING));
+
+        if (getBoolean(config, CONFIG_HISTORY_ENABLED, false)) {
+            historyRetentionDays = getInt(config, CONFIG_HISTORY_RETENTION_DAYS, DEFAULT_HISTORY_RETENTION_DAYS);
+            long downsampleMillis = TimeUnit.SECONDS.toMillis(getInt(config, CONFIG_HISTORY_DOWNSAMPLE_SECONDS, 0));
+            history = new MapDbHistory(db, downsampleMillis);
+            if (historyRetentionDays > 0) {
+                purgeJob = scheduler.scheduleWithFixedDelay(this::purgeHistory, 1, PURGE_INTERVAL_MINUTES,
+                        TimeUnit.MINUTES);
+            }
+            logger.debug("MapDB history mode enabled (retention: {} days, downsampling: {} ms)", historyRetentionDays,
+                    downsampleMillis);
+        }
         logger.debug("MapDB persistence service is now activated");
     }
 
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
+        ScheduledFuture<?> job = purgeJob;
+        if (job != null) {
+            job.cancel(false);
+            purgeJob = null;
+        }
+        history = null;
+        if (committer != null) {
+            // no commit must run after the database is closed
+            committer.close();
+            logger.debug("MapDB commit statistics: {}", committer);
+        }
         if (db != null) {
             db.close();
         }
-        threadPool.shutdown();
     }
 
     @Override
@@ -117,8 +178,8 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
-        return map.values().stream()
-                .map(this::deserialize)
+        return map.entrySet().stream()
+                .map(entry -> deserialize(entry.getKey(), entry.getValue()))
                 .flatMap(MapDbPersistenceService::streamOptional)
                 .collect(Collectors.<PersistenceItemInfo>toSet());
     }
@@ -141,34 +202,56 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         logger.debug("store called for {}", alias);
 
         State state = item.getState();
-        MapDbItem mItem = new MapDbItem();
-        mItem.setName(alias);
-        mItem.setState(state);
-        mItem.setTimestamp(new Date());
-        String json = serialize(mItem);
-        map.put(alias, json);
-        commit();
+        Date timestamp = new Date();
+        byte[] value = StateCodec.encode(timestamp.getTime(), state);
+        if (value == null) {
+            return;
+        }
+        map.put(alias, value);
+        MapDbHistory history = this.history;
+        if (history != null) {
+            history.store(alias, state, timestamp);
+        }
+        committer.written();
         logger.debug("Stored '{}' with state '{}' in MapDB database", alias, state.toString());
     }
 
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
+        MapDbHistory history = this.history;
+        String name = filter.getItemName();
+        // Items stored before the history was enabled are answered from their last value
+        if (history != null && name != null && history.contains(name)) {
+            return history.query(name, filter);
+        }
+        if (name == null) {
             return Collections.emptyList();
         }
-        Optional<MapDbItem> item = deserialize(json);
+        byte[] value = map.get(name);
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        Optional<MapDbItem> item = deserialize(name, value);
         if (!item.isPresent()) {
             return Collections.emptyList();
         }
         return Collections.singletonList(item.get());
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
+    private Optional<MapDbItem> deserialize(String name, byte[] value) {
+        State state = StateCodec.decodeTimestamped(value);
+        if (state == null) {
+            logger.warn("Deserialized invalid state for item '{}'", name);
+            return Optional.empty();
+        }
+        MapDbItem item = new MapDbItem();
+        item.setName(name);
+        item.setState(state);
+        item.setTimestamp(new Date(StateCodec.decodeTimestamp(value)));
+        return Optional.of(item);
     }
 
-    private Optional<MapDbItem> deserialize(String json) {
+    private Optional<MapDbItem> deserializeLegacy(String json) {
         MapDbItem item = mapper.<MapDbItem>fromJson(json, MapDbItem.class);
         if (item == null || !item.isValid()) {
             logger.warn("Deserialized invalid item: {}", item);
@@ -177,8 +260,64 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         return Optional.of(item);
     }
 
-    private void commit() {
-        threadPool.submit(() -> db.commit());
+    /**
+     * Converts the JSON serialized values written by earlier versions to the binary format.
+     */
+    private void migrateLegacyItems() {
+        if (!db.exists(LEGACY_ITEM_MAP_NAME)) {
+            return;
+        }
+        Map<String, String> legacyMap = db.getTreeMap(LEGACY_ITEM_MAP_NAME);
+        int migrated = 0;
+        for (Entry<String, String> entry : legacyMap.entrySet()) {
+            Optional<MapDbItem> item = deserializeLegacy(entry.getValue());
+            if (item.isPresent() && !map.containsKey(entry.getKey())) {
+                byte[] value = StateCodec.encode(item.get().getTimestamp().getTime(), item.get().getState());
+                if (value != null) {
+                    map.put(entry.getKey(), value);
+                    migrated++;
+                }
+            }
+        }
+        db.delete(LEGACY_ITEM_MAP_NAME);
+        db.commit();
+        logger.info("Migrated {} items to the binary MapDB storage format", migrated);
+    }
+
+    private void purgeHistory() {
+        MapDbHistory history = this.history;
+        if (history == null) {
+            return;
+        }
+        long olderThan = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(historyRetentionDays);
+        try {
+            // also purges items that are not persisted anymore
+            int removed = history.purge(olderThan);
+            if (removed > 0) {
+                committer.written();
+            }
+            logger.debug("Removed {} history entries older than {} days", removed, historyRetentionDays);
+        } catch (RuntimeException | IllegalAccessError e) {
+            // MapDB throws IllegalAccessError if the database was closed while the purge job was running
+            logger.warn("Failed to purge MapDB history: {}", e.getMessage());
+        }
+    }
+
+    private static boolean getBoolean(Map<String, Object> config, String key, boolean defaultValue) {
+        Object value = config.get(key);
+        return value != null ? Boolean.parseBoolean(value.toString()) : defaultValue;
+    }
+
+    private static int getInt(Map<String, Object> config, String key, int defaultValue) {
+        Object value = config.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
     }
 
     private static <T> Stream<T> streamOptional(Optional<T> opt) {
@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.TypeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A compact binary serializer for Eclipse SmartHome State values.
+ *
+ * The first byte of the encoded value is a type tag. The most common states are written in a binary form, all others
+ * are written as class name and full string representation like the {@link StateTypeAdapter} does.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public final class StateCodec {
+
+    private static final byte TAG_GENERIC = 0;
+    private static final byte TAG_ON = 1;
+    private static final byte TAG_OFF = 2;
+    private static final byte TAG_OPEN = 3;
+    private static final byte TAG_CLOSED = 4;
+    private static final byte TAG_UP = 5;
+    private static final byte TAG_DOWN = 6;
+    private static final byte TAG_DECIMAL = 7;
+    private static final byte TAG_PERCENT = 8;
+    private static final byte TAG_STRING = 9;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StateCodec.class);
+
+    private StateCodec() {
+        // utility class
+    }
+
+    /**
+     * Encodes a state.
+     *
+     * @return the encoded state or null if the state could not be encoded
+     */
+    public static byte @Nullable [] encode(State state) {
+        return encodeValue(null, state);
+    }
+
+    /**
+     * Encodes a state together with its timestamp.
+     *
+     * @return the encoded value or null if the state could not be encoded
+     */
+    public static byte @Nullable [] encode(long timestamp, State state) {
+        return encodeValue(timestamp, state);
+    }
+
+    /**
+     * Decodes a state written by {@link #encode(State)}.
+     *
+     * @return the decoded state or null if the value could not be decoded
+     */
+    public static @Nullable State decode(byte[] value) {
+        return decodeValue(value, 0);
+    }
+
+    /**
+     * Decodes the state of a value written by {@link #encode(long, State)}.
+     *
+     * @return the decoded state or null if the value could not be decoded
+     */
+    public static @Nullable State decodeTimestamped(byte[] value) {
+        return decodeValue(value, Long.BYTES);
+    }
+
+    /**
+     * Returns the timestamp of a value written by {@link #encode(long, State)}.
+     */
+    public static long decodeTimestamp(byte[] value) {
+        long timestamp = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            timestamp = (timestamp << 8) | (value[i] & 0xff);
+        }
+        return timestamp;
+    }
+
+    private static byte @Nullable [] encodeValue(@Nullable Long timestamp, State state) {
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+                DataOutputStream out = new DataOutputStream(bytes)) {
+            if (timestamp != null) {
+                out.writeLong(timestamp);
+            }
+            if (state instanceof OnOffType) {
+                out.writeByte(state == OnOffType.ON ? TAG_ON : TAG_OFF);
+            } else if (state instanceof OpenClosedType) {
+                out.writeByte(state == OpenClosedType.OPEN ? TAG_OPEN : TAG_CLOSED);
+            } else if (state instanceof UpDownType) {
+                out.writeByte(state == UpDownType.UP ? TAG_UP : TAG_DOWN);
+            } else if (state.getClass() == PercentType.class) {
+                out.writeByte(TAG_PERCENT);
+                writeDecimal(out, ((PercentType) state).toBigDecimal());
+            } else if (state.getClass() == DecimalType.class) {
+                out.writeByte(TAG_DECIMAL);
+                writeDecimal(out, ((DecimalType) state).toBigDecimal());
+            } else if (state.getClass() == StringType.class) {
+                out.writeByte(TAG_STRING);
+                writeString(out, state.toFullString());
+            } else {
+                out.writeByte(TAG_GENERIC);
+                writeString(out, state.getClass().getName());
+                writeString(out, state.toFullString());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            LOGGER.warn("Couldn't serialize state '{}': {}", state, e.getMessage());
+            return null;
+        }
+    }
+
+    private static @Nullable State decodeValue(byte[] value, int offset) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(value, offset, value.length - offset))) {
+            byte tag = in.readByte();
+            switch (tag) {
+                case TAG_ON:
+                    return OnOffType.ON;
+                case TAG_OFF:
+                    return OnOffType.OFF;
+                case TAG_OPEN:
+                    return OpenClosedType.OPEN;
+                case TAG_CLOSED:
+                    return OpenClosedType.CLOSED;
+                case TAG_UP:
+                    return UpDownType.UP;
+                case TAG_DOWN:
+                    return UpDownType.DOWN;
+                case TAG_PERCENT:
+                    return new PercentType(readDecimal(in));
+                case TAG_DECIMAL:
+                    return new DecimalType(readDecimal(in));
+                case TAG_STRING:
+                    return new StringType(readString(in));
+                case TAG_GENERIC:
+                    String valueTypeName = readString(in);
+                    String valueAsString = readString(in);
+                    @SuppressWarnings("unchecked")
+                    Class<? extends State> valueType = (Class<? extends State>) Class.forName(valueTypeName);
+                    return TypeParser.parseState(Collections.singletonList(valueType), valueAsString);
+                default:
+                    LOGGER.warn("Couldn't deserialize state: unknown type tag {}", tag);
+                    return null;
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Couldn't deserialize state: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeShort(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedShort()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.openhab.persistence.mapdb.internal.MapDbCommitter;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbCommitterTest {
+    private DB db;
+    private ScheduledThreadPoolExecutor scheduler;
+
+    @Before
+    public void setUp() {
+        db = DBMaker.newMemoryDB().make();
+        scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+        if (!db.isClosed()) {
+            db.close();
+        }
+    }
+
+    @Test
+    public void atMostOneCommitShouldBeScheduled() {
+        MapDbCommitter committer = new MapDbCommitter(db, scheduler, 60000, 1000);
+        for (int i = 0; i < 100; i++) {
+            committer.written();
+        }
+        assertThat(scheduler.getQueue().size(), is(1));
+        assertThat(committer.getPendingWrites(), is(100));
+    }
+
+    @Test
+    public void tooManyPendingWritesShouldBringTheCommitForward() throws InterruptedException {
+        // block the scheduler, so the commits stay queued
+        CountDownLatch blocked = new CountDownLatch(1);
+        scheduler.execute(() -> {
+            blocked.countDown();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        blocked.await();
+        MapDbCommitter committer = new MapDbCommitter(db, scheduler, 60000, 10);
+        for (int i = 0; i < 100; i++) {
+            committer.written();
+        }
+        assertThat(scheduler.getQueue().size(), is(1));
+
+        Thread.sleep(500);
+        assertThat(committer.getCommitCount(), is(1L));
+        assertThat(committer.getCommittedWrites(), is(100L));
+    }
+
+    @Test
+    public void closeShouldCommitAndStopScheduling() {
+        MapDbCommitter committer = new MapDbCommitter(db, scheduler, 60000, 1000);
+        committer.written();
+        committer.close();
+        assertThat(committer.getCommittedWrites(), is(1L));
+        assertThat(scheduler.getQueue().size(), is(0));
+
+        db.close();
+        committer.written();
+        assertThat(scheduler.getQueue().size(), is(0));
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Operator;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.openhab.persistence.mapdb.internal.MapDbHistory;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class MapDbHistoryTest {
+    private DB db;
+
+    @Before
+    public void setUp() {
+        db = DBMaker.newMemoryDB().make();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+    }
+
+    @Test
+    public void queryShouldHonourRangeOrderingAndPaging() {
+        MapDbHistory history = new MapDbHistory(db, 0);
+        for (int i = 1; i <= 10; i++) {
+            history.store("number", new DecimalType(i), new Date(i * 1000L));
+        }
+        history.store("other", new DecimalType(42), new Date(5000L));
+
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("number");
+        filter.setBeginDate(new Date(3000L));
+        filter.setEndDate(new Date(8000L));
+        filter.setOrdering(Ordering.ASCENDING);
+        List<HistoricItem> result = history.query("number", filter);
+        assertThat(result.size(), is(6));
+        assertThat(result.get(0).getState(), is(equalTo(new DecimalType(3))));
+        assertThat(result.get(5).getState(), is(equalTo(new DecimalType(8))));
+
+        filter.setOrdering(Ordering.DESCENDING);
+        filter.setPageSize(2);
+        filter.setPageNumber(1);
+        result = history.query("number", filter);
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0).getState(), is(equalTo(new DecimalType(6))));
+        assertThat(result.get(1).getTimestamp(), is(equalTo(new Date(5000L))));
+    }
+
+    @Test
+    public void downsamplingShouldKeepLastValuePerInterval() {
+        MapDbHistory history = new MapDbHistory(db, 10000L);
+        history.store("number", new DecimalType(1), new Date(10000L));
+        history.store("number", new DecimalType(2), new Date(15000L));
+        history.store("number", new DecimalType(3), new Date(21000L));
+
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("number");
+        filter.setOrdering(Ordering.ASCENDING);
+        List<HistoricItem> result = history.query("number", filter);
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0).getState(), is(equalTo(new DecimalType(2))));
+        assertThat(result.get(1).getState(), is(equalTo(new DecimalType(3))));
+    }
+
+    @Test
+    public void purgeShouldRemoveOldEntriesOnly() {
+        MapDbHistory history = new MapDbHistory(db, 0);
+        for (int i = 1; i <= 5; i++) {
+            history.store("number", new DecimalType(i), new Date(i * 1000L));
+        }
+
+        assertThat(history.purge("number", 3000L), is(2));
+
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("number");
+        assertThat(history.query("number", filter).size(), is(3));
+    }
+
+    @Test
+    public void queryShouldHonourStateFilter() {
+        MapDbHistory history = new MapDbHistory(db, 0);
+        for (int i = 1; i <= 10; i++) {
+            history.store("number", new DecimalType(i), new Date(i * 1000L));
+        }
+
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("number");
+        filter.setOrdering(Ordering.ASCENDING);
+        filter.setState(new DecimalType("7.0"));
+        filter.setOperator(Operator.GTE);
+        List<HistoricItem> result = history.query("number", filter);
+        assertThat(result.size(), is(4));
+        assertThat(result.get(0).getState(), is(equalTo(new DecimalType(7))));
+
+        // paging applies to the matching entries
+        filter.setPageSize(2);
+        filter.setPageNumber(1);
+        result = history.query("number", filter);
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0).getState(), is(equalTo(new DecimalType(9))));
+
+        filter = new FilterCriteria();
+        filter.setItemName("number");
+        filter.setState(new DecimalType(3));
+        filter.setOperator(Operator.EQ);
+        result = history.query("number", filter);
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getTimestamp(), is(equalTo(new Date(3000L))));
+
+        history.store("text", new StringType("on"), new Date(1000L));
+        history.store("text", new StringType("off"), new Date(2000L));
+        filter = new FilterCriteria();
+        filter.setItemName("text");
+        filter.setState(new StringType("off"));
+        filter.setOperator(Operator.NEQ);
+        result = history.query("text", filter);
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getState(), is(equalTo(new StringType("on"))));
+    }
+
+    @Test
+    public void purgeShouldRemoveOldEntriesOfAllItems() {
+        MapDbHistory history = new MapDbHistory(db, 0);
+        for (int i = 1; i <= 5; i++) {
+            history.store("a", new DecimalType(i), new Date(i * 1000L));
+            history.store("b", new DecimalType(i), new Date(i * 1000L));
+            history.store("c", new DecimalType(i), new Date(i * 1000L));
+        }
+
+        assertThat(history.purge(3000L), is(6));
+
+        FilterCriteria filter = new FilterCriteria();
+        for (String name : new String[] { "a", "b", "c" }) {
+            filter.setItemName(name);
+            assertThat(history.query(name, filter).size(), is(3));
+        }
+    }
+
+    @Test
+    public void purgeShouldKeepTheNewestEntry() {
+        MapDbHistory history = new MapDbHistory(db, 0);
+        for (int i = 1; i <= 5; i++) {
+            history.store("number", new DecimalType(i), new Date(i * 1000L));
+        }
+        assertFalse(history.contains("other"));
+
+        assertThat(history.purge(10000L), is(4));
+
+        assertTrue(history.contains("number"));
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("number");
+        List<HistoricItem> result = history.query("number", filter);
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getState(), is(equalTo(new DecimalType(5))));
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.Test;
+import org.openhab.persistence.mapdb.internal.StateCodec;
+
+/**
+ *
+ * @author agent - Initial contribution
+ */
+public class StateCodecTest {
+
+    @Test
+    public void encodeDecodeRoundtripShouldRecreateTheEncodedState() {
+        assertThat(roundtrip(OnOffType.ON), is(equalTo(OnOffType.ON)));
+        assertThat(roundtrip(OnOffType.OFF), is(equalTo(OnOffType.OFF)));
+        assertThat(roundtrip(OpenClosedType.CLOSED), is(equalTo(OpenClosedType.CLOSED)));
+        assertThat(roundtrip(UpDownType.UP), is(equalTo(UpDownType.UP)));
+        assertThat(roundtrip(PercentType.HUNDRED), is(equalTo(PercentType.HUNDRED)));
+        assertThat(roundtrip(new DecimalType("-1234.5678")), is(equalTo(new DecimalType("-1234.5678"))));
+        assertThat(roundtrip(HSBType.GREEN), is(equalTo(HSBType.GREEN)));
+        assertThat(roundtrip(StringType.valueOf("test")), is(equalTo(StringType.valueOf("test"))));
+
+        DateTimeType dateTime = new DateTimeType();
+        assertThat(roundtrip(dateTime), is(equalTo(dateTime)));
+    }
+
+    @Test
+    public void encodeWithTimestampShouldKeepTheTimestamp() {
+        byte[] value = StateCodec.encode(1546300800000L, new DecimalType(42));
+
+        assertThat(StateCodec.decodeTimestamp(value), is(1546300800000L));
+        assertThat(StateCodec.decodeTimestamped(value), is(equalTo(new DecimalType(42))));
+    }
+
+    @Test
+    public void encodedStatesShouldBeSmall() {
+        assertThat(StateCodec.encode(OnOffType.ON).length, is(1));
+        assertThat(StateCodec.encode(new DecimalType(21.5)).length < 16, is(true));
+    }
+
+    private State roundtrip(State state) {
+        return StateCodec.decode(StateCodec.encode(state));
+    }
+}
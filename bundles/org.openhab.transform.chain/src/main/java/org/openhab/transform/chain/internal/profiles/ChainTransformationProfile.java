@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.chain.internal.profiles;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IllegalFormatException;
+import java.util.List;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.thing.profiles.ProfileCallback;
+import org.eclipse.smarthome.core.thing.profiles.ProfileContext;
+import org.eclipse.smarthome.core.thing.profiles.ProfileTypeUID;
+import org.eclipse.smarthome.core.thing.profiles.StateProfile;
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.eclipse.smarthome.core.transform.TransformationService;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Profile to apply a chain of transformations on a ItemChannelLink, i.e.
+ * <code>JSONPATH:$.temperature∩REGEX:(.*)°C∩MAP:temperature.map</code>.
+ *
+ * The chain is parsed once when the link is created and executed as a single pipeline without creating intermediate
+ * states. If the input is unchanged, the result of the previous execution is used, as long as all steps succeeded
+ * and neither a transformation service nor a transformation file used by the chain has changed since.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ChainTransformationProfile implements StateProfile {
+
+    public static final ProfileTypeUID PROFILE_TYPE_UID = new ProfileTypeUID(
+            TransformationService.TRANSFORM_PROFILE_SCOPE, "CHAIN");
+
+    private final Logger logger = LoggerFactory.getLogger(ChainTransformationProfile.class);
+
+    private final Function<String, @Nullable TransformationService> serviceLookup;
+    private final ProfileCallback callback;
+
+    private static final String FUNCTION_PARAM = "function";
+    private static final String SOURCE_FORMAT_PARAM = "sourceFormat";
+
+    private final List<TransformationStep> steps;
+    @NonNullByDefault({})
+    private final String sourceFormat;
+
+    private static final String TRANSFORM_FOLDER = ConfigConstants.getConfigFolder() + File.separator
+            + TransformationService.TRANSFORM_FOLDER_NAME;
+
+    private @Nullable CachedResult lastResult;
+
+    /**
+     * The result of a successful execution of the chain, together with the services and the modification times of
+     * the transformation files that were used.
+     */
+    private static class CachedResult {
+        final String input;
+        final String result;
+        final List<TransformationService> services;
+        final long[] fileVersions;
+
+        CachedResult(String input, String result, List<TransformationService> services, long[] fileVersions) {
+            this.input = input;
+            this.result = result;
+            this.services = services;
+            this.fileVersions = fileVersions;
+        }
+    }
+
+    public ChainTransformationProfile(ProfileCallback callback, ProfileContext context,
+            Function<String, @Nullable TransformationService> serviceLookup) {
+        this.serviceLookup = serviceLookup;
+        this.callback = callback;
+
+        Object paramFunction = context.getConfiguration().get(FUNCTION_PARAM);
+        Object paramSource = context.getConfiguration().get(SOURCE_FORMAT_PARAM);
+
+        logger.debug("Profile configured with '{}'='{}', '{}'={}", FUNCTION_PARAM, paramFunction, SOURCE_FORMAT_PARAM,
+                paramSource);
+        // SOURCE_FORMAT_PARAM is an advanced parameter and we assume "%s" if it is not set
+        if (paramSource == null) {
+            paramSource = "%s";
+        }
+        List<TransformationStep> parsedSteps = Collections.emptyList();
+        String format = null;
+        if (paramFunction instanceof String && paramSource instanceof String) {
+            try {
+                parsedSteps = TransformationStep.parseChain((String) paramFunction);
+                format = (String) paramSource;
+            } catch (IllegalArgumentException e) {
+                logger.error("Invalid transformation chain '{}': {}. Profile will be inactive.", paramFunction,
+                        e.getMessage());
+            }
+        } else {
+            logger.error("Parameter '{}' and '{}' have to be Strings. Profile will be inactive.", FUNCTION_PARAM,
+                    SOURCE_FORMAT_PARAM);
+        }
+        steps = parsedSteps;
+        sourceFormat = format;
+    }
+
+    @Override
+    public ProfileTypeUID getProfileTypeUID() {
+        return PROFILE_TYPE_UID;
+    }
+
+    @Override
+    public void onStateUpdateFromItem(State state) {
+        callback.handleUpdate(state);
+    }
+
+    @Override
+    public void onCommandFromItem(Command command) {
+        callback.handleCommand(command);
+    }
+
+    @Override
+    public void onCommandFromHandler(Command command) {
+        if (steps.isEmpty() || sourceFormat == null) {
+            logger.warn(
+                    "Please specify a transformation chain and a source format for this Profile in the '{}', and '{}' parameters. Returning the original command now.",
+                    FUNCTION_PARAM, SOURCE_FORMAT_PARAM);
+            callback.sendCommand(command);
+            return;
+        }
+        callback.sendCommand((Command) transformState(command));
+    }
+
+    @Override
+    public void onStateUpdateFromHandler(State state) {
+        if (steps.isEmpty() || sourceFormat == null) {
+            logger.warn(
+                    "Please specify a transformation chain and a source format for this Profile in the '{}' and '{}' parameters. Returning the original state now.",
+                    FUNCTION_PARAM, SOURCE_FORMAT_PARAM);
+            callback.sendUpdate(state);
+            return;
+        }
+        callback.sendUpdate((State) transformState(state));
+    }
+
+    private Type transformState(Type state) {
+        String input = state.toFullString();
+        String result;
+        synchronized (this) {
+            CachedResult cached = lastResult;
+            if (cached != null && isValid(cached, input)) {
+                result = cached.result;
+                logger.trace("Input '{}' unchanged, reusing result '{}'", input, result);
+            } else {
+                lastResult = null;
+                result = transform(input);
+            }
+        }
+        StringType resultType = new StringType(result);
+        logger.debug("Transformed '{}' into '{}'", state, resultType);
+        return resultType;
+    }
+
+    /**
+     * Returns true if the cached result belongs to the given input and the services and files of the chain are
+     * unchanged.
+     */
+    private boolean isValid(CachedResult cached, String input) {
+        if (!input.equals(cached.input)) {
+            return false;
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            TransformationStep step = steps.get(i);
+            if (serviceLookup.apply(step.getType()) != cached.services.get(i)
+                    || fileVersion(step) != cached.fileVersions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the modification time of the transformation file of the step, or 0 if the function is no file.
+     */
+    private static long fileVersion(TransformationStep step) {
+        return new File(TRANSFORM_FOLDER, step.getFunction()).lastModified();
+    }
+
+    /**
+     * Applies all steps of the chain. If one of them fails, the input is returned unchanged. Only results of chains
+     * where all steps succeeded are reused for the same input.
+     */
+    String transform(String input) {
+        String value;
+        try {
+            value = String.format(sourceFormat, input);
+        } catch (IllegalFormatException e) {
+            logger.warn("Could not format state '{}' with format '{}'", input, sourceFormat);
+            return input;
+        }
+        List<TransformationService> services = new ArrayList<>(steps.size());
+        long[] fileVersions = new long[steps.size()];
+        for (TransformationStep step : steps) {
+            TransformationService service = serviceLookup.apply(step.getType());
+            if (service == null) {
+                logger.warn("Transformation service of type '{}' is not available, returning the original state",
+                        step.getType());
+                return input;
+            }
+            // Taken before the transformation, so a change during the transformation invalidates the result
+            fileVersions[services.size()] = fileVersion(step);
+            services.add(service);
+            try {
+                String result = service.transform(step.getFunction(), value);
+                if (result == null) {
+                    logger.debug("Transformation '{}' returned no result for '{}', returning the original state", step,
+                            value);
+                    return input;
+                }
+                value = result;
+            } catch (TransformationException e) {
+                logger.warn("Could not transform '{}' with '{}': {}", value, step, e.getMessage());
+                return input;
+            }
+        }
+        synchronized (this) {
+            lastResult = new CachedResult(input, value, services, fileVersions);
+        }
+        return value;
+    }
+}
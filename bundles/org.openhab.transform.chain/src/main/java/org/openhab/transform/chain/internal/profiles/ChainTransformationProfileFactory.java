@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.chain.internal.profiles;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.thing.profiles.Profile;
+import org.eclipse.smarthome.core.thing.profiles.ProfileCallback;
+import org.eclipse.smarthome.core.thing.profiles.ProfileContext;
+import org.eclipse.smarthome.core.thing.profiles.ProfileFactory;
+import org.eclipse.smarthome.core.thing.profiles.ProfileType;
+import org.eclipse.smarthome.core.thing.profiles.ProfileTypeBuilder;
+import org.eclipse.smarthome.core.thing.profiles.ProfileTypeProvider;
+import org.eclipse.smarthome.core.thing.profiles.ProfileTypeUID;
+import org.eclipse.smarthome.core.transform.TransformationService;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+
+/**
+ * Profilefactory that creates the transformation chain profile. It keeps track of all available transformation
+ * services, so the profiles can look up the service of each step of their chain.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+@Component(service = { ProfileFactory.class, ProfileTypeProvider.class })
+public class ChainTransformationProfileFactory implements ProfileFactory, ProfileTypeProvider {
+
+    private static final String TRANSFORM_PROPERTY = "smarthome.transform";
+
+    private final Map<String, TransformationService> services = new ConcurrentHashMap<>();
+
+    @Override
+    public Collection<ProfileType> getProfileTypes(@Nullable Locale locale) {
+        return Arrays.asList(ProfileTypeBuilder.newState(ChainTransformationProfile.PROFILE_TYPE_UID,
+                ChainTransformationProfile.PROFILE_TYPE_UID.getId()).build());
+    }
+
+    @Override
+    public @Nullable Profile createProfile(ProfileTypeUID profileTypeUID, ProfileCallback callback,
+            ProfileContext profileContext) {
+        return new ChainTransformationProfile(callback, profileContext, services::get);
+    }
+
+    @Override
+    public Collection<ProfileTypeUID> getSupportedProfileTypeUIDs() {
+        return Arrays.asList(ChainTransformationProfile.PROFILE_TYPE_UID);
+    }
+
+    @Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)
+    public void addTransformationService(TransformationService service, Map<String, Object> properties) {
+        Object type = properties.get(TRANSFORM_PROPERTY);
+        if (type != null) {
+            services.put(type.toString().toUpperCase(), service);
+        }
+    }
+
+    public void removeTransformationService(TransformationService service, Map<String, Object> properties) {
+        Object type = properties.get(TRANSFORM_PROPERTY);
+        if (type != null) {
+            services.remove(type.toString().toUpperCase(), service);
+        }
+    }
+}
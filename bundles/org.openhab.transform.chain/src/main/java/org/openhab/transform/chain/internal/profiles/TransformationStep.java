@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.chain.internal.profiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * One step of a transformation chain, i.e. the type of the transformation service and the function to apply.
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class TransformationStep {
+
+    /** separates the steps of a chain */
+    public static final String CHAIN_SEPARATOR = "∩";
+
+    private final String type;
+    private final String function;
+
+    public TransformationStep(String type, String function) {
+        this.type = type;
+        this.function = function;
+    }
+
+    /**
+     * Parses a chain of the form <code>TYPE1:function1∩TYPE2:function2∩...</code>.
+     *
+     * @param chain the chain to parse
+     * @return the steps of the chain in the order they have to be applied
+     * @throws IllegalArgumentException if the chain is empty or a step has no type or function
+     */
+    public static List<TransformationStep> parseChain(String chain) {
+        List<TransformationStep> steps = new ArrayList<>();
+        for (String part : chain.split(CHAIN_SEPARATOR)) {
+            if (part.trim().isEmpty()) {
+                continue;
+            }
+            int index = part.indexOf(':');
+            if (index <= 0 || index == part.length() - 1) {
+                throw new IllegalArgumentException(
+                        "The transformation '" + part + "' must have the form TYPE:function, i.e. JSONPATH:$.value");
+            }
+            steps.add(new TransformationStep(part.substring(0, index).trim().toUpperCase(),
+                    part.substring(index + 1)));
+        }
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("The transformation chain must contain at least one transformation");
+        }
+        return Collections.unmodifiableList(steps);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getFunction() {
+        return function;
+    }
+
+    @Override
+    public String toString() {
+        return type + ":" + function;
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.chain.internal.profiles;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.thing.profiles.ProfileCallback;
+import org.eclipse.smarthome.core.thing.profiles.ProfileContext;
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.eclipse.smarthome.core.transform.TransformationService;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class ChainTransformationProfileTest {
+
+    private final Map<String, TransformationService> services = new HashMap<>();
+
+    private ProfileCallback callback;
+    private TransformationService upper;
+    private TransformationService suffix;
+
+    @Before
+    public void setUp() throws TransformationException {
+        callback = mock(ProfileCallback.class);
+        upper = mock(TransformationService.class);
+        when(upper.transform(anyString(), anyString())).thenAnswer(i -> ((String) i.getArgument(1)).toUpperCase());
+        suffix = mock(TransformationService.class);
+        when(suffix.transform(anyString(), anyString()))
+                .thenAnswer(i -> ((String) i.getArgument(1)) + ((String) i.getArgument(0)));
+        services.put("UPPER", upper);
+        services.put("SUFFIX", suffix);
+    }
+
+    private ChainTransformationProfile createProfile(String function) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("function", function);
+        ProfileContext context = mock(ProfileContext.class);
+        when(context.getConfiguration()).thenReturn(new Configuration(properties));
+        return new ChainTransformationProfile(callback, context, services::get);
+    }
+
+    @Test
+    public void testParseChain() {
+        List<TransformationStep> steps = TransformationStep.parseChain("JSONPATH:$.a∩regex:(.*):x∩MAP:a.map");
+        assertEquals(3, steps.size());
+        assertEquals("JSONPATH", steps.get(0).getType());
+        assertEquals("$.a", steps.get(0).getFunction());
+        assertEquals("REGEX", steps.get(1).getType());
+        assertEquals("(.*):x", steps.get(1).getFunction());
+        assertEquals("MAP", steps.get(2).getType());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalidChain() {
+        TransformationStep.parseChain("JSONPATH");
+    }
+
+    @Test
+    public void testChainIsAppliedInOrder() {
+        ChainTransformationProfile profile = createProfile("UPPER:-∩SUFFIX:_x");
+        profile.onStateUpdateFromHandler(new StringType("value"));
+        verify(callback).sendUpdate(new StringType("VALUE_x"));
+    }
+
+    @Test
+    public void testUnchangedInputIsNotTransformedAgain() throws TransformationException {
+        ChainTransformationProfile profile = createProfile("UPPER:-∩SUFFIX:_x");
+        profile.onStateUpdateFromHandler(new StringType("value"));
+        profile.onStateUpdateFromHandler(new StringType("value"));
+        verify(callback, times(2)).sendUpdate(new StringType("VALUE_x"));
+        verify(upper, times(1)).transform(anyString(), anyString());
+
+        profile.onStateUpdateFromHandler(new StringType("other"));
+        verify(callback).sendUpdate(new StringType("OTHER_x"));
+        verify(upper, times(2)).transform(anyString(), anyString());
+    }
+
+    @Test
+    public void testMissingServiceReturnsOriginal() {
+        ChainTransformationProfile profile = createProfile("UPPER:-∩UNKNOWN:foo");
+        profile.onStateUpdateFromHandler(new StringType("value"));
+        verify(callback).sendUpdate(new StringType("value"));
+    }
+
+    @Test
+    public void testFailingStepReturnsOriginal() throws TransformationException {
+        when(suffix.transform(anyString(), anyString())).thenThrow(new TransformationException("failed"));
+        ChainTransformationProfile profile = createProfile("UPPER:-∩SUFFIX:_x");
+        profile.onStateUpdateFromHandler(new StringType("value"));
+        verify(callback).sendUpdate(new StringType("value"));
+    }
+
+    @Test
+    public void testFailedResultIsNotReused() throws TransformationException {
+        when(suffix.transform(anyString(), anyString())).thenThrow(new TransformationException("failed"))
+                .thenAnswer(i -> ((String) i.getArgument(1)) + ((String) i.getArgument(0)));
+        ChainTransformationProfile profile = createProfile("UPPER:-∩SUFFIX:_x");
+        profile.onStateUpdateFromHandler(new StringType("value"));
+        verify(callback).sendUpdate(new StringType("value"));
+
+        profile.onStateUpdateFromHandler(new StringType("value"));
+        verify(callback).sendUpdate(new StringType("VALUE_x"));
+        verify(upper, times(2)).transform(anyString(), anyString());
+    }
+
+    @Test
+    public void testChangedServiceInvalidatesResult() throws TransformationException {
+        ChainTransformationProfile profile = createProfile("UPPER:-∩SUFFIX:_x");
+        profile.onStateUpdateFromHandler(new StringType("value"));
+        verify(callback).sendUpdate(new StringType("VALUE_x"));
+
+        TransformationService lower = mock(TransformationService.class);
+        when(lower.transform(anyString(), anyString())).thenAnswer(i -> ((String) i.getArgument(1)).toLowerCase());
+        services.put("UPPER", lower);
+        profile.onStateUpdateFromHandler(new StringType("value"));
+        verify(callback).sendUpdate(new StringType("value_x"));
+    }
+}
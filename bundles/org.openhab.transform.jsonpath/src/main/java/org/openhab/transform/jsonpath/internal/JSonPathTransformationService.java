@@ -12,7 +12,10 @@
  */
 package org.openhab.transform.jsonpath.internal;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -23,6 +26,7 @@ import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.InvalidJsonException;
 import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
@@ -40,8 +44,26 @@ import com.jayway.jsonpath.PathNotFoundException;
 @Component(immediate = true, property = { "smarthome.transform=JSONPATH" })
 public class JSonPathTransformationService implements TransformationService {
 
+    /** the maximum number of compiled JsonPath expressions kept in memory */
+    private static final int MAX_CACHED_PATHS = 256;
+
+    /** the number of recently parsed JSON sources kept in memory */
+    private static final int MAX_CACHED_DOCUMENTS = 4;
+
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    private final Map<String, JsonPath> pathCache = Collections
+            .synchronizedMap(new LinkedHashMap<String, JsonPath>(MAX_CACHED_PATHS, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, JsonPath> eldest) {
+                    return size() > MAX_CACHED_PATHS;
+                }
+            });
+
+    private final ParsedDocumentCache documentCache = new ParsedDocumentCache(MAX_CACHED_DOCUMENTS);
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -59,7 +81,7 @@ public class JSonPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
+            Object transformationResult = compile(jsonPathExpression).read(parse(source));
             logger.debug("transformation resulted in '{}'", transformationResult);
             if (transformationResult == null) {
                 return null;
@@ -75,6 +97,32 @@ public class JSonPathTransformationService implements TransformationService {
         }
     }
 
+    /**
+     * Returns the compiled JsonPath for the given expression. Compiled expressions are cached, so channels applying
+     * the same expression again and again don't have to parse it each time.
+     */
+    private JsonPath compile(String jsonPathExpression) {
+        JsonPath path = pathCache.get(jsonPathExpression);
+        if (path == null) {
+            path = JsonPath.compile(jsonPathExpression);
+            pathCache.put(jsonPathExpression, path);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the parsed JSON document for the given source. The last few documents are cached, so that several
+     * channels extracting different values from the same message parse it only once.
+     */
+    private Object parse(String source) {
+        Object document = documentCache.get(source);
+        if (document == null) {
+            document = Configuration.defaultConfiguration().jsonProvider().parse(source);
+            documentCache.put(source, document);
+        }
+        return document;
+    }
+
     private String flattenList(List<?> list) {
         if (list.size() == 1) {
             return list.get(0).toString();
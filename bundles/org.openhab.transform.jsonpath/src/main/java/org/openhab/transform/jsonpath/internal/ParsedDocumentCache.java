@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jsonpath.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A small cache of the most recently parsed JSON documents, keyed by their source.
+ *
+ * Only a few entries are kept, as the cache is meant to share the parsed document between the transformations
+ * applied to the same message. Lookups compare by identity first and fall back to the (cached) hash code and
+ * equality of the source.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class ParsedDocumentCache {
+
+    private final @Nullable String[] sources;
+    private final @Nullable Object[] documents;
+    private int next;
+
+    ParsedDocumentCache(int size) {
+        sources = new String[size];
+        documents = new Object[size];
+    }
+
+    public synchronized @Nullable Object get(String source) {
+        for (int i = 0; i < sources.length; i++) {
+            if (sources[i] == source) {
+                return documents[i];
+            }
+        }
+        int hash = source.hashCode();
+        for (int i = 0; i < sources.length; i++) {
+            String cached = sources[i];
+            if (cached != null && cached.hashCode() == hash && cached.equals(source)) {
+                return documents[i];
+            }
+        }
+        return null;
+    }
+
+    public synchronized void put(String source, Object document) {
+        sources[next] = source;
+        documents[next] = document;
+        next = (next + 1) % sources.length;
+    }
+}
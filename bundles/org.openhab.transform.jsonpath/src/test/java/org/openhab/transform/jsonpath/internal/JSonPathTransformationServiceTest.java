@@ -99,4 +99,13 @@ public class JSonPathTransformationServiceTest {
         assertEquals("NULL", transformedResponse);
     }
 
+    @Test
+    public void testCachedDocumentAndPaths() throws TransformationException {
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        assertEquals("2", processor.transform("$[1].id", jsonArray));
+        assertEquals("bob", processor.transform("$[0].name", jsonArray));
+        assertEquals("alice", processor.transform("$[0].name", "[{ \"name\":\"alice\" }]"));
+        assertEquals("bob", processor.transform("$[0].name", new String(jsonArray)));
+    }
+
 }
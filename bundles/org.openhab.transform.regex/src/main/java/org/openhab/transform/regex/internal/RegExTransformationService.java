@@ -12,6 +12,12 @@
  */
 package org.openhab.transform.regex.internal;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -28,7 +34,11 @@ import org.slf4j.LoggerFactory;
  * The implementation of {@link TransformationService} which transforms the input by Regular Expressions.
  *
  * <p>
- * <b>Note:</b> the given Regular Expression must contain exactly one group!
+ * <b>Note:</b> the given Regular Expression must contain exactly one group, unless the groups form
+ * <code>m/&lt;regex&gt;/&lt;separator&gt;/</code> is used!
+ *
+ * <p>
+ * Compiled expressions are kept in a bounded cache, so that the same expression is only compiled once.
  *
  * @author Thomas.Eichstaedt-Engelen
  */
@@ -40,6 +50,24 @@ public class RegExTransformationService implements TransformationService {
 
     private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
 
+    private static final Pattern GROUPS_PATTERN = Pattern.compile("^m/(.*?[^\\\\])/(.*?)/$");
+
+    /** the maximum number of compiled expressions kept in memory */
+    private static final int MAX_CACHED_EXPRESSIONS = 256;
+
+    private final Map<String, CompiledRegEx> cache = Collections
+            .synchronizedMap(new LinkedHashMap<String, CompiledRegEx>(MAX_CACHED_EXPRESSIONS, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompiledRegEx> eldest) {
+                    return size() > MAX_CACHED_EXPRESSIONS;
+                }
+            });
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
     @Override
     public @Nullable String transform(String regExpression, String source) throws TransformationException {
         if (regExpression == null || source == null) {
@@ -48,25 +76,25 @@ public class RegExTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, regExpression);
 
-        String result = "";
+        CompiledRegEx compiled = compile(regExpression);
 
-        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
-        if (substMatcher.matches()) {
+        String substitution = compiled.substitution;
+        if (substitution != null) {
             logger.debug("Using substitution form of regex transformation");
-            String regex = substMatcher.group(1);
-            String substitution = substMatcher.group(2);
-            String options = substMatcher.group(3);
-            if (options.equals("g")) {
-                result = source.trim().replaceAll(regex, substitution);
-            } else {
-                result = source.trim().replaceFirst(regex, substitution);
-            }
-            if (result != null) {
-                return result;
-            }
+            Matcher substMatcher = compiled.pattern.matcher(source.trim());
+            return compiled.global ? substMatcher.replaceAll(substitution) : substMatcher.replaceFirst(substitution);
+        }
+
+        String separator = compiled.separator;
+        if (separator != null) {
+            logger.debug("Using groups form of regex transformation");
+            List<String> groups = extractGroups(compiled.pattern, source);
+            return groups == null ? null : String.join(separator, groups);
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        String result = "";
+
+        Matcher matcher = compiled.pattern.matcher(source.trim());
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
@@ -95,4 +123,92 @@ public class RegExTransformationService implements TransformationService {
         return result;
     }
 
+    /**
+     * Returns the number of transformations which could use an already compiled expression.
+     */
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    /**
+     * Returns the number of transformations which had to compile their expression.
+     */
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    private @Nullable List<String> extractGroups(Pattern pattern, String source) {
+        Matcher matcher = pattern.matcher(source.trim());
+        if (!matcher.matches()) {
+            logger.debug("the given regex '{}' doesn't match the given content '{}' -> couldn't compute transformation",
+                    pattern, source);
+            return null;
+        }
+        List<String> groups = new ArrayList<>(matcher.groupCount());
+        for (int i = 1; i <= matcher.groupCount(); i++) {
+            String group = matcher.group(i);
+            groups.add(group == null ? "" : group);
+        }
+        return groups;
+    }
+
+    private CompiledRegEx compile(String regExpression) throws TransformationException {
+        CompiledRegEx compiled = getCached(regExpression);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
+        Matcher groupsMatcher = GROUPS_PATTERN.matcher(regExpression);
+        if (substMatcher.matches()) {
+            compiled = new CompiledRegEx(compilePattern(substMatcher.group(1), 0), substMatcher.group(2),
+                    substMatcher.group(3).equals("g"), null);
+        } else if (groupsMatcher.matches()) {
+            compiled = new CompiledRegEx(compilePattern("^" + groupsMatcher.group(1) + "$", Pattern.DOTALL), null,
+                    false, groupsMatcher.group(2));
+        } else {
+            compiled = new CompiledRegEx(compilePattern("^" + regExpression + "$", Pattern.DOTALL), null, false, null);
+        }
+        cache.put(regExpression, compiled);
+        return compiled;
+    }
+
+    private @Nullable CompiledRegEx getCached(String key) {
+        CompiledRegEx compiled = cache.get(key);
+        if (compiled != null) {
+            cacheHits.incrementAndGet();
+        } else {
+            cacheMisses.incrementAndGet();
+            logger.trace("compiling regex '{}' (cache hits: {}, misses: {})", key, cacheHits.get(), cacheMisses.get());
+        }
+        return compiled;
+    }
+
+    private Pattern compilePattern(String regex, int flags) throws TransformationException {
+        try {
+            return Pattern.compile(regex, flags);
+        } catch (IllegalArgumentException e) {
+            throw new TransformationException("the given regex '" + regex + "' is invalid", e);
+        }
+    }
+
+    /**
+     * A regular expression compiled for one of the supported forms.
+     */
+    private static class CompiledRegEx {
+        final Pattern pattern;
+        /** only set for the substitution form */
+        final @Nullable String substitution;
+        final boolean global;
+        /** only set for the groups form */
+        final @Nullable String separator;
+
+        CompiledRegEx(Pattern pattern, @Nullable String substitution, boolean global, @Nullable String separator) {
+            this.pattern = pattern;
+            this.substitution = substitution;
+            this.global = global;
+            this.separator = separator;
+        }
+    }
+
 }
@@ -12,7 +12,7 @@
  */
 package org.openhab.transform.regex.internal;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
@@ -79,4 +79,37 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_groups() throws TransformationException {
+        // method under test
+        String transformedResponse = processor.transform("m/T=([0-9.]+);H=([0-9.]+);P=([0-9.]+)/,/",
+                "T=21.5;H=48;P=1013.2");
+
+        // Asserts
+        assertEquals("21.5,48,1013.2", transformedResponse);
+    }
+
+    @Test
+    public void testTransformByRegex_groupsWithoutMatch() throws TransformationException {
+        // groups which didn't participate in the match are empty
+        assertEquals("SetMode,", processor.transform("m/OP:(\\w+),ARG:(\\d+)?/,/", "OP:SetMode,ARG:"));
+        assertNull(processor.transform("m/OP:(\\w+)/,/", "no match"));
+    }
+
+    @Test
+    public void testCompiledExpressionsAreCached() throws TransformationException {
+        processor.transform("s/work/cast/g", "My network does not work.");
+        processor.transform("s/work/cast/g", "My network does not work.");
+        processor.transform(".*(\\snot).*", "My network does not work.");
+
+        // Asserts
+        assertEquals(1, processor.getCacheHits());
+        assertEquals(2, processor.getCacheMisses());
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testTransformByRegex_invalid() throws TransformationException {
+        processor.transform("(unclosed", "source");
+    }
 }
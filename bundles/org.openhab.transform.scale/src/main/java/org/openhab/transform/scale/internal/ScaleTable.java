@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The pre-parsed content of a scale file.
+ *
+ * If the ranges of the file don't overlap, they are sorted by their lower bound and a value is looked up by binary
+ * search. Otherwise the result depends on the order of the ranges in the file, so they are checked one after the other
+ * in this order.
+ *
+ * @author agent - Initial contribution
+ */
+public class ScaleTable {
+
+    private static final Comparator<Range> LOWER_BOUND_ORDER = (a, b) -> {
+        if (a.min == null || b.min == null) {
+            return a.min == b.min ? 0 : a.min == null ? -1 : 1;
+        }
+        int cmp = a.min.compareTo(b.min);
+        if (cmp == 0 && a.minInclusive != b.minInclusive) {
+            return a.minInclusive ? -1 : 1;
+        }
+        return cmp;
+    };
+
+    private final Range[] ranges;
+    private final String[] values;
+    private final boolean sorted;
+
+    /**
+     * @param data the ranges and their values in the order of the file
+     */
+    public ScaleTable(Map<Range, String> data) {
+        List<Range> ordered = new ArrayList<>(data.keySet());
+        List<Range> byLowerBound = new ArrayList<>(ordered);
+        byLowerBound.sort(LOWER_BOUND_ORDER);
+
+        sorted = !overlapping(byLowerBound);
+        List<Range> used = sorted ? byLowerBound : ordered;
+
+        ranges = used.toArray(new Range[used.size()]);
+        values = new String[ranges.length];
+        for (int i = 0; i < ranges.length; i++) {
+            values[i] = data.get(ranges[i]);
+        }
+    }
+
+    /**
+     * Returns the value of the first range containing the given value, or null if no range contains it.
+     */
+    public String lookup(BigDecimal value) {
+        if (!sorted) {
+            for (int i = 0; i < ranges.length; i++) {
+                if (ranges[i].contains(value)) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        // index of the last range with a lower bound less or equal than the value
+        int low = 0;
+        int high = ranges.length - 1;
+        int candidate = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            BigDecimal min = ranges[mid].min;
+            if (min == null || min.compareTo(value) <= 0) {
+                candidate = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // the value may equal an exclusive lower bound, in this case it can only be part of the previous range
+        for (int i = candidate; i >= 0 && i >= candidate - 1; i--) {
+            if (ranges[i].contains(value)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of ranges.
+     */
+    public int size() {
+        return ranges.length;
+    }
+
+    /**
+     * Returns whether values are looked up by binary search.
+     */
+    boolean isSorted() {
+        return sorted;
+    }
+
+    private static boolean overlapping(List<Range> byLowerBound) {
+        for (int i = 1; i < byLowerBound.size(); i++) {
+            Range previous = byLowerBound.get(i - 1);
+            Range next = byLowerBound.get(i);
+            if (previous.max == null || next.min == null) {
+                return true;
+            }
+            int cmp = previous.max.compareTo(next.min);
+            if (cmp > 0 || (cmp == 0 && previous.maxInclusive && next.minInclusive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
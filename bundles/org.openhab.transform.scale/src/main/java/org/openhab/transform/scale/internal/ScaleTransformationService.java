@@ -42,7 +42,7 @@ import org.slf4j.LoggerFactory;
  * @author Markus Rathgeb - drop usage of Guava
  */
 @Component(immediate = true, service = TransformationService.class, property = { "smarthome.transform=SCALE" })
-public class ScaleTransformationService extends AbstractFileTransformationService<Map<Range, String>> {
+public class ScaleTransformationService extends AbstractFileTransformationService<ScaleTable> {
 
     private final Logger logger = LoggerFactory.getLogger(ScaleTransformationService.class);
 
@@ -85,12 +85,12 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
      * The method transforms the input <code>source</code> by matching searching
      * the range where it fits i.e. [min..max]=value or ]min..max]=value
      *
-     * @param properties the list of properties defining all the available ranges
-     * @param source     the input to transform
+     * @param data   the pre-parsed scale file defining all the available ranges
+     * @param source the input to transform
      *
      */
     @Override
-    protected String internalTransform(Map<Range, String> data, String source) throws TransformationException {
+    protected String internalTransform(ScaleTable data, String source) throws TransformationException {
         try {
             final BigDecimal value = new BigDecimal(source);
 
@@ -106,15 +106,20 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
         }
     }
 
-    private String getScaleResult(Map<Range, String> data, String source, final BigDecimal value)
+    private String getScaleResult(ScaleTable data, String source, final BigDecimal value)
             throws TransformationException {
-        return data.entrySet().stream().filter(entry -> entry.getKey().contains(value)).findFirst()
-                .map(Map.Entry::getValue)
-                .orElseThrow(() -> new TransformationException("No matching range for '" + source + "'"));
+        final String result = data.lookup(value);
+        if (result == null) {
+            throw new TransformationException("No matching range for '" + source + "'");
+        }
+        return result;
     }
 
+    /**
+     * Parses the scale file once, the base class caches the result until the file is changed.
+     */
     @Override
-    protected Map<Range, String> internalLoadTransform(String filename) throws TransformationException {
+    protected ScaleTable internalLoadTransform(String filename) throws TransformationException {
         try (FileReader reader = new FileReader(filename)) {
             final Map<Range, String> data = new LinkedHashMap<>();
             final OrderedProperties properties = new OrderedProperties();
@@ -146,7 +151,7 @@ public class ScaleTransformationService extends AbstractFileTransformationServic
                 }
             }
 
-            return data;
+            return new ScaleTable(data);
         } catch (final IOException ex) {
             throw new TransformationException("An error occurred while opening file.", ex);
         }
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author agent - Initial contribution
+ */
+public class ScaleTableTest {
+
+    @Test
+    public void testLookupInDisjointRanges() {
+        Map<Range, String> data = new LinkedHashMap<>();
+        data.put(Range.range(new BigDecimal(8), false, new BigDecimal(10), true), "4");
+        data.put(Range.atMost(new BigDecimal(3)), "1");
+        data.put(Range.openClosed(new BigDecimal(3), new BigDecimal(6)), "2");
+        data.put(Range.openClosed(new BigDecimal(6), new BigDecimal(8)), "3");
+        data.put(Range.greaterThan(new BigDecimal(10)), "5");
+
+        ScaleTable table = new ScaleTable(data);
+
+        Assert.assertTrue(table.isSorted());
+        Assert.assertEquals("1", table.lookup(new BigDecimal(-100)));
+        Assert.assertEquals("1", table.lookup(new BigDecimal(3)));
+        Assert.assertEquals("2", table.lookup(new BigDecimal("3.01")));
+        Assert.assertEquals("2", table.lookup(new BigDecimal(6)));
+        Assert.assertEquals("3", table.lookup(new BigDecimal(7)));
+        Assert.assertEquals("4", table.lookup(new BigDecimal(10)));
+        Assert.assertEquals("5", table.lookup(new BigDecimal(500)));
+    }
+
+    @Test
+    public void testLookupWithGaps() {
+        Map<Range, String> data = new LinkedHashMap<>();
+        data.put(Range.closed(new BigDecimal(0), new BigDecimal(10)), "low");
+        data.put(Range.closedOpen(new BigDecimal(20), new BigDecimal(30)), "high");
+
+        ScaleTable table = new ScaleTable(data);
+
+        Assert.assertTrue(table.isSorted());
+        Assert.assertNull(table.lookup(new BigDecimal(-1)));
+        Assert.assertNull(table.lookup(new BigDecimal(15)));
+        Assert.assertEquals("high", table.lookup(new BigDecimal(20)));
+        Assert.assertNull(table.lookup(new BigDecimal(30)));
+    }
+
+    @Test
+    public void testLookupInOverlappingRangesKeepsFileOrder() {
+        Map<Range, String> data = new LinkedHashMap<>();
+        data.put(Range.closed(new BigDecimal(10), new BigDecimal(20)), "first");
+        data.put(Range.closed(new BigDecimal(0), new BigDecimal(15)), "second");
+
+        ScaleTable table = new ScaleTable(data);
+
+        Assert.assertFalse(table.isSorted());
+        Assert.assertEquals("first", table.lookup(new BigDecimal(12)));
+        Assert.assertEquals("second", table.lookup(new BigDecimal(5)));
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import java.io.StringReader;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A streaming evaluator for simple XPath expressions of the form <code>/a/b/c</code> or <code>/a/b/@attr</code>.
+ *
+ * The source is read with StAX until the first matching node is found, so no DOM is built. Only element names
+ * without namespace are supported, like an XPath name test without prefix does. Other expressions must be evaluated
+ * with the regular XPath implementation.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class StreamingXPath {
+
+    private static final Pattern SIMPLE_PATH = Pattern
+            .compile("^(/[A-Za-z_][A-Za-z0-9_.\\-]*)+(/@[A-Za-z_][A-Za-z0-9_.\\-]*)?$");
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private final String[] steps;
+    private final @Nullable String attribute;
+
+    private StreamingXPath(String[] steps, @Nullable String attribute) {
+        this.steps = steps;
+        this.attribute = attribute;
+    }
+
+    /**
+     * Returns a streaming evaluator for the given expression, or null if the expression is not simple enough.
+     */
+    static @Nullable StreamingXPath compile(String xpathExpression) {
+        if (!SIMPLE_PATH.matcher(xpathExpression).matches()) {
+            return null;
+        }
+        String[] parts = xpathExpression.substring(1).split("/");
+        String attribute = null;
+        int stepCount = parts.length;
+        if (parts[parts.length - 1].startsWith("@")) {
+            attribute = parts[parts.length - 1].substring(1);
+            stepCount--;
+        }
+        String[] steps = new String[stepCount];
+        System.arraycopy(parts, 0, steps, 0, stepCount);
+        return new StreamingXPath(steps, attribute);
+    }
+
+    /**
+     * Evaluates the expression like {@link javax.xml.xpath.XPathConstants#STRING} does.
+     *
+     * @return the string value of the first matching node, an empty string if there is none, or null if the document
+     *         can't be handled by this evaluator (i.e. it contains a DTD)
+     * @throws XMLStreamException if the source is not well-formed
+     */
+    @Nullable
+    String evaluate(String source) throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(new StringReader(source));
+        try {
+            // depth of the current element and number of leading steps matched by its ancestors and itself
+            int depth = 0;
+            int matched = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.DTD:
+                        return null;
+                    case XMLStreamConstants.START_ELEMENT:
+                        depth++;
+                        if (matched == depth - 1 && matches(reader, steps[matched])) {
+                            matched++;
+                            if (matched == steps.length) {
+                                String result = valueOf(reader);
+                                if (result != null) {
+                                    return result;
+                                }
+                                // continue after the matching element, as it has no such attribute
+                                depth--;
+                                matched--;
+                            }
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (matched == depth) {
+                            matched--;
+                        }
+                        depth--;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return "";
+        } finally {
+            reader.close();
+        }
+    }
+
+    private boolean matches(XMLStreamReader reader, String step) {
+        String namespace = reader.getNamespaceURI();
+        return step.equals(reader.getLocalName()) && (namespace == null || namespace.isEmpty());
+    }
+
+    /**
+     * Returns the string value of the matching element at the current position, or null if it doesn't have the
+     * requested attribute. If the attribute is missing, the reader is positioned at the end of the element.
+     */
+    private @Nullable String valueOf(XMLStreamReader reader) throws XMLStreamException {
+        String attribute = this.attribute;
+        if (attribute != null) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String namespace = reader.getAttributeNamespace(i);
+                if (attribute.equals(reader.getAttributeLocalName(i)) && (namespace == null || namespace.isEmpty())) {
+                    return reader.getAttributeValue(i);
+                }
+            }
+            skipElement(reader);
+            return null;
+        }
+
+        StringBuilder text = new StringBuilder();
+        int level = 1;
+        while (level > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    level++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    level--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(reader.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return text.toString();
+    }
+
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int level = 1;
+        while (level > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                level++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                level--;
+            }
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+}
@@ -13,12 +13,17 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -35,14 +40,42 @@ import org.xml.sax.InputSource;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XPath Expressions.
  *
+ * <p>
+ * Compiled expressions are cached. Simple absolute paths like <code>/a/b/c</code> or <code>/a/b/@attr</code> are
+ * evaluated by streaming through the source instead of building a DOM.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
 @Component(immediate = true, property = { "smarthome.transform=XPATH" })
 public class XPathTransformationService implements TransformationService {
 
+    /** the maximum number of compiled expressions kept in memory */
+    private static final int MAX_CACHED_EXPRESSIONS = 256;
+
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    private final Map<String, CompiledXPath> cache = Collections
+            .synchronizedMap(new LinkedHashMap<String, CompiledXPath>(MAX_CACHED_EXPRESSIONS, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompiledXPath> eldest) {
+                    return size() > MAX_CACHED_EXPRESSIONS;
+                }
+            });
+
+    private final ThreadLocal<DocumentBuilder> documentBuilder = ThreadLocal.withInitial(() -> {
+        DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+        domFactory.setNamespaceAware(true);
+        domFactory.setValidating(false);
+        try {
+            return domFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -51,34 +84,66 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-        StringReader stringReader = null;
-
-        try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
+        CompiledXPath compiled = compile(xpathExpression);
+
+        StreamingXPath streaming = compiled.streaming;
+        if (streaming != null) {
+            try {
+                String transformationResult = streaming.evaluate(source);
+                if (transformationResult != null) {
+                    logger.debug("transformation resulted in '{}'", transformationResult);
+                    return transformationResult;
+                }
+            } catch (XMLStreamException e) {
+                logger.trace("streaming evaluation of '{}' failed, falling back to DOM: {}", xpathExpression,
+                        e.getMessage());
+            }
+        }
 
-            stringReader = new StringReader(source);
+        try (StringReader stringReader = new StringReader(source)) {
             InputSource inputSource = new InputSource(stringReader);
             inputSource.setEncoding("UTF-8");
 
+            DocumentBuilder builder = documentBuilder.get();
+            builder.reset();
             Document doc = builder.parse(inputSource);
 
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
-
-            String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+            String transformationResult;
+            // compiled expressions are not thread-safe
+            synchronized (compiled.expression) {
+                transformationResult = (String) compiled.expression.evaluate(doc, XPathConstants.STRING);
+            }
 
             logger.debug("transformation resulted in '{}'", transformationResult);
 
             return transformationResult;
         } catch (Exception e) {
             throw new TransformationException("transformation throws exceptions", e);
-        } finally {
-            if (stringReader != null) {
-                stringReader.close();
+        }
+    }
+
+    private CompiledXPath compile(String xpathExpression) throws TransformationException {
+        CompiledXPath compiled = cache.get(xpathExpression);
+        if (compiled == null) {
+            try {
+                XPathExpression expression = XPathFactory.newInstance().newXPath().compile(xpathExpression);
+                compiled = new CompiledXPath(expression, StreamingXPath.compile(xpathExpression));
+            } catch (XPathExpressionException e) {
+                throw new TransformationException("transformation throws exceptions", e);
             }
+            cache.put(xpathExpression, compiled);
+        }
+        return compiled;
+    }
+
+    private static class CompiledXPath {
+        final XPathExpression expression;
+        /** only set if the expression can be evaluated by streaming */
+        final @Nullable StreamingXPath streaming;
+
+        CompiledXPath(XPathExpression expression, @Nullable StreamingXPath streaming) {
+            this.expression = expression;
+            this.streaming = streaming;
         }
     }
 
@@ -41,4 +41,37 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         assertEquals("8", transformedResponse);
     }
 
+    @Test
+    public void testTransformBySimplePath() throws TransformationException {
+        // method under test
+        String transformedResponse = processor.transform("/xml_api_reply/weather/current_conditions/temp_c/@data",
+                source);
+
+        // Asserts
+        assertEquals("8", transformedResponse);
+    }
+
+    @Test
+    public void testTransformBySimplePath_elementText() throws TransformationException {
+        String xml = "<PTZStatus><AbsoluteHigh><elevation>0</elevation><azimuth>450</azimuth></AbsoluteHigh></PTZStatus>";
+
+        // Asserts
+        assertEquals("450", processor.transform("/PTZStatus/AbsoluteHigh/azimuth", xml));
+        assertEquals("", processor.transform("/PTZStatus/AbsoluteLow/azimuth", xml));
+    }
+
+    @Test
+    public void testTransformBySimplePath_namespace() throws TransformationException {
+        String xml = "<PTZStatus xmlns=\"http://www.hikvision.com/ver20/XMLSchema\"><azimuth>450</azimuth></PTZStatus>";
+
+        // a name test without prefix doesn't match elements in the default namespace
+        assertEquals("", processor.transform("/PTZStatus/azimuth", xml));
+        assertEquals("450", processor.transform("/*[local-name()='PTZStatus']/*[local-name()='azimuth']", xml));
+    }
+
+    @Test(expected = TransformationException.class)
+    public void testTransformBySimplePath_invalidXml() throws TransformationException {
+        processor.transform("/PTZStatus/azimuth", "<PTZStatus><azimuth>");
+    }
+
 }
@@ -15,9 +15,11 @@ package org.openhab.transform.xslt.internal;
 import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import javax.xml.transform.Source;
-import javax.xml.transform.Transformer;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
@@ -35,6 +37,9 @@ import org.slf4j.LoggerFactory;
  * <p>
  * The implementation of {@link TransformationService} which transforms the input by XSLT.
  *
+ * <p>
+ * Stylesheets are compiled once into {@link Templates} and cached until the file in the transform folder changes.
+ *
  * @author Thomas.Eichstaedt-Engelen
  */
 @NonNullByDefault
@@ -43,6 +48,8 @@ public class XsltTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(XsltTransformationService.class);
 
+    private final Map<String, CachedTemplates> cache = new ConcurrentHashMap<>();
+
     /**
      * Transforms the input <code>source</code> by XSLT.
      *
@@ -60,29 +67,17 @@ public class XsltTransformationService implements TransformationService {
             throw new TransformationException("the given parameters 'filename' and 'source' must not be null");
         }
 
-        Source xsl = null;
+        String path = ConfigConstants.getConfigFolder() + File.separator + TransformationService.TRANSFORM_FOLDER_NAME
+                + File.separator + filename;
+        Templates templates = getTemplates(new File(path));
 
-        try {
-            String path = ConfigConstants.getConfigFolder() + File.separator
-                    + TransformationService.TRANSFORM_FOLDER_NAME + File.separator + filename;
-            xsl = new StreamSource(new File(path));
-        } catch (Exception e) {
-            String message = "opening file '" + filename + "' throws exception";
-
-            logger.error("{}", message, e);
-            throw new TransformationException(message, e);
-        }
-
-        logger.debug("about to transform '{}' by the function '{}'", source, xsl);
+        logger.debug("about to transform '{}' by the function '{}'", source, path);
 
         StringReader xml = new StringReader(source);
         StringWriter out = new StringWriter();
 
-        Transformer transformer;
-
         try {
-            transformer = TransformerFactory.newInstance().newTransformer(xsl);
-            transformer.transform(new StreamSource(xml), new StreamResult(out));
+            templates.newTransformer().transform(new StreamSource(xml), new StreamResult(out));
         } catch (Exception e) {
             logger.error("transformation throws exception", e);
             throw new TransformationException("transformation throws exception", e);
@@ -93,4 +88,44 @@ public class XsltTransformationService implements TransformationService {
         return out.toString();
     }
 
+    /**
+     * Returns the compiled stylesheet of the given file. The file is compiled again if it has been modified since it
+     * was cached.
+     */
+    private Templates getTemplates(File file) throws TransformationException {
+        String key = file.getPath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+
+        CachedTemplates cached = cache.get(key);
+        if (cached != null && cached.lastModified == lastModified && cached.length == length) {
+            return cached.templates;
+        }
+
+        try {
+            Templates templates = TransformerFactory.newInstance().newTemplates(new StreamSource(file));
+            cache.put(key, new CachedTemplates(templates, lastModified, length));
+            logger.debug("compiled stylesheet '{}'", key);
+            return templates;
+        } catch (TransformerConfigurationException e) {
+            cache.remove(key);
+            String message = "opening file '" + file + "' throws exception";
+
+            logger.error("{}", message, e);
+            throw new TransformationException(message, e);
+        }
+    }
+
+    private static class CachedTemplates {
+        final Templates templates;
+        final long lastModified;
+        final long length;
+
+        CachedTemplates(Templates templates, long lastModified, long length) {
+            this.templates = templates;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+    }
+
 }
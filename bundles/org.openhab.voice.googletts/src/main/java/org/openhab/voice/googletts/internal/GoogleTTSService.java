@@ -14,25 +14,24 @@ package org.openhab.voice.googletts.internal;
 
 import static org.openhab.voice.googletts.internal.GoogleTTSService.*;
 
-import java.io.File;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
-import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.core.ConfigurableService;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
-import org.eclipse.smarthome.core.audio.ByteArrayAudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
 import org.openhab.voice.googletts.internal.protocol.AudioEncoding;
+import org.openhab.voice.ttscache.TTSCache;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -66,11 +65,6 @@ public class GoogleTTSService implements TTSService {
      */
     static final String SERVICE_PID = "org.openhab." + SERVICE_CATEGORY + "." + SERVICE_ID;
 
-    /**
-     * Cache folder under $userdata
-     */
-    private static final String CACHE_FOLDER_NAME = "cache";
-
     /**
      * Configuration parameters
      */
@@ -105,20 +99,26 @@ public class GoogleTTSService implements TTSService {
      */
     private GoogleTTSConfig config = new GoogleTTSConfig();
 
+    /**
+     * Cache of the synthesized audio
+     */
+    private TTSCache ttsCache;
+
+    @Reference
+    protected void setTTSCache(TTSCache ttsCache) {
+        this.ttsCache = ttsCache;
+    }
+
+    protected void unsetTTSCache(TTSCache ttsCache) {
+        this.ttsCache = null;
+    }
+
     /**
      * DS activate, with access to ConfigAdmin
      */
     @Activate
     protected void activate(Map<String, Object> config) {
-        // create cache folder
-        File userData = new File(ConfigConstants.getUserDataFolder());
-        File cacheFolder = new File(new File(userData, CACHE_FOLDER_NAME), SERVICE_PID);
-        if (!cacheFolder.exists()) {
-            cacheFolder.mkdirs();
-        }
-        logger.info("Using cache folder {}", cacheFolder.getAbsolutePath());
-
-        apiImpl = new GoogleCloudAPI(cacheFolder);
+        apiImpl = new GoogleCloudAPI();
         updateConfig(config);
     }
 
@@ -211,6 +211,12 @@ public class GoogleTTSService implements TTSService {
             }
             logger.trace("New configuration: {}", config.toString());
 
+            // maintain cache
+            if (config.getPurgeCache() != null && config.getPurgeCache()) {
+                ttsCache.purge(this);
+                logger.debug("Cache purged.");
+            }
+
             if (config.getServiceAccountKey() != null) {
                 apiImpl.setConfig(config);
                 if (apiImpl.isInitialized()) {
@@ -307,10 +313,12 @@ public class GoogleTTSService implements TTSService {
         }
 
         // create the audio byte array for given text, locale, format
-        byte[] audio = apiImpl.synthesizeSpeech(trimmedText, (GoogleTTSVoice) voice, requestedFormat.getCodec());
-        if (audio == null) {
-            throw new TTSException("Could not read from Google Cloud TTS Service");
-        }
-        return new ByteArrayAudioStream(audio, requestedFormat);
+        return ttsCache.get(this, trimmedText, voice, requestedFormat, config.toConfigString(), () -> {
+            byte[] audio = apiImpl.synthesizeSpeech(trimmedText, (GoogleTTSVoice) voice, requestedFormat.getCodec());
+            if (audio == null) {
+                throw new TTSException("Could not read from Google Cloud TTS Service");
+            }
+            return audio;
+        });
     }
 }
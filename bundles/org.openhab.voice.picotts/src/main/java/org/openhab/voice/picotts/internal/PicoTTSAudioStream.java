@@ -117,6 +117,17 @@ class PicoTTSAudioStream extends FixedLengthAudioStream {
         return length;
     }
 
+    /**
+     * Closes the stream and deletes the temporary audio file.
+     */
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+        if (file != null) {
+            file.delete();
+        }
+    }
+
     @Override
     public InputStream getClonedStream() throws AudioException {
         if (file != null) {
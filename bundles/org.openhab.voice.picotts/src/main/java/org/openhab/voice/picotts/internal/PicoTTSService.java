@@ -12,25 +12,51 @@
  */
 package org.openhab.voice.picotts.internal;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apache.commons.io.IOUtils;
+import org.eclipse.smarthome.config.core.ConfigurableService;
 import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.voice.ttscache.TTSCache;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * @author Florian Schmidt - Initial Contribution
  */
-@Component
+@Component(configurationPid = PicoTTSService.SERVICE_PID, property = {
+        Constants.SERVICE_PID + "=" + PicoTTSService.SERVICE_PID,
+        ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=voice:picotts",
+        ConfigurableService.SERVICE_PROPERTY_LABEL + "=Pico Text-to-Speech",
+        ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=voice" })
 public class PicoTTSService implements TTSService {
+    static final String SERVICE_PID = "org.openhab.voice.picotts";
+
+    private static final String CONFIG_PHRASES = "phrases";
+
+    private final Logger logger = LoggerFactory.getLogger(PicoTTSService.class);
+
     private final Set<Voice> voices = Stream
             .of(new PicoTTSVoice("de-DE"), new PicoTTSVoice("en-US"), new PicoTTSVoice("en-GB"),
                     new PicoTTSVoice("es-ES"), new PicoTTSVoice("fr-FR"), new PicoTTSVoice("it-IT"))
@@ -39,6 +65,89 @@ public class PicoTTSService implements TTSService {
     private final Set<AudioFormat> audioFormats = Collections.singleton(
             new AudioFormat(AudioFormat.CONTAINER_WAVE, AudioFormat.CODEC_PCM_SIGNED, false, 16, null, 16000L));
 
+    private TTSCache ttsCache;
+    private Future<?> preRenderJob;
+
+    @Reference
+    protected void setTTSCache(TTSCache ttsCache) {
+        this.ttsCache = ttsCache;
+    }
+
+    protected void unsetTTSCache(TTSCache ttsCache) {
+        this.ttsCache = null;
+    }
+
+    @Activate
+    protected void activate(Map<String, Object> config) {
+        modified(config);
+    }
+
+    @Modified
+    protected synchronized void modified(Map<String, Object> config) {
+        if (preRenderJob != null) {
+            preRenderJob.cancel(true);
+        }
+        List<String> phrases = getPhrases(config);
+        if (!phrases.isEmpty()) {
+            preRenderJob = ThreadPoolManager.getPool(getId()).submit(() -> preRender(phrases));
+        }
+    }
+
+    @Deactivate
+    protected synchronized void deactivate() {
+        if (preRenderJob != null) {
+            preRenderJob.cancel(true);
+            preRenderJob = null;
+        }
+    }
+
+    /**
+     * Synthesizes the configured phrases into the cache, so they can be played without delay when they are needed.
+     * Each phrase has the form "&lt;language&gt;:&lt;text&gt;", e.g. "en-US:Someone is at the door".
+     */
+    private void preRender(List<String> phrases) {
+        AudioFormat audioFormat = audioFormats.iterator().next();
+        for (String phrase : phrases) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            int separator = phrase.indexOf(':');
+            String language = separator < 0 ? "" : phrase.substring(0, separator).trim();
+            String text = phrase.substring(separator + 1).trim();
+            Voice voice = voices.stream().filter(v -> v.getLabel().equalsIgnoreCase(language)).findAny()
+                    .orElse(null);
+            if (voice == null || text.isEmpty()) {
+                logger.warn("Ignoring phrase '{}', it must have the form '<language>:<text>'", phrase);
+                continue;
+            }
+            try {
+                ttsCache.get(this, text, voice, audioFormat, () -> synthesizeAudio(text, voice, audioFormat))
+                        .close();
+                logger.debug("Pre-rendered phrase '{}'", phrase);
+            } catch (TTSException | IOException e) {
+                logger.warn("Could not pre-render phrase '{}': {}", phrase, e.getMessage());
+            }
+        }
+    }
+
+    private static List<String> getPhrases(Map<String, Object> config) {
+        List<String> phrases = new ArrayList<>();
+        Object value = config.get(CONFIG_PHRASES);
+        if (value instanceof String) {
+            // Phrases may contain commas, so only line breaks separate them
+            for (String phrase : ((String) value).split("\\R")) {
+                if (!phrase.trim().isEmpty()) {
+                    phrases.add(phrase.trim());
+                }
+            }
+        } else if (value instanceof Iterable) {
+            for (Object phrase : (Iterable<?>) value) {
+                phrases.add(phrase.toString().trim());
+            }
+        }
+        return phrases;
+    }
+
     @Override
     public Set<Voice> getAvailableVoices() {
         return this.voices;
@@ -67,9 +176,13 @@ public class PicoTTSService implements TTSService {
             throw new TTSException("The passed AudioFormat is unsupported");
         }
 
-        try {
-            return new PicoTTSAudioStream(text, voice, requestedFormat);
-        } catch (AudioException e) {
+        return ttsCache.get(this, text, voice, requestedFormat, () -> synthesizeAudio(text, voice, requestedFormat));
+    }
+
+    private byte[] synthesizeAudio(String text, Voice voice, AudioFormat requestedFormat) throws TTSException {
+        try (PicoTTSAudioStream audioStream = new PicoTTSAudioStream(text, voice, requestedFormat)) {
+            return IOUtils.toByteArray(audioStream);
+        } catch (AudioException | IOException e) {
             throw new TTSException(e);
         }
     }
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.voice.TTSException;
+import org.eclipse.smarthome.core.voice.TTSService;
+import org.eclipse.smarthome.core.voice.Voice;
+
+/**
+ * A cache for synthesized speech that can be shared by all {@link TTSService}s.
+ *
+ * The cache keeps recently used audio in memory and all audio up to a configured size on disk. If the disk cache is
+ * full, the least recently used audio is removed.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public interface TTSCache {
+
+    /**
+     * Synthesizes the audio if it is not cached yet.
+     */
+    @FunctionalInterface
+    interface Synthesizer {
+        /**
+         * @return The complete audio data
+         * @throws TTSException if the text could not be synthesized
+         */
+        byte[] synthesize() throws TTSException;
+    }
+
+    /**
+     * Returns the cached audio for the given text or synthesizes and caches it.
+     *
+     * @param service The service that synthesizes the text
+     * @param text The text
+     * @param voice The voice
+     * @param format The format of the audio
+     * @param settings Further settings of the service which change the audio, for example the speaking rate. Audio
+     *            of different settings is cached separately.
+     * @param synthesizer Synthesizes the audio if it is not cached
+     * @return A stream of the audio
+     * @throws TTSException if the text is not cached and could not be synthesized
+     */
+    AudioStream get(TTSService service, String text, Voice voice, AudioFormat format, String settings,
+            Synthesizer synthesizer) throws TTSException;
+
+    /**
+     * Returns the cached audio for the given text or synthesizes and caches it.
+     *
+     * @see #get(TTSService, String, Voice, AudioFormat, String, Synthesizer)
+     */
+    default AudioStream get(TTSService service, String text, Voice voice, AudioFormat format,
+            Synthesizer synthesizer) throws TTSException {
+        return get(service, text, voice, format, "", synthesizer);
+    }
+
+    /**
+     * Removes all cached audio of the given service.
+     */
+    void purge(TTSService service);
+
+    /**
+     * Returns the statistics of this cache since it was started.
+     */
+    TTSCacheStatistics getStatistics();
+}
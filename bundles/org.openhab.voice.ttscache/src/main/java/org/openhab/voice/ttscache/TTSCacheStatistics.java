@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The statistics of a {@link TTSCache}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class TTSCacheStatistics {
+    private final long memoryHits;
+    private final long diskHits;
+    private final long misses;
+    private final int memoryEntries;
+    private final long memorySize;
+    private final int diskEntries;
+    private final long diskSize;
+
+    public TTSCacheStatistics(long memoryHits, long diskHits, long misses, int memoryEntries, long memorySize,
+            int diskEntries, long diskSize) {
+        this.memoryHits = memoryHits;
+        this.diskHits = diskHits;
+        this.misses = misses;
+        this.memoryEntries = memoryEntries;
+        this.memorySize = memorySize;
+        this.diskEntries = diskEntries;
+        this.diskSize = diskSize;
+    }
+
+    /**
+     * Returns the number of requests that were served from memory.
+     */
+    public long getMemoryHits() {
+        return memoryHits;
+    }
+
+    /**
+     * Returns the number of requests that were served from disk.
+     */
+    public long getDiskHits() {
+        return diskHits;
+    }
+
+    /**
+     * Returns the number of requests that had to be synthesized.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the ratio of requests that were served from the cache, between 0 and 1.
+     */
+    public double getHitRate() {
+        long requests = memoryHits + diskHits + misses;
+        return requests == 0 ? 0 : (double) (memoryHits + diskHits) / requests;
+    }
+
+    public int getMemoryEntries() {
+        return memoryEntries;
+    }
+
+    /**
+     * Returns the size of the audio in memory in bytes.
+     */
+    public long getMemorySize() {
+        return memorySize;
+    }
+
+    public int getDiskEntries() {
+        return diskEntries;
+    }
+
+    /**
+     * Returns the size of the audio on disk in bytes.
+     */
+    public long getDiskSize() {
+        return diskSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hit rate %.1f%% (memory hits %d, disk hits %d, misses %d), "
+                + "memory %d entries / %d bytes, disk %d entries / %d bytes", getHitRate() * 100, memoryHits, diskHits,
+                misses, memoryEntries, memorySize, diskEntries, diskSize);
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps audio in files of a folder, up to a maximum size in bytes. Thread safe: only the index is locked, files are read
+ * and written without holding the lock.
+ *
+ * The index of all files and their sizes is kept in memory, in the order of their last use. It is rebuilt from the
+ * folder on start, the last modification time of a file is updated on every use to keep this order across restarts.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class DiskCache {
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final Logger logger = LoggerFactory.getLogger(DiskCache.class);
+
+    private final File folder;
+    // In access order, the least recently used entry comes first
+    private final Map<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxSize;
+    private long size;
+
+    DiskCache(File folder, long maxSize) {
+        this.folder = folder;
+        this.maxSize = maxSize;
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        File[] files = folder.listFiles(File::isFile);
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (File file : files) {
+                if (file.getName().endsWith(TEMP_FILE_SUFFIX)) {
+                    // Left over from an interrupted write
+                    file.delete();
+                } else {
+                    index.put(file.getName(), file.length());
+                    size += file.length();
+                }
+            }
+        }
+        evict();
+    }
+
+    @Nullable
+    byte[] get(String key) {
+        if (!contains(key)) {
+            return null;
+        }
+        File file = new File(folder, key);
+        try {
+            byte[] audio = Files.readAllBytes(file.toPath());
+            file.setLastModified(System.currentTimeMillis());
+            return audio;
+        } catch (IOException e) {
+            // The entry may have been evicted meanwhile
+            logger.debug("Could not read cached audio {}: {}", file, e.getMessage());
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Marks the entry as the most recently used one, without reading it.
+     */
+    void touch(String key) {
+        if (contains(key)) {
+            new File(folder, key).setLastModified(System.currentTimeMillis());
+        }
+    }
+
+    void put(String key, byte[] audio) {
+        synchronized (this) {
+            if (audio.length > maxSize) {
+                return;
+            }
+        }
+        File file = new File(folder, key);
+        @Nullable
+        File tempFile = null;
+        try {
+            // Concurrent writers of the same key use their own temporary file
+            tempFile = Files.createTempFile(folder.toPath(), key, TEMP_FILE_SUFFIX).toFile();
+            Files.write(tempFile.toPath(), audio);
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Could not write {} to cache: {}", file, e.getMessage());
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+            return;
+        }
+        synchronized (this) {
+            Long previous = index.put(key, (long) audio.length);
+            if (previous != null) {
+                size -= previous;
+            }
+            size += audio.length;
+            evict();
+        }
+    }
+
+    /**
+     * Returns true if the entry exists and marks it as the most recently used one.
+     */
+    private synchronized boolean contains(String key) {
+        return index.get(key) != null;
+    }
+
+    /**
+     * Removes all entries whose key starts with the given prefix.
+     */
+    synchronized void removeAll(String prefix) {
+        Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                size -= entry.getValue();
+                new File(folder, entry.getKey()).delete();
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        evict();
+    }
+
+    synchronized int getEntries() {
+        return index.size();
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    private synchronized void remove(String key) {
+        Long length = index.remove(key);
+        if (length != null) {
+            size -= length;
+            new File(folder, key).delete();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            size -= entry.getValue();
+            new File(folder, entry.getKey()).delete();
+            iterator.remove();
+        }
+    }
+}
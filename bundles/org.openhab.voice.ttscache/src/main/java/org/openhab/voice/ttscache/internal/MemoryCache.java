@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Keeps the most recently used audio in memory, up to a maximum size in bytes. Not thread safe.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class MemoryCache {
+    // In access order, the least recently used entry comes first
+    private final Map<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxSize;
+    private long size;
+
+    MemoryCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @Nullable
+    byte[] get(String key) {
+        return entries.get(key);
+    }
+
+    void put(String key, byte[] audio) {
+        if (audio.length > maxSize) {
+            return;
+        }
+        byte[] previous = entries.put(key, audio);
+        if (previous != null) {
+            size -= previous.length;
+        }
+        size += audio.length;
+        evict();
+    }
+
+    /**
+     * Removes all entries whose key starts with the given prefix.
+     */
+    void removeAll(String prefix) {
+        Iterator<Map.Entry<String, byte[]>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, byte[]> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                size -= entry.getValue().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+        evict();
+    }
+
+    int getEntries() {
+        return entries.size();
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    private void evict() {
+        Iterator<byte[]> iterator = entries.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            size -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+}
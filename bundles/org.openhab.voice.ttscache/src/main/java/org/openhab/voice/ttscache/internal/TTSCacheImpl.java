@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache.internal;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.config.core.ConfigurableService;
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.audio.ByteArrayAudioStream;
+import org.eclipse.smarthome.core.voice.TTSException;
+import org.eclipse.smarthome.core.voice.TTSService;
+import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.voice.ttscache.TTSCache;
+import org.openhab.voice.ttscache.TTSCacheStatistics;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Modified;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link TTSCache} of all text-to-speech services. The audio is stored in the folder
+ * userdata/cache/org.openhab.voice.ttscache.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = TTSCache.class, configurationPid = TTSCacheImpl.SERVICE_PID, property = {
+        Constants.SERVICE_PID + "=" + TTSCacheImpl.SERVICE_PID,
+        ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=voice:ttscache",
+        ConfigurableService.SERVICE_PROPERTY_LABEL + "=Text-to-Speech Cache",
+        ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=voice" })
+public class TTSCacheImpl implements TTSCache {
+    static final String SERVICE_PID = "org.openhab.voice.ttscache";
+
+    private static final String CONFIG_MEMORY_CACHE_SIZE = "memoryCacheSize";
+    private static final String CONFIG_DISK_CACHE_SIZE = "diskCacheSize";
+    private static final long DEFAULT_MEMORY_CACHE_SIZE_KB = 1024;
+    private static final long DEFAULT_DISK_CACHE_SIZE_MB = 50;
+
+    private final Logger logger = LoggerFactory.getLogger(TTSCacheImpl.class);
+
+    private @Nullable MemoryCache memoryCache;
+    private @Nullable DiskCache diskCache;
+    private long memoryHits;
+    private long diskHits;
+    private long misses;
+
+    @Activate
+    protected void activate(Map<String, Object> config) {
+        File cacheFolder = new File(new File(ConfigConstants.getUserDataFolder(), "cache"), SERVICE_PID);
+        logger.debug("Using TTS cache folder {}", cacheFolder.getAbsolutePath());
+        activate(cacheFolder, getMemoryCacheSize(config), getDiskCacheSize(config));
+    }
+
+    synchronized void activate(File cacheFolder, long memoryCacheSize, long diskCacheSize) {
+        memoryCache = new MemoryCache(memoryCacheSize);
+        diskCache = new DiskCache(cacheFolder, diskCacheSize);
+    }
+
+    @Modified
+    protected synchronized void modified(Map<String, Object> config) {
+        MemoryCache memoryCache = this.memoryCache;
+        DiskCache diskCache = this.diskCache;
+        if (memoryCache != null && diskCache != null) {
+            memoryCache.setMaxSize(getMemoryCacheSize(config));
+            diskCache.setMaxSize(getDiskCacheSize(config));
+        }
+    }
+
+    @Deactivate
+    protected synchronized void deactivate() {
+        logger.debug("TTS cache statistics: {}", getStatistics());
+        memoryCache = null;
+        diskCache = null;
+    }
+
+    @Override
+    public AudioStream get(TTSService service, String text, Voice voice, AudioFormat format, String settings,
+            Synthesizer synthesizer) throws TTSException {
+        String key = getKey(service, text, voice, format, settings);
+        MemoryCache memoryCache;
+        DiskCache diskCache;
+        byte @Nullable [] audio = null;
+        synchronized (this) {
+            memoryCache = this.memoryCache;
+            diskCache = this.diskCache;
+            if (memoryCache != null && diskCache != null) {
+                audio = memoryCache.get(key);
+            }
+        }
+
+        // The disk cache is thread safe, files are read and written without locking the whole cache
+        if (memoryCache != null && diskCache != null) {
+            if (audio != null) {
+                synchronized (this) {
+                    memoryHits++;
+                }
+                logger.trace("Audio of '{}' found in memory", text);
+                // Keeps the audio on disk as long as it is used
+                diskCache.touch(key);
+                return new ByteArrayAudioStream(audio, format);
+            }
+            audio = diskCache.get(key);
+            if (audio != null) {
+                synchronized (this) {
+                    diskHits++;
+                    memoryCache.put(key, audio);
+                }
+                logger.trace("Audio of '{}' found on disk", text);
+                return new ByteArrayAudioStream(audio, format);
+            }
+        }
+        synchronized (this) {
+            misses++;
+        }
+
+        // Synthesizing may take a while, the cache is not locked meanwhile
+        audio = synthesizer.synthesize();
+        if (memoryCache != null && diskCache != null) {
+            synchronized (this) {
+                memoryCache.put(key, audio);
+            }
+            diskCache.put(key, audio);
+        }
+        return new ByteArrayAudioStream(audio, format);
+    }
+
+    @Override
+    public synchronized void purge(TTSService service) {
+        String prefix = getKeyPrefix(service);
+        MemoryCache memoryCache = this.memoryCache;
+        DiskCache diskCache = this.diskCache;
+        if (memoryCache != null && diskCache != null) {
+            memoryCache.removeAll(prefix);
+            diskCache.removeAll(prefix);
+        }
+        logger.debug("Purged the cached audio of {}", service.getId());
+    }
+
+    @Override
+    public synchronized TTSCacheStatistics getStatistics() {
+        MemoryCache memoryCache = this.memoryCache;
+        DiskCache diskCache = this.diskCache;
+        return new TTSCacheStatistics(memoryHits, diskHits, misses,
+                memoryCache == null ? 0 : memoryCache.getEntries(), memoryCache == null ? 0 : memoryCache.getSize(),
+                diskCache == null ? 0 : diskCache.getEntries(), diskCache == null ? 0 : diskCache.getSize());
+    }
+
+    /**
+     * Returns a key that is unique for the given parameters and can be used as file name. It consists of the id of
+     * the service and a MD5 hash of the other parameters.
+     *
+     * The voice manager completes the format of a service before it requests audio, for example the bit rate is
+     * derived from the bit depth and the frequency. Both variants describe the same audio and get the same key, so
+     * audio that a service pre-rendered with its own format is found again.
+     *
+     * Sample: "voicerss_00a2653ac5f77063bc4ea2fee87318d3"
+     */
+    private String getKey(TTSService service, String text, Voice voice, AudioFormat format, String settings)
+            throws TTSException {
+        Integer bitDepth = format.getBitDepth();
+        Integer bitRate = format.getBitRate();
+        Long frequency = format.getFrequency();
+        if (bitRate == null && bitDepth != null && frequency != null) {
+            bitRate = bitDepth * frequency.intValue();
+        }
+        // The text comes last, all other parameters do not contain line breaks
+        String parameters = voice.getUID() + "\n" + format.getContainer() + "\n" + format.getCodec() + "\n"
+                + format.isBigEndian() + "\n" + bitDepth + "\n" + bitRate + "\n" + frequency + "\n"
+                + settings.replace('\n', ' ') + "\n" + text;
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            byte[] md5Hash = md.digest(parameters.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hashText = new StringBuilder(new BigInteger(1, md5Hash).toString(16));
+            while (hashText.length() < 32) {
+                hashText.insert(0, "0");
+            }
+            return getKeyPrefix(service) + hashText;
+        } catch (NoSuchAlgorithmException e) {
+            // should not happen
+            throw new TTSException("Could not create MD5 hash: " + e.getMessage());
+        }
+    }
+
+    private String getKeyPrefix(TTSService service) {
+        return service.getId().replaceAll("[^a-zA-Z0-9]", "") + "_";
+    }
+
+    private static long getMemoryCacheSize(Map<String, Object> config) {
+        return getLong(config, CONFIG_MEMORY_CACHE_SIZE, DEFAULT_MEMORY_CACHE_SIZE_KB) * 1024;
+    }
+
+    private static long getDiskCacheSize(Map<String, Object> config) {
+        return getLong(config, CONFIG_DISK_CACHE_SIZE, DEFAULT_DISK_CACHE_SIZE_MB) * 1024 * 1024;
+    }
+
+    private static long getLong(Map<String, Object> config, String key, long defaultValue) {
+        Object value = config.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        } else if (value instanceof String) {
+            try {
+                return Long.parseLong(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+}
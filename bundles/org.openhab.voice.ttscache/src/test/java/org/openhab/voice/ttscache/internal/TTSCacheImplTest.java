@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.voice.ttscache.internal;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.smarthome.core.audio.AudioFormat;
+import org.eclipse.smarthome.core.audio.AudioStream;
+import org.eclipse.smarthome.core.voice.TTSException;
+import org.eclipse.smarthome.core.voice.TTSService;
+import org.eclipse.smarthome.core.voice.Voice;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openhab.voice.ttscache.TTSCache.Synthesizer;
+import org.openhab.voice.ttscache.TTSCacheStatistics;
+
+/**
+ * Tests cases for {@link TTSCacheImpl}.
+ *
+ * @author agent - Initial contribution
+ */
+public class TTSCacheImplTest {
+    private static final AudioFormat FORMAT = AudioFormat.MP3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TTSService service;
+    private Voice voice;
+    private AtomicInteger synthesized;
+
+    @Before
+    public void setUp() {
+        service = mock(TTSService.class);
+        when(service.getId()).thenReturn("testtts");
+        voice = mock(Voice.class);
+        when(voice.getUID()).thenReturn("testtts:voice");
+        synthesized = new AtomicInteger();
+    }
+
+    private Synthesizer synthesizer(int size) {
+        return () -> {
+            synthesized.incrementAndGet();
+            return new byte[size];
+        };
+    }
+
+    private static int length(AudioStream stream) throws IOException {
+        return IOUtils.toByteArray(stream).length;
+    }
+
+    @Test
+    public void memoryHit() throws TTSException, IOException {
+        TTSCacheImpl cache = new TTSCacheImpl();
+        cache.activate(folder.getRoot(), 1000, 10000);
+
+        assertEquals(100, length(cache.get(service, "hello", voice, FORMAT, synthesizer(100))));
+        assertEquals(100, length(cache.get(service, "hello", voice, FORMAT, synthesizer(100))));
+
+        assertEquals(1, synthesized.get());
+        TTSCacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, statistics.getMemoryHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(0.5, statistics.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void settingsAreCachedSeparately() throws TTSException {
+        TTSCacheImpl cache = new TTSCacheImpl();
+        cache.activate(folder.getRoot(), 1000, 10000);
+
+        cache.get(service, "hello", voice, FORMAT, "rate=1", synthesizer(100));
+        cache.get(service, "hello", voice, FORMAT, "rate=2", synthesizer(100));
+
+        assertEquals(2, synthesized.get());
+    }
+
+    @Test
+    public void completedFormatFindsPreRenderedAudio() throws TTSException {
+        TTSCacheImpl cache = new TTSCacheImpl();
+        cache.activate(folder.getRoot(), 1000, 10000);
+
+        // The format of the service, and the format the voice manager derives from it
+        AudioFormat serviceFormat = new AudioFormat(AudioFormat.CONTAINER_WAVE, AudioFormat.CODEC_PCM_SIGNED, false,
+                16, null, 16000L);
+        AudioFormat requestedFormat = new AudioFormat(AudioFormat.CONTAINER_WAVE, AudioFormat.CODEC_PCM_SIGNED, false,
+                16, 256000, 16000L);
+        cache.get(service, "hello", voice, serviceFormat, synthesizer(100));
+        cache.get(service, "hello", voice, requestedFormat, synthesizer(100));
+
+        assertEquals(1, synthesized.get());
+    }
+
+    @Test
+    public void diskHitAfterRestart() throws TTSException, IOException {
+        TTSCacheImpl cache = new TTSCacheImpl();
+        cache.activate(folder.getRoot(), 1000, 10000);
+        cache.get(service, "hello", voice, FORMAT, synthesizer(100));
+        cache.deactivate();
+
+        cache = new TTSCacheImpl();
+        cache.activate(folder.getRoot(), 1000, 10000);
+        assertEquals(100, length(cache.get(service, "hello", voice, FORMAT, synthesizer(100))));
+        assertEquals(100, length(cache.get(service, "hello", voice, FORMAT, synthesizer(100))));
+
+        assertEquals(1, synthesized.get());
+        assertEquals(1, cache.getStatistics().getDiskHits());
+        assertEquals(1, cache.getStatistics().getMemoryHits());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() throws TTSException {
+        TTSCacheImpl cache = new TTSCacheImpl();
+        cache.activate(folder.getRoot(), 250, 250);
+
+        cache.get(service, "one", voice, FORMAT, synthesizer(100));
+        cache.get(service, "two", voice, FORMAT, synthesizer(100));
+        cache.get(service, "one", voice, FORMAT, synthesizer(100));
+        cache.get(service, "three", voice, FORMAT, synthesizer(100));
+        assertEquals(3, synthesized.get());
+        assertEquals(2, folder.getRoot().listFiles().length);
+
+        cache.get(service, "one", voice, FORMAT, synthesizer(100));
+        assertEquals(3, synthesized.get());
+        cache.get(service, "two", voice, FORMAT, synthesizer(100));
+        assertEquals(4, synthesized.get());
+
+        TTSCacheStatistics statistics = cache.getStatistics();
+        assertEquals(2, statistics.getDiskEntries());
+        assertEquals(200, statistics.getDiskSize());
+    }
+
+    @Test
+    public void purge() throws TTSException {
+        TTSService otherService = mock(TTSService.class);
+        when(otherService.getId()).thenReturn("othertts");
+        TTSCacheImpl cache = new TTSCacheImpl();
+        cache.activate(folder.getRoot(), 1000, 10000);
+        cache.get(service, "hello", voice, FORMAT, synthesizer(100));
+        cache.get(otherService, "hello", voice, FORMAT, synthesizer(100));
+
+        cache.purge(service);
+
+        File[] files = folder.getRoot().listFiles();
+        assertEquals(1, files.length);
+        assertTrue(files[0].getName().startsWith("othertts_"));
+        cache.get(service, "hello", voice, FORMAT, synthesizer(100));
+        assertEquals(3, synthesized.get());
+    }
+}
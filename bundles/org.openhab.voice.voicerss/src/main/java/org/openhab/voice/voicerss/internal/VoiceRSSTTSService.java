@@ -14,24 +14,28 @@ package org.openhab.voice.voicerss.internal;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.io.IOUtils;
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.config.core.ConfigurableService;
-import org.eclipse.smarthome.core.audio.AudioException;
 import org.eclipse.smarthome.core.audio.AudioFormat;
 import org.eclipse.smarthome.core.audio.AudioStream;
 import org.eclipse.smarthome.core.voice.TTSException;
 import org.eclipse.smarthome.core.voice.TTSService;
 import org.eclipse.smarthome.core.voice.Voice;
+import org.openhab.voice.ttscache.TTSCache;
 import org.openhab.voice.voicerss.internal.cloudapi.CachedVoiceRSSCloudImpl;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,7 +51,7 @@ import org.slf4j.LoggerFactory;
         ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=voice" })
 public class VoiceRSSTTSService implements TTSService {
 
-    /** Cache folder name is below userdata/voicerss/cache. */
+    /** Folder of the prefilled cache is below userdata/voicerss/cache. */
     private static final String CACHE_FOLDER_NAME = "voicerss" + File.separator + "cache";
 
     // API Key comes from ConfigAdmin
@@ -57,10 +61,12 @@ public class VoiceRSSTTSService implements TTSService {
     private final Logger logger = LoggerFactory.getLogger(VoiceRSSTTSService.class);
 
     /**
-     * We need the cached implementation to allow for FixedLengthAudioStream.
+     * We need the cached implementation to use the prefilled cache.
      */
     private CachedVoiceRSSCloudImpl voiceRssImpl;
 
+    private TTSCache ttsCache;
+
     /**
      * Set of supported voices
      */
@@ -87,6 +93,15 @@ public class VoiceRSSTTSService implements TTSService {
         }
     }
 
+    @Reference
+    protected void setTTSCache(TTSCache ttsCache) {
+        this.ttsCache = ttsCache;
+    }
+
+    protected void unsetTTSCache(TTSCache ttsCache) {
+        this.ttsCache = null;
+    }
+
     @Modified
     protected void modified(Map<String, Object> config) {
         if (config != null) {
@@ -136,15 +151,24 @@ public class VoiceRSSTTSService implements TTSService {
 
         // now create the input stream for given text, locale, format. There is
         // only a default voice
+        String locale = voice.getLocale().toLanguageTag();
+        String apiAudioFormat = getApiAudioFormat(requestedFormat);
+        return ttsCache.get(this, trimmedText, voice, requestedFormat,
+                () -> getTextToSpeech(trimmedText, locale, apiAudioFormat));
+    }
+
+    /**
+     * Gets the audio from the prefilled cache or from the VoiceRSS service.
+     */
+    private byte[] getTextToSpeech(String text, String locale, String apiAudioFormat) throws TTSException {
         try {
-            File cacheAudioFile = voiceRssImpl.getTextToSpeechAsFile(apiKey, trimmedText,
-                    voice.getLocale().toLanguageTag(), getApiAudioFormat(requestedFormat));
-            if (cacheAudioFile == null) {
-                throw new TTSException("Could not read from VoiceRSS service");
+            File prefilledAudioFile = voiceRssImpl.getCachedFile(text, locale, apiAudioFormat);
+            if (prefilledAudioFile != null) {
+                return Files.readAllBytes(prefilledAudioFile.toPath());
+            }
+            try (InputStream audio = voiceRssImpl.getTextToSpeech(apiKey, text, locale, apiAudioFormat)) {
+                return IOUtils.toByteArray(audio);
             }
-            return new VoiceRSSAudioStream(cacheAudioFile, requestedFormat);
-        } catch (AudioException ex) {
-            throw new TTSException("Could not create AudioStream: " + ex.getMessage(), ex);
         } catch (IOException ex) {
             throw new TTSException("Could not read from VoiceRSS service: " + ex.getMessage(), ex);
         }
@@ -31,6 +31,9 @@ import org.slf4j.LoggerFactory;
  * them in file system, as audio files with an additional .txt file to indicate
  * what content is in the audio file.
  *
+ * The service only reads from this cache, it is filled in advance by the
+ * {@link org.openhab.voice.voicerss.tool.CreateTTSCache} tool.
+ *
  * @author Jochen Hiller - Initial contribution
  */
 public class CachedVoiceRSSCloudImpl extends VoiceRSSCloudImpl {
@@ -55,11 +58,19 @@ public class CachedVoiceRSSCloudImpl extends VoiceRSSCloudImpl {
         }
     }
 
+    /**
+     * Returns the audio file of the given text if it is in the cache, otherwise null.
+     */
+    public File getCachedFile(String text, String locale, String audioFormat) {
+        File audioFileInCache = getAudioFileInCache(text, locale, audioFormat);
+        return audioFileInCache.exists() ? audioFileInCache : null;
+    }
+
     public File getTextToSpeechAsFile(String apiKey, String text, String locale, String audioFormat)
             throws IOException {
         String fileNameInCache = getUniqueFilenameForText(text, locale);
         // check if in cache
-        File audioFileInCache = new File(cacheFolder, fileNameInCache + "." + audioFormat.toLowerCase());
+        File audioFileInCache = getAudioFileInCache(text, locale, audioFormat);
         if (audioFileInCache.exists()) {
             return audioFileInCache;
         }
@@ -83,6 +94,10 @@ public class CachedVoiceRSSCloudImpl extends VoiceRSSCloudImpl {
         }
     }
 
+    private File getAudioFileInCache(String text, String locale, String audioFormat) {
+        return new File(cacheFolder, getUniqueFilenameForText(text, locale) + "." + audioFormat.toLowerCase());
+    }
+
     /**
      * Gets a unique filename for a give text, by creating a MD5 hash of it. It
      * will be preceded by the locale.